@@ -17,10 +17,7 @@
  */
 package com.graphhopper.util.shapes;
 
-import com.graphhopper.util.shapes.intersection.CrossProductRedBlueSegmentIntersection;
-import com.graphhopper.util.shapes.intersection.CrossProductRedBlueSegmentIntersectionWithoutCollinear;
-import com.graphhopper.util.shapes.intersection.SegmentIntersectionAlgorithm;
-import org.locationtech.jts.geom.Coordinate;
+import com.graphhopper.util.shapes.intersection.RedBlueSegmentIntersectionType;
 import org.locationtech.jts.geom.LineSegment;
 
 import java.util.ArrayList;
@@ -45,7 +42,8 @@ public class Polygon implements Shape {
     private double maxLat;
     private double maxLon;
 
-    private final double epsilon;
+    // built by the first containment test
+    private PolygonSegmentIndex segmentIndex;
 
     public Polygon(double[] lat, double[] lon, double growFactor) {
         if (lat.length != lon.length) {
@@ -79,8 +77,6 @@ public class Polygon implements Shape {
         minLon -= growFactor;
         maxLat += growFactor;
         maxLon += growFactor;
-
-        epsilon = (maxLat - minLat) / 10;
     }
 
     public Polygon(double[] lat, double[] lon) {
@@ -163,16 +159,22 @@ public class Polygon implements Shape {
     }
 
     private boolean intersects(Polygon o) {
+        return intersects(o, RedBlueSegmentIntersectionType.SWEEP_LINE);
+    }
+
+    /**
+     * @return true if the borders of both polygons intersect or touch, decided by the given algorithm
+     */
+    public boolean intersects(Polygon o, RedBlueSegmentIntersectionType segmentIntersection) {
         final List<LineSegment> thisLineSegments = this.getLineSegmentRepresentation();
         final List<LineSegment> oLineSegments = o.getLineSegmentRepresentation();
 
-        final SegmentIntersectionAlgorithm segmentIntersection = new CrossProductRedBlueSegmentIntersection(thisLineSegments, oLineSegments);
-        return segmentIntersection.isIntersectionPresent();
+        return segmentIntersection.create(thisLineSegments, oLineSegments).isIntersectionPresent();
     }
 
     /**
-     * Implements the ray casting algorithm
-     * Code is inspired from here: http://stackoverflow.com/a/218081/1548788
+     * Implements the ray casting algorithm on a strip index of the polygon segments, see {@link PolygonSegmentIndex}.
+     * Points on the border are contained.
      *
      * @param lat Latitude of the point to be checked
      * @param lon Longitude of the point to be checked
@@ -183,33 +185,29 @@ public class Polygon implements Shape {
             return false;
         }
 
-        final Coordinate pointToCheck = new Coordinate(lon, lat);
-        final List<LineSegment> polygonLineSegments = this.getLineSegmentRepresentation();
-        final boolean rayCastInside = isRayCastInside(pointToCheck, polygonLineSegments);
-        final boolean latLonOnPolygonBorder = isPointOnPolygonBorder(pointToCheck, polygonLineSegments);
-
-        return rayCastInside || latLonOnPolygonBorder;
-    }
-
-    private boolean isRayCastInside(Coordinate pointToCheck, List<LineSegment> polygonLineSegments) {
-        final List<LineSegment> rayLineSegments = getRayAsLineSegmentList(pointToCheck);
-        final CrossProductRedBlueSegmentIntersection intersections = new CrossProductRedBlueSegmentIntersectionWithoutCollinear(rayLineSegments, polygonLineSegments);
-
-        return intersections.getIntersectionCount() % 2 == 1;
+        return getSegmentIndex().contains(lat, lon);
     }
 
-    private List<LineSegment> getRayAsLineSegmentList(Coordinate pointToCheck) {
-        final Coordinate rayStart = new Coordinate(minLon - epsilon, maxLat - (minLat / 2));
-        final LineSegment ray = new LineSegment(rayStart, pointToCheck);
-        return Arrays.asList(new LineSegment[]{ray});
+    private PolygonSegmentIndex getSegmentIndex() {
+        PolygonSegmentIndex index = this.segmentIndex;
+        if (index == null) {
+            // the index is immutable, so concurrent callers at worst build it twice
+            index = new PolygonSegmentIndex(this.lat, this.lon);
+            this.segmentIndex = index;
+        }
+        return index;
     }
 
-    private boolean isPointOnPolygonBorder(Coordinate pointToCheck, List<LineSegment> polygonLineSegments) {
-        boolean latLonOnPolygonBorder = false;
-        for (LineSegment polygonLineSegment : polygonLineSegments) {
-            latLonOnPolygonBorder |= polygonLineSegment.distance(pointToCheck) == 0.0;
+    /**
+     * @return true if the border of this polygon intersects or touches the box. Otherwise the box lies either
+     * completely inside or completely outside of this polygon, which a single containment test of any box point tells.
+     */
+    public boolean intersectsBorder(final BBox box) {
+        if (box.maxLat < minLat || box.minLat > maxLat || box.maxLon < minLon || box.minLon > maxLon) {
+            return false;
         }
-        return latLonOnPolygonBorder;
+
+        return getSegmentIndex().intersectsBorder(box.minLat, box.minLon, box.maxLat, box.maxLon);
     }
 
     public boolean isOverlapping(final BBox boundingBox) {
@@ -353,6 +351,11 @@ public class Polygon implements Shape {
         }
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(this.lat) + Arrays.hashCode(this.lon);
+    }
+
     public List<LineSegment> getLineSegmentRepresentation() {
         final List<LineSegment> segments = new ArrayList<>(this.lat.length);
 
@@ -0,0 +1,159 @@
+package com.graphhopper.util.shapes;
+
+/**
+ * Prepared form of a polygon for repeated point in polygon tests. The latitude range of the polygon is divided into
+ * horizontal strips of equal height and every strip knows the segments that reach into it. A test only casts its ray
+ * against the segments of the strip that contains the point, so it neither allocates nor looks at the whole polygon.
+ * Segment i connects the vertices i and i + 1, the last one closes the ring.
+ */
+final class PolygonSegmentIndex {
+    private final double[] lat;
+    private final double[] lon;
+    private final double minLat;
+    private final double maxLat;
+    private final double stripHeight;
+    private final int stripCount;
+    // the segments of strip s are segments[firstSegments[s]] until segments[firstSegments[s + 1]] exclusive
+    private final int[] firstSegments;
+    private final int[] segments;
+
+    PolygonSegmentIndex(final double[] lat, final double[] lon) {
+        this.lat = lat;
+        this.lon = lon;
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double vertexLat : lat) {
+            min = Math.min(min, vertexLat);
+            max = Math.max(max, vertexLat);
+        }
+        this.minLat = min;
+        this.maxLat = max;
+        this.stripCount = Math.max(1, lat.length);
+        this.stripHeight = (max - min) / stripCount;
+
+        this.firstSegments = new int[stripCount + 1];
+        for (int segment = 0; segment < lat.length; segment++) {
+            for (int strip = getFirstStrip(segment); strip <= getLastStrip(segment); strip++) {
+                firstSegments[strip + 1]++;
+            }
+        }
+        for (int strip = 0; strip < stripCount; strip++) {
+            firstSegments[strip + 1] += firstSegments[strip];
+        }
+
+        this.segments = new int[firstSegments[stripCount]];
+        final int[] nextPositions = new int[stripCount];
+        System.arraycopy(firstSegments, 0, nextPositions, 0, stripCount);
+        for (int segment = 0; segment < lat.length; segment++) {
+            for (int strip = getFirstStrip(segment); strip <= getLastStrip(segment); strip++) {
+                segments[nextPositions[strip]++] = segment;
+            }
+        }
+    }
+
+    private int getFirstStrip(final int segment) {
+        return getStrip(Math.min(lat[segment], lat[next(segment)]));
+    }
+
+    private int getLastStrip(final int segment) {
+        return getStrip(Math.max(lat[segment], lat[next(segment)]));
+    }
+
+    private int getStrip(final double pointLat) {
+        if (stripHeight == 0) {
+            return 0;
+        }
+        return Math.max(0, Math.min(stripCount - 1, (int) ((pointLat - minLat) / stripHeight)));
+    }
+
+    private int next(final int vertex) {
+        return vertex + 1 == lat.length ? 0 : vertex + 1;
+    }
+
+    /**
+     * Even-odd rule with a ray to the east of the point. Points on the border are contained.
+     */
+    boolean contains(final double pointLat, final double pointLon) {
+        if (pointLat < minLat || pointLat > maxLat) {
+            return false;
+        }
+
+        final int strip = getStrip(pointLat);
+        boolean inside = false;
+        for (int i = firstSegments[strip]; i < firstSegments[strip + 1]; i++) {
+            final int segment = segments[i];
+            final double lat0 = lat[segment];
+            final double lon0 = lon[segment];
+            final double lat1 = lat[next(segment)];
+            final double lon1 = lon[next(segment)];
+
+            if (isOnSegment(pointLat, pointLon, lat0, lon0, lat1, lon1)) {
+                return true;
+            }
+            // half open in latitude, so a ray through a vertex counts it for exactly one of its segments
+            if ((lat0 > pointLat) != (lat1 > pointLat)) {
+                final double crossingLon = lon0 + (pointLat - lat0) * (lon1 - lon0) / (lat1 - lat0);
+                if (pointLon < crossingLon) {
+                    inside = !inside;
+                }
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * @return true if a segment intersects or touches the box. Otherwise the box lies either completely inside or
+     * completely outside of the polygon.
+     */
+    boolean intersectsBorder(final double boxMinLat, final double boxMinLon, final double boxMaxLat, final double boxMaxLon) {
+        if (boxMaxLat < minLat || boxMinLat > maxLat) {
+            return false;
+        }
+
+        final int lastStrip = getStrip(Math.min(boxMaxLat, maxLat));
+        for (int strip = getStrip(Math.max(boxMinLat, minLat)); strip <= lastStrip; strip++) {
+            for (int i = firstSegments[strip]; i < firstSegments[strip + 1]; i++) {
+                final int segment = segments[i];
+                if (intersectsBox(lat[segment], lon[segment], lat[next(segment)], lon[next(segment)], boxMinLat, boxMinLon,
+                                  boxMaxLat, boxMaxLon)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Separating axis test: the segment misses the box if their bounding boxes are disjoint or all box corners lie
+     * strictly on the same side of the line through the segment.
+     */
+    private static boolean intersectsBox(final double lat0, final double lon0, final double lat1, final double lon1,
+                                         final double boxMinLat, final double boxMinLon, final double boxMaxLat,
+                                         final double boxMaxLon) {
+        if (Math.max(lat0, lat1) < boxMinLat || Math.min(lat0, lat1) > boxMaxLat ||
+            Math.max(lon0, lon1) < boxMinLon || Math.min(lon0, lon1) > boxMaxLon) {
+            return false;
+        }
+
+        final int sideOfCorner = getSide(lat0, lon0, lat1, lon1, boxMinLat, boxMinLon);
+        return sideOfCorner == 0 ||
+               getSide(lat0, lon0, lat1, lon1, boxMinLat, boxMaxLon) != sideOfCorner ||
+               getSide(lat0, lon0, lat1, lon1, boxMaxLat, boxMinLon) != sideOfCorner ||
+               getSide(lat0, lon0, lat1, lon1, boxMaxLat, boxMaxLon) != sideOfCorner;
+    }
+
+    private static int getSide(final double lat0, final double lon0, final double lat1, final double lon1,
+                               final double pointLat, final double pointLon) {
+        return (int) Math.signum((lon1 - lon0) * (pointLat - lat0) - (lat1 - lat0) * (pointLon - lon0));
+    }
+
+    private static boolean isOnSegment(final double pointLat, final double pointLon, final double lat0, final double lon0,
+                                       final double lat1, final double lon1) {
+        if (pointLat < Math.min(lat0, lat1) || pointLat > Math.max(lat0, lat1) ||
+            pointLon < Math.min(lon0, lon1) || pointLon > Math.max(lon0, lon1)) {
+            return false;
+        }
+        return (lon1 - lon0) * (pointLat - lat0) - (lat1 - lat0) * (pointLon - lon0) == 0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.graphhopper.util.shapes.intersection;
+
+import org.locationtech.jts.geom.LineSegment;
+
+import java.util.List;
+
+/**
+ * Selects one of the red blue segment intersection algorithms, e.g. for {@link com.graphhopper.util.shapes.Polygon}.
+ */
+public enum RedBlueSegmentIntersectionType {
+    CROSS_PRODUCT {
+        @Override
+        public SegmentIntersectionAlgorithm create(final List<LineSegment> redSegments, final List<LineSegment> blueSegments) {
+            return new CrossProductRedBlueSegmentIntersection(redSegments, blueSegments);
+        }
+    },
+    CROSS_PRODUCT_WITHOUT_COLLINEAR {
+        @Override
+        public SegmentIntersectionAlgorithm create(final List<LineSegment> redSegments, final List<LineSegment> blueSegments) {
+            return new CrossProductRedBlueSegmentIntersectionWithoutCollinear(redSegments, blueSegments);
+        }
+    },
+    SWEEP_LINE {
+        @Override
+        public SegmentIntersectionAlgorithm create(final List<LineSegment> redSegments, final List<LineSegment> blueSegments) {
+            return new SweepLineRedBlueSegmentIntersection(redSegments, blueSegments);
+        }
+    };
+
+    public abstract SegmentIntersectionAlgorithm create(List<LineSegment> redSegments, List<LineSegment> blueSegments);
+}
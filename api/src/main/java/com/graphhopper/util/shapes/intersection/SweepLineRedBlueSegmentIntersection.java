@@ -0,0 +1,200 @@
+package com.graphhopper.util.shapes.intersection;
+
+import org.locationtech.jts.algorithm.Orientation;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.LineSegment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sweeps a vertical line over the segments from west to east and only compares segments of different colors that are
+ * crossed by the sweep line at the same time and overlap in latitude. Segments that are far apart are never tested
+ * against each other and the search for any intersection stops at the first one. Touching and collinear overlapping
+ * segments intersect as in {@link CrossProductRedBlueSegmentIntersection} and the intersections are reported in the
+ * same order.
+ * <p>
+ * The active segments are kept in plain lists, not in a status structure ordered by latitude. If many segments overlap
+ * in longitude, e.g. long east-west segments or two polygons stacked on top of each other, all of them are active at
+ * once and the sweep is as quadratic as the cross product.
+ */
+public class SweepLineRedBlueSegmentIntersection implements SegmentIntersectionAlgorithm {
+    final List<LineSegment> redSegments;
+    final List<LineSegment> blueSegments;
+
+    public SweepLineRedBlueSegmentIntersection(final List<LineSegment> redSegments, final List<LineSegment> blueSegments) {
+        this.redSegments = redSegments;
+        this.blueSegments = blueSegments;
+    }
+
+    @Override
+    public boolean isIntersectionPresent() {
+        return sweep(true).length > 0;
+    }
+
+    @Override
+    public int getIntersectionCount() {
+        return sweep(false).length;
+    }
+
+    @Override
+    public List<Coordinate> getIntersections() {
+        final long[] intersectingPairs = sweep(false);
+        final List<Coordinate> intersections = new ArrayList<>(intersectingPairs.length);
+
+        for (long pair : intersectingPairs) {
+            final LineSegment redLineSegment = redSegments.get(getRed(pair));
+            final LineSegment blueLineSegment = blueSegments.get(getBlue(pair));
+            intersections.add(redLineSegment.intersection(blueLineSegment));
+        }
+
+        return intersections;
+    }
+
+    /**
+     * @return the intersecting red blue pairs ordered by red and then by blue segment
+     */
+    private long[] sweep(final boolean stopAtFirstIntersection) {
+        final int redCount = redSegments.size();
+        final int[] segmentsByWesternEnd = sortByWesternEnd();
+
+        final ActiveSegments activeRed = new ActiveSegments();
+        final ActiveSegments activeBlue = new ActiveSegments();
+        long[] intersectingPairs = new long[16];
+        int pairCount = 0;
+
+        for (int segment : segmentsByWesternEnd) {
+            final boolean red = segment < redCount;
+            final LineSegment lineSegment = getSegment(segment);
+            final ActiveSegments otherColor = red ? activeBlue : activeRed;
+            otherColor.removeEndedBefore(lineSegment.minX());
+
+            for (int i = 0; i < otherColor.size; i++) {
+                final int other = otherColor.segments[i];
+                final LineSegment redLineSegment = red ? lineSegment : getSegment(other);
+                final LineSegment blueLineSegment = red ? getSegment(other) : lineSegment;
+                if (!intersectionExists(redLineSegment, blueLineSegment)) {
+                    continue;
+                }
+
+                if (pairCount == intersectingPairs.length) {
+                    intersectingPairs = Arrays.copyOf(intersectingPairs, pairCount * 2);
+                }
+                intersectingPairs[pairCount++] = red ? toPair(segment, other - redCount) : toPair(other, segment - redCount);
+                if (stopAtFirstIntersection) {
+                    return Arrays.copyOf(intersectingPairs, pairCount);
+                }
+            }
+
+            (red ? activeRed : activeBlue).add(segment, lineSegment.maxX());
+        }
+
+        final long[] result = Arrays.copyOf(intersectingPairs, pairCount);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Sorts the segment ids by the western end of their segments with a stable merge sort, i.e. segments with the same
+     * western end stay ordered by id.
+     */
+    private int[] sortByWesternEnd() {
+        final int count = redSegments.size() + blueSegments.size();
+        final double[] westernEnds = new double[count];
+        int[] segments = new int[count];
+        for (int i = 0; i < count; i++) {
+            westernEnds[i] = getSegment(i).minX();
+            segments[i] = i;
+        }
+
+        int[] buffer = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int start = 0; start < count; start += 2 * width) {
+                final int middle = Math.min(start + width, count);
+                final int end = Math.min(start + 2 * width, count);
+                int left = start;
+                int right = middle;
+                for (int i = start; i < end; i++) {
+                    if (right >= end || (left < middle && westernEnds[segments[left]] <= westernEnds[segments[right]])) {
+                        buffer[i] = segments[left++];
+                    } else {
+                        buffer[i] = segments[right++];
+                    }
+                }
+            }
+            final int[] sorted = buffer;
+            buffer = segments;
+            segments = sorted;
+        }
+        return segments;
+    }
+
+    private LineSegment getSegment(final int segment) {
+        final int redCount = redSegments.size();
+        return segment < redCount ? redSegments.get(segment) : blueSegments.get(segment - redCount);
+    }
+
+    private long toPair(final int red, final int blue) {
+        return (long) red * blueSegments.size() + blue;
+    }
+
+    private int getRed(final long pair) {
+        return (int) (pair / blueSegments.size());
+    }
+
+    private int getBlue(final long pair) {
+        return (int) (pair % blueSegments.size());
+    }
+
+    /**
+     * Same decision as {@link LineSegment#intersection(LineSegment)} != null, but without computing the intersection.
+     */
+    boolean intersectionExists(final LineSegment redLineSegment, final LineSegment blueLineSegment) {
+        if (redLineSegment.maxY() < blueLineSegment.minY() || blueLineSegment.maxY() < redLineSegment.minY() ||
+            redLineSegment.maxX() < blueLineSegment.minX() || blueLineSegment.maxX() < redLineSegment.minX()) {
+            return false;
+        }
+
+        final int blueP0 = Orientation.index(redLineSegment.p0, redLineSegment.p1, blueLineSegment.p0);
+        final int blueP1 = Orientation.index(redLineSegment.p0, redLineSegment.p1, blueLineSegment.p1);
+        if (blueP0 * blueP1 > 0) {
+            return false;
+        }
+
+        final int redP0 = Orientation.index(blueLineSegment.p0, blueLineSegment.p1, redLineSegment.p0);
+        final int redP1 = Orientation.index(blueLineSegment.p0, blueLineSegment.p1, redLineSegment.p1);
+        return redP0 * redP1 <= 0;
+    }
+
+    /**
+     * Segments of one color that the sweep line may still cross.
+     */
+    private static final class ActiveSegments {
+        private int[] segments = new int[16];
+        private double[] easternEnds = new double[16];
+        private int size = 0;
+
+        private void add(final int segment, final double easternEnd) {
+            if (size == segments.length) {
+                segments = Arrays.copyOf(segments, size * 2);
+                easternEnds = Arrays.copyOf(easternEnds, size * 2);
+            }
+            segments[size] = segment;
+            easternEnds[size] = easternEnd;
+            size++;
+        }
+
+        private void removeEndedBefore(final double x) {
+            for (int i = 0; i < size; ) {
+                if (easternEnds[i] < x) {
+                    size--;
+                    segments[i] = segments[size];
+                    easternEnds[i] = easternEnds[size];
+                } else {
+                    i++;
+                }
+            }
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.graphhopper.util.shapes;
 
+import com.graphhopper.util.shapes.intersection.RedBlueSegmentIntersectionType;
 import org.junit.Before;
 import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.LineSegment;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -113,6 +117,58 @@ public class PolygonTest {
         assertFalse(this.u.contains(30, 40));
     }
 
+    @Test
+    public void testIntersectsPolygonWithEverySegmentIntersection() {
+        final Polygon overlapping = new Polygon(new double[]{15, 25, 25, 15}, new double[]{15, 15, 25, 25});
+        final Polygon apart = new Polygon(new double[]{30, 40, 40, 30}, new double[]{30, 30, 40, 40});
+
+        for (RedBlueSegmentIntersectionType type : RedBlueSegmentIntersectionType.values()) {
+            assertTrue(type.name(), this.square.intersects(overlapping, type));
+            assertFalse(type.name(), this.square.intersects(apart, type));
+        }
+    }
+
+    @Test
+    public void testRayThroughVerticesOfZigzag() {
+        final Polygon zigzag = new Polygon(new double[]{0, 10, 0, 10, 0, -10}, new double[]{0, 10, 20, 30, 40, 20});
+
+        assertTrue(zigzag.contains(0, 10));
+        assertTrue(zigzag.contains(0, 30));
+        assertTrue(zigzag.contains(-5, 20));
+        assertFalse(zigzag.contains(5, 20));
+        assertFalse(zigzag.contains(0, -1));
+        assertFalse(zigzag.contains(0, 41));
+    }
+
+    @Test
+    public void testContainsEqualsJtsForManyVertices() {
+        final int vertices = 5000;
+        final double[] lats = new double[vertices];
+        final double[] lons = new double[vertices];
+        final Coordinate[] ring = new Coordinate[vertices + 1];
+        final Random random = new Random(42);
+        for (int i = 0; i < vertices; i++) {
+            final double angle = 2 * Math.PI * i / vertices;
+            final double radius = 5 + 5 * random.nextDouble();
+            lats[i] = 50 + radius * Math.sin(angle);
+            lons[i] = 10 + radius * Math.cos(angle);
+            ring[i] = new Coordinate(lons[i], lats[i]);
+        }
+        ring[vertices] = ring[0];
+        final Polygon star = new Polygon(lats, lons);
+        final org.locationtech.jts.geom.Polygon jtsStar = new GeometryFactory().createPolygon(ring);
+
+        for (int i = 0; i < 10000; i++) {
+            final double lat = 38 + 24 * random.nextDouble();
+            final double lon = -2 + 24 * random.nextDouble();
+            final boolean expected = jtsStar.covers(new GeometryFactory().createPoint(new Coordinate(lon, lat)));
+            assertEquals("lat " + lat + " lon " + lon, expected, star.contains(lat, lon));
+        }
+        for (int i = 0; i < vertices; i++) {
+            assertTrue(star.contains(lats[i], lons[i]));
+        }
+    }
+
     @Test
     public void testCorrectMinMaxLatLonSquare() {
         assertEquals(0, this.square.getMinLat(), 0);
@@ -228,6 +284,41 @@ public class PolygonTest {
         return u;
     }
 
+    @Test
+    public void testIntersectsBorderOfU() {
+        assertFalse(this.u.intersectsBorder(new BBox(2, 18, 2, 8)));
+        assertFalse(this.u.intersectsBorder(new BBox(25, 35, 12, 18)));
+        assertFalse(this.u.intersectsBorder(new BBox(70, 80, 0, 20)));
+        assertTrue(this.u.intersectsBorder(new BBox(15, 45, 5, 15)));
+        assertTrue(this.u.intersectsBorder(new BBox(-5, 5, 5, 15)));
+        assertTrue(this.u.intersectsBorder(new BBox(20, 30, 10, 15)));
+        assertTrue(this.u.intersectsBorder(new BBox(-10, 70, -10, 30)));
+        assertTrue(this.u.intersectsBorder(new BBox(60, 70, 0, 5)));
+    }
+
+    @Test
+    public void testBoxWithoutBorderIsInsideOrOutside() {
+        final Random random = new Random(42);
+        for (final Polygon polygon : new Polygon[]{this.square, this.squareHole, this.u}) {
+            for (int i = 0; i < 10000; i++) {
+                final double minLat = -5 + 30 * random.nextDouble();
+                final double minLon = -5 + 70 * random.nextDouble();
+                final double maxLat = minLat + 8 * random.nextDouble();
+                final double maxLon = minLon + 8 * random.nextDouble();
+                final BBox box = new BBox(minLon, maxLon, minLat, maxLat);
+                if (polygon.intersectsBorder(box)) {
+                    continue;
+                }
+
+                final boolean inside = polygon.contains((minLat + maxLat) / 2, (minLon + maxLon) / 2);
+                assertEquals(box.toString(), inside, polygon.contains(minLat, minLon));
+                assertEquals(box.toString(), inside, polygon.contains(minLat, maxLon));
+                assertEquals(box.toString(), inside, polygon.contains(maxLat, minLon));
+                assertEquals(box.toString(), inside, polygon.contains(maxLat, maxLon));
+            }
+        }
+    }
+
     @Test
     public void lineSegmentRepresentation() {
         final Shape testBox = new Polygon(new double[] {-1, -1, 1, 1}, new double[] {-1, 1, 1, -1}, 0);
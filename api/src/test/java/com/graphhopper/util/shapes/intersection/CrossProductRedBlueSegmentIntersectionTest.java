@@ -13,14 +13,14 @@ import static org.junit.Assert.assertEquals;
 public class CrossProductRedBlueSegmentIntersectionTest {
     public final List<LineSegment> redLineSegments = new ArrayList<>(11);
     public final List<LineSegment> blueLineSegments = new ArrayList<>(12);
-    private CrossProductRedBlueSegmentIntersection intersections;
+    private SegmentIntersectionAlgorithm intersections;
 
     public CrossProductRedBlueSegmentIntersectionTest() {
         buildIntersections();
         intersections = new CrossProductRedBlueSegmentIntersection(this.redLineSegments, this.blueLineSegments);
     }
 
-    public void setIntersectionAlgorithm(final CrossProductRedBlueSegmentIntersection intersections) {
+    public void setIntersectionAlgorithm(final SegmentIntersectionAlgorithm intersections) {
         this.intersections = intersections;
     }
 
@@ -0,0 +1,92 @@
+package com.graphhopper.util.shapes.intersection;
+
+import org.junit.Test;
+import org.locationtech.jts.geom.LineSegment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the same test as for CrossProductRedBlueSegmentIntersection and compares both algorithms on random segments.
+ */
+public class SweepLineRedBlueSegmentIntersectionTest {
+    private final CrossProductRedBlueSegmentIntersectionTest crossProductTest = new CrossProductRedBlueSegmentIntersectionTest();
+
+    @Test
+    public void testSameSegmentsAsCrossProduct() {
+        crossProductTest.setIntersectionAlgorithm(new SweepLineRedBlueSegmentIntersection(crossProductTest.redLineSegments,
+                                                                                          crossProductTest.blueLineSegments));
+
+        crossProductTest.correctNumberOfIntersections();
+        crossProductTest.correctIntersectionsFound();
+        crossProductTest.intersectionsFound();
+    }
+
+    @Test
+    public void testRandomSegmentsEqualCrossProduct() {
+        final Random random = new Random(7);
+        for (int run = 0; run < 20; run++) {
+            // integer coordinates produce touching, collinear and vertical segments
+            final List<LineSegment> redLineSegments = createRandomSegments(random, 50);
+            final List<LineSegment> blueLineSegments = createRandomSegments(random, 50);
+
+            final SegmentIntersectionAlgorithm expected = new CrossProductRedBlueSegmentIntersection(redLineSegments, blueLineSegments);
+            final SegmentIntersectionAlgorithm actual = new SweepLineRedBlueSegmentIntersection(redLineSegments, blueLineSegments);
+
+            assertEquals(expected.isIntersectionPresent(), actual.isIntersectionPresent());
+            assertEquals(expected.getIntersectionCount(), actual.getIntersectionCount());
+            assertEquals(expected.getIntersections(), actual.getIntersections());
+        }
+    }
+
+    @Test
+    public void testNegativeAndAlmostEqualWesternEnds() {
+        final Random random = new Random(11);
+        for (int run = 0; run < 20; run++) {
+            // negative western ends that only differ in their last bits must still be sorted exactly
+            final List<LineSegment> redLineSegments = createAlmostEqualSegments(random, 50);
+            final List<LineSegment> blueLineSegments = createAlmostEqualSegments(random, 50);
+
+            final SegmentIntersectionAlgorithm expected = RedBlueSegmentIntersectionType.CROSS_PRODUCT.create(redLineSegments, blueLineSegments);
+            final SegmentIntersectionAlgorithm actual = RedBlueSegmentIntersectionType.SWEEP_LINE.create(redLineSegments, blueLineSegments);
+
+            assertEquals(expected.getIntersectionCount(), actual.getIntersectionCount());
+            assertEquals(expected.getIntersections(), actual.getIntersections());
+        }
+    }
+
+    @Test
+    public void testDisjointSegments() {
+        final List<LineSegment> redLineSegments = new ArrayList<>();
+        redLineSegments.add(new LineSegment(0, 0, 1, 1));
+        final List<LineSegment> blueLineSegments = new ArrayList<>();
+        blueLineSegments.add(new LineSegment(2, 0, 3, 1));
+        blueLineSegments.add(new LineSegment(0, 2, 1, 3));
+
+        final SegmentIntersectionAlgorithm intersection = new SweepLineRedBlueSegmentIntersection(redLineSegments, blueLineSegments);
+
+        assertEquals(false, intersection.isIntersectionPresent());
+        assertEquals(0, intersection.getIntersectionCount());
+    }
+
+    private static List<LineSegment> createAlmostEqualSegments(final Random random, final int count) {
+        final List<LineSegment> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final double x0 = -1 - random.nextInt(4) * Math.ulp(1.0);
+            final double x1 = -1 + random.nextInt(4) * Math.ulp(1.0);
+            segments.add(new LineSegment(x0, random.nextInt(5) - 2, x1, random.nextInt(5) - 2));
+        }
+        return segments;
+    }
+
+    private static List<LineSegment> createRandomSegments(final Random random, final int count) {
+        final List<LineSegment> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            segments.add(new LineSegment(random.nextInt(20), random.nextInt(20), random.nextInt(20), random.nextInt(20)));
+        }
+        return segments;
+    }
+}
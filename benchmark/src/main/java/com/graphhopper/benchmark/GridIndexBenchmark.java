@@ -0,0 +1,22 @@
+package com.graphhopper.benchmark;
+
+import com.graphhopper.storage.index.VisibilityCell;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The lookup of the visibility cells that a polygon around request intersects.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GridIndexBenchmark extends PolygonState {
+    @Benchmark
+    public List<VisibilityCell> getIntersectingVisibilityCells() {
+        return graph.getLocationIndex().getIntersectingVisibilityCells(polygon);
+    }
+}
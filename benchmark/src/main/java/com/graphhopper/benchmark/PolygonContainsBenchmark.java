@@ -0,0 +1,58 @@
+package com.graphhopper.benchmark;
+
+import com.graphhopper.util.shapes.Polygon;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in polygon tests of random points in a slightly enlarged bounding box of a regular polygon, so that roughly
+ * two thirds of the points are inside.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PolygonContainsBenchmark {
+    private static final int POINTS = 1024;
+
+    @Param({"4", "64", "1024"})
+    public int polygonVertices;
+
+    private Polygon polygon;
+    private final double[] latitudes = new double[POINTS];
+    private final double[] longitudes = new double[POINTS];
+
+    @Setup(Level.Trial)
+    public void setUpPoints() {
+        final double[] polygonLatitudes = new double[polygonVertices];
+        final double[] polygonLongitudes = new double[polygonVertices];
+        for (int i = 0; i < polygonVertices; i++) {
+            final double angle = 2 * Math.PI * i / polygonVertices;
+            polygonLatitudes[i] = 49 + Math.sin(angle);
+            polygonLongitudes[i] = 11 + Math.cos(angle);
+        }
+        polygon = new Polygon(polygonLatitudes, polygonLongitudes);
+
+        final Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = 49 + 2.2 * (random.nextDouble() - 0.5);
+            longitudes[i] = 11 + 2.2 * (random.nextDouble() - 0.5);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int contains() {
+        int inside = 0;
+        for (int i = 0; i < POINTS; i++) {
+            if (polygon.contains(latitudes[i], longitudes[i])) {
+                inside++;
+            }
+        }
+        return inside;
+    }
+}
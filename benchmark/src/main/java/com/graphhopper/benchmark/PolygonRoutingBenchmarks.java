@@ -0,0 +1,34 @@
+package com.graphhopper.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all polygon routing benchmarks with the GC profiler for the allocation rate and writes the results, including
+ * the percentiles of the sample time mode, to target/polygon-routing-benchmarks.json. Accepts the usual JMH options,
+ * e.g. a regex to select benchmarks or -p fixture=monaco.osm.gz. Run it from the repository root, so that the OSM files
+ * in core/files are found:
+ * <pre>
+ * mvn -pl benchmark -am package -DskipTests
+ * java -jar benchmark/target/graphhopper-benchmark-*-jar-with-dependencies.jar RPHAST
+ * </pre>
+ */
+public class PolygonRoutingBenchmarks {
+    public static void main(String[] args) throws Exception {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        final ChainedOptionsBuilder options = new OptionsBuilder().
+                parent(commandLineOptions).
+                addProfiler(GCProfiler.class);
+        if (commandLineOptions.getIncludes().isEmpty()) {
+            options.include("com\\.graphhopper\\..*Benchmark\\.");
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON).result("target/polygon-routing-benchmarks.json");
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,197 @@
+package com.graphhopper.benchmark;
+
+import com.graphhopper.GraphHopper;
+import com.graphhopper.reader.osm.GraphHopperOSM;
+import com.graphhopper.routing.ch.CHAlgoFactoryDecorator;
+import com.graphhopper.routing.template.polygonRoutingUtil.RegionOfInterestRoutingGraph;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.weighting.FastestWeighting;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.storage.GraphExtension;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.NodeAccess;
+import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.index.GridIndex;
+import com.graphhopper.util.EdgeExplorer;
+import com.graphhopper.util.EdgeIterator;
+import com.graphhopper.util.Helper;
+import com.graphhopper.util.shapes.BBox;
+import com.graphhopper.util.shapes.Polygon;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A contracted graph with its grid index, either generated as a grid or imported from one of the OSM files in
+ * core/files. Fixtures are created once per benchmark JVM and reused by all benchmarks that ask for the same graph.
+ */
+public class PolygonRoutingFixture {
+    public static final String GRID = "grid";
+    private static final double GRID_SPACING = 0.001;
+    private static final long SEED = 42;
+    private static final Map<String, PolygonRoutingFixture> fixtures = Collections.synchronizedMap(new HashMap<String, PolygonRoutingFixture>());
+
+    private final GraphHopperStorage graph;
+    private final Weighting weighting;
+    private final GridIndex locationIndex;
+
+    private PolygonRoutingFixture(final GraphHopperStorage graph, final Weighting weighting, final GridIndex locationIndex) {
+        this.graph = graph;
+        this.weighting = weighting;
+        this.locationIndex = locationIndex;
+    }
+
+    /**
+     * @param name     either {@link #GRID} or the name of an OSM file in the directory given by the system property
+     *                 graphhopper.files, e.g. andorra.osm.pbf
+     * @param gridSize the number of nodes per row and column of a generated grid
+     */
+    public static PolygonRoutingFixture get(final String name, final int gridSize) {
+        final String key = GRID.equals(name) ? GRID + gridSize : name;
+        synchronized (fixtures) {
+            PolygonRoutingFixture fixture = fixtures.get(key);
+            if (fixture == null) {
+                fixture = GRID.equals(name) ? createGrid(gridSize) : importOSM(name);
+                fixtures.put(key, fixture);
+            }
+            return fixture;
+        }
+    }
+
+    /**
+     * A grid whose nodes are slightly moved at random, so that the cells and the shortest paths are not degenerated.
+     * The same size always gives the same graph.
+     */
+    static PolygonRoutingFixture createGrid(final int size) {
+        final FlagEncoder encoder = new CarFlagEncoder();
+        final EncodingManager encodingManager = EncodingManager.create(encoder);
+        final Weighting weighting = new FastestWeighting(encoder);
+        final GraphHopperStorage graph = new GraphHopperStorage(Collections.singletonList(weighting), new RAMDirectory(), encodingManager,
+                                                                false, new GraphExtension.NoOpExtension());
+        graph.create(1000);
+
+        final Random random = new Random(SEED);
+        final NodeAccess nodeAccess = graph.getNodeAccess();
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                nodeAccess.setNode(row * size + column, 49 + (row + 0.3 * random.nextDouble()) * GRID_SPACING,
+                                   11 + (column + 0.3 * random.nextDouble()) * GRID_SPACING);
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                final int node = row * size + column;
+                if (column + 1 < size) {
+                    addEdge(graph, node, node + 1);
+                }
+                if (row + 1 < size) {
+                    addEdge(graph, node, node + size);
+                }
+            }
+        }
+        graph.freeze();
+
+        final CHAlgoFactoryDecorator chAlgoFactoryDecorator = new CHAlgoFactoryDecorator();
+        chAlgoFactoryDecorator.setEnabled(true);
+        chAlgoFactoryDecorator.addNodeBasedWeighting(weighting);
+        chAlgoFactoryDecorator.createPreparations(graph);
+        chAlgoFactoryDecorator.prepare(graph.getProperties());
+
+        final GridIndex locationIndex = (GridIndex) new GridIndex(graph, new RAMDirectory()).setResolution(300).prepareIndex();
+        return new PolygonRoutingFixture(graph, weighting, locationIndex);
+    }
+
+    private static void addEdge(final GraphHopperStorage graph, final int baseNode, final int adjNode) {
+        final NodeAccess nodeAccess = graph.getNodeAccess();
+        final double distance = Helper.DIST_EARTH.calcDist(nodeAccess.getLatitude(baseNode), nodeAccess.getLongitude(baseNode),
+                                                           nodeAccess.getLatitude(adjNode), nodeAccess.getLongitude(adjNode));
+        graph.edge(baseNode, adjNode, distance, true);
+    }
+
+    /**
+     * Imports the file into target/benchmark-graphs once and loads it from there for later runs.
+     */
+    static PolygonRoutingFixture importOSM(final String fileName) {
+        final File file = new File(System.getProperty("graphhopper.files", "core/files"), fileName);
+        if (!file.exists()) {
+            throw new IllegalArgumentException("OSM file " + file.getAbsolutePath() + " does not exist. Set -Dgraphhopper.files to the "
+                                               + "directory of the test OSM files.");
+        }
+
+        final GraphHopper hopper = new GraphHopperOSM().
+                setDataReaderFile(file.getAbsolutePath()).
+                setGraphHopperLocation(new File("target/benchmark-graphs", fileName).getAbsolutePath()).
+                setEncodingManager(EncodingManager.create("car")).
+                setStoreOnFlush(true).
+                importOrLoad();
+        final Weighting weighting = hopper.getCHFactoryDecorator().getNodeBasedWeightings().get(0);
+        return new PolygonRoutingFixture(hopper.getGraphHopperStorage(), weighting, (GridIndex) hopper.getLocationIndex());
+    }
+
+    /**
+     * A regular polygon around the center of the graph.
+     *
+     * @param radiusFraction the radius relative to half the smaller extent of the graph bounds
+     */
+    public Polygon createPolygon(final int vertexCount, final double radiusFraction) {
+        final BBox bounds = graph.getBounds();
+        final double centerLat = (bounds.minLat + bounds.maxLat) / 2;
+        final double centerLon = (bounds.minLon + bounds.maxLon) / 2;
+        final double radius = radiusFraction * Math.min(bounds.maxLat - bounds.minLat, bounds.maxLon - bounds.minLon) / 2;
+
+        final double[] latitudes = new double[vertexCount];
+        final double[] longitudes = new double[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            final double angle = 2 * Math.PI * i / vertexCount;
+            latitudes[i] = centerLat + radius * Math.sin(angle);
+            longitudes[i] = centerLon + radius * Math.cos(angle);
+        }
+        return new Polygon(latitudes, longitudes);
+    }
+
+    public RegionOfInterestRoutingGraph createRegionOfInterest(final Polygon polygon) {
+        return new RegionOfInterestRoutingGraph(polygon, locationIndex, graph.getNodeAccess());
+    }
+
+    /**
+     * @return the nodes outside of the region of interest that are directly connected to it, i.e. the RPHAST targets
+     * of a polygon request
+     */
+    public Set<Integer> getBorderNodes(final RegionOfInterestRoutingGraph regionOfInterest) {
+        final Set<Integer> borderNodes = new LinkedHashSet<>();
+        final EdgeExplorer explorer = graph.createEdgeExplorer();
+        for (int node : regionOfInterest) {
+            final EdgeIterator iterator = explorer.setBaseNode(node);
+            while (iterator.next()) {
+                if (!regionOfInterest.contains(iterator.getAdjNode())) {
+                    borderNodes.add(iterator.getAdjNode());
+                }
+            }
+        }
+        return borderNodes;
+    }
+
+    public GraphHopperStorage getGraph() {
+        return graph;
+    }
+
+    public CHGraph getCHGraph() {
+        return graph.getCHGraph();
+    }
+
+    public Weighting getWeighting() {
+        return weighting;
+    }
+
+    public GridIndex getLocationIndex() {
+        return locationIndex;
+    }
+}
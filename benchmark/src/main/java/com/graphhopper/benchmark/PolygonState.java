@@ -0,0 +1,46 @@
+package com.graphhopper.benchmark;
+
+import com.graphhopper.routing.template.polygonRoutingUtil.RegionOfInterestRoutingGraph;
+import com.graphhopper.util.shapes.Polygon;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Set;
+
+/**
+ * The graph and the polygon that the graph based benchmarks run on. Override the parameters on the command line, e.g.
+ * -p fixture=andorra.osm.pbf -p polygonVertices=100.
+ */
+@State(Scope.Benchmark)
+public abstract class PolygonState {
+    @Param({PolygonRoutingFixture.GRID, "andorra.osm.pbf"})
+    public String fixture;
+
+    /**
+     * Only used for the generated grid.
+     */
+    @Param({"200"})
+    public int gridSize;
+
+    @Param({"4", "64"})
+    public int polygonVertices;
+
+    @Param({"0.2"})
+    public double polygonRadius;
+
+    protected PolygonRoutingFixture graph;
+    protected Polygon polygon;
+    protected RegionOfInterestRoutingGraph regionOfInterest;
+    protected Set<Integer> borderNodes;
+
+    @Setup(Level.Trial)
+    public void setUpPolygon() {
+        graph = PolygonRoutingFixture.get(fixture, gridSize);
+        polygon = graph.createPolygon(polygonVertices, polygonRadius);
+        regionOfInterest = graph.createRegionOfInterest(polygon);
+        borderNodes = graph.getBorderNodes(regionOfInterest);
+    }
+}
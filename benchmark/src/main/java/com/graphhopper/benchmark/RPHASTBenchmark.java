@@ -0,0 +1,39 @@
+package com.graphhopper.benchmark;
+
+import com.graphhopper.routing.RPHAST;
+import com.graphhopper.routing.RPHASTTargetSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The path skeleton of a polygon request: RPHAST from all border nodes of the region of interest to all of them.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RPHASTBenchmark extends PolygonState {
+    private RPHAST rphast;
+    private List<Integer> sources;
+
+    @Setup(Level.Trial)
+    public void setUpTargetSet() {
+        rphast = new RPHAST(graph.getCHGraph(), graph.getWeighting(), regionOfInterest);
+        rphast.prepareForTargetSet(borderNodes);
+        sources = new ArrayList<>(borderNodes);
+    }
+
+    @Benchmark
+    public RPHASTTargetSet prepareTargetSet() {
+        return new RPHAST(graph.getCHGraph(), graph.getWeighting(), regionOfInterest).prepareForTargetSet(borderNodes);
+    }
+
+    @Benchmark
+    public List<?> calcLazyPaths() {
+        return rphast.calcLazyPaths(sources, borderNodes);
+    }
+}
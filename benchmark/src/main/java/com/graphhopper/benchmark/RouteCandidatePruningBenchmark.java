@@ -0,0 +1,81 @@
+package com.graphhopper.benchmark;
+
+import com.graphhopper.routing.Path;
+import com.graphhopper.routing.template.polygonRoutingUtil.RouteCandidate;
+import com.graphhopper.routing.template.polygonRoutingUtil.RouteCandidateList;
+import com.graphhopper.routing.template.polygonRoutingUtil.RouteCandidateTuples;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.Graph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruning of dominated route candidates with random times, once on the primitive tuples the polygon templates stream
+ * and once on a list of route candidates with their paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RouteCandidatePruningBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int candidates;
+
+    private double[] times;
+    private double[] timesInROI;
+    private RouteCandidate[] routeCandidates;
+
+    @Setup(Level.Trial)
+    public void setUpCandidates() {
+        final PolygonRoutingFixture fixture = PolygonRoutingFixture.get(PolygonRoutingFixture.GRID, 2);
+        final Graph graph = fixture.getGraph();
+        final Weighting weighting = fixture.getWeighting();
+        final Path directRoute = createPath(graph, weighting, 0);
+
+        final Random random = new Random(42);
+        times = new double[candidates];
+        timesInROI = new double[candidates];
+        routeCandidates = new RouteCandidate[candidates];
+        for (int i = 0; i < candidates; i++) {
+            final long toEntry = random.nextInt(1000);
+            final long inROI = random.nextInt(1000);
+            final long fromExit = random.nextInt(1000);
+            times[i] = toEntry + inROI + fromExit;
+            timesInROI[i] = inROI;
+            routeCandidates[i] = new RouteCandidate(0, 1, i, i, createPath(graph, weighting, toEntry), createPath(graph, weighting, inROI),
+                                                    createPath(graph, weighting, fromExit), directRoute);
+        }
+    }
+
+    private static Path createPath(final Graph graph, final Weighting weighting, final long time) {
+        final Path path = new Path(graph, weighting);
+        path.setTime(time);
+        path.setFound(true);
+        return path;
+    }
+
+    @Benchmark
+    public int pruneTuples() {
+        final RouteCandidateTuples tuples = new RouteCandidateTuples();
+        for (int i = 0; i < candidates; i++) {
+            tuples.add(i, i, times[i], timesInROI[i]);
+        }
+        tuples.pruneDominatedCandidateRoutes();
+        tuples.pruneLowerQuantileInROI(0.75);
+        return tuples.size();
+    }
+
+    @Benchmark
+    public int pruneRouteCandidateList() {
+        final RouteCandidateList<RouteCandidate> list = new RouteCandidateList<>();
+        for (RouteCandidate routeCandidate : routeCandidates) {
+            list.add(routeCandidate);
+        }
+        list.pruneDominatedCandidateRoutes();
+        return list.size();
+    }
+}
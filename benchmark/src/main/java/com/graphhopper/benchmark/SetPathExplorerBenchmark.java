@@ -0,0 +1,28 @@
+package com.graphhopper.benchmark;
+
+import com.graphhopper.routing.SourceSetUpwardPathsExplorer;
+import com.graphhopper.routing.TargetSetReverseUpwardPathsExplorer;
+import com.graphhopper.routing.util.EdgeFilter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The upward searches that RPHAST starts from the border nodes of the region of interest.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SetPathExplorerBenchmark extends PolygonState {
+    @Benchmark
+    public int sourceSetUpward() {
+        return new SourceSetUpwardPathsExplorer(graph.getCHGraph(), borderNodes, EdgeFilter.ALL_EDGES).getMarkedEdgeCount();
+    }
+
+    @Benchmark
+    public int targetSetReverseUpward() {
+        return new TargetSetReverseUpwardPathsExplorer(graph.getCHGraph(), borderNodes, EdgeFilter.ALL_EDGES).getMarkedEdgeCount();
+    }
+}
@@ -0,0 +1,42 @@
+package com.graphhopper.benchmark;
+
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.storage.index.VisibilityCell;
+import com.graphhopper.storage.index.VisibilityCellsCreator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The creation of all visibility cells while the grid index is prepared. Runs on generated grids only by default as a
+ * single run on an OSM extract takes seconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VisibilityCellsCreatorBenchmark {
+    @Param({PolygonRoutingFixture.GRID})
+    public String fixture;
+
+    @Param({"50", "200"})
+    public int gridSize;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private GraphHopperStorage graph;
+
+    @Setup(Level.Trial)
+    public void setUpGraph() {
+        graph = PolygonRoutingFixture.get(fixture, gridSize).getGraph();
+    }
+
+    @Benchmark
+    public List<VisibilityCell> create() {
+        return new VisibilityCellsCreator(graph, graph.getNodeAccess(), threads).create();
+    }
+}
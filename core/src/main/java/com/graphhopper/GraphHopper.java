@@ -30,6 +30,8 @@ import com.graphhopper.routing.profiles.EnumEncodedValue;
 import com.graphhopper.routing.profiles.RoadEnvironment;
 import com.graphhopper.routing.subnetwork.PrepareRoutingSubnetworks;
 import com.graphhopper.routing.template.*;
+import com.graphhopper.routing.template.polygonRoutingUtil.PolygonPreparationCache;
+import com.graphhopper.routing.template.polygonRoutingUtil.PolygonRoutingMetrics;
 import com.graphhopper.routing.util.*;
 import com.graphhopper.routing.util.parsers.DefaultTagParserFactory;
 import com.graphhopper.routing.util.parsers.TagParserFactory;
@@ -58,6 +60,8 @@ import java.io.File;
 import java.io.IOException;
 import java.text.DateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -97,6 +101,10 @@ public class GraphHopper implements GraphHopperAPI {
     private boolean simplifyResponse = true;
     private TraversalMode traversalMode = TraversalMode.NODE_BASED;
     private int maxVisitedNodes = Integer.MAX_VALUE;
+    private PolygonPreparationCache polygonPreparationCache = new PolygonPreparationCache(PolygonPreparationCache.DEFAULT_MAX_BYTES);
+    private PolygonRoutingMetrics polygonRoutingMetrics = PolygonRoutingMetrics.NONE;
+    private int polygonRoutingThreads = 1;
+    private ExecutorService polygonRoutingExecutor;
 
     private int nonChMaxWaypointDistance = Integer.MAX_VALUE;
     // for index
@@ -341,6 +349,52 @@ public class GraphHopper implements GraphHopperAPI {
         return maxVisitedNodes;
     }
 
+    /**
+     * The cache shared by all polygon through requests. Its hit, miss and eviction counters can be used for monitoring.
+     */
+    public PolygonPreparationCache getPolygonPreparationCache() {
+        return polygonPreparationCache;
+    }
+
+    /**
+     * Limits the memory of the polygon preparation cache. A size of 0 disables caching.
+     */
+    public GraphHopper setPolygonPreparationCacheSize(long maxBytes) {
+        this.polygonPreparationCache = new PolygonPreparationCache(maxBytes);
+        return this;
+    }
+
+    public int getPolygonRoutingThreads() {
+        return polygonRoutingThreads;
+    }
+
+    /**
+     * Sets the number of threads that search the RPHAST sources of a single polygon through request. The pool is shared
+     * between all requests and shut down in close. With one thread every request is searched on its calling thread.
+     */
+    public GraphHopper setPolygonRoutingThreads(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("polygon routing threads must be positive but was " + threads);
+
+        if (polygonRoutingExecutor != null)
+            polygonRoutingExecutor.shutdown();
+        this.polygonRoutingThreads = threads;
+        this.polygonRoutingExecutor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        return this;
+    }
+
+    public PolygonRoutingMetrics getPolygonRoutingMetrics() {
+        return polygonRoutingMetrics;
+    }
+
+    /**
+     * Receives the stage durations and set sizes of every polygon request.
+     */
+    public GraphHopper setPolygonRoutingMetrics(PolygonRoutingMetrics polygonRoutingMetrics) {
+        this.polygonRoutingMetrics = polygonRoutingMetrics;
+        return this;
+    }
+
     /**
      * This methods stops the algorithm from searching further if the resulting path would go over
      * the specified node count, important if none-CH routing is used.
@@ -609,6 +663,8 @@ public class GraphHopper implements GraphHopperAPI {
         maxVisitedNodes = args.getInt(Routing.INIT_MAX_VISITED_NODES, Integer.MAX_VALUE);
         maxRoundTripRetries = args.getInt(RoundTrip.INIT_MAX_RETRIES, maxRoundTripRetries);
         nonChMaxWaypointDistance = args.getInt(Parameters.NON_CH.MAX_NON_CH_POINT_DISTANCE, Integer.MAX_VALUE);
+        polygonPreparationCache = new PolygonPreparationCache(args.getLong("routing.polygon.cache_bytes", PolygonPreparationCache.DEFAULT_MAX_BYTES));
+        setPolygonRoutingThreads(args.getInt("routing.polygon.threads", polygonRoutingThreads));
 
         return this;
     }
@@ -1102,9 +1158,13 @@ public class GraphHopper implements GraphHopperAPI {
             routingTemplate = new AlternativeRoutingTemplate(request, ghRsp, locationIndex, encodingManager);
         else if (validPolygonInRequest(request)) {
             if (request.isPolygonThrough())
-                routingTemplate = new PolygonThroughRoutingTemplate(request, ghRsp, locationIndex, encodingManager);
+                routingTemplate = new PolygonThroughRoutingTemplate(request, ghRsp, locationIndex, encodingManager,
+                                                                    polygonPreparationCache.getMaxBytes() > 0 ? polygonPreparationCache : null).
+                                          setExecutorService(polygonRoutingExecutor, polygonRoutingThreads).
+                                          setMetrics(polygonRoutingMetrics);
             else
-                routingTemplate = new PolygonAroundRoutingTemplate(request, ghRsp, locationIndex, encodingManager);
+                routingTemplate = new PolygonAroundRoutingTemplate(request, ghRsp, locationIndex, encodingManager).
+                                          setMetrics(polygonRoutingMetrics);
         }
         else
             routingTemplate = new ViaRoutingTemplate(request, ghRsp, locationIndex, encodingManager);
@@ -1118,19 +1178,37 @@ public class GraphHopper implements GraphHopperAPI {
     /**
      * This method applies the changes to the graph specified as feature collection. It does so by locking the routing
      * to avoid concurrent changes which could result in incorrect routing (like when done while a Dijkstra search) or
-     * also while just reading one edge row (inconsistent edge properties).
+     * also while just reading one edge row (inconsistent edge properties). The weights of the node-based CH shortcuts
+     * are updated under the same lock, see PrepareContractionHierarchies.recustomize, and the polygon preparation cache
+     * is cleared. With CH, changes that block edges are rejected: a blocked witness path of the CH preparation means that
+     * a shortcut, which is needed without it, does not exist and routes would get lost.
      */
     public ChangeGraphResponse changeGraph(Collection<JsonFeature> collection) {
-        // TODO allow calling this method if called before CH preparation
-        if (getCHFactoryDecorator().isEnabled())
-            throw new IllegalArgumentException("To use the changeGraph API you need to turn off CH");
+        CHAlgoFactoryDecorator chDecorator = getCHFactoryDecorator();
+        if (chDecorator.isEnabled() && !chDecorator.getEdgeBasedWeightings().isEmpty())
+            throw new IllegalArgumentException("To use the changeGraph API you need to turn off edge-based CH");
 
         Lock writeLock = readWriteLock.writeLock();
         writeLock.lock();
         try {
-            ChangeGraphHelper overlay = createChangeGraphHelper(ghStorage, locationIndex);
-            long updateCount = overlay.applyChanges(encodingManager, collection);
-            return new ChangeGraphResponse(updateCount);
+            ChangeGraphHelper overlay = createChangeGraphHelper(ghStorage, locationIndex).
+                    setBlockingAllowed(!chDecorator.isEnabled());
+            try {
+                return new ChangeGraphResponse(overlay.applyChanges(encodingManager, collection));
+            } finally {
+                // the changes applied before a rejected feature stay, so the shortcuts are always updated
+                if (chDecorator.isEnabled() && !overlay.getChangedEdges().isEmpty()) {
+                    StopWatch sw = new StopWatch().start();
+                    int updatedShortcuts = 0;
+                    for (PrepareContractionHierarchies pch : chDecorator.getPreparations()) {
+                        updatedShortcuts += pch.recustomize(overlay.getChangedEdges());
+                    }
+                    logger.info("updated " + updatedShortcuts + " shortcuts for " + overlay.getChangedEdges().size()
+                            + " changed edges in " + sw.stop().getSeconds() + "s");
+                }
+                // the cached RPHAST target sets hold the weights and times from before the change
+                polygonPreparationCache.clear();
+            }
         } finally {
             writeLock.unlock();
         }
@@ -1264,6 +1342,11 @@ public class GraphHopper implements GraphHopperAPI {
         if (locationIndex != null)
             locationIndex.close();
 
+        if (polygonRoutingExecutor != null) {
+            polygonRoutingExecutor.shutdown();
+            polygonRoutingExecutor = null;
+        }
+
         try {
             lockFactory.forceRemove(fileLockName, true);
         } catch (Exception ex) {
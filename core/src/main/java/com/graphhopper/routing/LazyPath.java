@@ -0,0 +1,153 @@
+package com.graphhopper.routing;
+
+import com.carrotsearch.hppc.IntIndexedContainer;
+import com.graphhopper.routing.profiles.BooleanEncodedValue;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.util.EdgeIteratorState;
+import com.graphhopper.util.InstructionList;
+import com.graphhopper.util.PointList;
+import com.graphhopper.util.Translation;
+import com.graphhopper.util.details.PathDetail;
+import com.graphhopper.util.details.PathDetailsBuilderFactory;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Path of which weight, time and distance are known when it is created. Its edges are not determined before they are
+ * requested, so searches that find many paths but only use the metrics of most of them do not pay for their edges.
+ */
+public abstract class LazyPath extends Path {
+    /**
+     * Time of a path that could not be accumulated during the search. It is calculated from the edges on unpacking.
+     */
+    public static final long UNKNOWN_TIME = -1;
+    private boolean unpacked;
+
+    protected LazyPath(final Graph graph, final Weighting weighting, final int source, final int target, final double weight,
+             final long time, final double distance, final boolean found, final boolean unpacked) {
+        super(graph, weighting);
+        this.fromNode = source;
+        this.endNode = target;
+        this.weight = weight;
+        this.time = time;
+        this.distance = distance;
+        this.found = found;
+        this.unpacked = unpacked;
+        this.reverseOrder = false;
+    }
+
+    public boolean isUnpacked() {
+        return unpacked;
+    }
+
+    /**
+     * Determines the edges of this path. Time and distance are kept as they were known on creation, an UNKNOWN_TIME has
+     * to be calculated by unpackEdges.
+     */
+    public LazyPath unpack() {
+        if (!unpacked) {
+            unpackEdges();
+            unpacked = true;
+        }
+        return this;
+    }
+
+    /**
+     * Adds the edges of this path in the order from source to target.
+     */
+    protected abstract void unpackEdges();
+
+    @Override
+    public long getTime() {
+        if (time == UNKNOWN_TIME) {
+            unpack();
+        }
+        return super.getTime();
+    }
+
+    @Override
+    public Path extract() {
+        return unpack();
+    }
+
+    @Override
+    public int getEdgeCount() {
+        return unpack().edgeIds.size();
+    }
+
+    @Override
+    public boolean isNonEmpty() {
+        unpack();
+        return super.isNonEmpty();
+    }
+
+    @Override
+    public EdgeIteratorState getFinalEdge() {
+        unpack();
+        return super.getFinalEdge();
+    }
+
+    @Override
+    public List<EdgeIteratorState> calcEdges() {
+        unpack();
+        return super.calcEdges();
+    }
+
+    @Override
+    public IntIndexedContainer calcNodes() {
+        unpack();
+        return super.calcNodes();
+    }
+
+    @Override
+    public PointList calcPoints() {
+        unpack();
+        return super.calcPoints();
+    }
+
+    @Override
+    public InstructionList calcInstructions(BooleanEncodedValue roundaboutEnc, Translation tr) {
+        unpack();
+        return super.calcInstructions(roundaboutEnc, tr);
+    }
+
+    @Override
+    public Map<String, List<PathDetail>> calcDetails(List<String> requestedPathDetails, PathDetailsBuilderFactory pathBuilderFactory, int previousIndex) {
+        unpack();
+        return super.calcDetails(requestedPathDetails, pathBuilderFactory, previousIndex);
+    }
+
+    @Override
+    public List<Integer> getNodesInPathOrder() {
+        unpack();
+        return super.getNodesInPathOrder();
+    }
+
+    @Override
+    public String toString() {
+        unpack();
+        return super.toString();
+    }
+
+    @Override
+    public String toDetailsString() {
+        unpack();
+        return super.toDetailsString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof LazyPath) {
+            ((LazyPath) o).unpack();
+        }
+        unpack();
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+}
@@ -0,0 +1,150 @@
+package com.graphhopper.routing;
+
+import com.graphhopper.coll.GHIntHashSet;
+import com.graphhopper.coll.GHIntObjectHashMap;
+import com.graphhopper.routing.util.DefaultEdgeFilter;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.storage.SPTEntry;
+import com.graphhopper.util.EdgeExplorer;
+import com.graphhopper.util.EdgeIterator;
+
+import java.util.*;
+
+/**
+ * Dijkstra that settles all targets of one node in a single search instead of running one search per target. Weight,
+ * time and distance are accumulated during the search, the edges of a path are only collected from the shortest path
+ * tree when they are requested. A reverse search follows the incoming edges and finds the paths from the targets to
+ * the node.
+ */
+public class OneToManyDijkstra {
+    private final Graph graph;
+    private final Weighting weighting;
+    private final boolean reverse;
+    private final EdgeExplorer explorer;
+    private int visitedNodes = 0;
+
+    public OneToManyDijkstra(final Graph graph, final Weighting weighting, final boolean reverse) {
+        final FlagEncoder encoder = weighting.getFlagEncoder();
+        this.graph = graph;
+        this.weighting = weighting;
+        this.reverse = reverse;
+        this.explorer = graph.createEdgeExplorer(reverse ? DefaultEdgeFilter.inEdges(encoder) : DefaultEdgeFilter.outEdges(encoder));
+    }
+
+    /**
+     * @return the path between node and each target keyed by the target. Unreachable targets get a path that is not
+     * found.
+     */
+    public Map<Integer, Path> calcPaths(final int node, final Collection<Integer> targets) {
+        final GHIntObjectHashMap<TimedSPTEntry> shortestPathTree = explore(node, targets);
+
+        final Map<Integer, Path> paths = new HashMap<>(targets.size());
+        for (int target : targets) {
+            paths.put(target, createPath(node, target, shortestPathTree.get(target)));
+        }
+        return paths;
+    }
+
+    private GHIntObjectHashMap<TimedSPTEntry> explore(final int node, final Collection<Integer> targets) {
+        final GHIntHashSet unsettledTargets = new GHIntHashSet(targets.size());
+        for (int target : targets) {
+            unsettledTargets.add(target);
+        }
+
+        final GHIntObjectHashMap<TimedSPTEntry> shortestPathTree = new GHIntObjectHashMap<>();
+        final PriorityQueue<TimedSPTEntry> heap = new PriorityQueue<>();
+        TimedSPTEntry current = new TimedSPTEntry(EdgeIterator.NO_EDGE, node, 0);
+        shortestPathTree.put(node, current);
+        visitedNodes = 0;
+
+        while (current != null) {
+            visitedNodes++;
+            unsettledTargets.remove(current.adjNode);
+            if (unsettledTargets.isEmpty()) {
+                break;
+            }
+
+            final EdgeIterator iter = explorer.setBaseNode(current.adjNode);
+            while (iter.next()) {
+                if (iter.getEdge() == current.edge) {
+                    continue;
+                }
+
+                final double weight = weighting.calcWeight(iter, reverse, current.edge) + current.weight;
+                if (Double.isInfinite(weight)) {
+                    continue;
+                }
+
+                TimedSPTEntry next = shortestPathTree.get(iter.getAdjNode());
+                if (next == null) {
+                    next = new TimedSPTEntry(iter.getEdge(), iter.getAdjNode(), weight);
+                    shortestPathTree.put(iter.getAdjNode(), next);
+                } else if (next.weight > weight) {
+                    heap.remove(next);
+                    next.edge = iter.getEdge();
+                    next.weight = weight;
+                } else {
+                    continue;
+                }
+
+                next.parent = current;
+                next.time = current.time + weighting.calcMillis(iter, reverse, current.edge);
+                next.distance = current.distance + iter.getDistance();
+                heap.add(next);
+            }
+
+            current = heap.poll();
+        }
+        return shortestPathTree;
+    }
+
+    private Path createPath(final int node, final int target, final TimedSPTEntry entry) {
+        final int source = reverse ? target : node;
+        final int end = reverse ? node : target;
+        return new ShortestPathTreePath(graph, weighting, source, end, entry, reverse);
+    }
+
+    /**
+     * @return the number of settled nodes of the last search
+     */
+    public int getVisitedNodes() {
+        return visitedNodes;
+    }
+
+    private static final class TimedSPTEntry extends SPTEntry {
+        long time = 0;
+        double distance = 0;
+
+        TimedSPTEntry(final int edgeId, final int adjNode, final double weight) {
+            super(edgeId, adjNode, weight);
+        }
+    }
+
+    private static final class ShortestPathTreePath extends LazyPath {
+        private final TimedSPTEntry entry;
+        private final boolean reverse;
+
+        ShortestPathTreePath(final Graph graph, final Weighting weighting, final int source, final int target,
+                             final TimedSPTEntry entry, final boolean reverse) {
+            super(graph, weighting, source, target, entry == null ? Double.MAX_VALUE : entry.weight,
+                  entry == null ? 0 : entry.time, entry == null ? 0 : entry.distance, entry != null, entry == null);
+            this.entry = entry;
+            this.reverse = reverse;
+        }
+
+        /**
+         * The tree is followed from the entry to the root, which is the order of the path for a reverse search.
+         */
+        @Override
+        protected void unpackEdges() {
+            for (SPTEntry current = entry; EdgeIterator.Edge.isValid(current.edge); current = current.parent) {
+                addEdge(current.edge);
+            }
+            if (!reverse) {
+                edgeIds.reverse();
+            }
+        }
+    }
+}
@@ -25,7 +25,8 @@ public class PathMerge extends Path {
     }
 
     private boolean isPathNotEmpty(Path newPath) {
-        return newPath.edgeIds.size() > 0;
+        // might unpack a lazily unpacked path, so that its fields can be read below
+        return newPath.isNonEmpty();
     }
 
     private void addIfNewPathIsntEmpty(Path newPath) {
@@ -47,8 +48,8 @@ public class PathMerge extends Path {
     private void mergePaths(Path newPath, List<EdgeIteratorState> otherPathsEdges) {
         addOtherPathsEdgesToThisPath(otherPathsEdges);
         this.weight += newPath.getWeight();
-        this.distance += newPath.distance;
-        this.time += newPath.time;
+        this.distance += newPath.getDistance();
+        this.time += newPath.getTime();
         this.endNode = newPath.endNode;
     }
 
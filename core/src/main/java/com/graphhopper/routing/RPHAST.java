@@ -1,6 +1,7 @@
 package com.graphhopper.routing;
 
-import com.graphhopper.routing.ch.PreparationWeighting;
+import com.graphhopper.coll.GHIntArrayList;
+import com.graphhopper.coll.GHIntIntHashMap;
 import com.graphhopper.routing.profiles.BooleanEncodedValue;
 import com.graphhopper.routing.profiles.DecimalEncodedValue;
 import com.graphhopper.routing.profiles.EnumEncodedValue;
@@ -10,23 +11,19 @@ import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.CHGraph;
 import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.storage.IntsRef;
-import com.graphhopper.storage.ShortcutUnpacker;
 import com.graphhopper.util.*;
 
 import java.util.*;
 
 public class RPHAST {
+    public static final int DEFAULT_BATCH_SIZE = 8;
+
     private final CHGraph chGraph;
     private final Weighting weighting;
-    private final Weighting chWeighting;
     private final EdgeFilter edgeFilter;
 
-    private Set<Integer> targetSet;
-    private List<EdgeIteratorState> upwardsGraphEdges;
-    private List<EdgeIteratorState> restrictedDownwardsGraphEdges = null;
-
-    private Map<Integer, Double> cost = new HashMap<>();
-    private Map<Integer, EdgeIteratorState> predecessors = new HashMap<>();
+    private RPHASTTargetSet targetSet = null;
+    private int batchSize = DEFAULT_BATCH_SIZE;
 
     public RPHAST(final GraphHopperStorage graph, final Weighting weighting, final EdgeFilter edgeFilter) {
         this(graph.getCHGraph(), weighting, edgeFilter);
@@ -35,33 +32,81 @@ public class RPHAST {
     public RPHAST(final CHGraph graph, final Weighting weighting, final EdgeFilter edgeFilter) {
         this.chGraph = graph;
         this.weighting = weighting;
-        this.chWeighting = new PreparationWeighting(weighting);
 //        this.edgeFilter = edgeFilter;
         this.edgeFilter = EdgeFilter.ALL_EDGES;
     }
 
-    public void prepareForTargetSet(final Set<Integer> targetSet) {
-        this.targetSet = targetSet;
+    public RPHASTTargetSet prepareForTargetSet(final Set<Integer> targetSet) {
+        final GHIntIntHashMap restrictedNodeToLocal = new GHIntIntHashMap();
+        final GHIntArrayList restrictedNodes = new GHIntArrayList();
+        final SweepGraph restrictedDownwardsGraph = getMarkedTargetEdges(targetSet, restrictedNodeToLocal, restrictedNodes);
+        for (int target : targetSet) {
+            toRestrictedLocalNode(target, restrictedNodeToLocal, restrictedNodes);
+        }
 
-        getMarkedTargetEdges();
+        this.targetSet = new RPHASTTargetSet(chGraph, targetSet, restrictedNodeToLocal, restrictedNodes, restrictedDownwardsGraph);
+        return this.targetSet;
+    }
+
+    /**
+     * Reuses a target set that was prepared before, e.g. by another RPHAST instance on the same CH graph.
+     */
+    public void setTargetSet(final RPHASTTargetSet targetSet) {
+        if (targetSet.chGraph != chGraph) {
+            throw new IllegalArgumentException("The target set was prepared for a different CH graph");
+        }
+        this.targetSet = targetSet;
     }
 
-    private void getMarkedTargetEdges() {
+    private SweepGraph getMarkedTargetEdges(final Set<Integer> targetSet, final GHIntIntHashMap restrictedNodeToLocal,
+                                            final GHIntArrayList restrictedNodes) {
         TargetSetReverseUpwardPathsExplorer targetExplorer = new TargetSetReverseUpwardPathsExplorer(chGraph, targetSet, edgeFilter);
-        restrictedDownwardsGraphEdges = targetExplorer.getMarkedEdges();
-        sortDescending(restrictedDownwardsGraphEdges);
+        final int[] sortedEdges = sortByAdjNodeLevel(targetExplorer, true);
+
+        final SweepGraph restrictedDownwardsGraph = new SweepGraph(sortedEdges.length);
+        for (int index : sortedEdges) {
+            final int edgeId = targetExplorer.getMarkedEdgeId(index);
+            final int adjNode = targetExplorer.getMarkedAdjNode(index);
+            final int baseLocalNode = toRestrictedLocalNode(targetExplorer.getMarkedBaseNode(index), restrictedNodeToLocal, restrictedNodes);
+            final int adjLocalNode = toRestrictedLocalNode(adjNode, restrictedNodeToLocal, restrictedNodes);
+            addSweepEdge(restrictedDownwardsGraph, baseLocalNode, adjLocalNode, edgeId, adjNode, targetExplorer.getMarkedWeight(index),
+                         targetExplorer.getMarkedTime(index));
+        }
+        return restrictedDownwardsGraph;
     }
 
-    private void sortDescending(List<EdgeIteratorState> markedEdges) {
-        Collections.sort(markedEdges, (edge1, edge2) -> {
-            final int edge1AdjNode = edge1.getAdjNode();
-            final int edge2AdjNode = edge2.getAdjNode();
+    private static int toRestrictedLocalNode(final int node, final GHIntIntHashMap restrictedNodeToLocal, final GHIntArrayList restrictedNodes) {
+        final int localNode = restrictedNodeToLocal.getOrDefault(node, -1);
+        if (localNode >= 0) {
+            return localNode;
+        }
 
-            final int edge1AdjNodeRank = chGraph.getLevel(edge1AdjNode);
-            final int edge2AdjNodeRank = chGraph.getLevel(edge2AdjNode);
+        final int newLocalNode = restrictedNodes.size();
+        restrictedNodeToLocal.put(node, newLocalNode);
+        restrictedNodes.add(node);
+        return newLocalNode;
+    }
 
-            return Integer.compare(edge1AdjNodeRank, edge2AdjNodeRank) * -1;
-        });
+    /**
+     * Orders the marked edges of the explorer by the level of their adjacent node. Edges with equal levels keep their
+     * order.
+     *
+     * @return the indices of the marked edges in sweep order
+     */
+    private int[] sortByAdjNodeLevel(final SetPathExplorer explorer, final boolean descending) {
+        final int count = explorer.getMarkedEdgeCount();
+        final long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            final int level = chGraph.getLevel(explorer.getMarkedAdjNode(i));
+            keys[i] = ((long) (descending ? -level : level) << 32) | i;
+        }
+        Arrays.sort(keys);
+
+        final int[] sortedIndices = new int[count];
+        for (int i = 0; i < count; i++) {
+            sortedIndices[i] = (int) keys[i];
+        }
+        return sortedIndices;
     }
 
     public List<Path> calcPaths(final int sourceNode) {
@@ -69,160 +114,257 @@ public class RPHAST {
     }
 
     public List<Path> calcPaths(final List<Integer> sourceNodes) {
-//        testIfCHCreationWorked();
-//        printAllCHGraphEdges();
-        if (restrictedDownwardsGraphEdges == null) {
+        if (targetSet == null) {
             throw new IllegalStateException("Call prepareForTagetSet first");
         }
+        return calcPaths(sourceNodes, targetSet.getTargets());
+    }
 
-        System.out.println("Num source nodes: " + sourceNodes.size());
-
-        final List<Path> paths = new ArrayList<>(sourceNodes.size() * targetSet.size());
-        for (final int sourceNode : sourceNodes) {
-            getMarkedSourceEdges(Collections.singletonList(sourceNode));
-
-            cost.put(sourceNode, 0.0);
-            predecessors.put(sourceNode, new NonExistentEdge(sourceNode));
+    /**
+     * Searches paths only to the given subset of the prepared targets. This allows to share one prepared target set
+     * between queries that are interested in different targets.
+     */
+    public List<Path> calcPaths(final List<Integer> sourceNodes, final Collection<Integer> targetNodes) {
+        final List<Path> paths = new ArrayList<>(sourceNodes.size() * targetNodes.size());
+        calcPaths(sourceNodes, targetNodes, false, paths);
+        return paths;
+    }
 
-            findPathsForThisSource(sourceNode, paths);
+    /**
+     * Like calcPaths but the returned paths keep their shortcuts until their edges, time or distance are requested.
+     *
+     * @see RPHASTPath
+     */
+    public List<RPHASTPath> calcLazyPaths(final List<Integer> sourceNodes, final Collection<Integer> targetNodes) {
+        final List<RPHASTPath> paths = new ArrayList<>(sourceNodes.size() * targetNodes.size());
+        calcPaths(sourceNodes, targetNodes, true, paths);
+        return paths;
+    }
 
+    @SuppressWarnings("unchecked")
+    private void calcPaths(final List<Integer> sourceNodes, final Collection<Integer> targetNodes, final boolean lazy,
+                           final List<? extends Path> paths) {
+//        testIfCHCreationWorked();
+//        printAllCHGraphEdges();
+        if (targetSet == null) {
+            throw new IllegalStateException("Call prepareForTagetSet first");
+        }
 
-            // TODO we do not need to throw away all data.
-            cost.clear();
-            predecessors.clear();
+        final int[] targets = new int[targetNodes.size()];
+        final int[] targetLocalNodes = new int[targetNodes.size()];
+        int i = 0;
+        for (int target : targetNodes) {
+            if (!targetSet.targets.contains(target)) {
+                throw new IllegalArgumentException("Node " + target + " is not part of the prepared target set");
+            }
+            targets[i] = target;
+            targetLocalNodes[i++] = targetSet.getLocalNode(target);
         }
 
-        return paths;
+        final RPHASTQueryState state = RPHASTQueryState.forCurrentThread();
+        for (int batchStart = 0; batchStart < sourceNodes.size(); batchStart += batchSize) {
+            final List<Integer> batch = sourceNodes.subList(batchStart, Math.min(batchStart + batchSize, sourceNodes.size()));
+            calcPathsForBatch(batch, targets, targetLocalNodes, state);
+            for (int slot = 0; slot < batch.size(); slot++) {
+                backtrackPathForEachTarget(batch.get(slot), targets, targetLocalNodes, slot, state, lazy, (List<Path>) paths);
+            }
+        }
     }
 
-    private void getMarkedSourceEdges(final List<Integer> sourceNodes) {
-        SourceSetUpwardPathsExplorer sourceExplorer = new SourceSetUpwardPathsExplorer(chGraph, new LinkedHashSet<>(sourceNodes), edgeFilter);
-        upwardsGraphEdges = sourceExplorer.getMarkedEdges();
-        sortNonDescending(upwardsGraphEdges);
+    /**
+     * Sets how many sources share one sweep over the restricted downwards graph. Larger batches amortize the sweep over
+     * more sources but need batchSize cost slots per local node.
+     */
+    public void setBatchSize(final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive but was " + batchSize);
+        }
+        this.batchSize = batchSize;
     }
 
-    private void sortNonDescending(List<EdgeIteratorState> markedEdges) {
-        Collections.sort(markedEdges, (edge1, edge2) -> {
-            final int edge1AdjNode = edge1.getAdjNode();
-            final int edge2AdjNode = edge2.getAdjNode();
+    public int getBatchSize() {
+        return batchSize;
+    }
 
-            final int edge1AdjNodeRank = chGraph.getLevel(edge1AdjNode);
-            final int edge2AdjNodeRank = chGraph.getLevel(edge2AdjNode);
+    private void calcPathsForBatch(final List<Integer> batch, final int[] targets, final int[] targetLocalNodes,
+                                   final RPHASTQueryState state) {
+        prepareUpwardsGraph(batch, state);
+        state.reset(targetSet.getNumLocalNodes() + state.upwardNodes.size(), batch.size());
+        for (int slot = 0; slot < batch.size(); slot++) {
+            state.setSource(toLocalNode(batch.get(slot), state), slot);
+        }
 
-            return Integer.compare(edge1AdjNodeRank, edge2AdjNodeRank);
-        });
+        exploreUpThenDownGraph(state);
     }
 
-    private void findPathsForThisSource(final int source, List<Path> paths) {
-        try {
-            exploreUpThenDownGraph(source, paths);
-        } catch (NullPointerException sourceDoesntExistException) {
-            addInvalidPaths(source, paths);
+    /**
+     * Builds the union of the upward search spaces of all sources of the batch. A source simply stays unreached on the
+     * edges of the other sources' search spaces.
+     */
+    private void prepareUpwardsGraph(final List<Integer> batch, final RPHASTQueryState state) {
+        final SourceSetUpwardPathsExplorer sourceExplorer = new SourceSetUpwardPathsExplorer(chGraph, new LinkedHashSet<>(batch), edgeFilter);
+        final int[] sortedEdges = sortByAdjNodeLevel(sourceExplorer, false);
+
+        state.clearUpwardNodes();
+        state.upwardsGraph.clear();
+        for (int sourceNode : batch) {
+            toLocalNode(sourceNode, state);
+        }
+        for (int index : sortedEdges) {
+            final int edgeId = sourceExplorer.getMarkedEdgeId(index);
+            final int adjNode = sourceExplorer.getMarkedAdjNode(index);
+            final int baseLocalNode = toLocalNode(sourceExplorer.getMarkedBaseNode(index), state);
+            final int adjLocalNode = toLocalNode(adjNode, state);
+            addSweepEdge(state.upwardsGraph, baseLocalNode, adjLocalNode, edgeId, adjNode, sourceExplorer.getMarkedWeight(index),
+                         sourceExplorer.getMarkedTime(index));
         }
     }
 
-    private void exploreUpThenDownGraph(final int source, List<Path> paths) {
-        StopWatch swUpward = new StopWatch("upward").start();
-        exploreGraph(upwardsGraphEdges);
-        System.out.println(swUpward.stop().toString());
-        StopWatch swDownward = new StopWatch("downward").start();
-        exploreGraph(restrictedDownwardsGraphEdges);
-        System.out.println(swDownward.stop().toString());
-
-        StopWatch swBacktrack = new StopWatch("backtrack").start();
-        paths.addAll(backtrackPathForEachTarget(source));
-        System.out.println(swBacktrack.stop().toString());
+    /**
+     * Nodes of the restricted downwards graph keep their local id. Nodes only reached by the upward search are numbered
+     * behind them.
+     */
+    private int toLocalNode(final int node, final RPHASTQueryState state) {
+        final int restrictedLocalNode = targetSet.getLocalNode(node);
+        if (restrictedLocalNode >= 0) {
+            return restrictedLocalNode;
+        }
+
+        final int upwardLocalNode = state.upwardNodeToLocal.getOrDefault(node, -1);
+        if (upwardLocalNode >= 0) {
+            return upwardLocalNode;
+        }
+
+        final int newLocalNode = targetSet.getNumLocalNodes() + state.upwardNodes.size();
+        state.upwardNodeToLocal.put(node, newLocalNode);
+        state.upwardNodes.add(node);
+        return newLocalNode;
     }
 
-    private void addInvalidPaths(final int source, List<Path> paths) {
-        for (Integer target : targetSet) {
-            paths.add(getInvalidPath(source, target));
+    private int toNode(final int localNode, final RPHASTQueryState state) {
+        final int numRestrictedNodes = targetSet.getNumLocalNodes();
+        if (localNode < numRestrictedNodes) {
+            return targetSet.getNode(localNode);
+        } else {
+            return state.upwardNodes.get(localNode - numRestrictedNodes);
         }
     }
 
-    private void exploreGraph(List<EdgeIteratorState> edgeList) {
-        for (EdgeIteratorState currentEdge : edgeList) {
-            int baseNode = currentEdge.getBaseNode();
-            int adjNode = currentEdge.getAdjNode();
+    private void exploreUpThenDownGraph(final RPHASTQueryState state) {
+        exploreGraph(state.upwardsGraph, state);
+        exploreGraph(targetSet.downwardsGraph, state);
+    }
 
-            if (cost.get(adjNode) == null) {
-                cost.put(adjNode, Double.MAX_VALUE);
+    private static void exploreGraph(final SweepGraph graph, final RPHASTQueryState state) {
+        for (int i = 0; i < graph.size; i++) {
+            final int baseNode = graph.baseNodes[i];
+            if (!state.isTouched(baseNode)) {
+                continue;
             }
 
-            final double currentCostOfAdjNode = cost.get(adjNode);
-            int previousEdgeId = predecessors.get(baseNode).getEdge();
-            double costWithCurrentEdge = calcWeight(currentEdge, baseNode, previousEdgeId);
-            if (costWithCurrentEdge < currentCostOfAdjNode) {
-                cost.put(adjNode, costWithCurrentEdge);
-                predecessors.put(adjNode, currentEdge);
-            }
+            state.relax(baseNode, graph.adjNodes[i], graph.weights[i], graph.times[i], graph.distances[i], graph.edgeIds[i]);
         }
     }
 
-    private double calcWeight(EdgeIteratorState currentEdge, int baseNode, int previousEdgeId) {
-        final double edgeCost;
-        if (currentEdge instanceof CHEdgeIteratorState) {
-            edgeCost = chWeighting.calcWeight(currentEdge, false, previousEdgeId);
-        } else {
-            edgeCost = weighting.calcWeight(currentEdge, false, previousEdgeId);
-        }
-
-        return edgeCost + cost.get(baseNode);
+    /**
+     * Weight and time of the edge in sweep direction come with the CH adjacency, the distance of shortcuts is stored in
+     * the CH graph, so the sweep accumulates all of them. Node based sweep: the previous edge does not influence the
+     * weight of the current edge.
+     */
+    private void addSweepEdge(final SweepGraph graph, final int baseLocalNode, final int adjLocalNode, final int edgeId,
+                              final int adjNode, final double weight, final int time) {
+        final EdgeIteratorState edgeState = chGraph.getEdgeIteratorState(edgeId, adjNode);
+        graph.add(baseLocalNode, adjLocalNode, edgeId, weight, time, edgeState.getDistance());
     }
 
-    private List<Path> backtrackPathForEachTarget(final int source) {
-        final List<Path> paths = new ArrayList<>(targetSet.size());
-        StopWatch swBacktrack = new StopWatch("Overall Backtrack " + targetSet.size()).start();
-        for (Integer target : targetSet) {
-            paths.add(backtrackPath(source, target));
+    private void backtrackPathForEachTarget(final int source, final int[] targets, final int[] targetLocalNodes, final int slot,
+                                            final RPHASTQueryState state, final boolean lazy, final List<Path> paths) {
+        for (int i = 0; i < targets.length; i++) {
+            final RPHASTPath path = backtrackPath(source, targets[i], targetLocalNodes[i], slot, state);
+            paths.add(lazy ? path : toPathSimpled(path));
         }
-        System.out.println(swBacktrack.stop().toString());
-        return paths;
     }
 
-    private Path backtrackPath(final int source, final int target) {
-        try {
-            return getBacktrackedPath(source, target);
-        } catch (NullPointerException noPathFoundException) {
-            return getInvalidPath(source, target);
+    private RPHASTPath backtrackPath(final int source, final int target, final int targetLocalNode, final int slot, final RPHASTQueryState state) {
+        if (!state.isReached(targetLocalNode, slot)) {
+            return RPHASTPath.createInvalid(chGraph, weighting, source, target);
+        }
+
+        final GHIntArrayList edgeIds = new GHIntArrayList();
+        final GHIntArrayList adjNodes = new GHIntArrayList();
+        int currentNode = targetLocalNode;
+        int currentEdge = state.getParentEdge(currentNode, slot);
+        while (currentEdge != EdgeIterator.NO_EDGE) {
+            edgeIds.add(currentEdge);
+            adjNodes.add(toNode(currentNode, state));
+            currentNode = state.getParent(currentNode, slot);
+            currentEdge = state.getParentEdge(currentNode, slot);
         }
-    }
 
-    private Path getInvalidPath(final int source, final int target) {
-        return PathSimpled.create(chGraph, weighting, Collections.emptyList(), source, target, Double.MAX_VALUE, false);
+        return new RPHASTPath(chGraph, weighting, source, target, state.getWeight(targetLocalNode, slot),
+                              state.getTime(targetLocalNode, slot), state.getDistance(targetLocalNode, slot),
+                              edgeIds.reverse().toArray(), adjNodes.reverse().toArray(), true);
     }
 
-    private Path getBacktrackedPath(int source, int target) {
-        int currentNode = target;
-        final List<EdgeIteratorState> backtrackedEdgesWithShortcuts = getBacktrackedEdgesWithShortcuts(currentNode);
-        final List<EdgeIteratorState> backtrackedEdges = getBaseEdgesFromShortcuttingPath(backtrackedEdgesWithShortcuts);
+    private Path toPathSimpled(final RPHASTPath path) {
+        if (!path.isFound()) {
+            return PathSimpled.create(chGraph, weighting, Collections.emptyList(), path.getFromNode(), path.getEndNode(), Double.MAX_VALUE, false);
+        }
 
-        return PathSimpled.create(chGraph, weighting, backtrackedEdges, source, target, cost.get(target), true);
+        final List<EdgeIteratorState> edges = path.unpack().calcEdges();
+        return PathSimpled.create(chGraph, weighting, edges, path.getFromNode(), path.getEndNode(), path.getWeight(), true);
     }
 
-    private LinkedList<EdgeIteratorState> getBacktrackedEdgesWithShortcuts(int currentNode) {
-        final LinkedList<EdgeIteratorState> backtrackedEdges = new LinkedList<>();
+    /**
+     * Flat edge list of a CH search space in sweep order. Nodes are referenced by their local ids.
+     */
+    static final class SweepGraph {
+        int[] baseNodes;
+        int[] adjNodes;
+        int[] edgeIds;
+        double[] weights;
+        int[] times;
+        double[] distances;
+        int size = 0;
+
+        SweepGraph(final int capacity) {
+            final int initialCapacity = Math.max(1, capacity);
+            this.baseNodes = new int[initialCapacity];
+            this.adjNodes = new int[initialCapacity];
+            this.edgeIds = new int[initialCapacity];
+            this.weights = new double[initialCapacity];
+            this.times = new int[initialCapacity];
+            this.distances = new double[initialCapacity];
+        }
+
+        void add(final int baseNode, final int adjNode, final int edgeId, final double weight, final int time,
+                 final double distance) {
+            if (size == baseNodes.length) {
+                grow();
+            }
 
-        EdgeIteratorState currentEdge = predecessors.get(currentNode);
-        while (currentEdge.getEdge() != EdgeIterator.NO_EDGE) {
-            backtrackedEdges.addFirst(currentEdge);
-            currentNode = currentEdge.getBaseNode();
-            currentEdge = predecessors.get(currentNode);
+            baseNodes[size] = baseNode;
+            adjNodes[size] = adjNode;
+            edgeIds[size] = edgeId;
+            weights[size] = weight;
+            times[size] = time;
+            distances[size] = distance;
+            size++;
         }
-        return backtrackedEdges;
-    }
-
-    public List<EdgeIteratorState> getBaseEdgesFromShortcuttingPath(final List<EdgeIteratorState> edges) {
-        final EdgeRecordingVisitor edgeRecordingVisitor = new EdgeRecordingVisitor();
-        final ShortcutUnpacker shortcutUnpacker = new ShortcutUnpacker(chGraph, edgeRecordingVisitor, false);
 
-        int lastEdge = EdgeIterator.NO_EDGE;
-        for (EdgeIteratorState edge : edges) {
-            shortcutUnpacker.visitOriginalEdgesFwd(edge.getEdge(), edge.getAdjNode(), false, lastEdge);
-            edgeRecordingVisitor.getLastEdgeId();
+        private void grow() {
+            final int newCapacity = baseNodes.length + (baseNodes.length >> 1) + 1;
+            baseNodes = Arrays.copyOf(baseNodes, newCapacity);
+            adjNodes = Arrays.copyOf(adjNodes, newCapacity);
+            edgeIds = Arrays.copyOf(edgeIds, newCapacity);
+            weights = Arrays.copyOf(weights, newCapacity);
+            times = Arrays.copyOf(times, newCapacity);
+            distances = Arrays.copyOf(distances, newCapacity);
         }
 
-        return edgeRecordingVisitor.getEdges();
+        void clear() {
+            size = 0;
+        }
     }
 
     static class NonExistentEdge implements EdgeIteratorState {
@@ -397,21 +539,4 @@ public class RPHAST {
             throw new UnsupportedOperationException();
         }
     }
-
-    private class EdgeRecordingVisitor implements ShortcutUnpacker.Visitor {
-        final LinkedList<EdgeIteratorState> edges = new LinkedList<>();
-
-        @Override
-        public void visit(EdgeIteratorState edge, boolean reverse, int prevOrNextEdgeId) {
-            edges.add(edge);
-        }
-
-        public List<EdgeIteratorState> getEdges() {
-            return edges;
-        }
-
-        public int getLastEdgeId() {
-            return edges.getLast().getEdge();
-        }
-    }
 }
@@ -0,0 +1,64 @@
+package com.graphhopper.routing;
+
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.storage.ShortcutUnpacker;
+import com.graphhopper.util.EdgeIterator;
+import com.graphhopper.util.EdgeIteratorState;
+
+/**
+ * Path found by RPHAST that only stores the shortcut level edges of the CH search. Weight, time and distance are
+ * accumulated by the sweep and known right away, the shortcuts are unpacked into original edges not before the edges
+ * of the path are requested. Paths over edges without a valid speed get their time only from unpacking, which fails
+ * just like extracting any other path over such an edge. Many-to-many queries usually only need the metrics of most of their paths, so this avoids
+ * unpacking all of them.
+ */
+public class RPHASTPath extends LazyPath {
+    private final CHGraph chGraph;
+    private final int[] shortcutEdges;
+    private final int[] shortcutAdjNodes;
+
+    RPHASTPath(final CHGraph chGraph, final Weighting weighting, final int source, final int target, final double weight,
+               final long time, final double distance, final int[] shortcutEdges, final int[] shortcutAdjNodes,
+               final boolean found) {
+        super(chGraph, weighting, source, target, weight, time, distance, found, shortcutEdges.length == 0);
+        this.chGraph = chGraph;
+        this.shortcutEdges = shortcutEdges;
+        this.shortcutAdjNodes = shortcutAdjNodes;
+    }
+
+    static RPHASTPath createInvalid(final CHGraph chGraph, final Weighting weighting, final int source, final int target) {
+        return new RPHASTPath(chGraph, weighting, source, target, Double.MAX_VALUE, 0, 0, new int[0], new int[0], false);
+    }
+
+    /**
+     * Replaces the shortcuts of this path by the original edges they consist of.
+     */
+    @Override
+    public RPHASTPath unpack() {
+        super.unpack();
+        return this;
+    }
+
+    @Override
+    protected void unpackEdges() {
+        final boolean calcTime = time == UNKNOWN_TIME;
+        final long[] unpackedTime = {0};
+        final ShortcutUnpacker unpacker = new ShortcutUnpacker(chGraph, new ShortcutUnpacker.Visitor() {
+            @Override
+            public void visit(EdgeIteratorState edge, boolean reverse, int prevOrNextEdgeId) {
+                if (calcTime) {
+                    unpackedTime[0] += weighting.calcMillis(edge, reverse, EdgeIterator.NO_EDGE);
+                }
+                addEdge(edge.getEdge());
+            }
+        }, false);
+
+        for (int i = 0; i < shortcutEdges.length; i++) {
+            unpacker.visitOriginalEdgesFwd(shortcutEdges[i], shortcutAdjNodes[i], false, EdgeIterator.NO_EDGE);
+        }
+        if (calcTime) {
+            time = unpackedTime[0];
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.graphhopper.routing;
+
+import com.graphhopper.coll.GHIntArrayList;
+import com.graphhopper.coll.GHIntIntHashMap;
+import com.graphhopper.util.EdgeIterator;
+
+/**
+ * Per thread query state of the RPHAST sweep. Costs and predecessors are kept in flat arrays indexed by local node ids.
+ * Time and distance are accumulated along with the weight, so paths know them without being unpacked.
+ * A sweep handles a batch of sources at once, so every local node owns width consecutive slots, one per source of the
+ * batch. Entries of a node are only valid if its version equals the current version, so a reset between two batches is
+ * O(1) and the arrays are reused across batches and requests instead of being reallocated.
+ */
+final class RPHASTQueryState {
+    private static final int NO_PARENT = -1;
+    private static final ThreadLocal<RPHASTQueryState> POOL = ThreadLocal.withInitial(() -> new RPHASTQueryState(1000));
+
+    private double[] weights;
+    private long[] times;
+    private double[] distances;
+    private int[] parentEdges;
+    private int[] parents;
+    private int[] versions;
+    private int version = 1;
+    private int width = 1;
+
+    // local ids of nodes that are only reached by the upward search of the current batch
+    final GHIntIntHashMap upwardNodeToLocal = new GHIntIntHashMap();
+    final GHIntArrayList upwardNodes = new GHIntArrayList();
+    final RPHAST.SweepGraph upwardsGraph = new RPHAST.SweepGraph(100);
+
+    RPHASTQueryState(final int initialCapacity) {
+        allocate(Math.max(1, initialCapacity), 1);
+    }
+
+    static RPHASTQueryState forCurrentThread() {
+        return POOL.get();
+    }
+
+    private void allocate(final int capacity, final int width) {
+        this.weights = new double[capacity * width];
+        this.times = new long[capacity * width];
+        this.distances = new double[capacity * width];
+        this.parentEdges = new int[capacity * width];
+        this.parents = new int[capacity * width];
+        this.versions = new int[capacity];
+        this.version = 1;
+        this.width = width;
+    }
+
+    /**
+     * Invalidates all entries and makes sure that local node ids up to numLocalNodes - 1 can be stored for a batch of
+     * width sources.
+     */
+    void reset(final int numLocalNodes, final int width) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Batch width must be positive but was " + width);
+        }
+
+        if (numLocalNodes > versions.length) {
+            allocate(Math.max(numLocalNodes, versions.length + (versions.length >> 1)), width);
+        } else if ((long) versions.length * width > weights.length || version == Integer.MAX_VALUE) {
+            allocate(versions.length, width);
+        } else {
+            this.width = width;
+            version++;
+        }
+    }
+
+    void clearUpwardNodes() {
+        upwardNodeToLocal.clear();
+        upwardNodes.elementsCount = 0;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    boolean isTouched(final int localNode) {
+        return versions[localNode] == version;
+    }
+
+    boolean isReached(final int localNode, final int slot) {
+        return isTouched(localNode) && weights[localNode * width + slot] < Double.MAX_VALUE;
+    }
+
+    double getWeight(final int localNode, final int slot) {
+        return isTouched(localNode) ? weights[localNode * width + slot] : Double.MAX_VALUE;
+    }
+
+    /**
+     * Only valid if the node is reached in this slot.
+     */
+    long getTime(final int localNode, final int slot) {
+        return times[localNode * width + slot];
+    }
+
+    /**
+     * Only valid if the node is reached in this slot.
+     */
+    double getDistance(final int localNode, final int slot) {
+        return distances[localNode * width + slot];
+    }
+
+    int getParentEdge(final int localNode, final int slot) {
+        return isTouched(localNode) ? parentEdges[localNode * width + slot] : EdgeIterator.NO_EDGE;
+    }
+
+    int getParent(final int localNode, final int slot) {
+        return isTouched(localNode) ? parents[localNode * width + slot] : NO_PARENT;
+    }
+
+    void setSource(final int localNode, final int slot) {
+        touch(localNode);
+        final int index = localNode * width + slot;
+        weights[index] = 0;
+        times[index] = 0;
+        distances[index] = 0;
+        parentEdges[index] = EdgeIterator.NO_EDGE;
+        parents[index] = NO_PARENT;
+    }
+
+    /**
+     * Relaxes the edge from baseNode to adjNode for all sources of the batch. Slots in which baseNode is unreached keep
+     * Double.MAX_VALUE and therefore never improve adjNode.
+     */
+    void relax(final int baseNode, final int adjNode, final double edgeWeight, final long edgeTime, final double edgeDistance,
+               final int edgeId) {
+        touch(adjNode);
+        final int baseOffset = baseNode * width;
+        final int adjOffset = adjNode * width;
+        for (int slot = 0; slot < width; slot++) {
+            final double weight = weights[baseOffset + slot] + edgeWeight;
+            if (weight < weights[adjOffset + slot]) {
+                weights[adjOffset + slot] = weight;
+                final long baseTime = times[baseOffset + slot];
+                times[adjOffset + slot] = baseTime < 0 || edgeTime < 0 ? LazyPath.UNKNOWN_TIME : baseTime + edgeTime;
+                distances[adjOffset + slot] = distances[baseOffset + slot] + edgeDistance;
+                parentEdges[adjOffset + slot] = edgeId;
+                parents[adjOffset + slot] = baseNode;
+            }
+        }
+    }
+
+    private void touch(final int localNode) {
+        if (versions[localNode] == version) {
+            return;
+        }
+
+        versions[localNode] = version;
+        final int offset = localNode * width;
+        for (int slot = 0; slot < width; slot++) {
+            weights[offset + slot] = Double.MAX_VALUE;
+            parentEdges[offset + slot] = EdgeIterator.NO_EDGE;
+            parents[offset + slot] = NO_PARENT;
+        }
+    }
+
+    int getCapacity() {
+        return versions.length;
+    }
+}
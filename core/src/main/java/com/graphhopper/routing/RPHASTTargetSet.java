@@ -0,0 +1,69 @@
+package com.graphhopper.routing;
+
+import com.graphhopper.coll.GHIntArrayList;
+import com.graphhopper.coll.GHIntIntHashMap;
+import com.graphhopper.storage.CHGraph;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Result of RPHAST.prepareForTargetSet: the restricted downwards graph of a target set in sweep order together with the
+ * local node numbering it uses. It is only read by queries, so one instance can be shared between RPHAST instances and
+ * threads that search on the same CH graph.
+ */
+public final class RPHASTTargetSet {
+    final CHGraph chGraph;
+    final Set<Integer> targets;
+    final GHIntIntHashMap nodeToLocal;
+    final GHIntArrayList localToNode;
+    final RPHAST.SweepGraph downwardsGraph;
+
+    RPHASTTargetSet(final CHGraph chGraph, final Set<Integer> targets, final GHIntIntHashMap nodeToLocal,
+                    final GHIntArrayList localToNode, final RPHAST.SweepGraph downwardsGraph) {
+        this.chGraph = chGraph;
+        this.targets = Collections.unmodifiableSet(new LinkedHashSet<>(targets));
+        this.nodeToLocal = nodeToLocal;
+        this.localToNode = localToNode;
+        this.downwardsGraph = downwardsGraph;
+    }
+
+    /**
+     * @return the local id of the node or -1 if the node is not part of the restricted downwards graph
+     */
+    int getLocalNode(final int node) {
+        return nodeToLocal.getOrDefault(node, -1);
+    }
+
+    int getNode(final int localNode) {
+        return localToNode.get(localNode);
+    }
+
+    int getNumLocalNodes() {
+        return localToNode.size();
+    }
+
+    public Set<Integer> getTargets() {
+        return targets;
+    }
+
+    public boolean containsAllTargets(final Collection<Integer> nodes) {
+        return targets.containsAll(nodes);
+    }
+
+    public int getDownwardsEdgeCount() {
+        return downwardsGraph.size;
+    }
+
+    /**
+     * @return a rough estimate of the heap occupied by this target set
+     */
+    public long getMemoryBytes() {
+        final long sweepGraphBytes = (long) downwardsGraph.baseNodes.length * (4 * 4 + 2 * 8);
+        final long numberingBytes = (long) nodeToLocal.keys.length * (4 + 4) + (long) localToNode.buffer.length * 4;
+        final long targetBytes = (long) targets.size() * 64;
+        return sweepGraphBytes + numberingBytes + targetBytes;
+    }
+}
@@ -1,6 +1,10 @@
 package com.graphhopper.routing;
 
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.graphhopper.coll.GHIntArrayList;
+import com.graphhopper.coll.GHIntHashSet;
 import com.graphhopper.routing.util.EdgeFilter;
+import com.graphhopper.storage.CHAdjacency;
 import com.graphhopper.storage.CHGraph;
 import com.graphhopper.util.EdgeIteratorState;
 
@@ -10,13 +14,15 @@ public abstract class SetPathExplorer {
     final CHGraph chGraph;
     final Set<Integer> startSet;
     private final EdgeFilter edgeFilter;
-    EdgeFilter nonVisited;
-    EdgeFilter chFilter;
-
-    Stack<Integer> nodesToExplore;
-    List<EdgeIteratorState> markedEdges;
-    final Map<Integer, Boolean> nodesVisited = new HashMap<>();
 
+    final GHIntArrayList nodesToExplore;
+    final GHIntHashSet nodesVisited;
+    private final GHIntArrayList markedBaseNodes = new GHIntArrayList();
+    private final GHIntArrayList markedAdjNodes = new GHIntArrayList();
+    private final GHIntArrayList markedEdgeIds = new GHIntArrayList();
+    private final GHIntArrayList markedTimes = new GHIntArrayList();
+    private final DoubleArrayList markedWeights = new DoubleArrayList();
+    private boolean explored = false;
 
     public SetPathExplorer(final CHGraph chGraph, Set<Integer> startSet, EdgeFilter edgeFilter) {
         this.chGraph = chGraph;
@@ -24,63 +30,111 @@ public abstract class SetPathExplorer {
         this.edgeFilter = edgeFilter;
 
         this.chGraph.prepareAdjacencyLists();
-        this.markedEdges = new LinkedList<>();
+        this.nodesToExplore = new GHIntArrayList(startSet.size());
+        this.nodesVisited = new GHIntHashSet(startSet.size());
         prepareNodesToExplore(startSet);
-        addAllStartNodesAsVisited();
     }
 
     private void prepareNodesToExplore(Set<Integer> startSet) {
-        this.nodesToExplore = new Stack<>();
         for (Integer startNode : startSet) {
-            this.nodesToExplore.push(startNode);
+            this.nodesToExplore.add(startNode);
+            this.nodesVisited.add(startNode);
         }
     }
 
-    private void addAllStartNodesAsVisited() {
-        for (Integer startNode : startSet) {
-            nodesVisited.put(startNode, true);
+    public List<EdgeIteratorState> getMarkedEdges() {
+        prepareMarkedEdgeDataIfNotDone();
+
+        final List<EdgeIteratorState> markedEdges = new ArrayList<>(markedEdgeIds.size());
+        for (int i = 0; i < markedEdgeIds.size(); i++) {
+            markedEdges.add(chGraph.getEdgeIteratorState(markedEdgeIds.get(i), markedAdjNodes.get(i)));
         }
+        return markedEdges;
     }
 
-    public List<EdgeIteratorState> getMarkedEdges() {
-        if (isMarkedEdgesNotPrepared()) {
-            prepareMarkedEdgeData();
-        }
+    public int getMarkedEdgeCount() {
+        prepareMarkedEdgeDataIfNotDone();
+        return markedEdgeIds.size();
+    }
 
-        return markedEdges;
+    public int getMarkedBaseNode(final int index) {
+        return markedBaseNodes.get(index);
+    }
+
+    public int getMarkedAdjNode(final int index) {
+        return markedAdjNodes.get(index);
     }
 
-    private boolean isMarkedEdgesNotPrepared() {
-        return markedEdges.size() == 0;
+    public int getMarkedEdgeId(final int index) {
+        return markedEdgeIds.get(index);
+    }
+
+    /**
+     * @return the travel time in millis of the marked edge driven from its base to its adj node
+     */
+    public int getMarkedTime(final int index) {
+        return markedTimes.get(index);
+    }
+
+    /**
+     * @return the weight of the marked edge driven from its base to its adj node
+     */
+    public double getMarkedWeight(final int index) {
+        return markedWeights.get(index);
+    }
+
+    private void prepareMarkedEdgeDataIfNotDone() {
+        if (!explored) {
+            prepareMarkedEdgeData();
+            explored = true;
+        }
     }
 
     private void prepareMarkedEdgeData() {
-        while (nodesToExplore.size() > 0) {
-            final int node = nodesToExplore.pop();
+        while (!nodesToExplore.isEmpty()) {
+            final int node = nodesToExplore.remove(nodesToExplore.size() - 1);
             exploreNeighborhood(node);
         }
     }
 
-    private void exploreNeighborhood(Integer node) {
-        final Iterator<EdgeIteratorState> neighborExplorer = getIncidentEdgeIterator(node);
-        while (neighborExplorer.hasNext()) {
-            final EdgeIteratorState incidentEdge = neighborExplorer.next();
+    private void exploreNeighborhood(final int node) {
+        final CHAdjacency adjacency = getAdjacency();
+        final int end = adjacency.getEntryEnd(node);
+        for (int entry = adjacency.getEntryStart(node); entry < end; entry++) {
+            final int edge = adjacency.getEdge(entry);
+            final int neighbor = adjacency.getNode(entry);
 
-            addEdgeBasedOnFilter(incidentEdge);
+            addEdgeBasedOnFilter(node, neighbor, edge, adjacency.getTime(entry), adjacency.getWeight(entry));
         }
     }
 
-    abstract Iterator<EdgeIteratorState> getIncidentEdgeIterator(int node);
-
-    private void addEdgeBasedOnFilter(EdgeIteratorState incidentEdge) {
-        boolean chAcceptance = chFilter.accept(incidentEdge);
-        boolean edgeFilterAcceptance = edgeFilter.accept(incidentEdge);
-        if (chAcceptance && edgeFilterAcceptance) {
-            markedEdges.add(incidentEdge);
-
-            addNodeToVisitIfNotAlreadyVisited(incidentEdge);
+    /**
+     * @return the adjacency to explore. The level ordering of the search direction is already contained in it.
+     */
+    abstract CHAdjacency getAdjacency();
+
+    /**
+     * @return true if the edge between node and neighbor points from node to neighbor
+     */
+    abstract boolean isExploringForward();
+
+    private void addEdgeBasedOnFilter(final int node, final int neighbor, final int edge, final int time, final double weight) {
+        final int baseNode = isExploringForward() ? node : neighbor;
+        final int adjNode = isExploringForward() ? neighbor : node;
+        if (edgeFilter == EdgeFilter.ALL_EDGES || edgeFilter.accept(chGraph.getEdgeIteratorState(edge, adjNode))) {
+            markedBaseNodes.add(baseNode);
+            markedAdjNodes.add(adjNode);
+            markedEdgeIds.add(edge);
+            markedTimes.add(time);
+            markedWeights.add(weight);
+
+            addNodeToVisitIfNotAlreadyVisited(neighbor);
         }
     }
 
-    abstract void addNodeToVisitIfNotAlreadyVisited(EdgeIteratorState incidentEdge);
+    private void addNodeToVisitIfNotAlreadyVisited(final int neighbor) {
+        if (nodesVisited.add(neighbor)) {
+            nodesToExplore.add(neighbor);
+        }
+    }
 }
@@ -17,14 +17,15 @@
  */
 package com.graphhopper.routing.ch;
 
+import com.graphhopper.routing.AlgorithmOptions;
+import com.graphhopper.routing.RoutingAlgorithm;
 import com.graphhopper.routing.RoutingAlgorithmFactory;
 import com.graphhopper.routing.RoutingAlgorithmFactoryDecorator;
 import com.graphhopper.routing.util.HintsMap;
 import com.graphhopper.routing.util.TraversalMode;
 import com.graphhopper.routing.weighting.AbstractWeighting;
 import com.graphhopper.routing.weighting.Weighting;
-import com.graphhopper.storage.GraphHopperStorage;
-import com.graphhopper.storage.StorableProperties;
+import com.graphhopper.storage.*;
 import com.graphhopper.util.CmdArgs;
 import com.graphhopper.util.PMap;
 import com.graphhopper.util.Parameters;
@@ -35,6 +36,7 @@ import org.slf4j.LoggerFactory;
 import java.util.*;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static com.graphhopper.util.Helper.*;
 import static com.graphhopper.util.Parameters.CH.DISABLE;
@@ -60,6 +62,8 @@ public class CHAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecorator
     private int preparationThreads;
     private ExecutorService threadPool;
     private PMap pMap = new PMap();
+    private boolean reuseNodeOrdering = false;
+    private int nodeOrderingQueries = 1000;
 
     public CHAlgoFactoryDecorator() {
         setPreparationThreads(1);
@@ -75,6 +79,8 @@ public class CHAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecorator
             throw new IllegalStateException("Use " + CH.PREPARE + "weightings and a comma separated list instead of prepare.chWeighting or prepare.chWeightings");
 
         setPreparationThreads(args.getInt(CH.PREPARE + "threads", getPreparationThreads()));
+        setReuseNodeOrdering(args.getBool(CH.PREPARE + "reuse_node_ordering", isReuseNodeOrdering()));
+        setNodeOrderingQueries(args.getInt(CH.PREPARE + "reuse_node_ordering.queries", nodeOrderingQueries));
 
         // default is enabled & fastest
         String chWeightingsStr = args.get(CH.PREPARE + "weightings", "");
@@ -279,35 +285,155 @@ public class CHAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecorator
         this.threadPool = java.util.concurrent.Executors.newFixedThreadPool(preparationThreads);
     }
 
+    public boolean isReuseNodeOrdering() {
+        return reuseNodeOrdering;
+    }
+
+    /**
+     * Instead of a heuristic node ordering for every node-based weighting the node ordering of the first node-based
+     * weighting is stored and used to contract the graph for all other node-based weightings. This speeds up the
+     * preparation considerably, but the queries for the other weightings can get slower. Default is false.
+     */
+    public CHAlgoFactoryDecorator setReuseNodeOrdering(boolean reuseNodeOrdering) {
+        this.reuseNodeOrdering = reuseNodeOrdering;
+        return this;
+    }
+
+    /**
+     * The number of random queries that are run per node-based weighting to log the query speed when the node
+     * ordering is reused. Use 0 to skip these queries.
+     */
+    public CHAlgoFactoryDecorator setNodeOrderingQueries(int nodeOrderingQueries) {
+        this.nodeOrderingQueries = nodeOrderingQueries;
+        return this;
+    }
+
     public void prepare(final StorableProperties properties) {
         ExecutorCompletionService completionService = new ExecutorCompletionService<>(threadPool);
+        final PrepareContractionHierarchies reference = getNodeOrderingReference();
+        final List<PrepareContractionHierarchies> fixedOrderingPreparations = new ArrayList<>();
+        NodeOrderingStorage nodeOrdering = null;
         int counter = 0;
-        for (final PrepareContractionHierarchies prepare : getPreparations()) {
-            LOGGER.info((++counter) + "/" + getPreparations().size() + " calling " +
-                    (prepare.isEdgeBased() ? "edge" : "node") + "-based CH prepare.doWork for " + prepare.getWeighting() + " ... (" + getMemInfo() + ")");
-            final String name = AbstractWeighting.weightingToFileName(prepare.getWeighting(), prepare.isEdgeBased());
-            completionService.submit(new Runnable() {
-                @Override
-                public void run() {
-                    // toString is not taken into account so we need to cheat, see http://stackoverflow.com/q/6113746/194609 for other options
-                    Thread.currentThread().setName(name);
-                    prepare.doWork();
-                    properties.put(CH.PREPARE + "date." + name, createFormatter().format(new Date()));
+        try {
+            Future<?> referenceFuture = null;
+            for (final PrepareContractionHierarchies prepare : getPreparations()) {
+                if (reference != null && prepare != reference && !prepare.isEdgeBased()) {
+                    // wait for the node ordering of the reference
+                    fixedOrderingPreparations.add(prepare);
+                    continue;
                 }
-            }, name);
-
-        }
+                Future<?> future = submit(completionService, prepare, properties, ++counter);
+                if (prepare == reference)
+                    referenceFuture = future;
+            }
 
-        threadPool.shutdown();
+            if (reference != null) {
+                referenceFuture.get();
+                nodeOrdering = storeNodeOrdering(reference);
+                for (final PrepareContractionHierarchies prepare : fixedOrderingPreparations) {
+                    prepare.useFixedNodeOrdering(nodeOrdering);
+                    submit(completionService, prepare, properties, ++counter);
+                }
+            }
 
-        try {
+            threadPool.shutdown();
             for (int i = 0; i < getPreparations().size(); i++) {
                 completionService.take().get();
             }
         } catch (Exception e) {
             threadPool.shutdownNow();
             throw new RuntimeException(e);
+        } finally {
+            if (nodeOrdering != null)
+                nodeOrdering.close();
+        }
+
+        if (nodeOrdering != null)
+            logQuerySpeed(reference, fixedOrderingPreparations);
+    }
+
+    private Future<?> submit(ExecutorCompletionService completionService, final PrepareContractionHierarchies prepare,
+                             final StorableProperties properties, int counter) {
+        LOGGER.info(counter + "/" + getPreparations().size() + " calling " +
+                (prepare.isEdgeBased() ? "edge" : "node") + "-based CH prepare.doWork for " + prepare.getWeighting() + " ... (" + getMemInfo() + ")");
+        final String name = AbstractWeighting.weightingToFileName(prepare.getWeighting(), prepare.isEdgeBased());
+        return completionService.submit(new Runnable() {
+            @Override
+            public void run() {
+                // toString is not taken into account so we need to cheat, see http://stackoverflow.com/q/6113746/194609 for other options
+                Thread.currentThread().setName(name);
+                prepare.doWork();
+                properties.put(CH.PREPARE + "date." + name, createFormatter().format(new Date()));
+            }
+        }, name);
+    }
+
+    /**
+     * @return the first node-based preparation if its node ordering should be reused, otherwise null
+     */
+    private PrepareContractionHierarchies getNodeOrderingReference() {
+        if (!reuseNodeOrdering)
+            return null;
+
+        PrepareContractionHierarchies reference = null;
+        int nodeBasedPreparations = 0;
+        for (PrepareContractionHierarchies prepare : getPreparations()) {
+            if (prepare.isEdgeBased())
+                continue;
+            if (reference == null)
+                reference = prepare;
+            nodeBasedPreparations++;
+        }
+        return nodeBasedPreparations > 1 ? reference : null;
+    }
+
+    private NodeOrderingStorage storeNodeOrdering(PrepareContractionHierarchies reference) {
+        // the ordering is only needed while the other weightings are prepared, so it is never written to the graph directory
+        CHGraph chGraph = reference.getCHGraph();
+        NodeOrderingStorage nodeOrdering = new NodeOrderingStorage(new RAMDirectory(), AbstractWeighting.weightingToFileName(reference.getWeighting(), false));
+        nodeOrdering.create(chGraph.getNodes() * 4L);
+        nodeOrdering.setNodeOrdering(chGraph);
+        return nodeOrdering;
+    }
+
+    /**
+     * Logs the mean number of visited nodes and the mean query time for the same random queries on every node-based
+     * weighting, relative to the weighting that determined the node ordering.
+     */
+    private void logQuerySpeed(PrepareContractionHierarchies reference, List<PrepareContractionHierarchies> fixedOrderingPreparations) {
+        if (nodeOrderingQueries <= 0)
+            return;
+
+        double[] referenceStats = calcQueryStats(reference);
+        LOGGER.info("node ordering of " + reference.getWeighting() + ", visited nodes: " + Math.round(referenceStats[0])
+                + ", query time: " + String.format(Locale.ROOT, "%.3f", referenceStats[1]) + "ms");
+        for (PrepareContractionHierarchies prepare : fixedOrderingPreparations) {
+            double[] stats = calcQueryStats(prepare);
+            LOGGER.info("reused node ordering for " + prepare.getWeighting() + ", visited nodes: " + Math.round(stats[0])
+                    + String.format(Locale.ROOT, " (%+.1f%%)", 100 * (stats[0] / referenceStats[0] - 1))
+                    + ", query time: " + String.format(Locale.ROOT, "%.3fms (%+.1f%%)", stats[1], 100 * (stats[1] / referenceStats[1] - 1)));
+        }
+    }
+
+    /**
+     * @return the mean number of visited nodes and the mean query time in ms
+     */
+    private double[] calcQueryStats(PrepareContractionHierarchies prepare) {
+        CHGraph chGraph = prepare.getCHGraph();
+        AlgorithmOptions opts = AlgorithmOptions.start().weighting(prepare.getWeighting()).build();
+        Random random = new Random(123);
+        long visitedNodes = 0;
+        long nanos = 0;
+        for (int i = 0; i < nodeOrderingQueries; i++) {
+            int from = random.nextInt(chGraph.getNodes());
+            int to = random.nextInt(chGraph.getNodes());
+            RoutingAlgorithm algo = prepare.createAlgo(chGraph, opts);
+            long start = System.nanoTime();
+            algo.calcPath(from, to);
+            nanos += System.nanoTime() - start;
+            visitedNodes += algo.getVisitedNodes();
         }
+        return new double[]{visitedNodes / (double) nodeOrderingQueries, nanos / 1e6 / nodeOrderingQueries};
     }
 
     public void createPreparations(GraphHopperStorage ghStorage) {
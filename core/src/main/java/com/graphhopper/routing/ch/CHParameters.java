@@ -9,10 +9,15 @@ public final class CHParameters {
     public static final String NEIGHBOR_UPDATES = Parameters.CH.PREPARE + "updates.neighbor";
     public static final String CONTRACTED_NODES = Parameters.CH.PREPARE + "contracted_nodes";
     public static final String LOG_MESSAGES = Parameters.CH.PREPARE + "log_messages";
+    public static final String CONTRACTION_THREADS = Parameters.CH.PREPARE + "contraction_threads";
     // node contraction, node-based
     public static final String EDGE_DIFFERENCE_WEIGHT = Parameters.CH.PREPARE + "node.edge_difference_weight";
     public static final String ORIGINAL_EDGE_COUNT_WEIGHT = Parameters.CH.PREPARE + "node.original_edge_count_weight";
     public static final String CONTRACTED_NEIGHBORS_WEIGHT = Parameters.CH.PREPARE + "node.contracted_neighbors_weight";
+    public static final String MAX_SETTLED_NODES_FACTOR_PRIORITY = Parameters.CH.PREPARE + "node.witness_search.max_settled_nodes_factor.priority";
+    public static final String MAX_SETTLED_NODES_FACTOR_CONTRACTION = Parameters.CH.PREPARE + "node.witness_search.max_settled_nodes_factor.contraction";
+    public static final String MAX_HOPS_PRIORITY = Parameters.CH.PREPARE + "node.witness_search.max_hops.priority";
+    public static final String MAX_HOPS_CONTRACTION = Parameters.CH.PREPARE + "node.witness_search.max_hops.contraction";
     // node contraction, edge-based
     public static final String EDGE_QUOTIENT_WEIGHT = Parameters.CH.PREPARE + "edge.edge_quotient_weight";
     public static final String ORIGINAL_EDGE_QUOTIENT_WEIGHT = Parameters.CH.PREPARE + "edge.original_edge_quotient_weight";
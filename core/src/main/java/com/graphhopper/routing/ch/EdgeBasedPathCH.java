@@ -1,5 +1,6 @@
 package com.graphhopper.routing.ch;
 
+import com.graphhopper.routing.Path;
 import com.graphhopper.routing.weighting.TurnWeighting;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.Graph;
@@ -20,6 +21,18 @@ public class EdgeBasedPathCH extends Path4CH {
         turnWeighting = (TurnWeighting) weighting;
     }
 
+    /**
+     * Edge-based shortcuts are never recustomized and the visitor does not see the turn at the meeting point, so the
+     * weight of the search is kept.
+     */
+    @Override
+    public Path extract() {
+        final double searchWeight = getWeight();
+        super.extract();
+        setWeight(searchWeight);
+        return this;
+    }
+
     @Override
     protected ShortcutUnpacker getShortcutUnpacker(Graph routingGraph, final Weighting weighting) {
         return new ShortcutUnpacker(routingGraph, new ShortcutUnpacker.Visitor() {
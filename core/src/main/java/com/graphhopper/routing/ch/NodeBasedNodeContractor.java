@@ -17,7 +17,9 @@
  */
 package com.graphhopper.routing.ch;
 
-import com.graphhopper.routing.DijkstraOneToMany;
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.LongIntHashMap;
 import com.graphhopper.routing.util.*;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.CHGraph;
@@ -25,26 +27,20 @@ import com.graphhopper.storage.Graph;
 import com.graphhopper.storage.NodeAccess;
 import com.graphhopper.util.*;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.Map;
+import java.util.*;
 
 import static com.graphhopper.routing.ch.CHParameters.*;
 import static com.graphhopper.util.Helper.nf;
 
 class NodeBasedNodeContractor extends AbstractNodeContractor {
     private final PreparationWeighting prepareWeighting;
-    private final Map<Shortcut, Shortcut> shortcuts = new HashMap<>();
-    private final AddShortcutHandler addScHandler = new AddShortcutHandler();
-    private final CalcShortcutHandler calcScHandler = new CalcShortcutHandler();
     private final Params params = new Params();
-    private CHEdgeExplorer remainingEdgeExplorer;
-    private IgnoreNodeFilter ignoreNodeFilter;
-    private DijkstraOneToMany prepareAlgo;
+    // all witness searches that were created, the first one is used by the sequential contraction
+    private final List<WitnessSearch> witnessSearches = new ArrayList<>();
+    private WitnessSearch witnessSearch;
     private int addedShortcutsCount;
-    private long dijkstraCount;
-    private StopWatch dijkstraSW = new StopWatch();
+    private int contractedNodesCount;
+    private long contractionStartNanos;
     // meanDegree is the number of edges / number of nodes ratio of the graph, not really the average degree, because
     // each edge can exist in both directions
     private double meanDegree;
@@ -59,21 +55,26 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
         params.edgeDifferenceWeight = pMap.getFloat(EDGE_DIFFERENCE_WEIGHT, params.edgeDifferenceWeight);
         params.originalEdgesCountWeight = pMap.getFloat(ORIGINAL_EDGE_COUNT_WEIGHT, params.originalEdgesCountWeight);
         params.contractedNeighborsWeight = pMap.getFloat(CONTRACTED_NEIGHBORS_WEIGHT, params.contractedNeighborsWeight);
+        params.maxSettledNodesFactorPriority = pMap.getInt(MAX_SETTLED_NODES_FACTOR_PRIORITY, params.maxSettledNodesFactorPriority);
+        params.maxSettledNodesFactorContraction = pMap.getInt(MAX_SETTLED_NODES_FACTOR_CONTRACTION, params.maxSettledNodesFactorContraction);
+        params.maxHopsPriority = pMap.getInt(MAX_HOPS_PRIORITY, params.maxHopsPriority);
+        params.maxHopsContraction = pMap.getInt(MAX_HOPS_CONTRACTION, params.maxHopsContraction);
     }
 
     @Override
     public void initFromGraph() {
         super.initFromGraph();
-        ignoreNodeFilter = new IgnoreNodeFilter(prepareGraph, maxLevel);
-        final EdgeFilter allFilter = DefaultEdgeFilter.allEdges(encoder);
-        final EdgeFilter remainingNodesFilter = new LevelEdgeFilter(prepareGraph) {
-            @Override
-            public final boolean accept(EdgeIteratorState edgeState) {
-                return super.accept(edgeState) && allFilter.accept(edgeState);
-            }
-        };
-        remainingEdgeExplorer = prepareGraph.createEdgeExplorer(remainingNodesFilter);
-        prepareAlgo = new DijkstraOneToMany(prepareGraph, prepareWeighting, TraversalMode.NODE_BASED);
+        witnessSearch = createWitnessSearch();
+    }
+
+    /**
+     * Creates the state of the witness searches for one thread. Several threads can search for shortcuts concurrently
+     * as long as the graph is not changed in the meantime.
+     */
+    WitnessSearch createWitnessSearch() {
+        final WitnessSearch search = new WitnessSearch();
+        witnessSearches.add(search);
+        return search;
     }
 
     @Override
@@ -84,12 +85,15 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
         // graph contraction parameters, because it affects the node contraction order.
         // when this is done there should be no need for this method any longer.
         meanDegree = prepareGraph.getEdges() / prepareGraph.getNodes();
+        contractionStartNanos = System.nanoTime();
     }
 
     @Override
     public void close() {
         super.close();
-        prepareAlgo.close();
+        for (WitnessSearch search : witnessSearches) {
+            search.witnessPathSearcher.close();
+        }
     }
 
     /**
@@ -99,7 +103,11 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
      */
     @Override
     public float calculatePriority(int node) {
-        CalcShortcutsResult calcShortcutsResult = calcShortcutCount(node);
+        return calculatePriority(node, witnessSearch);
+    }
+
+    float calculatePriority(int node, WitnessSearch search) {
+        CalcShortcutsResult calcShortcutsResult = calcShortcutCount(node, search);
 
         // # huge influence: the bigger the less shortcuts gets created and the faster is the preparation
         //
@@ -115,7 +123,7 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
         // number of already contracted neighbors of v
         int contractedNeighbors = 0;
         int degree = 0;
-        CHEdgeIterator iter = remainingEdgeExplorer.setBaseNode(node);
+        CHEdgeIterator iter = search.remainingEdgeExplorer.setBaseNode(node);
         while (iter.next()) {
             degree++;
             if (iter.isShortcut())
@@ -138,17 +146,46 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
 
     @Override
     public void contractNode(int node) {
-        shortcuts.clear();
-        long degree = findShortcuts(addScHandler.setNode(node));
-        addedShortcutsCount += addShortcuts(shortcuts.keySet());
+        long degree = findShortcuts(witnessSearch.addScHandler.setNode(node), witnessSearch);
+        addShortcuts(degree, witnessSearch.shortcuts);
+    }
+
+    /**
+     * Finds the shortcuts that are required to contract the given node without changing the graph.
+     */
+    NodeShortcuts findShortcuts(int node, WitnessSearch search) {
+        long degree = findShortcuts(search.addScHandler.setNode(node), search);
+        return new NodeShortcuts(node, degree, search.shortcuts.copy());
+    }
+
+    /**
+     * Adds the shortcuts that were found for a node to the graph.
+     */
+    void addShortcuts(NodeShortcuts nodeShortcuts) {
+        addShortcuts(nodeShortcuts.degree, nodeShortcuts.shortcuts);
+    }
+
+    private void addShortcuts(long degree, ShortcutBuffer shortcuts) {
+        addedShortcutsCount += addShortcuts(shortcuts);
+        contractedNodesCount++;
         // put weight factor on meanDegree instead of taking the average => meanDegree is more stable
         meanDegree = (meanDegree * 2 + degree) / 3;
     }
 
     @Override
     public String getStatisticsString() {
-        return String.format(Locale.ROOT, "meanDegree: %.2f, dijkstras: %10s, mem: %10s",
-                meanDegree, nf(dijkstraCount), prepareAlgo.getMemoryUsageAsString());
+        return String.format(Locale.ROOT, "meanDegree: %.2f, dijkstras: %10s, nodes/s: %10s, mem: %10s",
+                meanDegree, nf(getDijkstraCount()), nf(getContractedNodesPerSecond()),
+                witnessSearch.witnessPathSearcher.getMemoryUsageAsString());
+    }
+
+    /**
+     * The number of nodes contracted per second since the contraction was prepared, including the time for the
+     * priority updates in between.
+     */
+    long getContractedNodesPerSecond() {
+        long nanos = System.nanoTime() - contractionStartNanos;
+        return nanos <= 0 ? 0 : Math.round(contractedNodesCount * 1.e9 / nanos);
     }
 
     @Override
@@ -162,10 +199,14 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
      * Returns the 'degree' of the handler's node (disregarding edges from/to already contracted nodes). Note that
      * here the degree is not the total number of adjacent edges, but only the number of incoming edges
      */
-    private long findShortcuts(ShortcutHandler sch) {
-        int maxVisitedNodes = getMaxVisitedNodesEstimate();
+    private long findShortcuts(ShortcutHandler sch, WitnessSearch search) {
+        final boolean contraction = sch == search.addScHandler;
+        final int maxSettledNodes = getMaxVisitedNodesEstimate(contraction
+                ? params.maxSettledNodesFactorContraction : params.maxSettledNodesFactorPriority);
+        final int maxHops = contraction ? params.maxHopsContraction : params.maxHopsPriority;
         long degree = 0;
-        EdgeIterator incomingEdges = inEdgeExplorer.setBaseNode(sch.getNode());
+        final NodeBasedWitnessPathSearcher witnessPathSearcher = search.witnessPathSearcher;
+        EdgeIterator incomingEdges = search.inEdgeExplorer.setBaseNode(sch.getNode());
         // collect outgoing nodes (goal-nodes) only once
         while (incomingEdges.next()) {
             int fromNode = incomingEdges.getAdjNode();
@@ -182,9 +223,9 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
             int incomingEdge = incomingEdges.getEdge();
             int inOrigEdgeCount = getOrigEdgeCount(incomingEdge);
             // collect outgoing nodes (goal-nodes) only once
-            EdgeIterator outgoingEdges = outEdgeExplorer.setBaseNode(sch.getNode());
-            // force fresh maps etc as this cannot be determined by from node alone (e.g. same from node but different avoidNode)
-            prepareAlgo.clear();
+            EdgeIterator outgoingEdges = search.outEdgeExplorer.setBaseNode(sch.getNode());
+            // force a fresh search as this cannot be determined by from node alone (e.g. same from node but different avoidNode)
+            witnessPathSearcher.init(fromNode, sch.getNode());
             degree++;
             while (outgoingEdges.next()) {
                 int toNode = outgoingEdges.getAdjNode();
@@ -205,17 +246,13 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
                     continue;
 
                 final double existingDistSum = incomingEdgeDistance + outgoingEdges.getDistance();
-                prepareAlgo.setWeightLimit(existingDirectWeight);
-                prepareAlgo.setMaxVisitedNodes(maxVisitedNodes);
-                prepareAlgo.setEdgeFilter(ignoreNodeFilter.setAvoidNode(sch.getNode()));
+                search.dijkstraSW.start();
+                search.dijkstraCount++;
+                double witnessWeight = witnessPathSearcher.findUpperBound(toNode, existingDirectWeight, maxSettledNodes, maxHops);
+                search.dijkstraSW.stop();
 
-                dijkstraSW.start();
-                dijkstraCount++;
-                int endNode = prepareAlgo.findEndNode(fromNode, toNode);
-                dijkstraSW.stop();
-
-                // compare end node as the limit could force dijkstra to finish earlier
-                if (endNode == toNode && prepareAlgo.getWeight(endNode) <= existingDirectWeight)
+                // the limits could force the search to finish before the target was found
+                if (witnessWeight <= existingDirectWeight)
                     // FOUND witness path, so do not add shortcut
                     continue;
 
@@ -233,20 +270,28 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
      *
      * @return the actual number of shortcuts that were added to the graph
      */
-    private int addShortcuts(Collection<Shortcut> shortcuts) {
+    private int addShortcuts(ShortcutBuffer shortcuts) {
         int tmpNewShortcuts = 0;
         NEXT_SC:
-        for (Shortcut sc : shortcuts) {
+        for (int sc = 0; sc < shortcuts.size(); sc++) {
+            final int from = shortcuts.from.get(sc);
+            final int to = shortcuts.to.get(sc);
+            final double weight = shortcuts.weight.get(sc);
+            final double dist = shortcuts.dist.get(sc);
+            final int skippedEdge1 = shortcuts.skippedEdge1.get(sc);
+            final int skippedEdge2 = shortcuts.skippedEdge2.get(sc);
+            final int originalEdges = shortcuts.originalEdges.get(sc);
+            final int flags = shortcuts.flags.get(sc);
             boolean updatedInGraph = false;
             // check if we need to update some existing shortcut in the graph
-            CHEdgeIterator iter = outEdgeExplorer.setBaseNode(sc.from);
+            CHEdgeIterator iter = outEdgeExplorer.setBaseNode(from);
             while (iter.next()) {
-                if (iter.isShortcut() && iter.getAdjNode() == sc.to) {
-                    int status = iter.getMergeStatus(sc.flags);
+                if (iter.isShortcut() && iter.getAdjNode() == to) {
+                    int status = iter.getMergeStatus(flags);
                     if (status == 0)
                         continue;
 
-                    if (sc.weight >= prepareWeighting.calcWeight(iter, false, EdgeIterator.NO_EDGE)) {
+                    if (weight >= prepareWeighting.calcWeight(iter, false, EdgeIterator.NO_EDGE)) {
                         // special case if a bidirectional shortcut has worse weight and still has to be added as otherwise the opposite direction would be missing
                         // see testShortcutMergeBug
                         if (status == 2)
@@ -255,28 +300,28 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
                         continue NEXT_SC;
                     }
 
-                    if (iter.getEdge() == sc.skippedEdge1 || iter.getEdge() == sc.skippedEdge2) {
+                    if (iter.getEdge() == skippedEdge1 || iter.getEdge() == skippedEdge2) {
                         throw new IllegalStateException("Shortcut cannot update itself! " + iter.getEdge()
-                                + ", skipEdge1:" + sc.skippedEdge1 + ", skipEdge2:" + sc.skippedEdge2
+                                + ", skipEdge1:" + skippedEdge1 + ", skipEdge2:" + skippedEdge2
                                 + ", edge " + iter + ":" + getCoords(iter, prepareGraph)
-                                + ", sc:" + sc
-                                + ", skippedEdge1: " + getCoords(prepareGraph.getEdgeIteratorState(sc.skippedEdge1, sc.from), prepareGraph)
-                                + ", skippedEdge2: " + getCoords(prepareGraph.getEdgeIteratorState(sc.skippedEdge2, sc.to), prepareGraph)
+                                + ", sc:" + shortcuts.toString(sc)
+                                + ", skippedEdge1: " + getCoords(prepareGraph.getEdgeIteratorState(skippedEdge1, from), prepareGraph)
+                                + ", skippedEdge2: " + getCoords(prepareGraph.getEdgeIteratorState(skippedEdge2, to), prepareGraph)
                                 + ", neighbors:" + GHUtility.getNeighbors(iter));
                     }
 
-                    iter.setFlagsAndWeight(sc.flags, sc.weight);
-                    iter.setDistance(sc.dist);
-                    iter.setSkippedEdges(sc.skippedEdge1, sc.skippedEdge2);
-                    setOrigEdgeCount(iter.getEdge(), sc.originalEdges);
+                    iter.setFlagsAndWeight(flags, weight);
+                    iter.setDistance(dist);
+                    iter.setSkippedEdges(skippedEdge1, skippedEdge2);
+                    setOrigEdgeCount(iter.getEdge(), originalEdges);
                     updatedInGraph = true;
                     break;
                 }
             }
 
             if (!updatedInGraph) {
-                int scId = prepareGraph.shortcut(sc.from, sc.to, sc.flags, sc.weight, sc.dist, sc.skippedEdge1, sc.skippedEdge2);
-                setOrigEdgeCount(scId, sc.originalEdges);
+                int scId = prepareGraph.shortcut(from, to, flags, weight, dist, skippedEdge1, skippedEdge2);
+                setOrigEdgeCount(scId, originalEdges);
 
                 tmpNewShortcuts++;
             }
@@ -284,9 +329,9 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
         return tmpNewShortcuts;
     }
 
-    private CalcShortcutsResult calcShortcutCount(int node) {
-        findShortcuts(calcScHandler.setNode(node));
-        return calcScHandler.calcShortcutsResult;
+    private CalcShortcutsResult calcShortcutCount(int node, WitnessSearch search) {
+        findShortcuts(search.calcScHandler.setNode(node), search);
+        return search.calcScHandler.calcShortcutsResult;
     }
 
     private String getCoords(EdgeIteratorState edge, Graph graph) {
@@ -304,66 +349,137 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
 
     @Override
     public long getDijkstraCount() {
+        long dijkstraCount = 0;
+        for (WitnessSearch search : witnessSearches) {
+            dijkstraCount += search.dijkstraCount;
+        }
         return dijkstraCount;
     }
 
+    /**
+     * The time of all witness searches, which exceeds the elapsed time when several threads search concurrently.
+     */
     @Override
     public float getDijkstraSeconds() {
-        return dijkstraSW.getCurrentSeconds();
+        float dijkstraSeconds = 0;
+        for (WitnessSearch search : witnessSearches) {
+            dijkstraSeconds += search.dijkstraSW.getCurrentSeconds();
+        }
+        return dijkstraSeconds;
     }
 
-    private int getMaxVisitedNodesEstimate() {
+    private int getMaxVisitedNodesEstimate(int factor) {
         // todo: we return 0 here if meanDegree is < 1, which is not really what we want, but changing this changes
         // the node contraction order and requires re-optimizing the parameters of the graph contraction
-        return (int) meanDegree * 100;
+        return (int) meanDegree * factor;
     }
 
-    private static class Shortcut {
-        int from;
-        int to;
-        int skippedEdge1;
-        int skippedEdge2;
-        double dist;
-        double weight;
-        int originalEdges;
-        int flags = PrepareEncoder.getScFwdDir();
-
-        public Shortcut(int from, int to, double weight, double dist) {
+    /**
+     * The shortcuts found for a single node, stored column-wise in primitive lists that are reused for every node.
+     */
+    static final class ShortcutBuffer {
+        private final IntArrayList from;
+        private final IntArrayList to;
+        private final DoubleArrayList weight;
+        private final DoubleArrayList dist;
+        private final IntArrayList skippedEdge1;
+        private final IntArrayList skippedEdge2;
+        private final IntArrayList originalEdges;
+        private final IntArrayList flags;
+        // the last added shortcut of every (from, to) pair, the other shortcuts of the pair are chained via next
+        private final LongIntHashMap lastByNodes = new LongIntHashMap();
+        private final IntArrayList next = new IntArrayList();
+
+        ShortcutBuffer() {
+            this(new IntArrayList(), new IntArrayList(), new DoubleArrayList(), new DoubleArrayList(),
+                    new IntArrayList(), new IntArrayList(), new IntArrayList(), new IntArrayList());
+        }
+
+        private ShortcutBuffer(IntArrayList from, IntArrayList to, DoubleArrayList weight, DoubleArrayList dist,
+                               IntArrayList skippedEdge1, IntArrayList skippedEdge2, IntArrayList originalEdges,
+                               IntArrayList flags) {
             this.from = from;
             this.to = to;
             this.weight = weight;
             this.dist = dist;
+            this.skippedEdge1 = skippedEdge1;
+            this.skippedEdge2 = skippedEdge2;
+            this.originalEdges = originalEdges;
+            this.flags = flags;
+            for (int i = 0; i < size(); i++) {
+                index(i);
+            }
         }
 
-        @Override
-        public int hashCode() {
-            int hash = 5;
-            hash = 23 * hash + from;
-            hash = 23 * hash + to;
-            return 23 * hash
-                    + (int) (Double.doubleToLongBits(this.weight) ^ (Double.doubleToLongBits(this.weight) >>> 32));
+        private static long nodesKey(int from, int to) {
+            return ((long) from << 32) | (to & 0xFFFFFFFFL);
         }
 
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == null || getClass() != obj.getClass())
-                return false;
+        private void index(int sc) {
+            final long key = nodesKey(from.get(sc), to.get(sc));
+            next.add(lastByNodes.getOrDefault(key, -1));
+            lastByNodes.put(key, sc);
+        }
+
+        int size() {
+            return from.size();
+        }
 
-            final Shortcut other = (Shortcut) obj;
-            return this.from == other.from && this.to == other.to &&
-                    Double.doubleToLongBits(this.weight) == Double.doubleToLongBits(other.weight);
+        void clear() {
+            // removing the used keys keeps clearing proportional to the number of shortcuts and not to the capacity
+            for (int i = 0; i < size(); i++) {
+                lastByNodes.remove(nodesKey(from.get(i), to.get(i)));
+            }
+            next.elementsCount = 0;
+            from.elementsCount = 0;
+            to.elementsCount = 0;
+            weight.elementsCount = 0;
+            dist.elementsCount = 0;
+            skippedEdge1.elementsCount = 0;
+            skippedEdge2.elementsCount = 0;
+            originalEdges.elementsCount = 0;
+            flags.elementsCount = 0;
+        }
 
+        void add(int from, int to, double weight, double dist, int skippedEdge1, int skippedEdge2, int originalEdges) {
+            this.from.add(from);
+            this.to.add(to);
+            this.weight.add(weight);
+            this.dist.add(dist);
+            this.skippedEdge1.add(skippedEdge1);
+            this.skippedEdge2.add(skippedEdge2);
+            this.originalEdges.add(originalEdges);
+            this.flags.add(PrepareEncoder.getScFwdDir());
+            index(size() - 1);
         }
 
-        @Override
-        public String toString() {
+        /**
+         * @return the index of the shortcut with the given nodes and the same weight or -1 if there is none. Only the
+         * shortcuts between the same nodes are compared, so contracting a node with k shortcuts stays linear in k.
+         */
+        int find(int from, int to, double weight) {
+            final long weightBits = Double.doubleToLongBits(weight);
+            for (int i = lastByNodes.getOrDefault(nodesKey(from, to), -1); i >= 0; i = next.get(i)) {
+                if (Double.doubleToLongBits(this.weight.get(i)) == weightBits)
+                    return i;
+            }
+            return -1;
+        }
+
+        ShortcutBuffer copy() {
+            return new ShortcutBuffer(from.clone(), to.clone(), weight.clone(), dist.clone(),
+                    skippedEdge1.clone(), skippedEdge2.clone(), originalEdges.clone(), flags.clone());
+        }
+
+        String toString(int sc) {
             String str;
-            if (flags == PrepareEncoder.getScDirMask())
-                str = from + "<->";
+            if (flags.get(sc) == PrepareEncoder.getScDirMask())
+                str = from.get(sc) + "<->";
             else
-                str = from + "->";
+                str = from.get(sc) + "->";
 
-            return str + to + ", weight:" + weight + " (" + skippedEdge1 + "," + skippedEdge2 + "), dist: " + dist;
+            return str + to.get(sc) + ", weight:" + weight.get(sc) + " (" + skippedEdge1.get(sc) + ","
+                    + skippedEdge2.get(sc) + "), dist: " + dist.get(sc);
         }
     }
 
@@ -376,7 +492,7 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
         int getNode();
     }
 
-    private class CalcShortcutHandler implements ShortcutHandler {
+    private static class CalcShortcutHandler implements ShortcutHandler {
         int node;
         CalcShortcutsResult calcShortcutsResult = new CalcShortcutsResult();
 
@@ -402,9 +518,14 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
         }
     }
 
-    private class AddShortcutHandler implements ShortcutHandler {
+    private static class AddShortcutHandler implements ShortcutHandler {
+        private final ShortcutBuffer shortcuts;
         int node;
 
+        AddShortcutHandler(ShortcutBuffer shortcuts) {
+            this.shortcuts = shortcuts;
+        }
+
         @Override
         public int getNode() {
             return node;
@@ -426,25 +547,68 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
             // and also in the graph for u->w. If existing AND identical weight => update setProperties.
             // Hint: shortcuts are always one-way due to distinct level of every node but we don't
             // know yet the levels so we need to determine the correct direction or if both directions
-            Shortcut sc = new Shortcut(fromNode, toNode, existingDirectWeight, existingDistSum);
-            if (shortcuts.containsKey(sc))
+            if (shortcuts.find(fromNode, toNode, existingDirectWeight) >= 0)
                 return;
 
-            Shortcut tmpSc = new Shortcut(toNode, fromNode, existingDirectWeight, existingDistSum);
-            Shortcut tmpRetSc = shortcuts.get(tmpSc);
+            int reverse = shortcuts.find(toNode, fromNode, existingDirectWeight);
             // overwrite flags only if skipped edges are identical
-            if (tmpRetSc != null && tmpRetSc.skippedEdge2 == incomingEdge && tmpRetSc.skippedEdge1 == outgoingEdge) {
-                tmpRetSc.flags = PrepareEncoder.getScDirMask();
+            if (reverse >= 0 && shortcuts.skippedEdge2.get(reverse) == incomingEdge
+                    && shortcuts.skippedEdge1.get(reverse) == outgoingEdge) {
+                shortcuts.flags.set(reverse, PrepareEncoder.getScDirMask());
                 return;
             }
 
-            Shortcut old = shortcuts.put(sc, sc);
-            if (old != null)
-                throw new IllegalStateException("Shortcut did not exist (" + sc + ") but was overwriting another one? " + old);
+            shortcuts.add(fromNode, toNode, existingDirectWeight, existingDistSum,
+                    incomingEdge, outgoingEdge, inOrigEdgeCount + outOrigEdgeCount);
+        }
+    }
+
+    /**
+     * The explorers, the witness search and the collected shortcuts of a single thread.
+     */
+    final class WitnessSearch {
+        private final CHEdgeExplorer inEdgeExplorer = prepareGraph.createEdgeExplorer(DefaultEdgeFilter.inEdges(encoder));
+        private final CHEdgeExplorer outEdgeExplorer = prepareGraph.createEdgeExplorer(DefaultEdgeFilter.outEdges(encoder));
+        private final CHEdgeExplorer remainingEdgeExplorer;
+        private final NodeBasedWitnessPathSearcher witnessPathSearcher = new NodeBasedWitnessPathSearcher(prepareGraph, prepareWeighting, encoder);
+        private final ShortcutBuffer shortcuts = new ShortcutBuffer();
+        private final AddShortcutHandler addScHandler = new AddShortcutHandler(shortcuts);
+        private final CalcShortcutHandler calcScHandler = new CalcShortcutHandler();
+        private final StopWatch dijkstraSW = new StopWatch();
+        private long dijkstraCount;
+
+        private WitnessSearch() {
+            final EdgeFilter allFilter = DefaultEdgeFilter.allEdges(encoder);
+            final EdgeFilter remainingNodesFilter = new LevelEdgeFilter(prepareGraph) {
+                @Override
+                public final boolean accept(EdgeIteratorState edgeState) {
+                    return super.accept(edgeState) && allFilter.accept(edgeState);
+                }
+            };
+            remainingEdgeExplorer = prepareGraph.createEdgeExplorer(remainingNodesFilter);
+        }
+    }
+
+    /**
+     * The shortcuts that are required to contract a node.
+     */
+    static final class NodeShortcuts {
+        private final int node;
+        private final long degree;
+        private final ShortcutBuffer shortcuts;
+
+        private NodeShortcuts(int node, long degree, ShortcutBuffer shortcuts) {
+            this.node = node;
+            this.degree = degree;
+            this.shortcuts = shortcuts;
+        }
+
+        int getNode() {
+            return node;
+        }
 
-            sc.skippedEdge1 = incomingEdge;
-            sc.skippedEdge2 = outgoingEdge;
-            sc.originalEdges = inOrigEdgeCount + outOrigEdgeCount;
+        int size() {
+            return shortcuts.size();
         }
     }
 
@@ -458,6 +622,11 @@ class NodeBasedNodeContractor extends AbstractNodeContractor {
         private float edgeDifferenceWeight = 10;
         private float originalEdgesCountWeight = 1;
         private float contractedNeighborsWeight = 1;
+        // the limits of the witness searches when calculating the node priorities and when contracting the nodes
+        private int maxSettledNodesFactorPriority = 100;
+        private int maxSettledNodesFactorContraction = 100;
+        private int maxHopsPriority = Integer.MAX_VALUE;
+        private int maxHopsContraction = Integer.MAX_VALUE;
     }
 
 }
@@ -0,0 +1,304 @@
+/*
+ *  Licensed to GraphHopper GmbH under one or more contributor
+ *  license agreements. See the NOTICE file distributed with this work for
+ *  additional information regarding copyright ownership.
+ *
+ *  GraphHopper GmbH licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except in
+ *  compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.graphhopper.routing.ch;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.graphhopper.routing.util.DefaultEdgeFilter;
+import com.graphhopper.routing.util.FlagEncoder;
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.util.CHEdgeExplorer;
+import com.graphhopper.util.CHEdgeIterator;
+import com.graphhopper.util.EdgeIterator;
+import com.graphhopper.util.Helper;
+
+import java.util.Arrays;
+
+/**
+ * Helper class used to perform local witness path searches for graph preparation in node-based Contraction
+ * Hierarchies.
+ * <p>
+ * The search is a unidirectional Dijkstra from a source node that ignores the node to be contracted and all nodes that
+ * are contracted already. Subsequent searches for different targets keep on building the shortest path tree of the
+ * previous searches as long as the source node stays the same. All arrays are allocated once for all nodes of the
+ * graph and only the entries that were changed are reset for a new source node. The priority queue is a radix heap,
+ * which makes use of the fact that the weights of the settled nodes never decrease.
+ * <p>
+ * This class is not thread-safe, but each thread can use its own instance as long as the graph is not changed.
+ */
+class NodeBasedWitnessPathSearcher {
+    private final CHGraph chGraph;
+    private final PreparationWeighting prepareWeighting;
+    private final CHEdgeExplorer outEdgeExplorer;
+    private final int maxLevel;
+
+    // the weights and the number of edges of the best paths found so far, infinity for nodes that were not reached
+    private double[] weights;
+    private int[] hops;
+    private final IntArrayList changedNodes = new IntArrayList();
+    private final RadixHeap heap = new RadixHeap();
+
+    private int sourceNode;
+    private int avoidNode;
+    private int currNode;
+    private int settledNodes;
+    private boolean doClear = true;
+
+    NodeBasedWitnessPathSearcher(CHGraph chGraph, PreparationWeighting prepareWeighting, FlagEncoder encoder) {
+        this.chGraph = chGraph;
+        this.prepareWeighting = prepareWeighting;
+        this.outEdgeExplorer = chGraph.createEdgeExplorer(DefaultEdgeFilter.outEdges(encoder));
+        this.maxLevel = chGraph.getNodes();
+        weights = new double[chGraph.getNodes()];
+        Arrays.fill(weights, Double.POSITIVE_INFINITY);
+        hops = new int[chGraph.getNodes()];
+    }
+
+    /**
+     * Starts a new search from the given source node that does not pass the given node.
+     */
+    NodeBasedWitnessPathSearcher init(int sourceNode, int avoidNode) {
+        this.sourceNode = sourceNode;
+        this.avoidNode = avoidNode;
+        doClear = true;
+        return this;
+    }
+
+    /**
+     * Continues the search until the given target node is settled or one of the limits is reached.
+     *
+     * @param weightLimit     the search stops when the weight of the settled nodes exceeds this limit
+     * @param maxSettledNodes the maximum number of nodes settled by this call
+     * @param maxHops         the maximum number of edges of the paths that are explored
+     * @return the weight of the best path to the target found so far or infinity if it was not found. The weight can
+     * be larger than the given weight limit.
+     */
+    double findUpperBound(int targetNode, double weightLimit, int maxSettledNodes, int maxHops) {
+        if (doClear) {
+            reset();
+        } else {
+            // the target was reached by one of the previous searches of the same source node
+            if (weights[targetNode] <= weights[currNode])
+                return weights[targetNode];
+
+            if (heap.isEmpty() || settledNodes > maxSettledNodes)
+                return Double.POSITIVE_INFINITY;
+
+            currNode = heap.poll();
+        }
+
+        settledNodes = 0;
+        if (currNode == targetNode) {
+            if (heap.isEmpty())
+                doClear = true;
+            return weights[targetNode];
+        }
+
+        while (true) {
+            settledNodes++;
+            if (hops[currNode] < maxHops)
+                expand(currNode);
+
+            if (heap.isEmpty() || settledNodes > maxSettledNodes || weights[currNode] > weightLimit)
+                return Double.POSITIVE_INFINITY;
+
+            // the target is only peeked so that the next search for the same source node can continue from here
+            currNode = heap.peek();
+            if (currNode == targetNode)
+                return weights[targetNode];
+
+            heap.poll();
+        }
+    }
+
+    private void expand(int node) {
+        final double weight = weights[node];
+        CHEdgeIterator iter = outEdgeExplorer.setBaseNode(node);
+        while (iter.next()) {
+            int adjNode = iter.getAdjNode();
+            if (adjNode == avoidNode || chGraph.getLevel(adjNode) != maxLevel)
+                continue;
+
+            double tmpWeight = weight + prepareWeighting.calcWeight(iter, false, EdgeIterator.NO_EDGE);
+            if (Double.isInfinite(tmpWeight) || tmpWeight >= weights[adjNode])
+                continue;
+
+            if (Double.isInfinite(weights[adjNode]))
+                changedNodes.add(adjNode);
+            weights[adjNode] = tmpWeight;
+            hops[adjNode] = hops[node] + 1;
+            heap.insert(tmpWeight, adjNode);
+        }
+    }
+
+    private void reset() {
+        doClear = false;
+        final int[] buffer = changedNodes.buffer;
+        for (int i = 0; i < changedNodes.size(); i++) {
+            weights[buffer[i]] = Double.POSITIVE_INFINITY;
+        }
+        changedNodes.elementsCount = 0;
+        heap.clear();
+
+        currNode = sourceNode;
+        weights[sourceNode] = 0;
+        hops[sourceNode] = 0;
+        changedNodes.add(sourceNode);
+    }
+
+    void close() {
+        weights = null;
+        hops = null;
+    }
+
+    /**
+     * List currently used memory in MB (approximately)
+     */
+    String getMemoryUsageAsString() {
+        return ((8L + 4L) * weights.length
+                + changedNodes.buffer.length * 4L
+                + heap.getCapacity() * (8L + 4L)) / Helper.MB
+                + "MB";
+    }
+
+    /**
+     * A monotone priority queue for non-negative weights. The bit patterns of non-negative doubles have the same order
+     * as the doubles themselves, so the elements are put into the bucket of the highest bit in which their bit
+     * pattern differs from the one of the last polled minimum. An element is moved to a lower bucket at most 64 times.
+     * A node is inserted again when its weight decreases, the outdated entries are skipped when they are polled.
+     */
+    private final class RadixHeap {
+        private static final int BUCKETS = 65;
+        private final long[][] keys = new long[BUCKETS][];
+        private final int[][] nodes = new int[BUCKETS][];
+        private final int[] sizes = new int[BUCKETS];
+        private long last;
+        private int size;
+
+        RadixHeap() {
+            for (int i = 0; i < BUCKETS; i++) {
+                keys[i] = new long[4];
+                nodes[i] = new int[4];
+            }
+        }
+
+        void insert(double weight, int node) {
+            add(bucket(Double.doubleToRawLongBits(weight)), Double.doubleToRawLongBits(weight), node);
+            size++;
+        }
+
+        /**
+         * @return true if there are no entries with an up-to-date weight
+         */
+        boolean isEmpty() {
+            return !ensureMinimum();
+        }
+
+        int peek() {
+            if (!ensureMinimum())
+                throw new IllegalStateException("Cannot peek an empty heap");
+            return nodes[0][sizes[0] - 1];
+        }
+
+        int poll() {
+            final int node = peek();
+            sizes[0]--;
+            size--;
+            return node;
+        }
+
+        void clear() {
+            Arrays.fill(sizes, 0);
+            size = 0;
+            last = 0;
+        }
+
+        long getCapacity() {
+            long capacity = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                capacity += keys[i].length;
+            }
+            return capacity;
+        }
+
+        /**
+         * Makes sure that the last entry of the first bucket is an up-to-date entry with the minimum weight.
+         *
+         * @return false if the heap is empty
+         */
+        private boolean ensureMinimum() {
+            while (true) {
+                // all entries of the first bucket have the key of the last minimum
+                while (sizes[0] > 0) {
+                    if (isUpToDate(last, nodes[0][sizes[0] - 1]))
+                        return true;
+                    sizes[0]--;
+                    size--;
+                }
+                if (size == 0)
+                    return false;
+
+                int bucket = 1;
+                while (sizes[bucket] == 0) {
+                    bucket++;
+                }
+                final long[] bucketKeys = keys[bucket];
+                final int[] bucketNodes = nodes[bucket];
+                final int bucketSize = sizes[bucket];
+                long min = Long.MAX_VALUE;
+                for (int i = 0; i < bucketSize; i++) {
+                    if (bucketKeys[i] < min && isUpToDate(bucketKeys[i], bucketNodes[i]))
+                        min = bucketKeys[i];
+                }
+                sizes[bucket] = 0;
+                if (min == Long.MAX_VALUE) {
+                    size -= bucketSize;
+                    continue;
+                }
+
+                // all up-to-date entries of the bucket are moved to lower buckets, because they share more bits with
+                // the new minimum
+                last = min;
+                for (int i = 0; i < bucketSize; i++) {
+                    if (isUpToDate(bucketKeys[i], bucketNodes[i]))
+                        add(bucket(bucketKeys[i]), bucketKeys[i], bucketNodes[i]);
+                    else
+                        size--;
+                }
+            }
+        }
+
+        private boolean isUpToDate(long key, int node) {
+            return key == Double.doubleToRawLongBits(weights[node]);
+        }
+
+        private int bucket(long key) {
+            return key == last ? 0 : 64 - Long.numberOfLeadingZeros(key ^ last);
+        }
+
+        private void add(int bucket, long key, int node) {
+            int bucketSize = sizes[bucket];
+            if (bucketSize == keys[bucket].length) {
+                keys[bucket] = Arrays.copyOf(keys[bucket], bucketSize * 2);
+                nodes[bucket] = Arrays.copyOf(nodes[bucket], bucketSize * 2);
+            }
+            keys[bucket][bucketSize] = key;
+            nodes[bucket][bucketSize] = node;
+            sizes[bucket] = bucketSize + 1;
+        }
+    }
+}
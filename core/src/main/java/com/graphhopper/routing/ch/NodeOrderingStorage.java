@@ -0,0 +1,105 @@
+/*
+ *  Licensed to GraphHopper GmbH under one or more contributor
+ *  license agreements. See the NOTICE file distributed with this work for
+ *  additional information regarding copyright ownership.
+ *
+ *  GraphHopper GmbH licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except in
+ *  compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.graphhopper.routing.ch;
+
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.storage.DataAccess;
+import com.graphhopper.storage.Directory;
+import com.graphhopper.storage.Storable;
+
+/**
+ * Stores the node ordering of a contracted graph, i.e. the node id for every level, so that it can be used to contract
+ * the graph for other weightings, see {@link PrepareContractionHierarchies#useFixedNodeOrdering(NodeOrderingProvider)}.
+ */
+public class NodeOrderingStorage implements Storable<NodeOrderingStorage>, NodeOrderingProvider {
+    private final DataAccess da;
+    private int numNodes;
+
+    public NodeOrderingStorage(Directory dir, String postfix) {
+        da = dir.find("node_ordering_" + postfix);
+    }
+
+    /**
+     * Stores the levels of the given contracted graph. Nodes that were not contracted all have the maximum level, they
+     * come last and are ordered by their id.
+     */
+    public NodeOrderingStorage setNodeOrdering(CHGraph chGraph) {
+        numNodes = chGraph.getNodes();
+        da.ensureCapacity((long) numNodes * 4);
+        int contractedNodes = 0;
+        for (int node = 0; node < numNodes; node++) {
+            int level = chGraph.getLevel(node);
+            if (level >= numNodes)
+                continue;
+            da.setInt((long) level * 4, node);
+            contractedNodes++;
+        }
+        int uncontractedLevel = contractedNodes;
+        for (int node = 0; node < numNodes; node++) {
+            if (chGraph.getLevel(node) >= numNodes)
+                da.setInt((long) uncontractedLevel++ * 4, node);
+        }
+        da.setHeader(0, numNodes);
+        return this;
+    }
+
+    @Override
+    public int getNodeIdForLevel(int level) {
+        return da.getInt((long) level * 4);
+    }
+
+    @Override
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    @Override
+    public boolean loadExisting() {
+        if (!da.loadExisting())
+            return false;
+
+        numNodes = da.getHeader(0);
+        return true;
+    }
+
+    @Override
+    public NodeOrderingStorage create(long byteCount) {
+        da.create(byteCount);
+        return this;
+    }
+
+    @Override
+    public void flush() {
+        da.flush();
+    }
+
+    @Override
+    public void close() {
+        da.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return da.isClosed();
+    }
+
+    @Override
+    public long getCapacity() {
+        return da.getCapacity();
+    }
+}
@@ -17,6 +17,7 @@
  */
 package com.graphhopper.routing.ch;
 
+import com.graphhopper.routing.Path;
 import com.graphhopper.routing.PathBidirRef;
 import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.Graph;
@@ -27,12 +28,26 @@ import static com.graphhopper.util.EdgeIterator.NO_EDGE;
 
 public class Path4CH extends PathBidirRef {
     private final ShortcutUnpacker shortcutUnpacker;
+    private double unpackedWeight;
 
     public Path4CH(Graph routingGraph, Graph baseGraph, final Weighting weighting) {
         super(baseGraph, weighting);
         this.shortcutUnpacker = getShortcutUnpacker(routingGraph, weighting);
     }
 
+    /**
+     * The weight of the path is summed up from its original edges. It differs from the search weight if the path uses a
+     * shortcut whose directions were recustomized to different weights, see ShortcutRecustomizer.
+     */
+    @Override
+    public Path extract() {
+        unpackedWeight = 0;
+        super.extract();
+        if (isFound())
+            setWeight(unpackedWeight);
+        return this;
+    }
+
     @Override
     protected final void processEdge(int edgeId, int adjNode, int prevEdgeId) {
         // Shortcuts do only contain valid weight so first expand before adding
@@ -51,6 +66,7 @@ public class Path4CH extends PathBidirRef {
             public void visit(EdgeIteratorState edge, boolean reverse, int prevOrNextEdgeId) {
                 distance += edge.getDistance();
                 time += weighting.calcMillis(edge, reverse, NO_EDGE);
+                unpackedWeight += weighting.calcWeight(edge, reverse, NO_EDGE);
                 addEdge(edge.getEdge());
             }
         }, false);
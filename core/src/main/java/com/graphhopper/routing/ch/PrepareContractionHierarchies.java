@@ -17,6 +17,8 @@
  */
 package com.graphhopper.routing.ch;
 
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntContainer;
 import com.carrotsearch.hppc.IntHashSet;
 import com.carrotsearch.hppc.IntSet;
 import com.graphhopper.coll.GHTreeMapComposed;
@@ -29,8 +31,15 @@ import com.graphhopper.util.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.graphhopper.routing.ch.CHParameters.*;
 import static com.graphhopper.util.Helper.nf;
@@ -73,6 +82,8 @@ public class PrepareContractionHierarchies extends AbstractAlgoPreparation imple
     private float[] oldPriorities;
     private PMap pMap = new PMap();
     private int checkCounter;
+    private int contractionThreads = 1;
+    private ShortcutRecustomizer recustomizer;
 
     public PrepareContractionHierarchies(CHGraph chGraph, Weighting weighting, TraversalMode traversalMode) {
         this.prepareGraph = chGraph;
@@ -93,6 +104,19 @@ public class PrepareContractionHierarchies extends AbstractAlgoPreparation imple
         params.setNeighborUpdatePercentage(pMap.getInt(NEIGHBOR_UPDATES, params.getNeighborUpdatePercentage()));
         params.setNodesContractedPercentage(pMap.getInt(CONTRACTED_NODES, params.getNodesContractedPercentage()));
         params.setLogMessagesPercentage(pMap.getInt(LOG_MESSAGES, params.getLogMessagesPercentage()));
+        setContractionThreads(pMap.getInt(CONTRACTION_THREADS, contractionThreads));
+        return this;
+    }
+
+    /**
+     * With more than one thread independent nodes are contracted concurrently, see {@link #contractNodesInParallel()}.
+     * This is only supported for node-based CH without a fixed node ordering, otherwise the nodes are contracted
+     * sequentially.
+     */
+    public PrepareContractionHierarchies setContractionThreads(int contractionThreads) {
+        if (contractionThreads < 1)
+            throw new IllegalArgumentException(CONTRACTION_THREADS + " has to be at least 1");
+        this.contractionThreads = contractionThreads;
         return this;
     }
 
@@ -119,6 +143,7 @@ public class PrepareContractionHierarchies extends AbstractAlgoPreparation imple
         allSW.start();
         initFromGraph();
         runGraphContraction();
+        prepareAdjacencyArrays();
         allSW.stop();
         logFinalGraphStats();
     }
@@ -135,10 +160,19 @@ public class PrepareContractionHierarchies extends AbstractAlgoPreparation imple
         setMaxLevelOnAllNodes();
         if (nodeOrderingProvider != null) {
             contractNodesUsingFixedNodeOrdering();
+        } else if (contractionThreads > 1 && !traversalMode.isEdgeBased()) {
+            contractNodesInParallel();
         } else {
             contractNodesUsingHeuristicNodeOrdering();
         }
+    }
 
+    private void prepareAdjacencyArrays() {
+        // the upward and downward adjacency arrays used by RPHAST are stored with the graph, so they do not have to be
+        // built on the first query. RPHAST is node based only.
+        if (!traversalMode.isEdgeBased()) {
+            prepareGraph.prepareAdjacencyLists();
+        }
     }
 
     @Override
@@ -342,6 +376,209 @@ public class PrepareContractionHierarchies extends AbstractAlgoPreparation imple
         close();
     }
 
+    /**
+     * Contracts the graph in rounds. Every round selects the remaining nodes whose priority is smaller than the
+     * priority of all other remaining nodes within two hops. These nodes are independent, i.e. contracting one of them
+     * neither changes the shortcuts nor the priority of another one, so their witness searches can run concurrently
+     * on a graph that is not modified in the meantime. Afterwards their shortcuts are added to the graph in a single
+     * batch and the priorities of their neighbors are updated, again concurrently. In contrast to the sequential
+     * contraction there are no lazy and periodic updates, but all neighbors are updated in every round.
+     */
+    private void contractNodesInParallel() {
+        final NodeBasedNodeContractor contractor = (NodeBasedNodeContractor) nodeContractor;
+        final NodeBasedNodeContractor.WitnessSearch[] witnessSearches = new NodeBasedNodeContractor.WitnessSearch[contractionThreads];
+        final CHEdgeExplorer[] neighborExplorers = new CHEdgeExplorer[contractionThreads];
+        final CHEdgeExplorer[] secondNeighborExplorers = new CHEdgeExplorer[contractionThreads];
+        final EdgeFilter allFilter = DefaultEdgeFilter.allEdges(prepareWeighting.getFlagEncoder());
+        for (int i = 0; i < contractionThreads; i++) {
+            witnessSearches[i] = contractor.createWitnessSearch();
+            neighborExplorers[i] = prepareGraph.createEdgeExplorer(allFilter);
+            secondNeighborExplorers[i] = prepareGraph.createEdgeExplorer(allFilter);
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(contractionThreads);
+        try {
+            int[] remainingNodes = new int[prepareGraph.getNodes()];
+            for (int node = 0; node < remainingNodes.length; node++) {
+                remainingNodes[node] = node;
+            }
+            final int initSize = remainingNodes.length;
+            final long nodesToAvoidContract = Math.round((100 - params.getNodesContractedPercentage()) / 100d * initSize);
+
+            // as for the sequential contraction the initial priorities are calculated before preparing the contractor
+            periodicUpdateSW.start();
+            updatePrioritiesInParallel(executorService, remainingNodes, remainingNodes.length, witnessSearches);
+            periodicUpdateSW.stop();
+            contractor.prepareContraction();
+
+            int level = 0;
+            int rounds = 0;
+            while (remainingNodes.length > nodesToAvoidContract) {
+                final int[] candidates = remainingNodes;
+                final boolean[] independent = new boolean[candidates.length];
+                runInParallel(executorService, candidates.length, (worker, index) ->
+                        independent[index] = hasLocallyMinimalPriority(candidates[index], neighborExplorers[worker], secondNeighborExplorers[worker]));
+                final int[] independentNodes = filter(candidates, independent);
+
+                contractionSW.start();
+                final NodeBasedNodeContractor.NodeShortcuts[] shortcuts = new NodeBasedNodeContractor.NodeShortcuts[independentNodes.length];
+                runInParallel(executorService, independentNodes.length, (worker, index) ->
+                        shortcuts[index] = contractor.findShortcuts(independentNodes[index], witnessSearches[worker]));
+                for (NodeBasedNodeContractor.NodeShortcuts nodeShortcuts : shortcuts) {
+                    contractor.addShortcuts(nodeShortcuts);
+                    prepareGraph.setLevel(nodeShortcuts.getNode(), level);
+                    level++;
+                }
+                contractionSW.stop();
+                checkCounter += independentNodes.length;
+
+                // the neighbors are disjoint, because the contracted nodes are at least three hops apart
+                neighborUpdateSW.start();
+                final IntArrayList neighbors = new IntArrayList();
+                for (int node : independentNodes) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new RuntimeException("Thread was interrupted");
+                    }
+
+                    IntSet nodeNeighbors = new IntHashSet(10);
+                    CHEdgeIterator iter = vehicleAllExplorer.setBaseNode(node);
+                    while (iter.next()) {
+                        int adjNode = iter.getAdjNode();
+                        if (prepareGraph.getLevel(adjNode) != maxLevel)
+                            continue;
+                        if (nodeNeighbors.add(adjNode))
+                            neighbors.add(adjNode);
+                        prepareGraph.disconnect(vehicleAllTmpExplorer, iter);
+                    }
+                }
+                updatePrioritiesInParallel(executorService, neighbors.buffer, neighbors.size(), witnessSearches);
+                neighborUpdateSW.stop();
+
+                final boolean[] stillRemaining = new boolean[candidates.length];
+                for (int i = 0; i < candidates.length; i++) {
+                    stillRemaining[i] = prepareGraph.getLevel(candidates[i]) == maxLevel;
+                }
+                remainingNodes = filter(candidates, stillRemaining);
+                rounds++;
+                logger.debug("round: {}, contracted nodes: {}, remaining nodes: {}", rounds, nf(independentNodes.length), nf(remainingNodes.length));
+            }
+
+            logger.info(String.format(Locale.ROOT,
+                    "new shortcuts: %s, initSize: %s, %s, threads: %d, rounds: %d, %s, %s, %s",
+                    nf(nodeContractor.getAddedShortcutsCount()),
+                    nf(initSize),
+                    prepareWeighting,
+                    contractionThreads,
+                    rounds,
+                    getTimesAsString(),
+                    nodeContractor.getStatisticsString(),
+                    Helper.getMemInfo()));
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        close();
+    }
+
+    /**
+     * @return true if the priority of the node is smaller than the priority of every other remaining node within two
+     * hops. Equal priorities are decided by the node id, so the remaining node with the smallest priority is always
+     * selected.
+     */
+    private boolean hasLocallyMinimalPriority(int node, CHEdgeExplorer neighborExplorer, CHEdgeExplorer secondNeighborExplorer) {
+        CHEdgeIterator iter = neighborExplorer.setBaseNode(node);
+        while (iter.next()) {
+            int neighbor = iter.getAdjNode();
+            if (neighbor == node || prepareGraph.getLevel(neighbor) != maxLevel)
+                continue;
+            if (!hasSmallerPriority(node, neighbor))
+                return false;
+
+            CHEdgeIterator secondIter = secondNeighborExplorer.setBaseNode(neighbor);
+            while (secondIter.next()) {
+                int secondNeighbor = secondIter.getAdjNode();
+                if (secondNeighbor == node || prepareGraph.getLevel(secondNeighbor) != maxLevel)
+                    continue;
+                if (!hasSmallerPriority(node, secondNeighbor))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasSmallerPriority(int node, int otherNode) {
+        float priority = oldPriorities[node];
+        float otherPriority = oldPriorities[otherNode];
+        return priority < otherPriority || (priority == otherPriority && node < otherNode);
+    }
+
+    private void updatePrioritiesInParallel(ExecutorService executorService, final int[] nodes, int size,
+                                            final NodeBasedNodeContractor.WitnessSearch[] witnessSearches) {
+        final NodeBasedNodeContractor contractor = (NodeBasedNodeContractor) nodeContractor;
+        runInParallel(executorService, size, (worker, index) ->
+                oldPriorities[nodes[index]] = contractor.calculatePriority(nodes[index], witnessSearches[worker]));
+    }
+
+    private static int[] filter(int[] nodes, boolean[] keep) {
+        int count = 0;
+        for (boolean k : keep) {
+            if (k)
+                count++;
+        }
+        int[] result = new int[count];
+        int i = 0;
+        for (int n = 0; n < nodes.length; n++) {
+            if (keep[n])
+                result[i++] = nodes[n];
+        }
+        return result;
+    }
+
+    private interface IndexTask {
+        void run(int worker, int index);
+    }
+
+    /**
+     * Runs the task for all indices in [0, size). Every worker takes the next chunk of indices until none is left and
+     * passes its number, so that the task can use state that belongs to a single worker.
+     */
+    private void runInParallel(ExecutorService executorService, final int size, final IndexTask task) {
+        final int chunkSize = Math.max(1, Math.min(1000, size / (contractionThreads * 8)));
+        final AtomicInteger nextChunkStart = new AtomicInteger();
+        final List<Future<?>> futures = new ArrayList<>(contractionThreads);
+        for (int w = 0; w < contractionThreads; w++) {
+            final int worker = w;
+            futures.add(executorService.submit(() -> {
+                int from;
+                while ((from = nextChunkStart.getAndAdd(chunkSize)) < size) {
+                    int to = Math.min(size, from + chunkSize);
+                    for (int index = from; index < to; index++) {
+                        task.run(worker, index);
+                    }
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static void cancelAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
     private void contractNodesUsingFixedNodeOrdering() {
         nodeContractor.prepareContraction();
         final int nodesToContract = nodeOrderingProvider.getNumNodes();
@@ -429,6 +666,26 @@ public class PrepareContractionHierarchies extends AbstractAlgoPreparation imple
         return weighting;
     }
 
+    CHGraph getCHGraph() {
+        return prepareGraph;
+    }
+
+    /**
+     * Updates the weights of the shortcuts after the weights of some edges changed, without changing the node
+     * ordering and the shortcuts themselves. Only supported for node-based CH. The changes must not block edges,
+     * otherwise routes get lost, see ShortcutRecustomizer.
+     *
+     * @param changedEdges the ids of the edges whose weight or access changed
+     * @return the number of updated shortcuts
+     */
+    public int recustomize(IntContainer changedEdges) {
+        if (traversalMode.isEdgeBased())
+            throw new IllegalStateException("Recustomization is not supported for edge-based CH");
+        if (recustomizer == null)
+            recustomizer = new ShortcutRecustomizer(prepareGraph, prepareWeighting);
+        return recustomizer.recustomize(changedEdges);
+    }
+
     private String getTimesAsString() {
         float totalTime = allSW.getCurrentSeconds();
         float periodicUpdateTime = periodicUpdateSW.getCurrentSeconds();
@@ -0,0 +1,187 @@
+/*
+ *  Licensed to GraphHopper GmbH under one or more contributor
+ *  license agreements. See the NOTICE file distributed with this work for
+ *  additional information regarding copyright ownership.
+ *
+ *  GraphHopper GmbH licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except in
+ *  compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.graphhopper.routing.ch;
+
+import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntContainer;
+import com.carrotsearch.hppc.cursors.IntCursor;
+import com.graphhopper.coll.GHBitSet;
+import com.graphhopper.coll.GHBitSetImpl;
+import com.graphhopper.routing.profiles.BooleanEncodedValue;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.util.CHEdgeIteratorState;
+import com.graphhopper.util.EdgeIterator;
+
+/**
+ * Updates the weights of the shortcuts of a node-based CH graph after the weights of some base edges changed, e.g.
+ * via GraphHopper.changeGraph. The node ordering and the shortcuts stay the same, only the shortcuts that skip a
+ * changed edge (directly or via other shortcuts) get the weight of the path they skip. The shortcuts are processed
+ * bottom-up, i.e. in the order of the level of the node they skip, so that the skipped shortcuts are always updated
+ * before the shortcuts that skip them.
+ * <p>
+ * The changes must not block an edge, i.e. remove its access in a direction or make its weight infinite. The witness
+ * paths found during the contraction made the shortcuts between their end nodes unnecessary. When a witness path gets
+ * blocked these shortcuts do not exist, so the CH search cannot find routes that the graph still has. GraphHopper
+ * therefore rejects such changes, see ChangeGraphHelper.setBlockingAllowed. Slower witness paths only make the queries
+ * not optimal any longer, a new preparation fixes this.
+ * <p>
+ * This class is not thread-safe. The graph must not be read while it is changed.
+ */
+class ShortcutRecustomizer {
+    private final CHGraph chGraph;
+    private final Weighting weighting;
+    private final BooleanEncodedValue accessEnc;
+    // the shortcuts ordered by the level of the node they skip and their directions before the first update
+    private int[] bottomUpShortcuts;
+    private byte[] originalDirections;
+
+    ShortcutRecustomizer(CHGraph chGraph, Weighting weighting) {
+        this.chGraph = chGraph;
+        this.weighting = weighting;
+        this.accessEnc = weighting.getFlagEncoder().getAccessEnc();
+    }
+
+    /**
+     * @param changedEdges the ids of the base edges whose weight or access changed
+     * @return the number of shortcuts whose weight or directions changed
+     */
+    int recustomize(IntContainer changedEdges) {
+        if (bottomUpShortcuts == null)
+            init();
+
+        final int baseEdges = chGraph.getOriginalEdges();
+        final GHBitSet changed = new GHBitSetImpl(chGraph.getEdges());
+        // the edges whose adjacency entries change, which includes the shortcuts that keep their single weight
+        final GHBitSet affected = new GHBitSetImpl(chGraph.getEdges());
+        final IntArrayList affectedEdges = new IntArrayList();
+        for (IntCursor edge : changedEdges) {
+            if (edge.value < baseEdges && !changed.contains(edge.value)) {
+                changed.add(edge.value);
+                affected.add(edge.value);
+                affectedEdges.add(edge.value);
+            }
+        }
+
+        int updatedShortcuts = 0;
+        for (int shortcut : bottomUpShortcuts) {
+            CHEdgeIteratorState edgeState = chGraph.getEdgeIteratorState(shortcut, Integer.MIN_VALUE);
+            int skippedEdge1 = edgeState.getSkippedEdge1();
+            int skippedEdge2 = edgeState.getSkippedEdge2();
+            if (!affected.contains(skippedEdge1) && !affected.contains(skippedEdge2))
+                continue;
+            affected.add(shortcut);
+            affectedEdges.add(shortcut);
+            if (!changed.contains(skippedEdge1) && !changed.contains(skippedEdge2))
+                continue;
+
+            int baseNode = edgeState.getBaseNode();
+            int adjNode = edgeState.getAdjNode();
+            int viaNode = getViaNode(skippedEdge1);
+            int baseEdge = getOtherNode(skippedEdge1, viaNode) == baseNode ? skippedEdge1 : skippedEdge2;
+            int adjEdge = baseEdge == skippedEdge1 ? skippedEdge2 : skippedEdge1;
+
+            int directions = originalDirections[shortcut - baseEdges];
+            double fwdWeight = Double.POSITIVE_INFINITY;
+            if ((directions & PrepareEncoder.getScFwdDir()) != 0)
+                fwdWeight = calcWeight(baseEdge, baseNode, viaNode) + calcWeight(adjEdge, viaNode, adjNode);
+            double bwdWeight = Double.POSITIVE_INFINITY;
+            if ((directions & PrepareEncoder.getScBwdDir()) != 0)
+                bwdWeight = calcWeight(adjEdge, adjNode, viaNode) + calcWeight(baseEdge, viaNode, baseNode);
+
+            int flags = 0;
+            double weight = Double.POSITIVE_INFINITY;
+            if (!Double.isInfinite(fwdWeight)) {
+                flags |= PrepareEncoder.getScFwdDir();
+                weight = fwdWeight;
+            }
+            if (!Double.isInfinite(bwdWeight)) {
+                flags |= PrepareEncoder.getScBwdDir();
+                // a shortcut has a single weight for both directions. The larger one keeps the weight of a path via the
+                // shortcut a valid upper bound for the search, the cheaper direction gets its exact weight from the
+                // adjacency arrays and Path4CH sums the weights of the original edges
+                weight = Double.isInfinite(weight) ? bwdWeight : Math.max(weight, bwdWeight);
+            }
+
+            boolean oldFwd = edgeState.get(accessEnc);
+            boolean oldBwd = edgeState.getReverse(accessEnc);
+            double oldWeight = edgeState.getWeight();
+            edgeState.setFlagsAndWeight(flags, weight);
+            if (oldFwd != edgeState.get(accessEnc) || oldBwd != edgeState.getReverse(accessEnc) || oldWeight != edgeState.getWeight()) {
+                changed.add(shortcut);
+                updatedShortcuts++;
+            }
+        }
+
+        // the adjacency arrays hold the travel time and weight of every direction
+        if (!affectedEdges.isEmpty())
+            chGraph.updateAdjacencyLists(affectedEdges);
+        return updatedShortcuts;
+    }
+
+    /**
+     * Sorts the shortcuts by the level of the node they skip with a counting sort.
+     */
+    private void init() {
+        final int baseEdges = chGraph.getOriginalEdges();
+        final int shortcuts = chGraph.getEdges() - baseEdges;
+        final int[] viaLevels = new int[shortcuts];
+        final int[] offsets = new int[chGraph.getNodes() + 2];
+        originalDirections = new byte[shortcuts];
+        for (int i = 0; i < shortcuts; i++) {
+            CHEdgeIteratorState edgeState = chGraph.getEdgeIteratorState(baseEdges + i, Integer.MIN_VALUE);
+            viaLevels[i] = chGraph.getLevel(getViaNode(edgeState.getSkippedEdge1()));
+            offsets[viaLevels[i] + 1]++;
+            originalDirections[i] = (byte) ((edgeState.get(accessEnc) ? PrepareEncoder.getScFwdDir() : 0)
+                    | (edgeState.getReverse(accessEnc) ? PrepareEncoder.getScBwdDir() : 0));
+        }
+        for (int level = 1; level < offsets.length; level++) {
+            offsets[level] += offsets[level - 1];
+        }
+        bottomUpShortcuts = new int[shortcuts];
+        for (int i = 0; i < shortcuts; i++) {
+            bottomUpShortcuts[offsets[viaLevels[i]]++] = baseEdges + i;
+        }
+    }
+
+    /**
+     * @return the node that is skipped by a shortcut with the given skipped edge, which is the end of the skipped
+     * edge that was contracted first
+     */
+    private int getViaNode(int skippedEdge) {
+        CHEdgeIteratorState edgeState = chGraph.getEdgeIteratorState(skippedEdge, Integer.MIN_VALUE);
+        int baseNode = edgeState.getBaseNode();
+        int adjNode = edgeState.getAdjNode();
+        return chGraph.getLevel(baseNode) < chGraph.getLevel(adjNode) ? baseNode : adjNode;
+    }
+
+    private int getOtherNode(int edge, int node) {
+        CHEdgeIteratorState edgeState = chGraph.getEdgeIteratorState(edge, node);
+        return edgeState.getBaseNode();
+    }
+
+    /**
+     * @return the weight of the edge from 'from' to 'to' or infinity if it cannot be traversed in this direction
+     */
+    private double calcWeight(int edge, int from, int to) {
+        CHEdgeIteratorState edgeState = chGraph.getEdgeIteratorState(edge, to);
+        if (edgeState.getBaseNode() != from || !edgeState.get(accessEnc))
+            return Double.POSITIVE_INFINITY;
+        return weighting.calcWeight(edgeState, false, EdgeIterator.NO_EDGE);
+    }
+}
@@ -66,6 +66,7 @@ public class LMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecorator
     private boolean disablingAllowed = false;
     private final List<String> lmSuggestionsLocations = new ArrayList<>(5);
     private int preparationThreads;
+    private int landmarkThreads = 1;
     private ExecutorService threadPool;
     private boolean logDetails = false;
 
@@ -76,6 +77,7 @@ public class LMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecorator
     @Override
     public void init(CmdArgs args) {
         setPreparationThreads(args.getInt(Parameters.Landmark.PREPARE + "threads", getPreparationThreads()));
+        setLandmarkThreads(args.getInt(Landmark.PREPARE + "landmark_threads", getLandmarkThreads()));
 
         landmarkCount = args.getInt(Parameters.Landmark.COUNT, landmarkCount);
         activeLandmarkCount = args.getInt(Landmark.ACTIVE_COUNT_DEFAULT, Math.min(8, landmarkCount));
@@ -137,6 +139,19 @@ public class LMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecorator
         this.threadPool = java.util.concurrent.Executors.newFixedThreadPool(preparationThreads);
     }
 
+    public int getLandmarkThreads() {
+        return landmarkThreads;
+    }
+
+    /**
+     * This method changes the number of threads that explore the landmarks of a single weighting concurrently.
+     * Default is 1. Every thread needs memory for an exploration of the whole subnetwork.
+     */
+    public LMAlgoFactoryDecorator setLandmarkThreads(int landmarkThreads) {
+        this.landmarkThreads = landmarkThreads;
+        return this;
+    }
+
     /**
      * Enables the use of contraction hierarchies to reduce query times. Enabled by default.
      *
@@ -335,7 +350,8 @@ public class LMAlgoFactoryDecorator implements RoutingAlgorithmFactoryDecorator
                     weighting, landmarkCount, activeLandmarkCount).
                     setLandmarkSuggestions(lmSuggestions).
                     setMaximumWeight(maximumWeight).
-                    setLogDetails(logDetails);
+                    setLogDetails(logDetails).
+                    setLandmarkThreads(landmarkThreads);
             if (minNodes > 1)
                 tmpPrepareLM.setMinimumNodes(minNodes);
             addPreparation(tmpPrepareLM);
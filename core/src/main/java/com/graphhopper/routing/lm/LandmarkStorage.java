@@ -42,6 +42,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -78,6 +82,7 @@ public class LandmarkStorage implements Storable<LandmarkStorage> {
     private List<LandmarkSuggestion> landmarkSuggestions = Collections.emptyList();
     private SpatialRuleLookup ruleLookup;
     private boolean logDetails = false;
+    private int landmarkThreads = 1;
 
     public LandmarkStorage(GraphHopperStorage graph, Directory dir, final Weighting weighting, int landmarks) {
         this.graph = graph;
@@ -145,6 +150,17 @@ public class LandmarkStorage implements Storable<LandmarkStorage> {
         this.logDetails = logDetails;
     }
 
+    /**
+     * This method sets the number of threads that calculate the weights from and to the landmarks of a subnetwork
+     * concurrently. Default is 1. Every thread explores the whole subnetwork, so make sure that you have enough memory
+     * when increasing this number!
+     */
+    public void setLandmarkThreads(int landmarkThreads) {
+        if (landmarkThreads < 1)
+            throw new IllegalArgumentException("landmark threads must be positive but was " + landmarkThreads);
+        this.landmarkThreads = landmarkThreads;
+    }
+
     /**
      * This method forces the landmark preparation to skip the landmark search and uses the specified landmark list instead.
      * Useful for manual tuning of larger areas to safe import time or improve quality.
@@ -400,42 +416,95 @@ public class LandmarkStorage implements Storable<LandmarkStorage> {
         }
 
         // 2) calculate weights for all landmarks -> 'from' and 'to' weight
-        for (int lmIdx = 0; lmIdx < tmpLandmarkNodeIds.length; lmIdx++) {
-            if (Thread.currentThread().isInterrupted()) {
-                throw new RuntimeException("Thread was interrupted");
-            }
-            int lmNodeId = tmpLandmarkNodeIds[lmIdx];
-            LandmarkExplorer explorer = new LandmarkExplorer(graph, this, weighting, traversalMode, true);
-            explorer.setStartNode(lmNodeId);
-            explorer.setFilter(blockedEdges, true, false);
-            explorer.runAlgo();
-            explorer.initLandmarkWeights(lmIdx, lmNodeId, LM_ROW_LENGTH);
+        // set subnetwork id to all explored nodes, but do this only for the first landmark. this is done before the
+        // other landmarks are explored, because the subnetwork ids must not be changed concurrently
+        if (Thread.currentThread().isInterrupted()) {
+            throw new RuntimeException("Thread was interrupted");
+        }
+        if (exploreLandmark(0, tmpLandmarkNodeIds[0], blockedEdges, true).setSubnetworks(subnetworks, subnetworkId))
+            return false;
+        if (exploreLandmark(0, tmpLandmarkNodeIds[0], blockedEdges, false).setSubnetworks(subnetworks, subnetworkId))
+            return false;
+        logLandmarkWeightsProgress(0, tmpLandmarkNodeIds.length, logOffset);
 
-            // set subnetwork id to all explored nodes, but do this only for the first landmark
-            if (lmIdx == 0) {
-                if (explorer.setSubnetworks(subnetworks, subnetworkId))
-                    return false;
+        if (landmarkThreads > 1) {
+            createLandmarkWeightsInParallel(tmpLandmarkNodeIds, blockedEdges, logOffset);
+        } else {
+            for (int lmIdx = 1; lmIdx < tmpLandmarkNodeIds.length; lmIdx++) {
+                createLandmarkWeights(lmIdx, tmpLandmarkNodeIds, blockedEdges, logOffset);
             }
+        }
 
-            explorer = new LandmarkExplorer(graph, this, weighting, traversalMode, false);
-            explorer.setStartNode(lmNodeId);
-            explorer.setFilter(blockedEdges, false, true);
-            explorer.runAlgo();
-            explorer.initLandmarkWeights(lmIdx, lmNodeId, LM_ROW_LENGTH);
+        // TODO set weight to SHORT_MAX if entry has either no 'from' or no 'to' entry
+        landmarkIDs.add(tmpLandmarkNodeIds);
+        return true;
+    }
 
-            if (lmIdx == 0) {
-                if (explorer.setSubnetworks(subnetworks, subnetworkId))
-                    return false;
+    /**
+     * Every landmark has its own column in the rows of the landmark weights, so the landmarks can be explored
+     * concurrently. The 'to' weights of a landmark are stored relative to its 'from' weights and both are explored by
+     * the same thread.
+     */
+    private void createLandmarkWeightsInParallel(final int[] tmpLandmarkNodeIds, final IntHashSet blockedEdges,
+                                                 final int logOffset) {
+        final ExecutorService executorService = Executors.newFixedThreadPool(landmarkThreads);
+        List<Future<?>> futures = new ArrayList<>(tmpLandmarkNodeIds.length);
+        for (int lmIdx = 1; lmIdx < tmpLandmarkNodeIds.length; lmIdx++) {
+            final int index = lmIdx;
+            futures.add(executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    createLandmarkWeights(index, tmpLandmarkNodeIds, blockedEdges, logOffset);
+                }
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
             }
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static void cancelAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
 
-            if (logDetails && lmIdx % logOffset == 0)
-                LOGGER.info("Set landmarks weights [" + weighting + "]. "
-                        + "Progress " + (int) (100.0 * lmIdx / tmpLandmarkNodeIds.length) + "%");
+    private void createLandmarkWeights(int lmIdx, int[] tmpLandmarkNodeIds, IntHashSet blockedEdges, int logOffset) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new RuntimeException("Thread was interrupted");
         }
+        exploreLandmark(lmIdx, tmpLandmarkNodeIds[lmIdx], blockedEdges, true);
+        exploreLandmark(lmIdx, tmpLandmarkNodeIds[lmIdx], blockedEdges, false);
+        logLandmarkWeightsProgress(lmIdx, tmpLandmarkNodeIds.length, logOffset);
+    }
 
-        // TODO set weight to SHORT_MAX if entry has either no 'from' or no 'to' entry
-        landmarkIDs.add(tmpLandmarkNodeIds);
-        return true;
+    /**
+     * Explores the graph from (or to) the given landmark and stores the weights in the column of the landmark.
+     */
+    private LandmarkExplorer exploreLandmark(int lmIdx, int lmNodeId, IntHashSet blockedEdges, boolean from) {
+        LandmarkExplorer explorer = new LandmarkExplorer(graph, this, weighting, traversalMode, from);
+        explorer.setStartNode(lmNodeId);
+        explorer.setFilter(blockedEdges, from, !from);
+        explorer.runAlgo();
+        explorer.initLandmarkWeights(lmIdx, lmNodeId, LM_ROW_LENGTH);
+        return explorer;
+    }
+
+    private void logLandmarkWeightsProgress(int lmIdx, int landmarkCount, int logOffset) {
+        if (logDetails && lmIdx % logOffset == 0)
+            LOGGER.info("Set landmarks weights [" + weighting + "]. "
+                    + "Progress " + (int) (100.0 * lmIdx / landmarkCount) + "%");
     }
 
     /**
@@ -105,6 +105,14 @@ public class PrepareLandmarks extends AbstractAlgoPreparation {
         return this;
     }
 
+    /**
+     * @see LandmarkStorage#setLandmarkThreads(int)
+     */
+    public PrepareLandmarks setLandmarkThreads(int landmarkThreads) {
+        lms.setLandmarkThreads(landmarkThreads);
+        return this;
+    }
+
     LandmarkStorage getLandmarkStorage() {
         return lms;
     }
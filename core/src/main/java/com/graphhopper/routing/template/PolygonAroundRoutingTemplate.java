@@ -24,8 +24,7 @@ public class PolygonAroundRoutingTemplate extends PolygonRoutingTemplate{
 
     @Override
     public MultiRouting getPathSkeletonRouter(List<QueryResult> queryResults) {
-        return new ManyToManyRouting(pathSkeletonEdgeFilter, lotNodes.getAllLotNodes(), this.graph, queryResults,
-                this.algoFactory, this.algorithmOptions);
+        return new ManyToManyRouting(pathSkeletonEdgeFilter, lotNodes.getAllLotNodes(), this.graph, queryResults, this.algorithmOptions);
     }
 
     PathSkeletonGraph getPathSkeletonEdgeFilter() {
@@ -11,10 +11,10 @@ import com.graphhopper.storage.index.LocationIndex;
 import com.graphhopper.storage.index.QueryResult;
 import com.graphhopper.util.EdgeIterator;
 import com.graphhopper.util.PathMerger;
-import com.graphhopper.util.StopWatch;
 import com.graphhopper.util.Translation;
 import com.graphhopper.util.shapes.GHPoint;
-import sun.reflect.generics.reflectiveObjects.NotImplementedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
@@ -22,6 +22,12 @@ import java.util.List;
 import java.util.Set;
 
 public abstract class PolygonRoutingTemplate extends ViaRoutingTemplate {
+    /**
+     * Request hint to add the stage durations and set sizes of the request to the debug information of the response.
+     */
+    public static final String TRACE = "polygon.trace";
+
+    private static final Logger logger = LoggerFactory.getLogger(PolygonRoutingTemplate.class);
     private final GHRequest ghRequest;
     final LocationIndex locationIndex;
     NodeAccess nodeAccess;
@@ -35,6 +41,8 @@ public abstract class PolygonRoutingTemplate extends ViaRoutingTemplate {
     LOTNodeExtractor lotNodes;
     PathSkeletonGraph pathSkeletonEdgeFilter;
     private Set<Integer> polygonEntryExitPoints;
+    private final PolygonRoutingTrace trace = new PolygonRoutingTrace();
+    private PolygonRoutingMetrics metrics = PolygonRoutingMetrics.NONE;
 
     PolygonRoutingTemplate(GHRequest ghRequest, GHResponse ghRsp, LocationIndex locationIndex, EncodingManager encodingManager) {
         super(ghRequest, ghRsp, locationIndex, encodingManager);
@@ -44,11 +52,22 @@ public abstract class PolygonRoutingTemplate extends ViaRoutingTemplate {
         this.flagEncoder = encodingManager.getEncoder(ghRequest.getVehicle());
     }
 
+    /**
+     * @param metrics receives the trace of this request once its paths are merged
+     */
+    public PolygonRoutingTemplate setMetrics(final PolygonRoutingMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public PolygonRoutingTrace getTrace() {
+        return trace;
+    }
+
     @Override
     public List<Path> calcPaths(QueryGraph queryGraph, RoutingAlgorithmFactory algoFactory, AlgorithmOptions algoOpts) {
-        if (this.ghRequest.getPoints().size() != 2) {
-            // TODO implement for more than start & endpoint but also via points
-            throw new NotImplementedException();
+        if (this.ghRequest.getPoints().size() < 2) {
+            throw new IllegalArgumentException("At least 2 points have to be specified, but was:" + this.ghRequest.getPoints().size());
         }
         this.setCalcPathsParams(queryGraph, algoFactory, algoOpts);
         return routeWithPolygon();
@@ -59,43 +78,38 @@ public abstract class PolygonRoutingTemplate extends ViaRoutingTemplate {
         this.nodeAccess = graph.getNodeAccess();
         this.algoFactory = algoFactory;
         this.algorithmOptions = algoOpts;
-        this.routeCandidates = new RouteCandidateList<>();
     }
 
+    /**
+     * The preparation is shared by all legs, only the route candidates are built and ranked per leg.
+     */
     private List<Path> routeWithPolygon() {
-        prepareRouteCandidateList();
-        extractBestPathCandidate();
-
-        return this.pathList;
-    }
-
-    private void prepareRouteCandidateList() {
-        this.findCandidateRoutes();
-        this.routeCandidates.pruneDominatedCandidateRoutes();
-        this.pruneLowerQuantileInROIcandidateRoutes();
-    }
-
-    private void pruneLowerQuantileInROIcandidateRoutes() {
-        // Assumes that routeCandidates was already sorted descending to roi distance after pruning dominated route candidates
-        final int startIndex = (int) (this.routeCandidates.size() * 0.75) + 1;
+        final List<Integer> viaPointNodeIds = prepareAllLegs();
 
-        for (int i = startIndex; i < this.routeCandidates.size(); i++) {
-            this.routeCandidates.remove(i);
+        for (int i = 0; i < viaPointNodeIds.size() - 1; i++) {
+            this.routeCandidates = new RouteCandidateList<>();
+            buildRouteCandidatesForCurrentPoint(viaPointNodeIds.get(i), viaPointNodeIds.get(i + 1));
+            final long start = trace.start();
+            extractBestPathCandidate();
+            trace.stop(PolygonRoutingTrace.Stage.CANDIDATE_PRUNING, start);
         }
+
+        return this.pathList;
     }
 
     private void extractBestPathCandidate() {
-        this.routeCandidates.sortByGainAscending();
-        printAllCandidatesInSortedOrder();
+        if (logger.isDebugEnabled()) {
+            logAllCandidatesInSortedOrder();
+        }
         final List<Path> bestPath = this.routeCandidates.getFirstAsPathList(1, this.graph, this.algorithmOptions);
-        this.pathList.addAll(bestPath);
 
-        if (pathList.size() <= 0) {
+        if (bestPath.isEmpty()) {
             throw new IllegalStateException("No suitable path was found");
         }
+        this.pathList.addAll(bestPath);
     }
 
-    private void printAllCandidatesInSortedOrder() {
+    private void logAllCandidatesInSortedOrder() {
         final StringBuilder sb = new StringBuilder();
         sb.append("All non pruned route Candidates: \n");
 
@@ -104,7 +118,7 @@ public abstract class PolygonRoutingTemplate extends ViaRoutingTemplate {
             sb.append("\n");
         }
 
-        System.out.println(sb.toString());
+        logger.debug(sb.toString());
     }
 
     @Override
@@ -113,7 +127,16 @@ public abstract class PolygonRoutingTemplate extends ViaRoutingTemplate {
 
         this.altResponse.setWaypoints(getWaypoints());
         this.ghResponse.add(this.altResponse);
+        final long start = trace.start();
         pathMerger.doWork(this.altResponse, this.pathList, this.encodingManager, translation);
+        trace.stop(PolygonRoutingTrace.Stage.PATH_MERGE, start);
+
+        this.metrics.record(this.trace);
+        if (this.ghRequest.getHints().getBool(TRACE, false)) {
+            for (final String debugInfo : this.trace.toDebugInfo()) {
+                this.altResponse.addDebugInfo(debugInfo);
+            }
+        }
         return true;
     }
 
@@ -126,49 +149,43 @@ public abstract class PolygonRoutingTemplate extends ViaRoutingTemplate {
         return this.algoFactory.createAlgo(this.graph, this.algorithmOptions);
     }
 
-    protected void findCandidateRoutes() {
-        final StopWatch swFindNodesInPolygon = generateNodesInPolygonAndMeasureTime();
-        final StopWatch swFindEntryExitPoints = findPolygonEntryExitPointsAndMeasureTime();
+    /**
+     * Finds everything that does not depend on a single leg once for all via points: the region of interest, its entry
+     * and exit points, the LOT nodes of every via point and one path skeleton between all of these LOT nodes.
+     *
+     * @return the node ids of the via points
+     */
+    protected List<Integer> prepareAllLegs() {
+        generateNodesInPolygon();
+        findPolygonEntryExitPoints();
         final List<Integer> viaPointNodeIds = extractNodeIdsFromQueryResults();
-        final StopWatch swLOTNodes = findLotNodesAndMeasureTime(viaPointNodeIds);
+        findLotNodes(viaPointNodeIds);
         final List<QueryResult> queryResults = createQueryResults();
-        final StopWatch swPathSkeleton = findPathSkeletonAndMeasureTime(queryResults);
-
-        System.out.println("Candidate Routes found\n" +
-                           "Nodes in polygon : " + pathSkeletonEdgeFilter.size() + " in " + swFindNodesInPolygon.getSeconds() + "\n" +
-                           "Entry/Exit points: " + polygonEntryExitPoints.size() + " in " + swFindEntryExitPoints.getSeconds() + "\n" +
-                           "LOT Nodes        : " + lotNodes.size() + " in " + swLOTNodes.getSeconds() + "\n" +
-                           "Path Skeleton    : " + "in " + swPathSkeleton.getSeconds());
+        findPathSkeleton(queryResults);
 
-        for (int i = 0; i < viaPointNodeIds.size() - 1; i++) {
-            final int viaPointNodeId = viaPointNodeIds.get(i);
-            final int nextViaPointNodeId = viaPointNodeIds.get(i + 1);
-            buildRouteCandidatesForCurrentPoint(viaPointNodeId, nextViaPointNodeId);
-        }
+        logger.debug("Candidate routes prepared: {}", trace);
+        return viaPointNodeIds;
     }
 
-    private StopWatch findPathSkeletonAndMeasureTime(List<QueryResult> queryResults) {
-        final StopWatch swPathSkeleton = new StopWatch("Generate path skeleton");
-        swPathSkeleton.start();
+    private void findPathSkeleton(List<QueryResult> queryResults) {
+        final long start = trace.start();
 
         this.pathSkeletonRouter = getPathSkeletonRouter(queryResults);
         this.pathSkeletonRouter.findPathBetweenAllNodePairs();
 
-        swPathSkeleton.stop();
-        return swPathSkeleton;
+        trace.stop(PolygonRoutingTrace.Stage.PATH_SKELETON, start);
     }
 
     public abstract MultiRouting getPathSkeletonRouter(List<QueryResult> queryResults);
 
-    private StopWatch findLotNodesAndMeasureTime(List<Integer> viaPointNodeIds) {
-        final StopWatch swLOTNodes = new StopWatch("LOT node generation");
-        swLOTNodes.start();
+    private void findLotNodes(List<Integer> viaPointNodeIds) {
+        final long start = trace.start();
 
-        this.lotNodes = LOTNodeExtractor.createExtractedData(this.graph, this.algoFactory, this.algorithmOptions, viaPointNodeIds, polygonEntryExitPoints);
+        this.lotNodes = LOTNodeExtractor.createExtractedData(this.graph, this.algorithmOptions, viaPointNodeIds, polygonEntryExitPoints);
         failIfNotEnoughLotNodes();
 
-        swLOTNodes.stop();
-        return swLOTNodes;
+        trace.stop(PolygonRoutingTrace.Stage.LOT_NODES, start);
+        trace.addSize(PolygonRoutingTrace.Size.LOT_NODES, this.lotNodes.size());
     }
 
     private void failIfNotEnoughLotNodes() {
@@ -177,25 +194,23 @@ public abstract class PolygonRoutingTemplate extends ViaRoutingTemplate {
         }
     }
 
-    private StopWatch findPolygonEntryExitPointsAndMeasureTime() {
-        StopWatch swFindEntryExitPoints = new StopWatch("finding entry exit points");
-        swFindEntryExitPoints.start();
+    private void findPolygonEntryExitPoints() {
+        final long start = trace.start();
 
         this.polygonEntryExitPoints = findPolygonEntryExitPoints(pathSkeletonEdgeFilter);
 
-        swFindEntryExitPoints.stop();
-        return swFindEntryExitPoints;
+        trace.stop(PolygonRoutingTrace.Stage.ENTRY_EXIT_POINTS, start);
+        trace.addSize(PolygonRoutingTrace.Size.ENTRY_EXIT_POINTS, this.polygonEntryExitPoints.size());
     }
 
-    private StopWatch generateNodesInPolygonAndMeasureTime() {
-        StopWatch swFindNodesInPolygon = new StopWatch("finding nodes in polygon");
-        swFindNodesInPolygon.start();
+    private void generateNodesInPolygon() {
+        final long start = trace.start();
 
         this.pathSkeletonEdgeFilter = getPathSkeletonEdgeFilter();
         failOnNotEnoughNodesInPolygon();
 
-        swFindNodesInPolygon.stop();
-        return swFindNodesInPolygon;
+        trace.stop(PolygonRoutingTrace.Stage.ROI_NODES, start);
+        trace.addSize(PolygonRoutingTrace.Size.ROI_NODES, this.pathSkeletonEdgeFilter.size());
     }
 
     private void failOnNotEnoughNodesInPolygon() {
@@ -208,7 +223,11 @@ public abstract class PolygonRoutingTemplate extends ViaRoutingTemplate {
         final List<Integer> nodes = lotNodes.getAllLotNodes();
         final List<GHPoint> points = nodeIdsToGhPoints(nodes);
 
-        return this.lookup(points, flagEncoder);
+        // lookup replaces the query results of the via points, which are still needed for the waypoints of the response
+        final List<QueryResult> viaPointQueryResults = this.queryResults;
+        final List<QueryResult> lotNodeQueryResults = this.lookup(points, flagEncoder);
+        this.queryResults = viaPointQueryResults;
+        return lotNodeQueryResults;
     }
 
     private List<GHPoint> nodeIdsToGhPoints(List<Integer> nodes) {
@@ -234,19 +253,68 @@ public abstract class PolygonRoutingTemplate extends ViaRoutingTemplate {
         return nodeIds;
     }
 
+    /**
+     * Streams the pairs of LOT nodes as primitive tuples and creates RouteCandidates only for those that are neither
+     * dominated nor in the lower quantile of time spent in the region of interest. Looking up the times of all pairs
+     * is recorded as candidate routing, the pruning of the pairs as candidate pruning.
+     */
     private void buildRouteCandidatesForCurrentPoint(final int currentViaPoint, final int nextViaPoint) {
+        final long routingStart = trace.start();
         final Path directRoute = this.getNewRoutingAlgorithm().calcPath(currentViaPoint, nextViaPoint);
 
         final List<Integer> currentPointLotNodes = lotNodes.getLotNodesFor(currentViaPoint);
         final List<Integer> nextPointLotNodes = lotNodes.getLotNodesFor(nextViaPoint);
+        final double[] timesToDetourExit = getTimesToViaPoint(nextPointLotNodes, nextViaPoint);
 
+        final RouteCandidateTuples tuples = new RouteCandidateTuples();
         for (final int LOTNodeL : currentPointLotNodes) {
-            for (final int LOTNodeLPrime : nextPointLotNodes) {
-                if (LOTNodeL != LOTNodeLPrime) {
-                    this.routeCandidates.add(buildCandidatePath(currentViaPoint, nextViaPoint, LOTNodeL, LOTNodeLPrime, directRoute));
+            final double timeToDetourEntry = getTimeIfFound(this.lotNodes.getLotNodePathFor(currentViaPoint, LOTNodeL));
+            if (Double.isNaN(timeToDetourEntry)) {
+                continue;
+            }
+
+            for (int i = 0; i < nextPointLotNodes.size(); i++) {
+                final int LOTNodeLPrime = nextPointLotNodes.get(i);
+                if (LOTNodeL == LOTNodeLPrime || Double.isNaN(timesToDetourExit[i])) {
+                    continue;
+                }
+
+                final double timeInROI = getTimeIfFound(this.pathSkeletonRouter.getPathByFromEndNodeID(LOTNodeL, LOTNodeLPrime));
+                if (!Double.isNaN(timeInROI)) {
+                    tuples.add(LOTNodeL, LOTNodeLPrime, timeToDetourEntry + timeInROI + timesToDetourExit[i], timeInROI);
                 }
             }
         }
+
+        trace.stop(PolygonRoutingTrace.Stage.CANDIDATE_ROUTING, routingStart);
+        trace.addSize(PolygonRoutingTrace.Size.ROUTE_CANDIDATES, tuples.size());
+
+        final long pruningStart = trace.start();
+        tuples.pruneDominatedCandidateRoutes();
+        tuples.pruneLowerQuantileInROI(0.75);
+        for (int i = 0; i < tuples.size(); i++) {
+            this.routeCandidates.add(buildCandidatePath(currentViaPoint, nextViaPoint, tuples.getEntryNode(i), tuples.getExitNode(i), directRoute));
+        }
+        trace.stop(PolygonRoutingTrace.Stage.CANDIDATE_PRUNING, pruningStart);
+        trace.addSize(PolygonRoutingTrace.Size.PRUNED_ROUTE_CANDIDATES, tuples.size());
+    }
+
+    private double[] getTimesToViaPoint(final List<Integer> lotNodes, final int viaPoint) {
+        final double[] times = new double[lotNodes.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = getTimeIfFound(this.lotNodes.getLotNodePathFor(lotNodes.get(i), viaPoint));
+        }
+        return times;
+    }
+
+    /**
+     * @return the time of the path or NaN if it was not found
+     */
+    private static double getTimeIfFound(final Path path) {
+        if (path == null) {
+            throw new IllegalStateException("Calculate paths before validating them.");
+        }
+        return path.isFound() ? path.getTime() : Double.NaN;
     }
 
     private RouteCandidate buildCandidatePath(int currentPointID, int nextPointID, int lotNodeL, int lotNodeLPrime, Path directRoute) {
@@ -2,36 +2,71 @@ package com.graphhopper.routing.template;
 
 import com.graphhopper.GHRequest;
 import com.graphhopper.GHResponse;
-import com.graphhopper.routing.template.polygonRoutingUtil.MultiRouting;
-import com.graphhopper.routing.template.polygonRoutingUtil.PathSkeletonGraph;
-import com.graphhopper.routing.template.polygonRoutingUtil.RPHASTManyToMany;
-import com.graphhopper.routing.template.polygonRoutingUtil.RegionOfInterestRoutingGraph;
+import com.graphhopper.routing.RPHAST;
+import com.graphhopper.routing.RPHASTTargetSet;
+import com.graphhopper.routing.template.polygonRoutingUtil.*;
 import com.graphhopper.routing.util.EncodingManager;
 import com.graphhopper.storage.CHGraph;
 import com.graphhopper.storage.Graph;
 import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.storage.index.LocationIndex;
 import com.graphhopper.storage.index.QueryResult;
+import com.graphhopper.util.EdgeExplorer;
+import com.graphhopper.util.EdgeIterator;
 import com.graphhopper.util.shapes.Polygon;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 public class PolygonThroughRoutingTemplate extends PolygonRoutingTemplate {
+    private final PolygonPreparationCache preparationCache;
+    private PolygonPreparationCache.Entry cachedPreparation = null;
+    private ExecutorService executorService = null;
+    private int parallelism = 1;
 
     public PolygonThroughRoutingTemplate(GHRequest ghRequest, GHResponse ghRsp, LocationIndex locationIndex,
                                          EncodingManager encodingManager) {
+        this(ghRequest, ghRsp, locationIndex, encodingManager, null);
+    }
+
+    /**
+     * @param preparationCache shared between requests to reuse the region of interest and its RPHAST target set for
+     *                         polygons that were already requested. Might be null to prepare everything per request.
+     */
+    public PolygonThroughRoutingTemplate(GHRequest ghRequest, GHResponse ghRsp, LocationIndex locationIndex,
+                                         EncodingManager encodingManager, PolygonPreparationCache preparationCache) {
         super(ghRequest, ghRsp, locationIndex, encodingManager);
+        this.preparationCache = preparationCache;
+    }
+
+    /**
+     * @see RPHASTManyToMany#setExecutorService(ExecutorService, int)
+     */
+    public PolygonThroughRoutingTemplate setExecutorService(final ExecutorService executorService, final int parallelism) {
+        this.executorService = executorService;
+        this.parallelism = parallelism;
+        return this;
     }
 
     @Override
     public MultiRouting getPathSkeletonRouter(List<QueryResult> queryResults) {
+        final RPHASTManyToMany router = new RPHASTManyToMany(pathSkeletonEdgeFilter, lotNodes.getAllLotNodes(), getCHGraph(),
+                                                             this.algorithmOptions);
+        if (cachedPreparation != null) {
+            router.setPreparedTargetSet(cachedPreparation.getTargetSet());
+        }
+        router.setExecutorService(executorService, parallelism);
+        return router;
+    }
+
+    private CHGraph getCHGraph() {
         final Graph graph = this.graph.getMainGraph();
         if (graph instanceof GraphHopperStorage) {
-            return new RPHASTManyToMany(pathSkeletonEdgeFilter, lotNodes.getAllLotNodes(),
-                    (GraphHopperStorage) this.graph.getMainGraph(), this.algorithmOptions);
+            return ((GraphHopperStorage) graph).getCHGraph();
         } else if (graph instanceof CHGraph) {
-            return new RPHASTManyToMany(pathSkeletonEdgeFilter, lotNodes.getAllLotNodes(),
-                    (CHGraph) this.graph.getMainGraph(), this.algorithmOptions);
+            return (CHGraph) graph;
         } else {
             throw new IllegalArgumentException("No implementation found where a CH Graph can be retrieved from.");
         }
@@ -39,8 +74,39 @@ public class PolygonThroughRoutingTemplate extends PolygonRoutingTemplate {
 
     PathSkeletonGraph getPathSkeletonEdgeFilter() {
         final Polygon regionOfInterest = this.getGhRequest().getPolygon();
+        if (preparationCache == null) {
+            return new RegionOfInterestRoutingGraph(regionOfInterest, locationIndex, nodeAccess);
+        }
 
-        return new RegionOfInterestRoutingGraph(regionOfInterest, locationIndex, nodeAccess);
+        this.cachedPreparation = preparationCache.getOrCreate(regionOfInterest, algorithmOptions.getWeighting(),
+                                                              () -> preparePolygon(regionOfInterest));
+        return cachedPreparation.getRegionOfInterest();
     }
 
+    /**
+     * Prepares everything that only depends on the polygon. The RPHAST targets are all nodes of the base graph that
+     * are directly connected to the region of interest, so that they contain the LOT nodes of every request for this
+     * polygon unless a query point splits one of the border edges.
+     */
+    private PolygonPreparationCache.Entry preparePolygon(final Polygon regionOfInterest) {
+        final CHGraph chGraph = getCHGraph();
+        final Graph baseGraph = chGraph.getBaseGraph();
+        final RegionOfInterestRoutingGraph regionOfInterestGraph = new RegionOfInterestRoutingGraph(regionOfInterest, locationIndex,
+                                                                                                    baseGraph.getNodeAccess());
+
+        final Set<Integer> borderNodes = new LinkedHashSet<>();
+        final EdgeExplorer explorer = baseGraph.createEdgeExplorer();
+        for (int node : regionOfInterestGraph) {
+            final EdgeIterator iterator = explorer.setBaseNode(node);
+            while (iterator.next()) {
+                if (!regionOfInterestGraph.contains(iterator.getAdjNode())) {
+                    borderNodes.add(iterator.getAdjNode());
+                }
+            }
+        }
+
+        final RPHAST rphast = new RPHAST(chGraph, algorithmOptions.getWeighting(), regionOfInterestGraph);
+        final RPHASTTargetSet targetSet = rphast.prepareForTargetSet(borderNodes);
+        return new PolygonPreparationCache.Entry(regionOfInterestGraph, targetSet);
+    }
 }
@@ -1,34 +1,33 @@
 package com.graphhopper.routing.template.polygonRoutingUtil;
 
 import com.graphhopper.routing.AlgorithmOptions;
+import com.graphhopper.routing.OneToManyDijkstra;
 import com.graphhopper.routing.Path;
-import com.graphhopper.routing.RoutingAlgorithm;
-import com.graphhopper.routing.RoutingAlgorithmFactory;
 import com.graphhopper.storage.Graph;
 import com.graphhopper.util.EdgeExplorer;
 import com.graphhopper.util.EdgeIterator;
-import com.graphhopper.util.StopWatch;
 
 import java.util.*;
 
 /**
  * Takes a set of polygon entry exit points as well as a set of via routing points and extracts the local optimal touch nodes for each via point.
+ * The paths between a via point and all entry exit points are found by one search per direction.
  */
 public class LOTNodeExtractor {
-    private final Graph graph;
-    private final RoutingAlgorithmFactory routingAlgorithmFactory;
-    private final AlgorithmOptions algorithmOptions;
+    private final OneToManyDijkstra forwardSearch;
+    private final OneToManyDijkstra backwardSearch;
     private final EdgeExplorer edgeExplorer;
     private final List<Integer> viaPoints;
     private final Set<Integer> entryExitPoints;
     private final Map<Integer, List<Integer>> viaPointToLOTNodes;
     private final Map<NodeIdPair, Path> viaPointToEntryExitPointPath;
 
-    private LOTNodeExtractor(final Graph graph, final RoutingAlgorithmFactory routingAlgorithmFactory, final AlgorithmOptions algorithmOptions,
-                             final List<Integer> viaPoints, final Set<Integer> entryExitPoints) {
-        this.graph = graph;
-        this.routingAlgorithmFactory = routingAlgorithmFactory;
-        this.algorithmOptions = algorithmOptions;
+    private LOTNodeExtractor(final Graph graph, final AlgorithmOptions algorithmOptions, final List<Integer> viaPoints,
+                             final Set<Integer> entryExitPoints) {
+        // the searches run on the base graph, a CH graph would lead them over shortcuts
+        final Graph searchGraph = graph.getBaseGraph();
+        this.forwardSearch = new OneToManyDijkstra(searchGraph, algorithmOptions.getWeighting(), false);
+        this.backwardSearch = new OneToManyDijkstra(searchGraph, algorithmOptions.getWeighting(), true);
         this.edgeExplorer = graph.createEdgeExplorer();
         this.viaPoints = viaPoints;
         this.entryExitPoints = entryExitPoints;
@@ -38,9 +37,9 @@ public class LOTNodeExtractor {
         this.extractData();
     }
 
-    public static LOTNodeExtractor createExtractedData(final Graph graph, final RoutingAlgorithmFactory routingAlgorithmFactory, final AlgorithmOptions algorithmOptions,
+    public static LOTNodeExtractor createExtractedData(final Graph graph, final AlgorithmOptions algorithmOptions,
                                                        final List<Integer> viaPoints, final Set<Integer> entryExitPoints) {
-        return new LOTNodeExtractor(graph, routingAlgorithmFactory, algorithmOptions, viaPoints, entryExitPoints);
+        return new LOTNodeExtractor(graph, algorithmOptions, viaPoints, entryExitPoints);
     }
 
     private void extractData() {
@@ -49,23 +48,9 @@ public class LOTNodeExtractor {
     }
 
     private void savePathBetweenAllViaPointsAndEntryExitPoints() {
-        StopWatch sw = new StopWatch("StartPoint Node Extraction");
-        sw.start();
         savePathFromStartPoint();
-        sw.stop();
-        System.out.println(sw.toString());
-
-        sw = new StopWatch("Intermediate Node Extraction");
-        sw.start();
         savePathFromIntermediatePoints();
-        sw.stop();
-        System.out.println(sw.toString());
-
-        sw = new StopWatch("EndPoint Node Extraction");
-        sw.start();
         savePathFromRouteEndpoint();
-        sw.stop();
-        System.out.println(sw.toString());
     }
 
     private void savePathFromStartPoint() {
@@ -74,7 +59,7 @@ public class LOTNodeExtractor {
     }
 
     private void savePathFromIntermediatePoints() {
-        for (int i = 1; i < this.viaPoints.size() - 2; i++) {
+        for (int i = 1; i < this.viaPoints.size() - 1; i++) {
             final int currentViaPoint = this.viaPoints.get(i);
             savePathToAllEntryExitPoints(currentViaPoint);
             savePathFromAllEntryExitPoints(currentViaPoint);
@@ -88,27 +73,19 @@ public class LOTNodeExtractor {
     }
 
     private void savePathToAllEntryExitPoints(final int viaPointNodeId) {
+        final Map<Integer, Path> paths = this.forwardSearch.calcPaths(viaPointNodeId, this.entryExitPoints);
         for (final int entryExitPoint : this.entryExitPoints) {
-            savePathBetween(viaPointNodeId, entryExitPoint);
+            this.viaPointToEntryExitPointPath.put(new NodeIdPair(viaPointNodeId, entryExitPoint), paths.get(entryExitPoint));
         }
     }
 
     private void savePathFromAllEntryExitPoints(final int viaPointNodeId) {
+        final Map<Integer, Path> paths = this.backwardSearch.calcPaths(viaPointNodeId, this.entryExitPoints);
         for (final int entryExitPoint : this.entryExitPoints) {
-            savePathBetween(entryExitPoint, viaPointNodeId);
+            this.viaPointToEntryExitPointPath.put(new NodeIdPair(entryExitPoint, viaPointNodeId), paths.get(entryExitPoint));
         }
     }
 
-    private void savePathBetween(final int startNodeId, final int endNodeId) {
-        final Path path = this.calcPathBetween(startNodeId, endNodeId);
-        this.viaPointToEntryExitPointPath.put(new NodeIdPair(startNodeId, endNodeId), path);
-    }
-
-    private Path calcPathBetween(final int startNodeId, final int endNodeId) {
-        final RoutingAlgorithm routingAlgorithm = this.routingAlgorithmFactory.createAlgo(graph, algorithmOptions);
-        return routingAlgorithm.calcPath(startNodeId, endNodeId);
-    }
-
     private void saveLOTNodesForEachViaPoint() {
         for (final int viaPoint : this.viaPoints) {
             this.saveLOTNodesFor(viaPoint);
@@ -155,16 +132,17 @@ public class LOTNodeExtractor {
         return this.viaPointToLOTNodes.get(viaPoint);
     }
 
+    /**
+     * @return the LOT nodes of all via points. A node that is a LOT node of several via points is contained only once.
+     */
     public List<Integer> getAllLotNodes() {
-        final List<Integer> lotNodes = new LinkedList<>();
+        final Set<Integer> lotNodes = new LinkedHashSet<>();
 
-        final Iterator nodeSetIterator = viaPointToLOTNodes.entrySet().iterator();
-        while (nodeSetIterator.hasNext()) {
-            final Map.Entry<Integer, List<Integer>> pair = (Map.Entry<Integer, List<Integer>>) nodeSetIterator.next();
-            lotNodes.addAll(pair.getValue());
+        for (final List<Integer> lotNodesOfViaPoint : viaPointToLOTNodes.values()) {
+            lotNodes.addAll(lotNodesOfViaPoint);
         }
 
-        return lotNodes;
+        return new ArrayList<>(lotNodes);
     }
 
     public Path getLotNodePathFor(final int viaPoint, final int lotNode) {
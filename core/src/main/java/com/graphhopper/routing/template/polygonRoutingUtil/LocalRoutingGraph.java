@@ -0,0 +1,211 @@
+package com.graphhopper.routing.template.polygonRoutingUtil;
+
+import com.graphhopper.apache.commons.collections.IntDoubleBinaryHeap;
+import com.graphhopper.coll.GHBitSetImpl;
+import com.graphhopper.coll.GHIntArrayList;
+import com.graphhopper.coll.GHIntIntHashMap;
+import com.graphhopper.routing.util.DefaultEdgeFilter;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.util.EdgeExplorer;
+import com.graphhopper.util.EdgeIterator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact copy of the part of a graph that a path skeleton graph accepts when all given nodes are entry and exit nodes.
+ * Nodes are renumbered to local ids and the outgoing edges of each local node are stored consecutively together with
+ * their weight, time and distance, so searches on it neither ask the edge filter nor the weighting again.
+ */
+final class LocalRoutingGraph {
+    private final GHIntIntHashMap nodeToLocal = new GHIntIntHashMap();
+    private final GHIntArrayList localToNode = new GHIntArrayList();
+    // local nodes that are only accepted as entry or exit node may start or end a path but must not be passed
+    private final GHBitSetImpl entryExitOnly = new GHBitSetImpl();
+    private int[] firstEntries;
+    private final GHIntArrayList entryBaseNodes = new GHIntArrayList();
+    private final GHIntArrayList entryAdjNodes = new GHIntArrayList();
+    private final GHIntArrayList entryEdges = new GHIntArrayList();
+    private double[] entryWeights = new double[16];
+    private double[] entryDistances = new double[16];
+    private long[] entryTimes = new long[16];
+
+    private double[] weights;
+    private long[] times;
+    private double[] distances;
+    private final GHBitSetImpl settled = new GHBitSetImpl();
+    private final IntDoubleBinaryHeap heap = new IntDoubleBinaryHeap();
+    private int visitedNodes = 0;
+
+    LocalRoutingGraph(final Graph graph, final Weighting weighting, final PathSkeletonGraph pathSkeletonGraph,
+                      final List<Integer> entryExitNodes) {
+        pathSkeletonGraph.prepareForEntryExitNodes(entryExitNodes, entryExitNodes);
+        extract(graph, weighting, pathSkeletonGraph, entryExitNodes);
+
+        this.weights = new double[getNodes()];
+        this.times = new long[getNodes()];
+        this.distances = new double[getNodes()];
+    }
+
+    private void extract(final Graph graph, final Weighting weighting, final PathSkeletonGraph pathSkeletonGraph,
+                         final List<Integer> entryExitNodes) {
+        for (int node : pathSkeletonGraph) {
+            toLocal(node);
+        }
+        for (int node : entryExitNodes) {
+            if (!nodeToLocal.containsKey(node) && pathSkeletonGraph.contains(node)) {
+                entryExitOnly.add(toLocal(node));
+            } else {
+                toLocal(node);
+            }
+        }
+
+        // nodes are added while their predecessors are explored, so the edges of each node end up in one block
+        final EdgeExplorer explorer = graph.createEdgeExplorer(DefaultEdgeFilter.outEdges(weighting.getFlagEncoder()));
+        final GHIntArrayList firstEntriesList = new GHIntArrayList();
+        for (int local = 0; local < localToNode.size(); local++) {
+            firstEntriesList.add(entryEdges.size());
+            final EdgeIterator iter = explorer.setBaseNode(localToNode.get(local));
+            while (iter.next()) {
+                if (!pathSkeletonGraph.accept(iter)) {
+                    continue;
+                }
+
+                final double weight = weighting.calcWeight(iter, false, EdgeIterator.NO_EDGE);
+                if (Double.isInfinite(weight)) {
+                    continue;
+                }
+                addEntry(local, toLocal(iter.getAdjNode()), iter.getEdge(), weight,
+                         weighting.calcMillis(iter, false, EdgeIterator.NO_EDGE), iter.getDistance());
+            }
+        }
+        firstEntriesList.add(entryEdges.size());
+        this.firstEntries = firstEntriesList.toArray();
+    }
+
+    private int toLocal(final int node) {
+        final int existing = nodeToLocal.getOrDefault(node, -1);
+        if (existing >= 0) {
+            return existing;
+        }
+
+        final int local = localToNode.size();
+        nodeToLocal.put(node, local);
+        localToNode.add(node);
+        return local;
+    }
+
+    private void addEntry(final int base, final int adj, final int edge, final double weight, final long time,
+                          final double distance) {
+        final int entry = entryEdges.size();
+        if (entry == entryWeights.length) {
+            entryWeights = Arrays.copyOf(entryWeights, entry * 2);
+            entryTimes = Arrays.copyOf(entryTimes, entry * 2);
+            entryDistances = Arrays.copyOf(entryDistances, entry * 2);
+        }
+        entryBaseNodes.add(base);
+        entryAdjNodes.add(adj);
+        entryEdges.add(edge);
+        entryWeights[entry] = weight;
+        entryTimes[entry] = time;
+        entryDistances[entry] = distance;
+    }
+
+    int getNodes() {
+        return localToNode.size();
+    }
+
+    int getEdges() {
+        return entryEdges.size();
+    }
+
+    /**
+     * @return the local id of the node or -1 if the node is not part of this graph
+     */
+    int getLocal(final int node) {
+        return nodeToLocal.getOrDefault(node, -1);
+    }
+
+    int getEdge(final int entry) {
+        return entryEdges.get(entry);
+    }
+
+    int getBaseNode(final int entry) {
+        return entryBaseNodes.get(entry);
+    }
+
+    /**
+     * Dijkstra from the local source that stops as soon as all local targets are settled. Weight, time and distance of
+     * the settled nodes can be read until the next search.
+     *
+     * @return the entry over which each local node was reached, -1 for the source and all unreached nodes
+     */
+    int[] search(final int source, final GHBitSetImpl targets) {
+        final int[] parentEntries = new int[getNodes()];
+        Arrays.fill(parentEntries, -1);
+        Arrays.fill(weights, Double.MAX_VALUE);
+        settled.clear();
+        heap.clear();
+        visitedNodes = 0;
+
+        int unsettledTargets = targets.getCardinality();
+        weights[source] = 0;
+        times[source] = 0;
+        distances[source] = 0;
+        heap.insert_(0, source);
+
+        while (!heap.isEmpty() && unsettledTargets > 0) {
+            final int current = heap.poll_element();
+            if (settled.contains(current)) {
+                continue;
+            }
+            settled.add(current);
+            visitedNodes++;
+            if (targets.contains(current)) {
+                unsettledTargets--;
+            }
+            if (current != source && entryExitOnly.contains(current)) {
+                continue;
+            }
+
+            for (int entry = firstEntries[current]; entry < firstEntries[current + 1]; entry++) {
+                final int adj = entryAdjNodes.get(entry);
+                final double weight = weights[current] + entryWeights[entry];
+                if (settled.contains(adj) || weight >= weights[adj]) {
+                    continue;
+                }
+
+                weights[adj] = weight;
+                times[adj] = times[current] + entryTimes[entry];
+                distances[adj] = distances[current] + entryDistances[entry];
+                parentEntries[adj] = entry;
+                heap.insert_(weight, adj);
+            }
+        }
+        return parentEntries;
+    }
+
+    boolean isSettled(final int local) {
+        return settled.contains(local);
+    }
+
+    double getWeight(final int local) {
+        return weights[local];
+    }
+
+    long getTime(final int local) {
+        return times[local];
+    }
+
+    double getDistance(final int local) {
+        return distances[local];
+    }
+
+    /**
+     * @return the number of settled nodes of the last search
+     */
+    int getVisitedNodes() {
+        return visitedNodes;
+    }
+}
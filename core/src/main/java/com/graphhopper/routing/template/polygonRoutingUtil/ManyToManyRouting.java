@@ -1,30 +1,35 @@
 package com.graphhopper.routing.template.polygonRoutingUtil;
 
+import com.graphhopper.coll.GHBitSetImpl;
 import com.graphhopper.routing.AlgorithmOptions;
+import com.graphhopper.routing.LazyPath;
 import com.graphhopper.routing.QueryGraph;
-import com.graphhopper.routing.RoutingAlgorithmFactory;
+import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.Graph;
 import com.graphhopper.storage.index.QueryResult;
 
 import java.util.List;
 
+/**
+ * Finds the paths between all pairs of the given nodes on the path skeleton graph. The accepted part of the graph is
+ * copied once into a local graph and one Dijkstra per node settles all other nodes on it. Nodes that are only accepted
+ * as entry or exit node are not passed, so every path is the one a search restricted to its own pair of entry and exit
+ * nodes would find.
+ */
 public class ManyToManyRouting extends MultiRouting {
     private final PathSkeletonGraph pathSkeletonGraph;
     private final List<Integer> nodesToBuildRoutesWith;
     private final Graph graph;
     private final QueryGraph queryGraph;
-    private final RoutingAlgorithmFactory routingAlgorithmFactory;
-    private final AlgorithmOptions algorithmOptions;
+    private final Weighting weighting;
 
-    // TODO from / to ?! lot nodes for start and end point.
     public ManyToManyRouting(final PathSkeletonGraph pathSkeletonGraph, final List<Integer> nodesToBuildRoutesWith, final Graph graph, final List<QueryResult> queryResults,
-                             final RoutingAlgorithmFactory routingAlgorithmFactory, final AlgorithmOptions algorithmOptions) {
+                             final AlgorithmOptions algorithmOptions) {
         this.pathSkeletonGraph = pathSkeletonGraph;
         this.nodesToBuildRoutesWith = nodesToBuildRoutesWith;
         this.graph = graph;
         this.queryGraph = prepareQueryGraph(queryResults);
-        this.routingAlgorithmFactory = routingAlgorithmFactory;
-        this.algorithmOptions = algorithmOptions;
+        this.weighting = algorithmOptions.getWeighting();
     }
 
     private QueryGraph prepareQueryGraph(final List<QueryResult> queryResults) {
@@ -34,11 +39,58 @@ public class ManyToManyRouting extends MultiRouting {
     }
 
     void calculatePaths() {
+        final LocalRoutingGraph localGraph = new LocalRoutingGraph(this.queryGraph, this.weighting, this.pathSkeletonGraph, this.nodesToBuildRoutesWith);
+        final GHBitSetImpl targets = new GHBitSetImpl(localGraph.getNodes());
+        for (int node : nodesToBuildRoutesWith) {
+            targets.add(localGraph.getLocal(node));
+        }
+
         for (int fromNode : nodesToBuildRoutesWith) {
-            final OneToManyRouting oneToManyRouting =
-                    new OneToManyRouting(fromNode, this.nodesToBuildRoutesWith, pathSkeletonGraph, this.queryGraph, this.routingAlgorithmFactory, this.algorithmOptions);
-            oneToManyRouting.findPathBetweenAllNodePairs();
-            this.allFoundPaths.putAll(oneToManyRouting.getAllFoundPathsMap());
+            final int source = localGraph.getLocal(fromNode);
+            final int[] parentEntries = localGraph.search(source, targets);
+
+            for (int toNode : nodesToBuildRoutesWith) {
+                final int target = localGraph.getLocal(toNode);
+                this.allFoundPaths.put(new NodeIdPair(fromNode, toNode), createPath(localGraph, parentEntries, fromNode, toNode, source, target));
+            }
+        }
+    }
+
+    private LocalGraphPath createPath(final LocalRoutingGraph localGraph, final int[] parentEntries, final int fromNode, final int toNode,
+                                      final int source, final int target) {
+        if (!localGraph.isSettled(target)) {
+            return new LocalGraphPath(this.queryGraph, this.weighting, fromNode, toNode, Double.MAX_VALUE, 0, 0, false, localGraph, parentEntries,
+                                      source, target);
+        }
+        return new LocalGraphPath(this.queryGraph, this.weighting, fromNode, toNode, localGraph.getWeight(target), localGraph.getTime(target),
+                                  localGraph.getDistance(target), true, localGraph, parentEntries, source, target);
+    }
+
+    /**
+     * Path of which the edges are collected from the parent entries of its search when they are requested.
+     */
+    private static final class LocalGraphPath extends LazyPath {
+        private final LocalRoutingGraph localGraph;
+        private final int[] parentEntries;
+        private final int source;
+        private final int target;
+
+        LocalGraphPath(final Graph graph, final Weighting weighting, final int fromNode, final int toNode, final double weight, final long time,
+                       final double distance, final boolean found, final LocalRoutingGraph localGraph, final int[] parentEntries, final int source,
+                       final int target) {
+            super(graph, weighting, fromNode, toNode, weight, time, distance, found, !found || source == target);
+            this.localGraph = localGraph;
+            this.parentEntries = parentEntries;
+            this.source = source;
+            this.target = target;
+        }
+
+        @Override
+        protected void unpackEdges() {
+            for (int current = target; current != source; current = localGraph.getBaseNode(parentEntries[current])) {
+                addEdge(localGraph.getEdge(parentEntries[current]));
+            }
+            edgeIds.reverse();
         }
     }
 }
@@ -1,21 +1,32 @@
 package com.graphhopper.routing.template.polygonRoutingUtil;
 
+import com.graphhopper.coll.GHBitSetImpl;
+import com.graphhopper.coll.GHIntArrayList;
 import com.graphhopper.routing.util.EdgeFilter;
 import com.graphhopper.storage.NodeAccess;
 import com.graphhopper.storage.index.LocationIndex;
 import com.graphhopper.util.EdgeIteratorState;
 import com.graphhopper.util.shapes.Polygon;
 
-import java.util.*;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
+/**
+ * Node set of a polygon routing graph that is used as edge filter. Membership is kept in bit sets, so accepting an edge
+ * needs neither boxing nor hashing, and the contained nodes are additionally kept in a compact list for iteration.
+ */
 public abstract class PathSkeletonGraph implements EdgeFilter, Iterable<Integer> {
     final Polygon regionOfInterest;
     final LocationIndex index;
     final NodeAccess nodeAccess;
     private List<Integer> entryNode = Collections.emptyList();
     private List<Integer> exitNode = Collections.emptyList();
-    final Map<Integer, Boolean> nodeContainedHashFunction = new HashMap<>();
-    final List<Integer> nodesContainedList = new ArrayList<>();
+    private final GHBitSetImpl containedNodes = new GHBitSetImpl();
+    // the contained nodes plus the current entry and exit nodes
+    private final GHBitSetImpl acceptedNodes = new GHBitSetImpl();
+    final GHIntArrayList nodesContainedList = new GHIntArrayList();
 
     public PathSkeletonGraph(Polygon regionOfInterest, LocationIndex index, NodeAccess nodeAccess) {
         this.regionOfInterest = regionOfInterest;
@@ -35,13 +46,14 @@ public abstract class PathSkeletonGraph implements EdgeFilter, Iterable<Integer>
 
     private void unacceptLastEntryExitPoints() {
         for (int i = 0; i < entryNode.size(); i++) {
-            final int entryNode = this.entryNode.get(i);
-            final int exitNode = this.exitNode.get(i);
+            unacceptIfNotContained(this.entryNode.get(i));
+            unacceptIfNotContained(this.exitNode.get(i));
+        }
+    }
 
-            if (this.entryNode != null) {
-                this.nodeContainedHashFunction.replace(entryNode, false);
-                this.nodeContainedHashFunction.replace(exitNode, false);
-            }
+    private void unacceptIfNotContained(final int node) {
+        if (!containedNodes.contains(node)) {
+            acceptedNodes.remove(node);
         }
     }
 
@@ -52,24 +64,14 @@ public abstract class PathSkeletonGraph implements EdgeFilter, Iterable<Integer>
 
     private void addNewEntryExitPointAsAcceptable() {
         for (int i = 0; i < entryNode.size(); i++) {
-            final int entryNode = this.entryNode.get(i);
-            final int exitNode = this.exitNode.get(i);
-
-            this.nodeContainedHashFunction.put(entryNode, true);
-            this.nodeContainedHashFunction.put(exitNode, true);
+            acceptedNodes.add(this.entryNode.get(i));
+            acceptedNodes.add(this.exitNode.get(i));
         }
     }
 
     @Override
     public boolean accept(EdgeIteratorState edgeState) {
-        final Integer baseNode = edgeState.getBaseNode();
-        final Integer adjNode = edgeState.getAdjNode();
-        final Boolean baseNodeInGraph = isNodeInGraph(nodeContainedHashFunction.get(baseNode));
-        final Boolean adjNodeInGraph = isNodeInGraph(nodeContainedHashFunction.get(adjNode));
-
-        boolean result = accept(baseNodeInGraph, adjNodeInGraph);
-
-        return result;
+        return accept(acceptedNodes.contains(edgeState.getBaseNode()), acceptedNodes.contains(edgeState.getAdjNode()));
     }
 
     public boolean accept(final boolean baseNodeInGraph, final boolean adjNodeInGraph) {
@@ -80,36 +82,48 @@ public abstract class PathSkeletonGraph implements EdgeFilter, Iterable<Integer>
         return i >= 1;
     }
 
-    private boolean areBothNodesInRoutingGraph(Boolean baseNodeInGraph, Boolean adjNodeInGraph) {
-        boolean result = true;
-
-        result &= baseNodeInGraph;
-        result &= adjNodeInGraph;
-        return result;
-    }
-
-    private boolean isNodeInGraph(Boolean node) {
-        return node != null && node == true;
-    }
-
-    void addListToHashFunctionAsTrue(List<Integer> newNodesThatMeetCriterion) {
-        for (Integer node : newNodesThatMeetCriterion) {
-            nodeContainedHashFunction.put(node, true);
-            nodesContainedList.add(node);
+    void addContainedNodes(List<Integer> newNodesThatMeetCriterion) {
+        for (int node : newNodesThatMeetCriterion) {
+            if (!containedNodes.contains(node)) {
+                containedNodes.add(node);
+                acceptedNodes.add(node);
+                nodesContainedList.add(node);
+            }
         }
     }
 
     @Override
     public Iterator<Integer> iterator() {
-        return nodesContainedList.iterator();
+        return new Iterator<Integer>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < nodesContainedList.size();
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return nodesContainedList.get(index++);
+            }
+        };
     }
 
-    public boolean contains(final Integer key) {
-        final Boolean rawHashResult = this.nodeContainedHashFunction.get(key);
-        return rawHashResult != null && rawHashResult;
+    public boolean contains(final int node) {
+        return this.acceptedNodes.contains(node);
     }
 
     public int size() {
         return this.nodesContainedList.size();
     }
+
+    /**
+     * @return a rough estimate of the heap occupied by the node sets
+     */
+    long getMemoryBytes() {
+        return (long) (containedNodes.size() + acceptedNodes.size()) / 8 + (long) nodesContainedList.buffer.length * 4;
+    }
 }
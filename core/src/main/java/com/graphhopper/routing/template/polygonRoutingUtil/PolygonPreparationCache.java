@@ -0,0 +1,230 @@
+package com.graphhopper.routing.template.polygonRoutingUtil;
+
+import com.graphhopper.routing.RPHASTTargetSet;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.util.shapes.GHPoint;
+import com.graphhopper.util.shapes.Polygon;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Size bounded LRU cache of everything a polygon request prepares that only depends on the polygon and the weighting:
+ * the region of interest node set and the RPHAST target set of its border nodes. Polygons are compared by their
+ * canonical form, i.e. independent of the start vertex, the orientation and a repeated closing vertex.
+ */
+public class PolygonPreparationCache {
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeInBytes = 0;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PolygonPreparationCache(final long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative but was " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached preparation or creates it via the given preparation. Creating happens outside of the lock, so
+     * concurrent misses for the same polygon might both prepare it.
+     */
+    public Entry getOrCreate(final Polygon polygon, final Weighting weighting, final Supplier<Entry> preparation) {
+        final Key key = new Key(polygon, weighting);
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                hits.incrementAndGet();
+                return entry;
+            }
+        }
+
+        misses.incrementAndGet();
+        final Entry entry = preparation.get();
+        put(key, entry);
+        return entry;
+    }
+
+    private synchronized void put(final Key key, final Entry entry) {
+        final long entryBytes = entry.getMemoryBytes();
+        if (entryBytes > maxBytes) {
+            return;
+        }
+
+        final Entry replaced = entries.put(key, entry);
+        if (replaced != null) {
+            sizeInBytes -= replaced.getMemoryBytes();
+        }
+        sizeInBytes += entryBytes;
+        evictLeastRecentlyUsed();
+    }
+
+    private void evictLeastRecentlyUsed() {
+        final Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (sizeInBytes > maxBytes && iterator.hasNext()) {
+            sizeInBytes -= iterator.next().getValue().getMemoryBytes();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Drops all entries, e.g. after the graph or its CH preparation changed.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        sizeInBytes = 0;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "hits: " + getHits() + ", misses: " + getMisses() + ", evictions: " + getEvictions() + ", entries: "
+               + getEntryCount() + ", bytes: " + getSizeInBytes() + "/" + maxBytes;
+    }
+
+    public static class Entry {
+        private final PathSkeletonGraph regionOfInterest;
+        private final RPHASTTargetSet targetSet;
+
+        public Entry(final PathSkeletonGraph regionOfInterest, final RPHASTTargetSet targetSet) {
+            this.regionOfInterest = regionOfInterest;
+            this.targetSet = targetSet;
+        }
+
+        public PathSkeletonGraph getRegionOfInterest() {
+            return regionOfInterest;
+        }
+
+        public RPHASTTargetSet getTargetSet() {
+            return targetSet;
+        }
+
+        long getMemoryBytes() {
+            return regionOfInterest.getMemoryBytes() + targetSet.getMemoryBytes();
+        }
+    }
+
+    static final class Key {
+        private final double[] coordinates;
+        private final String weighting;
+        private final int hashCode;
+
+        Key(final Polygon polygon, final Weighting weighting) {
+            this.coordinates = canonicalCoordinates(polygon.getCoordinatesAsGHPoints());
+            this.weighting = weighting.toString();
+            this.hashCode = 31 * Arrays.hashCode(coordinates) + this.weighting.hashCode();
+        }
+
+        /**
+         * @return lat/lon pairs of the polygon starting at its smallest vertex and running in the direction that yields
+         * the lexicographically smaller sequence. Only the two orientations starting at an occurrence of the smallest
+         * vertex can be minimal, so the key is built in O(n) unless that vertex occurs several times.
+         */
+        static double[] canonicalCoordinates(final List<GHPoint> points) {
+            int size = points.size();
+            if (size > 1 && points.get(0).equals(points.get(size - 1))) {
+                size--;
+            }
+
+            final double[] coordinates = new double[2 * size];
+            for (int i = 0; i < size; i++) {
+                coordinates[2 * i] = points.get(i).getLat();
+                coordinates[2 * i + 1] = points.get(i).getLon();
+            }
+
+            int minVertex = 0;
+            for (int i = 1; i < size; i++) {
+                if (compareVertices(coordinates, i, minVertex) < 0) {
+                    minVertex = i;
+                }
+            }
+
+            int bestStart = minVertex;
+            int bestDirection = 1;
+            for (int start = minVertex; start < size; start++) {
+                if (compareVertices(coordinates, start, minVertex) != 0) {
+                    continue;
+                }
+                for (int direction = -1; direction <= 1; direction += 2) {
+                    if (compareSequences(coordinates, size, start, direction, bestStart, bestDirection) < 0) {
+                        bestStart = start;
+                        bestDirection = direction;
+                    }
+                }
+            }
+
+            final double[] canonical = new double[2 * size];
+            for (int i = 0; i < size; i++) {
+                final int vertex = Math.floorMod(bestStart + bestDirection * i, size);
+                canonical[2 * i] = coordinates[2 * vertex];
+                canonical[2 * i + 1] = coordinates[2 * vertex + 1];
+            }
+            return canonical;
+        }
+
+        private static int compareSequences(final double[] coordinates, final int size, final int startA, final int directionA,
+                                            final int startB, final int directionB) {
+            for (int i = 0; i < size; i++) {
+                final int result = compareVertices(coordinates, Math.floorMod(startA + directionA * i, size),
+                                                   Math.floorMod(startB + directionB * i, size));
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        }
+
+        private static int compareVertices(final double[] coordinates, final int a, final int b) {
+            final int result = Double.compare(coordinates[2 * a], coordinates[2 * b]);
+            return result != 0 ? result : Double.compare(coordinates[2 * a + 1], coordinates[2 * b + 1]);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return hashCode == other.hashCode && weighting.equals(other.weighting) && Arrays.equals(coordinates, other.coordinates);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.graphhopper.routing.template.polygonRoutingUtil;
+
+/**
+ * Receives the trace of every finished polygon request, e.g. to feed latency histograms. Implementations are shared
+ * between requests and therefore have to be thread safe.
+ */
+public interface PolygonRoutingMetrics {
+    PolygonRoutingMetrics NONE = new PolygonRoutingMetrics() {
+        @Override
+        public void record(PolygonRoutingTrace trace) {
+        }
+    };
+
+    void record(PolygonRoutingTrace trace);
+}
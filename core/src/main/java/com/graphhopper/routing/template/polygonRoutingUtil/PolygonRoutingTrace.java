@@ -0,0 +1,101 @@
+package com.graphhopper.routing.template.polygonRoutingUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Durations of the stages and sizes of the intermediate node sets of a single polygon request. Stages that run once
+ * per leg accumulate their durations and the sizes of their sets.
+ */
+public class PolygonRoutingTrace {
+    public enum Stage {
+        ROI_NODES("roiNodes"),
+        ENTRY_EXIT_POINTS("entryExitPoints"),
+        LOT_NODES("lotNodes"),
+        PATH_SKELETON("pathSkeleton"),
+        CANDIDATE_ROUTING("candidateRouting"),
+        CANDIDATE_PRUNING("candidatePruning"),
+        PATH_MERGE("pathMerge");
+
+        private final String name;
+
+        Stage(final String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public enum Size {
+        ROI_NODES("roiNodes"),
+        ENTRY_EXIT_POINTS("entryExitPoints"),
+        LOT_NODES("lotNodes"),
+        ROUTE_CANDIDATES("routeCandidates"),
+        PRUNED_ROUTE_CANDIDATES("prunedRouteCandidates");
+
+        private final String name;
+
+        Size(final String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    private final long[] stageNanos = new long[Stage.values().length];
+    private final boolean[] stageFinished = new boolean[Stage.values().length];
+    private final long[] sizes = new long[Size.values().length];
+
+    /**
+     * @return the start time to pass to {@link #stop(Stage, long)}
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(final Stage stage, final long startNanos) {
+        stageNanos[stage.ordinal()] += System.nanoTime() - startNanos;
+        stageFinished[stage.ordinal()] = true;
+    }
+
+    public void addSize(final Size size, final long count) {
+        sizes[size.ordinal()] += count;
+    }
+
+    public boolean isFinished(final Stage stage) {
+        return stageFinished[stage.ordinal()];
+    }
+
+    public long getNanos(final Stage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    public long getSize(final Size size) {
+        return sizes[size.ordinal()];
+    }
+
+    /**
+     * @return one entry per finished stage and per size in the format of the other debug information of a response
+     */
+    public List<String> toDebugInfo() {
+        final List<String> debugInfo = new ArrayList<>(Stage.values().length + Size.values().length);
+        for (final Stage stage : Stage.values()) {
+            if (isFinished(stage)) {
+                debugInfo.add("polygon." + stage.getName() + ":" + getNanos(stage) / 1e9f + "s");
+            }
+        }
+        for (final Size size : Size.values()) {
+            debugInfo.add("polygon." + size.getName() + "Size:" + getSize(size));
+        }
+        return debugInfo;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(", ", toDebugInfo());
+    }
+}
@@ -3,17 +3,26 @@ package com.graphhopper.routing.template.polygonRoutingUtil;
 import com.graphhopper.routing.AlgorithmOptions;
 import com.graphhopper.routing.Path;
 import com.graphhopper.routing.RPHAST;
+import com.graphhopper.routing.RPHASTPath;
+import com.graphhopper.routing.RPHASTTargetSet;
 import com.graphhopper.storage.CHGraph;
 import com.graphhopper.storage.GraphHopperStorage;
-import com.graphhopper.util.StopWatch;
 
+import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class RPHASTManyToMany extends MultiRouting {
     private final PathSkeletonGraph pathSkeletonGraph;
     private final List<Integer> nodesToBuildRoutesWith;
     private final RPHAST rphast;
+    private RPHASTTargetSet preparedTargetSet = null;
+    private ExecutorService executorService = null;
+    private int parallelism = 1;
 
     public RPHASTManyToMany(PathSkeletonGraph pathSkeletonGraph, List<Integer> nodesToBuildRoutesWith, GraphHopperStorage graph, final AlgorithmOptions algorithmOptions) {
         this(pathSkeletonGraph, nodesToBuildRoutesWith, graph.getCHGraph(), algorithmOptions);
@@ -25,17 +34,97 @@ public class RPHASTManyToMany extends MultiRouting {
         this.rphast = new RPHAST(graph, algorithmOptions.getWeighting(), pathSkeletonGraph);
     }
 
+    /**
+     * Splits the sources into up to parallelism chunks that are searched on the given pool once the target set is
+     * prepared. Every worker thread sweeps with its own cost arrays. The pool is meant to be shared between requests and
+     * is therefore never shut down here. Without a pool all sources are searched on the calling thread.
+     */
+    public void setExecutorService(final ExecutorService executorService, final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive but was " + parallelism);
+        }
+        this.executorService = executorService;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Reuses an already prepared target set, e.g. from a PolygonPreparationCache, if it contains all nodes to build
+     * routes with. Otherwise the target set is prepared as usual.
+     */
+    public void setPreparedTargetSet(final RPHASTTargetSet preparedTargetSet) {
+        this.preparedTargetSet = preparedTargetSet;
+    }
+
+    /**
+     * @see RPHAST#setBatchSize(int)
+     */
+    public void setBatchSize(final int batchSize) {
+        rphast.setBatchSize(batchSize);
+    }
+
     @Override
     void calculatePaths() {
-        StopWatch sw1 = new StopWatch("Target Set preparation").start();
-        rphast.prepareForTargetSet(new LinkedHashSet<>(nodesToBuildRoutesWith));
-        System.out.println(sw1.stop().toString());
+        final Set<Integer> targets = new LinkedHashSet<>(nodesToBuildRoutesWith);
+        if (preparedTargetSet != null && preparedTargetSet.containsAllTargets(targets)) {
+            rphast.setTargetSet(preparedTargetSet);
+        } else {
+            rphast.prepareForTargetSet(targets);
+        }
 
-        final List<Path> paths = rphast.calcPaths(nodesToBuildRoutesWith);
+        final List<? extends Path> paths;
+        if (executorService == null || parallelism == 1) {
+            paths = rphast.calcLazyPaths(nodesToBuildRoutesWith, targets);
+        } else {
+            paths = calcPathsInParallel(targets);
+        }
 
         for (Path path : paths) {
             final NodeIdPair pair = new NodeIdPair(path.getFromNode(), path.getEndNode());
             this.allFoundPaths.put(pair, path);
         }
     }
+
+    private List<Path> calcPathsInParallel(final Set<Integer> targets) {
+        final List<Future<List<RPHASTPath>>> futures = new ArrayList<>(parallelism);
+        for (final List<Integer> chunk : splitSources()) {
+            futures.add(executorService.submit(() -> rphast.calcLazyPaths(chunk, targets)));
+        }
+
+        final List<Path> paths = new ArrayList<>(nodesToBuildRoutesWith.size() * nodesToBuildRoutesWith.size());
+        try {
+            for (Future<List<RPHASTPath>> future : futures) {
+                paths.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw new RuntimeException(e.getCause());
+        }
+        return paths;
+    }
+
+    /**
+     * Chunks are rounded up to whole RPHAST batches so that no sweep runs with a partially filled batch unnecessarily.
+     */
+    private List<List<Integer>> splitSources() {
+        final int numSources = nodesToBuildRoutesWith.size();
+        final int batchSize = rphast.getBatchSize();
+        final int batchesPerChunk = Math.max(1, ((numSources + batchSize - 1) / batchSize + parallelism - 1) / parallelism);
+        final int chunkSize = batchesPerChunk * batchSize;
+
+        final List<List<Integer>> chunks = new ArrayList<>(parallelism);
+        for (int chunkStart = 0; chunkStart < numSources; chunkStart += chunkSize) {
+            chunks.add(nodesToBuildRoutesWith.subList(chunkStart, Math.min(chunkStart + chunkSize, numSources)));
+        }
+        return chunks;
+    }
+
+    private static void cancelAll(final List<Future<List<RPHASTPath>>> futures) {
+        for (Future<List<RPHASTPath>> future : futures) {
+            future.cancel(true);
+        }
+    }
 }
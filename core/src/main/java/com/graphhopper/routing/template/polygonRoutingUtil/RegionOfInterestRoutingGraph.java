@@ -2,16 +2,12 @@ package com.graphhopper.routing.template.polygonRoutingUtil;
 
 import com.graphhopper.storage.NodeAccess;
 import com.graphhopper.storage.index.LocationIndex;
-import com.graphhopper.util.shapes.BBox;
 import com.graphhopper.util.shapes.Polygon;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class RegionOfInterestRoutingGraph extends PathSkeletonGraph {
-    private final Map<Integer, Boolean> nodeInRoutingGraph = new HashMap<>();
-
     public RegionOfInterestRoutingGraph(Polygon regionOfInterest, LocationIndex index, NodeAccess nodeAccess) {
         super(regionOfInterest, index, nodeAccess);
         buildHashFunction();
@@ -22,16 +18,19 @@ public class RegionOfInterestRoutingGraph extends PathSkeletonGraph {
     }
 
     private void buildHashFunction() {
-        final BBox regionOfInterestBoundingBox = this.regionOfInterest.getMinimalBoundingBox();
-        final NodesInPolygonFindingVisitor allNodesFindingVisitor = new NodesInPolygonFindingVisitor(regionOfInterest, nodeAccess);
-
-        final List<Integer> nodesInRegionOfInterest = executeQuery(regionOfInterestBoundingBox, allNodesFindingVisitor);
+        final List<Integer> nodesInRegionOfInterest = executeQuery();
 
-        addListToHashFunctionAsTrue(nodesInRegionOfInterest);
+        addContainedNodes(nodesInRegionOfInterest);
     }
 
-    private List<Integer> executeQuery(final BBox regionOfInterestBoundingBox, final NodesInPolygonFindingVisitor allNodesFindingVisitor) {
-        index.query(regionOfInterestBoundingBox, allNodesFindingVisitor);
-        return allNodesFindingVisitor.getNodesInPolygon();
+    private List<Integer> executeQuery() {
+        final List<Integer> nodesInRegionOfInterest = new ArrayList<>();
+        index.query(regionOfInterest, new LocationIndex.Visitor() {
+            @Override
+            public void onNode(int nodeId) {
+                nodesInRegionOfInterest.add(nodeId);
+            }
+        });
+        return nodesInRegionOfInterest;
     }
 }
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 public class RouteCandidateList<T extends RouteCandidate> {
     private List<T> candidates;
@@ -20,95 +21,67 @@ public class RouteCandidateList<T extends RouteCandidate> {
         Collections.sort(this.candidates);
     }
 
-    private void sortRouteCandidatesToTimeInROIDescending() {
-        Collections.sort(this.candidates, new Comparator<RouteCandidate>() {
-            @Override
-            public int compare(RouteCandidate rc1, RouteCandidate rc2) {
-                double timeDifference = rc1.getTimeInROI() - rc2.getTimeInROI();
-                int output;
-                if (timeDifference < 0) {
-                    output = 1;
-                } else if (timeDifference == 0) {
-                    output = 0;
-                } else {
-                    output = -1;
-                }
-
-                return output;
-            }
-        });
-    }
-
+    /**
+     * Merges the candidates with the highest gain into paths. Candidates whose detour is not self intersecting come
+     * first. The candidates are taken from a heap in the order of their gain, so only as many of them are merged as are
+     * needed to find enough paths that are not self intersecting.
+     */
     public List<Path> getFirstAsPathList(int nOfFirstElements, QueryGraph queryGraph, AlgorithmOptions algorithmOptions) {
         final List<Path> paths = new ArrayList<>(nOfFirstElements);
+        final List<RouteCandidate> selfIntersecting = new ArrayList<>(nOfFirstElements);
 
-        final int endOfCandidates = this.candidates.size() - 1;
-        paths.addAll(addPathsBasedOnIntersectionStatus(nOfFirstElements, queryGraph, algorithmOptions, endOfCandidates, false));
-        paths.addAll(addPathsBasedOnIntersectionStatus(nOfFirstElements - paths.size(), queryGraph, algorithmOptions, endOfCandidates, true));
-
-        return paths;
-    }
-
-    private List<Path> addPathsBasedOnIntersectionStatus(int nOfFirstElements, QueryGraph queryGraph,
-                                                         AlgorithmOptions algorithmOptions, int endOfCandidates,
-                                                         boolean addSelfIntersecting) {
-        List<Path> paths = new ArrayList<>(nOfFirstElements);
-        int indexIntoCandidates = endOfCandidates;
-        while (indexIntoCandidates >= 0 && paths.size() < nOfFirstElements) {
-            final RouteCandidate candidate = this.candidates.get(indexIntoCandidates);
+        final PriorityQueue<Integer> candidatesByGain = createHeapByGainDescending();
+        while (!candidatesByGain.isEmpty() && paths.size() < nOfFirstElements) {
+            final RouteCandidate candidate = this.candidates.get(candidatesByGain.poll());
 
-            if (candidate.isDetourSelfIntersecting(queryGraph, algorithmOptions) == addSelfIntersecting) {
+            if (!candidate.isDetourSelfIntersecting(queryGraph, algorithmOptions)) {
                 paths.add(candidate.getMergedPath(queryGraph, algorithmOptions));
+            } else if (selfIntersecting.size() < nOfFirstElements) {
+                selfIntersecting.add(candidate);
             }
+        }
 
-            indexIntoCandidates--;
+        for (int i = 0; i < selfIntersecting.size() && paths.size() < nOfFirstElements; i++) {
+            paths.add(selfIntersecting.get(i).getMergedPath(queryGraph, algorithmOptions));
         }
 
         return paths;
     }
 
-    // Do it in a skyline problem pruning fashion
-    public void pruneDominatedCandidateRoutes() {
-        this.sortRouteCandidatesToTimeInROIDescending();
-        int currentPruningCandidateIndex = 1;
-        while (indexInCandidateBounds(currentPruningCandidateIndex)) {
-            RouteCandidate currentPruningCandidate = this.candidates.get(currentPruningCandidateIndex);
-
-            boolean foundDominatingPath = isThisCandidateDominatedByAny(currentPruningCandidateIndex, currentPruningCandidate);
-
-            currentPruningCandidateIndex = pruneOrUpdateIndex(currentPruningCandidateIndex, foundDominatingPath);
+    private PriorityQueue<Integer> createHeapByGainDescending() {
+        final double[] gains = new double[this.candidates.size()];
+        for (int i = 0; i < gains.length; i++) {
+            gains[i] = this.candidates.get(i).getGain();
         }
-    }
 
-    private boolean isThisCandidateDominatedByAny(int currentPruningCandidateIndex, RouteCandidate currentPruningCandidate) {
-        boolean foundDominatingPath = false;
-        for (int i = currentPruningCandidateIndex - 1; i >= 0 && !foundDominatingPath; i--) {
-            // routeCandidates must be sorted by now. Therefore dominators can only bbe found on lower indices than the current pruning candidate.
-            RouteCandidate possiblyBetterRouteCandidate = this.candidates.get(i);
-
-            if (isPruningCandidateDominated(currentPruningCandidate, possiblyBetterRouteCandidate)) {
-                foundDominatingPath = true;
+        // of candidates with equal gain the later one comes first like in the list sorted by gain ascending
+        final PriorityQueue<Integer> candidatesByGain = new PriorityQueue<>(Math.max(gains.length, 1), new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                final int gainComparison = Double.compare(gains[i2], gains[i1]);
+                return gainComparison != 0 ? gainComparison : Integer.compare(i2, i1);
             }
+        });
+        for (int i = 0; i < gains.length; i++) {
+            candidatesByGain.add(i);
         }
-        return foundDominatingPath;
+        return candidatesByGain;
     }
 
-    private int pruneOrUpdateIndex(int currentPruningCandidateIndex, boolean foundDominatingPath) {
-        if (foundDominatingPath) {
-            this.candidates.remove(currentPruningCandidateIndex);
-        } else {
-            currentPruningCandidateIndex++;
+    // Do it in a skyline problem pruning fashion
+    public void pruneDominatedCandidateRoutes() {
+        final double[] times = new double[this.candidates.size()];
+        final double[] timesInROI = new double[this.candidates.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = this.candidates.get(i).getTime();
+            timesInROI[i] = this.candidates.get(i).getTimeInROI();
         }
-        return currentPruningCandidateIndex;
-    }
 
-    private boolean isPruningCandidateDominated(RouteCandidate currentPruningCandidate, RouteCandidate possiblyBetterRouteCandidate) {
-        return possiblyBetterRouteCandidate.getTime() < currentPruningCandidate.getTime() &&
-               possiblyBetterRouteCandidate.getTimeInROI() > currentPruningCandidate.getTimeInROI();
-    }
-
-    private boolean indexInCandidateBounds(int currentPruningCandidateIndex) {
-        return currentPruningCandidateIndex < this.candidates.size();
+        final List<T> nonDominatedCandidates = new ArrayList<>();
+        for (final int candidate : RouteCandidateTuples.findSkyline(times, timesInROI, times.length)) {
+            nonDominatedCandidates.add(this.candidates.get(candidate));
+        }
+        this.setCandidates(nonDominatedCandidates);
     }
 
     public int size() {
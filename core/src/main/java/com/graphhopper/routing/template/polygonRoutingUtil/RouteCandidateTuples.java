@@ -0,0 +1,114 @@
+package com.graphhopper.routing.template.polygonRoutingUtil;
+
+import com.carrotsearch.hppc.sorting.IndirectComparator;
+import com.carrotsearch.hppc.sorting.IndirectSort;
+
+import java.util.Arrays;
+
+/**
+ * Route candidates as primitive (time, timeInROI, entry, exit) tuples. All pairs of LOT nodes are collected here and
+ * pruned before the few remaining ones become RouteCandidates that hold their paths.
+ */
+public class RouteCandidateTuples {
+    private double[] times = new double[16];
+    private double[] timesInROI = new double[16];
+    private int[] entryNodes = new int[16];
+    private int[] exitNodes = new int[16];
+    private int size = 0;
+
+    public void add(final int entryNode, final int exitNode, final double time, final double timeInROI) {
+        if (size == times.length) {
+            final int newLength = 2 * size;
+            times = Arrays.copyOf(times, newLength);
+            timesInROI = Arrays.copyOf(timesInROI, newLength);
+            entryNodes = Arrays.copyOf(entryNodes, newLength);
+            exitNodes = Arrays.copyOf(exitNodes, newLength);
+        }
+        times[size] = time;
+        timesInROI[size] = timeInROI;
+        entryNodes[size] = entryNode;
+        exitNodes[size] = exitNode;
+        size++;
+    }
+
+    /**
+     * Removes all candidates that are dominated by another one and leaves the others sorted to time in ROI descending.
+     */
+    public void pruneDominatedCandidateRoutes() {
+        keep(findSkyline(times, timesInROI, size));
+    }
+
+    /**
+     * Keeps only the given fraction (plus one) of the candidates. Assumes they are sorted to time in ROI descending.
+     */
+    public void pruneLowerQuantileInROI(final double keptFraction) {
+        size = Math.min(size, (int) (size * keptFraction) + 1);
+    }
+
+    /**
+     * A candidate is dominated by another one that is faster and spends more time in the region of interest. After a
+     * stable sort to time in ROI descending all possible dominators of a candidate come before it, so a single pass
+     * that tracks the minimal time of all candidates with more time in ROI finds the skyline in O(n log n).
+     *
+     * @return the indices of the candidates that are not dominated, sorted to time in ROI descending
+     */
+    static int[] findSkyline(final double[] times, final double[] timesInROI, final int size) {
+        final int[] order = IndirectSort.mergesort(0, size, new IndirectComparator.DescendingDoubleComparator(timesInROI));
+        final int[] skyline = new int[size];
+        int skylineSize = 0;
+        double minTimeWithMoreTimeInROI = Double.POSITIVE_INFINITY;
+        for (int groupStart = 0; groupStart < size; ) {
+            // candidates with equal time in ROI cannot dominate each other
+            int groupEnd = groupStart;
+            double minTimeInGroup = Double.POSITIVE_INFINITY;
+            while (groupEnd < size && timesInROI[order[groupEnd]] == timesInROI[order[groupStart]]) {
+                final int candidate = order[groupEnd++];
+                if (!(minTimeWithMoreTimeInROI < times[candidate])) {
+                    skyline[skylineSize++] = candidate;
+                }
+                minTimeInGroup = Math.min(minTimeInGroup, times[candidate]);
+            }
+            minTimeWithMoreTimeInROI = Math.min(minTimeWithMoreTimeInROI, minTimeInGroup);
+            groupStart = groupEnd;
+        }
+        return Arrays.copyOf(skyline, skylineSize);
+    }
+
+    private void keep(final int[] indices) {
+        final double[] keptTimes = new double[Math.max(indices.length, 1)];
+        final double[] keptTimesInROI = new double[keptTimes.length];
+        final int[] keptEntryNodes = new int[keptTimes.length];
+        final int[] keptExitNodes = new int[keptTimes.length];
+        for (int i = 0; i < indices.length; i++) {
+            keptTimes[i] = times[indices[i]];
+            keptTimesInROI[i] = timesInROI[indices[i]];
+            keptEntryNodes[i] = entryNodes[indices[i]];
+            keptExitNodes[i] = exitNodes[indices[i]];
+        }
+        times = keptTimes;
+        timesInROI = keptTimesInROI;
+        entryNodes = keptEntryNodes;
+        exitNodes = keptExitNodes;
+        size = indices.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getTime(final int i) {
+        return times[i];
+    }
+
+    public double getTimeInROI(final int i) {
+        return timesInROI[i];
+    }
+
+    public int getEntryNode(final int i) {
+        return entryNodes[i];
+    }
+
+    public int getExitNode(final int i) {
+        return exitNodes[i];
+    }
+}
@@ -3,9 +3,9 @@ package com.graphhopper.routing.template.polygonRoutingUtil;
 import com.graphhopper.storage.NodeAccess;
 import com.graphhopper.storage.index.LocationIndex;
 import com.graphhopper.storage.index.VisibilityCell;
-import com.graphhopper.util.shapes.BBox;
 import com.graphhopper.util.shapes.Polygon;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class VisibilityCellRoutingGraph extends PathSkeletonGraph {
@@ -25,17 +25,22 @@ public class VisibilityCellRoutingGraph extends PathSkeletonGraph {
 
     private void buildHashFunction() {
         for (VisibilityCell visibilityCell : visibilityCells) {
-            final BBox visibilityCellBoundingBox = visibilityCell.getMinimalBoundingBox();
-            final NodesInVCButNotInROIFindingVisitor allNodesFindingVisitor = new NodesInVCButNotInROIFindingVisitor(visibilityCell, regionOfInterest, nodeAccess);
+            final List<Integer> nodesInVCButNotInROI = executeQuery(visibilityCell);
 
-            final List<Integer> nodesInVCButNotInROI = executeQuery(visibilityCellBoundingBox, allNodesFindingVisitor);
-
-            addListToHashFunctionAsTrue(nodesInVCButNotInROI);
+            addContainedNodes(nodesInVCButNotInROI);
         }
     }
 
-    private List<Integer> executeQuery(BBox visibilityCellBoundingBox, NodesInVCButNotInROIFindingVisitor allNodesFindingVisitor) {
-        index.query(visibilityCellBoundingBox, allNodesFindingVisitor);
-        return allNodesFindingVisitor.getNodesInVCButNotInROI();
+    private List<Integer> executeQuery(final VisibilityCell visibilityCell) {
+        final List<Integer> nodesInVCButNotInROI = new ArrayList<>();
+        index.query(visibilityCell.cellShape, new LocationIndex.Visitor() {
+            @Override
+            public void onNode(int nodeId) {
+                if (!regionOfInterest.contains(nodeAccess.getLat(nodeId), nodeAccess.getLon(nodeId))) {
+                    nodesInVCButNotInROI.add(nodeId);
+                }
+            }
+        });
+        return nodesInVCButNotInROI;
     }
 }
@@ -0,0 +1,185 @@
+package com.graphhopper.storage;
+
+/**
+ * Compact (CSR) adjacency of one CH search direction. For every node the entries are stored consecutively as edge id,
+ * neighbor node, travel time and weight of the edge in search direction, and an offset array points to the first entry
+ * of every node. The data lives in a
+ * DataAccess so that it is persisted next to nodes_ch_* and shortcuts_* and can be memory mapped when the graph is
+ * loaded.
+ * <p>
+ * Layout: (nodeCount + 1) int offsets followed by entryCount (edge, node, time, weight) entries, the weight as the two
+ * ints of its long bits.
+ */
+public class CHAdjacency implements Storable<CHAdjacency> {
+    /**
+     * Time of entries that contain an edge without a valid speed. The shortest weighting still routes over such edges
+     * (#242), their time can only be calculated, and fails, once a path over them is unpacked.
+     */
+    public static final int UNKNOWN_TIME = -1;
+    private static final int ENTRY_BYTES = 20;
+    private final DataAccess da;
+    private int nodeCount = 0;
+    private int entryCount = 0;
+    private long entriesPointer = 4;
+    private boolean created = false;
+    private boolean built = false;
+
+    CHAdjacency(final Directory dir, final String name) {
+        this.da = dir.find(name, DAType.getPreferredInt(dir.getDefaultType()));
+    }
+
+    /**
+     * @return the first entry belonging to the given node
+     */
+    public int getEntryStart(final int node) {
+        if (node < 0 || node >= nodeCount) {
+            return 0;
+        }
+        return da.getInt((long) node * 4);
+    }
+
+    /**
+     * @return the entry after the last entry belonging to the given node
+     */
+    public int getEntryEnd(final int node) {
+        if (node < 0 || node >= nodeCount) {
+            return 0;
+        }
+        return da.getInt((long) (node + 1) * 4);
+    }
+
+    public int getEdge(final int entry) {
+        return da.getInt(entriesPointer + (long) entry * ENTRY_BYTES);
+    }
+
+    /**
+     * @return the node reached over the edge of this entry in the search direction of this adjacency
+     */
+    public int getNode(final int entry) {
+        return da.getInt(entriesPointer + (long) entry * ENTRY_BYTES + 4);
+    }
+
+    /**
+     * @return the travel time in millis of the edge of this entry when it is driven in the direction of the search, i.e.
+     * for shortcuts the sum of the times of all original edges it skips. Capped at Integer.MAX_VALUE. UNKNOWN_TIME if
+     * one of these edges has no valid speed.
+     */
+    public int getTime(final int entry) {
+        return da.getInt(entriesPointer + (long) entry * ENTRY_BYTES + 8);
+    }
+
+    /**
+     * @return the weight of the edge of this entry when it is driven in the direction of the search. For shortcuts it is
+     * the sum of the weights of the original edges it skips in this direction, which differs from the single weight of
+     * a shortcut whose directions were recustomized to different weights.
+     */
+    public double getWeight(final int entry) {
+        final long pointer = entriesPointer + (long) entry * ENTRY_BYTES + 12;
+        final long high = da.getInt(pointer);
+        final long low = da.getInt(pointer + 4) & 0xFFFFFFFFL;
+        return Double.longBitsToDouble(high << 32 | low);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Starts (re)building this adjacency. The entries have to be filled afterwards via setEntry.
+     *
+     * @param offsets of length nodeCount + 1 where offsets[node] is the first entry of node and the last element is
+     *                the total number of entries
+     */
+    void init(final int[] offsets) {
+        this.nodeCount = offsets.length - 1;
+        this.entryCount = offsets[nodeCount];
+        this.entriesPointer = (long) offsets.length * 4;
+        this.built = false;
+
+        if (!created) {
+            create(100);
+        }
+        da.ensureCapacity(entriesPointer + (long) entryCount * ENTRY_BYTES);
+        for (int i = 0; i < offsets.length; i++) {
+            da.setInt((long) i * 4, offsets[i]);
+        }
+    }
+
+    void setEntry(final int entry, final int edge, final int node, final long time, final double weight) {
+        final long pointer = entriesPointer + (long) entry * ENTRY_BYTES;
+        da.setInt(pointer, edge);
+        da.setInt(pointer + 4, node);
+        da.setInt(pointer + 8, time < 0 ? UNKNOWN_TIME : (int) Math.min(time, Integer.MAX_VALUE));
+        final long weightBits = Double.doubleToLongBits(weight);
+        da.setInt(pointer + 12, (int) (weightBits >>> 32));
+        da.setInt(pointer + 16, (int) weightBits);
+    }
+
+    void setBuilt() {
+        this.built = true;
+    }
+
+    void setSegmentSize(final int bytes) {
+        da.setSegmentSize(bytes);
+    }
+
+    @Override
+    public boolean loadExisting() {
+        if (!da.loadExisting()) {
+            return false;
+        }
+        created = true;
+
+        nodeCount = da.getHeader(0);
+        entryCount = da.getHeader(4);
+        entriesPointer = (long) (nodeCount + 1) * 4;
+        // adjacencies stored with another entry layout are rebuilt
+        built = da.getHeader(8) == 1 && da.getHeader(12) == ENTRY_BYTES;
+        return built;
+    }
+
+    @Override
+    public CHAdjacency create(final long byteCount) {
+        da.create(Math.max(byteCount, 100));
+        created = true;
+        return this;
+    }
+
+    /**
+     * The underlying storage is only created when the adjacency is built, so there might be nothing to flush.
+     */
+    @Override
+    public void flush() {
+        if (!created) {
+            return;
+        }
+        da.setHeader(0, nodeCount);
+        da.setHeader(4, entryCount);
+        da.setHeader(8, built ? 1 : 0);
+        da.setHeader(12, ENTRY_BYTES);
+        da.flush();
+    }
+
+    @Override
+    public void close() {
+        da.close();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return da.isClosed();
+    }
+
+    @Override
+    public long getCapacity() {
+        return da.getCapacity();
+    }
+}
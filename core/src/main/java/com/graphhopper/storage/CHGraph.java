@@ -17,6 +17,7 @@
  */
 package com.graphhopper.storage;
 
+import com.carrotsearch.hppc.IntContainer;
 import com.graphhopper.routing.ch.NodeOrderingProvider;
 import com.graphhopper.routing.util.AllCHEdgesIterator;
 import com.graphhopper.routing.util.EdgeFilter;
@@ -96,9 +97,36 @@ public interface CHGraph extends Graph {
      */
     boolean isReadyForContraction();
 
+    /**
+     * @return the edges leaving baseNode towards a node of higher or equal level. Requires prepareAdjacencyLists.
+     */
     Iterator<EdgeIteratorState> getOutgoingEdges(final int baseNode);
 
+    /**
+     * @return the edges entering adjNode from a node of higher level. Requires prepareAdjacencyLists.
+     */
     Iterator<EdgeIteratorState> getIngoingEdges(final int adjNode);
 
+    /**
+     * @return the upward search graph: for every node the edges to nodes of higher or equal level
+     */
+    CHAdjacency getUpwardAdjacency();
+
+    /**
+     * @return the reversed downward search graph: for every node the edges coming from nodes of higher level
+     */
+    CHAdjacency getDownwardAdjacency();
+
+    /**
+     * Builds the upward and downward adjacency arrays if they were neither built during the preparation nor loaded
+     * from disk.
+     */
     void prepareAdjacencyLists();
+
+    /**
+     * Updates the times and weights of the entries of the given edges in the upward and downward adjacency arrays,
+     * e.g. after their weights changed. The arrays are built again if the accessible directions of one of the edges
+     * changed, because then the offsets of the nodes change as well.
+     */
+    void updateAdjacencyLists(IntContainer edges);
 }
@@ -17,6 +17,8 @@
  */
 package com.graphhopper.storage;
 
+import com.carrotsearch.hppc.IntContainer;
+import com.carrotsearch.hppc.cursors.IntCursor;
 import com.graphhopper.routing.ch.NodeOrderingProvider;
 import com.graphhopper.routing.ch.PrepareEncoder;
 import com.graphhopper.routing.profiles.BooleanEncodedValue;
@@ -31,8 +33,10 @@ import com.graphhopper.util.shapes.BBox;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Locale;
+import java.util.NoSuchElementException;
 
 import static com.graphhopper.util.Helper.nf;
 
@@ -50,6 +54,7 @@ public class CHGraphImpl implements CHGraph, Storable<CHGraph> {
     private static final int MAX_WEIGHT_31 = (Integer.MAX_VALUE >> 2) << 2;
     private static final double MAX_WEIGHT = (Integer.MAX_VALUE >> 2) / WEIGHT_FACTOR;
     private static final double MIN_WEIGHT = 1 / WEIGHT_FACTOR;
+    private static final long TIME_NOT_CALCULATED = Long.MIN_VALUE;
     final DataAccess shortcuts;
     final DataAccess nodesCH;
     final int scDirMask = PrepareEncoder.getScDirMask();
@@ -67,8 +72,12 @@ public class CHGraphImpl implements CHGraph, Storable<CHGraph> {
     private int shortcutCount = 0;
     private boolean isReadyForContraction;
 
-    private AdjacencyList outAdjacency = null;
-    private AdjacencyList inAdjacency = null;
+    private final CHAdjacency upwardAdjacency;
+    private final CHAdjacency downwardAdjacency;
+    private volatile boolean adjacencyReady = false;
+    // travel times and weights of shortcuts per direction, only used while the adjacency arrays are built or updated
+    private long[] shortcutTimes;
+    private double[] shortcutWeights;
 
     CHGraphImpl(Weighting w, Directory dir, final BaseGraph baseGraph, boolean edgeBased) {
         if (w == null)
@@ -81,15 +90,213 @@ public class CHGraphImpl implements CHGraph, Storable<CHGraph> {
         this.nodesCH = dir.find("nodes_ch_" + name, DAType.getPreferredInt(dir.getDefaultType()));
         this.shortcuts = dir.find("shortcuts_" + name, DAType.getPreferredInt(dir.getDefaultType()));
         this.chEdgeAccess = new CHEdgeAccess(name);
+        this.upwardAdjacency = new CHAdjacency(dir, "ch_up_" + name);
+        this.downwardAdjacency = new CHAdjacency(dir, "ch_down_" + name);
     }
 
+    @Override
     public void prepareAdjacencyLists() {
-        if (this.outAdjacency == null) {
-            this.outAdjacency = new AdjacencyListOut(this, getAllEdges(), weighting);
-            this.inAdjacency = new AdjacencyListIn(this, getAllEdges(), weighting);
+        if (adjacencyReady) {
+            return;
+        }
+
+        synchronized (this) {
+            if (!adjacencyReady) {
+                buildAdjacencyArrays();
+                adjacencyReady = true;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void updateAdjacencyLists(final IntContainer edges) {
+        // arrays that were not built yet get the current weights once they are prepared
+        if (adjacencyReady && !updateAdjacencyEntries(edges)) {
+            buildAdjacencyArrays();
+        }
+    }
+
+    /**
+     * @return false if an entry of one of the edges was not found or is not accessible any longer
+     */
+    private boolean updateAdjacencyEntries(final IntContainer edges) {
+        final BooleanEncodedValue accessEnc = weighting.getFlagEncoder().getAccessEnc();
+        shortcutTimes = new long[2 * shortcutCount];
+        Arrays.fill(shortcutTimes, TIME_NOT_CALCULATED);
+        shortcutWeights = new double[2 * shortcutCount];
+        Arrays.fill(shortcutWeights, Double.NaN);
+        try {
+            for (IntCursor cursor : edges) {
+                final CHEdgeIteratorState edgeState = getEdgeIteratorState(cursor.value, Integer.MIN_VALUE);
+                final int baseNode = edgeState.getBaseNode();
+                final int adjNode = edgeState.getAdjNode();
+                if (!updateAdjacencyEntry(cursor.value, baseNode, adjNode, edgeState.get(accessEnc))
+                        || !updateAdjacencyEntry(cursor.value, adjNode, baseNode, edgeState.getReverse(accessEnc))) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            shortcutTimes = null;
+            shortcutWeights = null;
+        }
+    }
+
+    /**
+     * Sets the time and weight of the entry of the edge driven from 'from' to 'to', which is found like in visitDirectedEdge.
+     *
+     * @return true if the entry exists exactly when the edge is accessible in this direction
+     */
+    private boolean updateAdjacencyEntry(final int edge, final int from, final int to, final boolean accessible) {
+        final boolean upward = getLevel(from) <= getLevel(to);
+        final CHAdjacency adjacency = upward ? upwardAdjacency : downwardAdjacency;
+        final int node = upward ? from : to;
+        final int otherNode = upward ? to : from;
+        boolean found = false;
+        for (int entry = adjacency.getEntryStart(node); entry < adjacency.getEntryEnd(node); entry++) {
+            if (adjacency.getEdge(entry) == edge && adjacency.getNode(entry) == otherNode) {
+                found = true;
+                if (accessible) {
+                    adjacency.setEntry(entry, edge, otherNode, calcTime(edge, from, to), calcWeight(edge, from, to));
+                }
+            }
+        }
+        return found == accessible;
+    }
+
+    private void buildAdjacencyArrays() {
+        final int nodes = getNodes();
+        final int[] upwardOffsets = new int[nodes + 1];
+        final int[] downwardOffsets = new int[nodes + 1];
+        visitDirectedEdges(upwardOffsets, downwardOffsets, null, null);
+
+        toOffsets(upwardOffsets);
+        toOffsets(downwardOffsets);
+        upwardAdjacency.init(upwardOffsets);
+        downwardAdjacency.init(downwardOffsets);
+
+        final int[] upwardCursors = Arrays.copyOf(upwardOffsets, nodes);
+        final int[] downwardCursors = Arrays.copyOf(downwardOffsets, nodes);
+        shortcutTimes = new long[2 * shortcutCount];
+        Arrays.fill(shortcutTimes, TIME_NOT_CALCULATED);
+        shortcutWeights = new double[2 * shortcutCount];
+        Arrays.fill(shortcutWeights, Double.NaN);
+        visitDirectedEdges(upwardCursors, downwardCursors, upwardAdjacency, downwardAdjacency);
+        shortcutTimes = null;
+        shortcutWeights = null;
+
+        upwardAdjacency.setBuilt();
+        downwardAdjacency.setBuilt();
+    }
+
+    /**
+     * Counts (if the adjacencies are null) or stores every accessible directed edge u->v. Upward edges are added to u,
+     * downward edges are added to v.
+     */
+    private void visitDirectedEdges(final int[] upward, final int[] downward, final CHAdjacency upwardAdj, final CHAdjacency downwardAdj) {
+        final BooleanEncodedValue accessEnc = weighting.getFlagEncoder().getAccessEnc();
+        final AllCHEdgesIterator iter = getAllEdges();
+        while (iter.next()) {
+            final int edge = iter.getEdge();
+            final int baseNode = iter.getBaseNode();
+            final int adjNode = iter.getAdjNode();
+            if (iter.get(accessEnc)) {
+                visitDirectedEdge(edge, baseNode, adjNode, upward, downward, upwardAdj, downwardAdj);
+            }
+            if (iter.getReverse(accessEnc)) {
+                visitDirectedEdge(edge, adjNode, baseNode, upward, downward, upwardAdj, downwardAdj);
+            }
+        }
+    }
+
+    private void visitDirectedEdge(final int edge, final int from, final int to, final int[] upward, final int[] downward,
+                                   final CHAdjacency upwardAdj, final CHAdjacency downwardAdj) {
+        if (getLevel(from) <= getLevel(to)) {
+            final int entry = upward[from]++;
+            if (upwardAdj != null) {
+                upwardAdj.setEntry(entry, edge, to, calcTime(edge, from, to), calcWeight(edge, from, to));
+            }
+        } else {
+            final int entry = downward[to]++;
+            if (downwardAdj != null) {
+                downwardAdj.setEntry(entry, edge, from, calcTime(edge, from, to), calcWeight(edge, from, to));
+            }
         }
     }
 
+    /**
+     * @return the travel time of the edge driven from 'from' to 'to'. The time of a shortcut is the sum of the times of
+     * its skipped edges. Shortcuts skip each other, so their times are memoized per direction while the adjacency
+     * arrays are built. Edges without a valid speed, which the shortest weighting still uses (#242), and all shortcuts
+     * skipping them get CHAdjacency.UNKNOWN_TIME.
+     */
+    private long calcTime(final int edge, final int from, final int to) {
+        final CHEdgeIteratorState edgeState = getEdgeIteratorState(edge, to);
+        if (!edgeState.isShortcut()) {
+            try {
+                return weighting.calcMillis(edgeState, false, EdgeIterator.NO_EDGE);
+            } catch (IllegalStateException ex) {
+                return CHAdjacency.UNKNOWN_TIME;
+            }
+        }
+
+        final int index = 2 * (edge - baseGraph.edgeCount) + (from < to ? 0 : 1);
+        if (shortcutTimes[index] == TIME_NOT_CALCULATED) {
+            final int skippedEdge1 = edgeState.getSkippedEdge1();
+            final int skippedEdge2 = edgeState.getSkippedEdge2();
+            final int firstEdge = isAdjacentToNode(skippedEdge1, from) ? skippedEdge1 : skippedEdge2;
+            final int secondEdge = firstEdge == skippedEdge1 ? skippedEdge2 : skippedEdge1;
+            final int viaNode = getOtherNode(firstEdge, from);
+            final long firstTime = calcTime(firstEdge, from, viaNode);
+            final long secondTime = calcTime(secondEdge, viaNode, to);
+            shortcutTimes[index] = firstTime < 0 || secondTime < 0 ? CHAdjacency.UNKNOWN_TIME : firstTime + secondTime;
+        }
+        return shortcutTimes[index];
+    }
+
+    /**
+     * @return the weight of the edge driven from 'from' to 'to'. Like the time, the weight of a shortcut is summed up
+     * from its skipped edges in this direction instead of taking the single weight stored for both of its directions.
+     */
+    private double calcWeight(final int edge, final int from, final int to) {
+        final CHEdgeIteratorState edgeState = getEdgeIteratorState(edge, to);
+        if (!edgeState.isShortcut()) {
+            return weighting.calcWeight(edgeState, false, EdgeIterator.NO_EDGE);
+        }
+
+        final int index = 2 * (edge - baseGraph.edgeCount) + (from < to ? 0 : 1);
+        if (Double.isNaN(shortcutWeights[index])) {
+            final int skippedEdge1 = edgeState.getSkippedEdge1();
+            final int skippedEdge2 = edgeState.getSkippedEdge2();
+            final int firstEdge = isAdjacentToNode(skippedEdge1, from) ? skippedEdge1 : skippedEdge2;
+            final int secondEdge = firstEdge == skippedEdge1 ? skippedEdge2 : skippedEdge1;
+            final int viaNode = getOtherNode(firstEdge, from);
+            shortcutWeights[index] = calcWeight(firstEdge, from, viaNode) + calcWeight(secondEdge, viaNode, to);
+        }
+        return shortcutWeights[index];
+    }
+
+    private static void toOffsets(final int[] counts) {
+        int sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            final int count = counts[i];
+            counts[i] = sum;
+            sum += count;
+        }
+    }
+
+    @Override
+    public CHAdjacency getUpwardAdjacency() {
+        assert adjacencyReady : "Call prepareAdjacencyLists() first.";
+        return upwardAdjacency;
+    }
+
+    @Override
+    public CHAdjacency getDownwardAdjacency() {
+        assert adjacencyReady : "Call prepareAdjacencyLists() first.";
+        return downwardAdjacency;
+    }
+
     public final Weighting getWeighting() {
         return weighting;
     }
@@ -246,14 +453,46 @@ public class CHGraphImpl implements CHGraph, Storable<CHGraph> {
 
     @Override
     public Iterator<EdgeIteratorState> getOutgoingEdges(int baseNode) {
-        assert outAdjacency != null : "Call prepareAdjacencyLists() first.";
-        return outAdjacency.getIterator(baseNode);
+        return new AdjacencyIterator(getUpwardAdjacency(), baseNode, false);
     }
 
     @Override
     public Iterator<EdgeIteratorState> getIngoingEdges(int adjNode) {
-        assert inAdjacency != null : "Call prepareAdjacencyLists() first.";
-        return inAdjacency.getIterator(adjNode);
+        return new AdjacencyIterator(getDownwardAdjacency(), adjNode, true);
+    }
+
+    private class AdjacencyIterator implements Iterator<EdgeIteratorState> {
+        private final CHAdjacency adjacency;
+        private final int node;
+        private final boolean reverse;
+        private final int end;
+        private int entry;
+
+        AdjacencyIterator(final CHAdjacency adjacency, final int node, final boolean reverse) {
+            this.adjacency = adjacency;
+            this.node = node;
+            this.reverse = reverse;
+            this.entry = adjacency.getEntryStart(node);
+            this.end = adjacency.getEntryEnd(node);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entry < end;
+        }
+
+        @Override
+        public EdgeIteratorState next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final int edge = adjacency.getEdge(entry);
+            final int neighbor = adjacency.getNode(entry);
+            entry++;
+            // ingoing edges point from the neighbor to the node
+            return getEdgeIteratorState(edge, reverse ? node : neighbor);
+        }
     }
 
     @Override
@@ -387,6 +626,8 @@ public class CHGraphImpl implements CHGraph, Storable<CHGraph> {
     void setSegmentSize(int bytes) {
         nodesCH.setSegmentSize(bytes);
         shortcuts.setSegmentSize(bytes);
+        upwardAdjacency.setSegmentSize(bytes);
+        downwardAdjacency.setSegmentSize(bytes);
     }
 
     @Override
@@ -403,6 +644,8 @@ public class CHGraphImpl implements CHGraph, Storable<CHGraph> {
 
         loadNodesHeader();
         loadEdgesHeader();
+        // graphs stored without adjacency arrays build them lazily on the first query
+        adjacencyReady = upwardAdjacency.loadExisting() & downwardAdjacency.loadExisting();
         return true;
     }
 
@@ -410,12 +653,16 @@ public class CHGraphImpl implements CHGraph, Storable<CHGraph> {
     public void flush() {
         nodesCH.flush();
         shortcuts.flush();
+        upwardAdjacency.flush();
+        downwardAdjacency.flush();
     }
 
     @Override
     public void close() {
         nodesCH.close();
         shortcuts.close();
+        upwardAdjacency.close();
+        downwardAdjacency.close();
     }
 
     @Override
@@ -425,7 +672,7 @@ public class CHGraphImpl implements CHGraph, Storable<CHGraph> {
 
     @Override
     public long getCapacity() {
-        return nodesCH.getCapacity() + shortcuts.getCapacity();
+        return nodesCH.getCapacity() + shortcuts.getCapacity() + upwardAdjacency.getCapacity() + downwardAdjacency.getCapacity();
     }
 
     @Override
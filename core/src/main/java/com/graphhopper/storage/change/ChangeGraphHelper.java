@@ -48,7 +48,9 @@ public class ChangeGraphHelper {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final Graph graph;
     private final GraphEdgeIdFinder graphBrowser;
+    private final GHIntHashSet changedEdges = new GHIntHashSet();
     private boolean enableLogging = false;
+    private boolean blockingAllowed = true;
 
     public ChangeGraphHelper(Graph graph, LocationIndex locationIndex) {
         this.graph = graph;
@@ -59,6 +61,23 @@ public class ChangeGraphHelper {
         enableLogging = log;
     }
 
+    /**
+     * Whether features may block edges, i.e. change their access or set a speed of 0. Changes that block an edge are
+     * rejected with an IllegalArgumentException if this is false. Access changes are rejected before any feature is
+     * applied, a speed that is stored as 0 only when it is applied, so the features before it stay applied.
+     */
+    public ChangeGraphHelper setBlockingAllowed(boolean blockingAllowed) {
+        this.blockingAllowed = blockingAllowed;
+        return this;
+    }
+
+    /**
+     * @return the ids of all edges that were changed by this helper so far
+     */
+    public GHIntHashSet getChangedEdges() {
+        return changedEdges;
+    }
+
     /**
      * This method applies changes to the graph, specified by the json features.
      *
@@ -68,6 +87,13 @@ public class ChangeGraphHelper {
         if (em == null)
             throw new NullPointerException("EncodingManager cannot be null to change existing graph");
 
+        if (!blockingAllowed) {
+            for (JsonFeature jsonFeature : features) {
+                if (jsonFeature.hasProperties() && jsonFeature.getProperties().containsKey("access"))
+                    throw new IllegalArgumentException("Feature " + jsonFeature.getId() + " changes the access, which is not possible for this graph");
+            }
+        }
+
         long updates = 0;
         for (JsonFeature jsonFeature : features) {
             if (!jsonFeature.hasProperties())
@@ -112,6 +138,7 @@ public class ChangeGraphHelper {
                 if (enableLogging)
                     logger.info(encoder.toString() + " - access change via feature " + jsonFeature.getId());
                 edge.set(accessEnc, value).setReverse(accessEnc, value);
+                changedEdges.add(edgeId);
 
             } else if (props.containsKey("speed")) {
                 // TODO use different speed for the different directions (see e.g. Bike2WeightFlagEncoder)
@@ -122,6 +149,11 @@ public class ChangeGraphHelper {
                     if (enableLogging)
                         logger.info(encoder.toString() + " - speed change via feature " + jsonFeature.getId() + ". Old: " + oldSpeed + ", new:" + value);
                     edge.set(avSpeedEnc, value);
+                    if (!blockingAllowed && edge.get(avSpeedEnc) == 0) {
+                        edge.set(avSpeedEnc, oldSpeed);
+                        throw new IllegalArgumentException("Feature " + jsonFeature.getId() + " blocks edges with the speed " + value + ", which is not possible for this graph");
+                    }
+                    changedEdges.add(edgeId);
                 }
             }
         }
@@ -6,31 +6,29 @@ import com.graphhopper.util.EdgeIteratorState;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 abstract class CellRunner {
     final LinkedList<EdgeIteratorState> edgesOnCell = new LinkedList<>();
     private final Graph graph;
     final NodeAccess nodeAccess;
-    private final VisitedManager localVisitedManager;
-    final VisitedManagerDual globalVisitedManager;
+    final ConcurrentVisitedManagerDual globalVisitedManager;
     private final VectorAngleCalculator vectorAngleCalculator;
     private final EdgeIteratorState startEdge;
-    private final Map<Integer, SortedNeighbors> sortedNeighborsMap;
+    private final SortedNeighborArrays sortedNeighbors;
 
     private EdgeIteratorState lastNonZeroLengthEdge;
+    private EdgeIteratorState endEdge;
 
 
-    CellRunner(final Graph graph, final VisitedManagerDual globalVisitedManager, final VectorAngleCalculator vectorAngleCalculator,
-               final EdgeIteratorState startEdge, Map<Integer, SortedNeighbors> sortedNeighborsMap) {
+    CellRunner(final Graph graph, final ConcurrentVisitedManagerDual globalVisitedManager, final VectorAngleCalculator vectorAngleCalculator,
+               final EdgeIteratorState startEdge, final SortedNeighborArrays sortedNeighbors) {
         this.graph = graph;
         this.nodeAccess = graph.getNodeAccess();
-        this.localVisitedManager = new VisitedManager(graph);
         this.globalVisitedManager = globalVisitedManager;
         this.vectorAngleCalculator = vectorAngleCalculator;
 
         this.startEdge = VisitedManager.forceNodeIdsAscending(startEdge);
-        this.sortedNeighborsMap = sortedNeighborsMap;
+        this.sortedNeighbors = sortedNeighbors;
         this.lastNonZeroLengthEdge = this.startEdge;
     }
 
@@ -39,7 +37,7 @@ abstract class CellRunner {
         return createVisibilityCell();
     }
 
-    private void runAroundCellAndLogNodes() {
+    void runAroundCellAndLogNodes() {
         failOnLengthZeroStartEdge();
 
         addStartAndEndNodeOfCell();
@@ -86,12 +84,20 @@ abstract class CellRunner {
             settleEdge(edge);
             return true;
         } else {
+            endEdge = edge;
             return false;
         }
     }
 
+    /**
+     * The run stops at the first edge that connects the nodes of the start edge in the same direction. Only if this is
+     * the start edge itself, the edges on the cell form a cycle that could have been run from any of its edges.
+     */
+    boolean isEndEdgeStartEdge() {
+        return endEdge != null && endEdge.getEdge() == startEdge.getEdge();
+    }
+
     private void settleEdge(EdgeIteratorState edge) {
-        localVisitedManager.settleEdge(edge);
         markGloballyVisited(edge);
         edgesOnCell.add(edge);
     }
@@ -120,8 +126,7 @@ abstract class CellRunner {
 
     private EdgeIteratorState getMostOrientedEdgeFromSortedNeighbors(EdgeIteratorState lastEdge, int ignoreBackwardsEdge) {
         final int lastEdgeAdjNode = lastEdge.getAdjNode();
-        final SortedNeighbors sortedNeighbors = sortedNeighborsMap.get(lastEdgeAdjNode); //new SortedNeighbors(graph, lastEdgeAdjNode, ignoreBackwardsEdge, vectorAngleCalculator);
-        return sortedNeighbors.getMostOrientedEdge(lastNonZeroLengthEdge.detach(true));
+        return sortedNeighbors.getMostOrientedEdge(lastEdgeAdjNode, lastNonZeroLengthEdge.detach(true));
     }
 
     private void updateLastNonZeroLengthEdge(EdgeIteratorState mostOrientedEdge) {
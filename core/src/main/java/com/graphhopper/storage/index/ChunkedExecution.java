@@ -0,0 +1,60 @@
+package com.graphhopper.storage.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Processes the index range [0, size) in chunks of consecutive indices. Up to parallelism workers take the next
+ * unprocessed chunk until none is left, so workers that hit expensive chunks do not hold up the others. Without a pool
+ * all chunks are processed on the calling thread in ascending order.
+ */
+final class ChunkedExecution {
+    interface RangeTask {
+        void run(int from, int to);
+    }
+
+    private ChunkedExecution() {
+    }
+
+    static void run(final ExecutorService executorService, final int parallelism, final int size, final int chunkSize,
+                    final RangeTask task) {
+        if (executorService == null || parallelism == 1) {
+            task.run(0, size);
+            return;
+        }
+
+        final AtomicInteger nextChunkStart = new AtomicInteger();
+        final List<Future<?>> futures = new ArrayList<>(parallelism);
+        for (int worker = 0; worker < parallelism; worker++) {
+            futures.add(executorService.submit(() -> {
+                int from;
+                while ((from = nextChunkStart.getAndAdd(chunkSize)) < size) {
+                    task.run(from, Math.min(size, from + chunkSize));
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static void cancelAll(final List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+}
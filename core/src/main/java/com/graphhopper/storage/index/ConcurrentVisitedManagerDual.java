@@ -0,0 +1,90 @@
+package com.graphhopper.storage.index;
+
+import com.graphhopper.storage.Graph;
+import com.graphhopper.util.EdgeIteratorState;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Settled edges of the left and the right runs that may be shared by runs on several threads. Every edge has one bit
+ * per run side and edge direction. Bits are only ever set, each with a compare and set on the word that contains it, so
+ * no lock is needed and no object is allocated per settled edge.
+ */
+public class ConcurrentVisitedManagerDual {
+    private final static int BITS_PER_EDGE = 4;
+    private final static int LEFT = 0;
+    private final static int RIGHT = 2;
+
+    private final AtomicLongArray bits;
+
+    public ConcurrentVisitedManagerDual(final Graph graph) {
+        this.bits = new AtomicLongArray((int) (((long) graph.getEdges() * BITS_PER_EDGE + 63) >>> 6));
+    }
+
+    /**
+     * @return true if the edge was not settled in this direction before
+     */
+    public boolean settleEdgeLeft(final EdgeIteratorState edge) {
+        return settle(getBit(edge, LEFT));
+    }
+
+    /**
+     * @return true if the edge was not settled in this direction before
+     */
+    public boolean settleEdgeRight(final EdgeIteratorState edge) {
+        return settle(getBit(edge, RIGHT));
+    }
+
+    /**
+     * @return true if the edge was settled in any direction by a left run
+     */
+    public boolean isEdgeSettledLeft(final EdgeIteratorState edge) {
+        return isSet(getBit(edge.getEdge(), LEFT, 0)) || isSet(getBit(edge.getEdge(), LEFT, 1));
+    }
+
+    /**
+     * @return true if the edge was settled in any direction by a right run
+     */
+    public boolean isEdgeSettledRight(final EdgeIteratorState edge) {
+        return isSet(getBit(edge.getEdge(), RIGHT, 0)) || isSet(getBit(edge.getEdge(), RIGHT, 1));
+    }
+
+    /**
+     * @return true if a left run went along the edge from its base to its adjacent node
+     */
+    public boolean isDirectionSettledLeft(final EdgeIteratorState edge) {
+        return isSet(getBit(edge, LEFT));
+    }
+
+    /**
+     * @return true if a right run went along the edge from its base to its adjacent node
+     */
+    public boolean isDirectionSettledRight(final EdgeIteratorState edge) {
+        return isSet(getBit(edge, RIGHT));
+    }
+
+    private static long getBit(final EdgeIteratorState edge, final int side) {
+        return getBit(edge.getEdge(), side, edge.getBaseNode() > edge.getAdjNode() ? 1 : 0);
+    }
+
+    private static long getBit(final int edge, final int side, final int direction) {
+        return (long) edge * BITS_PER_EDGE + side + direction;
+    }
+
+    private boolean isSet(final long bit) {
+        return (bits.get((int) (bit >>> 6)) & (1L << bit)) != 0;
+    }
+
+    private boolean settle(final long bit) {
+        final int word = (int) (bit >>> 6);
+        final long mask = 1L << bit;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+        return true;
+    }
+}
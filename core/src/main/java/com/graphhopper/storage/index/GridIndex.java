@@ -1,100 +1,166 @@
 package com.graphhopper.storage.index;
 
+import com.carrotsearch.hppc.LongArrayList;
+import com.graphhopper.coll.GHIntHashSet;
+import com.graphhopper.storage.DAType;
+import com.graphhopper.storage.DataAccess;
 import com.graphhopper.storage.Directory;
 import com.graphhopper.storage.Graph;
 import com.graphhopper.storage.NodeAccess;
+import com.graphhopper.util.Helper;
 import com.graphhopper.util.shapes.BBox;
+import com.graphhopper.util.shapes.GHPoint;
 import com.graphhopper.util.shapes.Polygon;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArraySet;
 
+/**
+ * Location index that additionally finds the visibility cells intersecting a polygon. The cells are stored in the
+ * "visibility_cells" data access next to the location index: the cell coordinates as packed ints, the offset of every
+ * cell in them and, for every non-empty cell of a regular grid over the globe, the ids of the cells overlapping it.
+ * Empty grid cells take no space and the stored cells are loaded again instead of being created on every start.
+ */
 public class GridIndex extends LocationIndexTree {
     private final static double MAX_LATITUDE = 90;
     private final static double MAX_LONGITUDE = 180;
+    private final static int MAGIC_INT = Integer.MAX_VALUE / 95317;
 
     private final Graph graph;
     private final NodeAccess nodeAccess;
+    private final DataAccess cells;
 
     private int resolution = -1;
-    private GridCell[][] index;
+    private int preparationThreads = Runtime.getRuntime().availableProcessors();
+    private int cellCount;
+    private int coordinateCount;
+    private int gridCellCount;
+    private int postingCount;
 
     private boolean existingSuperIndexLoaded = false;
+    private boolean cellsInitialized = false;
 
     public GridIndex(final Graph graph, Directory dir) {
         super(graph, dir);
         this.graph = graph;
         this.nodeAccess = graph.getNodeAccess();
+        this.cells = dir.find("visibility_cells", DAType.getPreferredInt(dir.getDefaultType()));
     }
 
     public List<VisibilityCell> getIntersectingVisibilityCells(final Polygon polygon) {
-        final Set<VisibilityCell> intersectingVisibilityCells = new CopyOnWriteArraySet<>();
-        final GridCell[][] relevantGridCells = getGridCellsOverlapping(polygon);
-
-        for (GridCell[] relevantGridCell : relevantGridCells) {
-            for (int j = 0; j < relevantGridCells[0].length; j++) {
-                addAllIntersectingVisibilityCellsOfGridCell(intersectingVisibilityCells, relevantGridCell[j], polygon);
+        final Set<VisibilityCell> intersectingVisibilityCells = new LinkedHashSet<>();
+        final GHIntHashSet testedCells = new GHIntHashSet();
+        final BBox polygonMinBoundingBox = polygon.getMinimalBoundingBox();
+        final int minLongitudeIndex = getLongitudeIndex(polygonMinBoundingBox.minLon);
+        final int maxLongitudeIndex = getLongitudeIndex(polygonMinBoundingBox.maxLon);
+
+        for (int row = getLatitudeIndex(polygonMinBoundingBox.maxLat); row <= getLatitudeIndex(polygonMinBoundingBox.minLat); row++) {
+            final int lastKey = getGridKey(row, maxLongitudeIndex);
+            for (int gridCell = findFirstGridCell(getGridKey(row, minLongitudeIndex)); gridCell < gridCellCount && getGridCellKey(gridCell) <= lastKey;
+                 gridCell++) {
+                addAllIntersectingVisibilityCellsOfGridCell(intersectingVisibilityCells, testedCells, gridCell, polygon);
             }
         }
 
         return new ArrayList<>(intersectingVisibilityCells);
     }
 
-    private GridCell[][] getGridCellsOverlapping(Polygon polygon) {
-        final BBox polygonMinBoundingBox = polygon.getMinimalBoundingBox();
+    private void addAllIntersectingVisibilityCellsOfGridCell(Set<VisibilityCell> intersectingVisibilityCells, GHIntHashSet testedCells, int gridCell,
+                                                             final Polygon polygon) {
+        final int lastPosting = getPostingOffset(gridCell + 1);
+        for (int posting = getPostingOffset(gridCell); posting < lastPosting; posting++) {
+            final int cellId = cells.getInt(4L * (getPostingsStart() + posting));
+            if (!testedCells.add(cellId)) {
+                continue;
+            }
 
-        return getGridCellsThatOverlapPolygonBoundingBox(polygonMinBoundingBox);
+            final VisibilityCell visibilityCell = getVisibilityCell(cellId);
+            if (visibilityCell.intersects(polygon)) {
+                intersectingVisibilityCells.add(visibilityCell);
+            }
+        }
     }
 
-    private void addAllIntersectingVisibilityCellsOfGridCell(Collection<VisibilityCell> overlappingVisibilityCells, GridCell gridCell, final Polygon polygon) {
-        for (VisibilityCell visibilityCell : gridCell.visibilityCells) {
-            if (visibilityCell.intersects(polygon)) {
-                addVisibilityCellToResults(overlappingVisibilityCells, visibilityCell);
+    /**
+     * @return the first non-empty grid cell with a key not smaller than the given one
+     */
+    private int findFirstGridCell(final int key) {
+        int low = 0;
+        int high = gridCellCount;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (getGridCellKey(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
             }
         }
+        return low;
     }
 
-    private void addVisibilityCellToResults(Collection<VisibilityCell> overlappingVisibilityCells, VisibilityCell visibilityCell) {
-        overlappingVisibilityCells.add(visibilityCell);
+    VisibilityCell getVisibilityCell(final int cellId) {
+        final int firstCoordinate = cells.getInt(4L * cellId);
+        final int size = cells.getInt(4L * (cellId + 1)) - firstCoordinate;
+        final double[] latitudes = new double[size];
+        final double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            final long pointer = 4L * (getCoordinatesStart() + 2L * (firstCoordinate + i));
+            latitudes[i] = Helper.intToDegree(cells.getInt(pointer));
+            longitudes[i] = Helper.intToDegree(cells.getInt(pointer + 4));
+        }
+        return new VisibilityCell(new Polygon(latitudes, longitudes, 0));
     }
 
-    @Override
-    public LocationIndex setResolution(int resolution) {
-        super.setResolution(resolution);
+    // int positions of the sections in the data access, each section directly follows the previous one
+    private long getCoordinatesStart() {
+        return cellCount + 1;
+    }
 
-        this.resolution = (int) MAX_LONGITUDE * 10;
-        initIndex();
+    private long getGridKeysStart() {
+        return getCoordinatesStart() + 2L * coordinateCount;
+    }
 
+    private long getPostingOffsetsStart() {
+        return getGridKeysStart() + gridCellCount;
+    }
 
-        return this;
+    private long getPostingsStart() {
+        return getPostingOffsetsStart() + gridCellCount + 1;
+    }
+
+    private int getGridCellKey(final int gridCell) {
+        return cells.getInt(4L * (getGridKeysStart() + gridCell));
     }
 
-    private void initIndex() {
-        final double[] latitudeIntervalSteps = getIntervalValuesForDirection((-1) * MAX_LATITUDE);
-        final double[] longitudeIntervalSteps = getIntervalValuesForDirection(MAX_LONGITUDE);
+    private int getPostingOffset(final int gridCell) {
+        return cells.getInt(4L * (getPostingOffsetsStart() + gridCell));
+    }
 
-        index = new GridCell[this.resolution][this.resolution];
+    private int getGridKey(final int latitudeIndex, final int longitudeIndex) {
+        return latitudeIndex * resolution + longitudeIndex;
+    }
 
-        for (int i = 0; i < this.resolution; i++) {
-            for (int j = 0; j < this.resolution; j++) {
-                final BBox gridCellBoundingBox = new BBox(longitudeIntervalSteps[j], longitudeIntervalSteps[j + 1], latitudeIntervalSteps[i + 1], latitudeIntervalSteps[i]);
-                index[i][j] = new GridCell(gridCellBoundingBox);
-            }
+    /**
+     * Sets the number of threads the visibility cells are created with. Default is the number of available processors.
+     */
+    public GridIndex setPreparationThreads(final int preparationThreads) {
+        if (preparationThreads < 1) {
+            throw new IllegalArgumentException("Preparation threads must be positive but was " + preparationThreads);
         }
+        this.preparationThreads = preparationThreads;
+        return this;
     }
 
-    private double[] getIntervalValuesForDirection(final double maxValueOfDirection) {
-        final int numValues = this.resolution + 1;
-        final double[] intervalValues = new double[numValues];
+    @Override
+    public LocationIndex setResolution(int resolution) {
+        super.setResolution(resolution);
 
-        for (int i = 0; i < numValues; i++) {
-            intervalValues[i] = (maxValueOfDirection * 2 * i) / this.resolution - maxValueOfDirection;
-        }
+        this.resolution = (int) MAX_LONGITUDE * 10;
 
-        return intervalValues;
+        return this;
     }
 
     @Override
@@ -116,54 +182,99 @@ public class GridIndex extends LocationIndexTree {
     }
 
     private void addAllVisibilityCellsOfGraphToIndex() {
-        final List<VisibilityCell> visibilityCells = new VisibilityCellsCreator(graph, nodeAccess).create();
-
-        for (VisibilityCell visibilityCell : visibilityCells) {
-            addThisToAllOverlappingGridCells(visibilityCell);
+        final List<VisibilityCell> visibilityCells = new VisibilityCellsCreator(graph, nodeAccess, preparationThreads).create();
+        // grid key in the upper and cell id in the lower half, so sorting groups the cells of a grid cell in id order
+        final LongArrayList gridCellPostings = new LongArrayList();
+        for (int cellId = 0; cellId < visibilityCells.size(); cellId++) {
+            addThisToAllOverlappingGridCells(gridCellPostings, visibilityCells.get(cellId), cellId);
         }
+        Arrays.sort(gridCellPostings.buffer, 0, gridCellPostings.size());
+
+        storeCells(visibilityCells, gridCellPostings);
     }
 
-    private void addThisToAllOverlappingGridCells(VisibilityCell visibilityCell) {
-        final GridCell[][] relevantGridCells = getGridCellsOverlapping(visibilityCell.cellShape);
+    private void addThisToAllOverlappingGridCells(final LongArrayList gridCellPostings, final VisibilityCell visibilityCell, final int cellId) {
+        final BBox minBoundingBox = visibilityCell.getMinimalBoundingBox();
+        final int minLongitudeIndex = getLongitudeIndex(minBoundingBox.minLon);
+        final int maxLongitudeIndex = getLongitudeIndex(minBoundingBox.maxLon);
 
-        for (GridCell[] relevantGridCell : relevantGridCells) {
-            for (int j = 0; j < relevantGridCells[0].length; j++) {
-                addIfGridCellOverlapsVisibilityCell(visibilityCell, relevantGridCell[j]);
+        for (int row = getLatitudeIndex(minBoundingBox.maxLat); row <= getLatitudeIndex(minBoundingBox.minLat); row++) {
+            for (int column = minLongitudeIndex; column <= maxLongitudeIndex; column++) {
+                if (visibilityCell.isOverlapping(new GridCell(getGridCellBoundingBox(row, column)))) {
+                    gridCellPostings.add(((long) getGridKey(row, column) << 32) | cellId);
+                }
             }
         }
     }
 
-    private GridCell[][] getGridCellsThatOverlapPolygonBoundingBox(final BBox minBoundingBox) {
-        final int minLongitudeIndex = getIndexByCoordinate(minBoundingBox.minLon, MAX_LONGITUDE);
-        final int maxLongitudeIndex = getIndexByCoordinate(minBoundingBox.maxLon, MAX_LONGITUDE);
-        final int minLatitudeIndex = getIndexByCoordinate(minBoundingBox.maxLat * (-1), MAX_LATITUDE);
-        final int maxLatitudeIndex = getIndexByCoordinate(minBoundingBox.minLat * (-1), MAX_LATITUDE);
-
-        final int lengthLongitude = maxLongitudeIndex - minLongitudeIndex + 1;
-        final int lengthLatitude = maxLatitudeIndex - minLatitudeIndex + 1;
-        GridCell[][] relevantGridCells = new GridCell[lengthLatitude][lengthLongitude];
+    private void storeCells(final List<VisibilityCell> visibilityCells, final LongArrayList gridCellPostings) {
+        cellCount = visibilityCells.size();
+        coordinateCount = 0;
+        for (VisibilityCell visibilityCell : visibilityCells) {
+            coordinateCount += visibilityCell.size();
+        }
+        postingCount = gridCellPostings.size();
+        gridCellCount = 0;
+        for (int i = 0; i < postingCount; i++) {
+            if (i == 0 || (int) (gridCellPostings.get(i) >>> 32) != (int) (gridCellPostings.get(i - 1) >>> 32)) {
+                gridCellCount++;
+            }
+        }
 
-        for (int i = minLatitudeIndex; i <= maxLatitudeIndex; i++) {
-            copyRelevantLatitudeCellsOfThisLongitude(relevantGridCells[i - minLatitudeIndex], minLongitudeIndex, lengthLongitude, i);
+        cells.create(64 * 1024);
+        cells.ensureCapacity(4L * (getPostingsStart() + postingCount));
+
+        int coordinate = 0;
+        for (int cellId = 0; cellId < cellCount; cellId++) {
+            cells.setInt(4L * cellId, coordinate);
+            for (GHPoint point : visibilityCells.get(cellId).cellShape.getCoordinatesAsGHPoints()) {
+                final long pointer = 4L * (getCoordinatesStart() + 2L * coordinate);
+                cells.setInt(pointer, Helper.degreeToInt(point.lat));
+                cells.setInt(pointer + 4, Helper.degreeToInt(point.lon));
+                coordinate++;
+            }
         }
+        cells.setInt(4L * cellCount, coordinate);
+
+        int gridCell = -1;
+        for (int posting = 0; posting < postingCount; posting++) {
+            final int key = (int) (gridCellPostings.get(posting) >>> 32);
+            if (gridCell < 0 || key != getGridCellKey(gridCell)) {
+                gridCell++;
+                cells.setInt(4L * (getGridKeysStart() + gridCell), key);
+                cells.setInt(4L * (getPostingOffsetsStart() + gridCell), posting);
+            }
+            cells.setInt(4L * (getPostingsStart() + posting), (int) gridCellPostings.get(posting));
+        }
+        cells.setInt(4L * (getPostingOffsetsStart() + gridCellCount), postingCount);
 
-        return relevantGridCells;
+        cellsInitialized = true;
+        flush();
     }
 
-    private void copyRelevantLatitudeCellsOfThisLongitude(GridCell[] dest, int minLongitudeIndex, int lengthLongitude, int i) {
-        System.arraycopy(index[i], minLongitudeIndex, dest, 0, lengthLongitude);
+    private BBox getGridCellBoundingBox(final int latitudeIndex, final int longitudeIndex) {
+        final double maxLat = MAX_LATITUDE - 2 * MAX_LATITUDE * latitudeIndex / resolution;
+        final double minLat = MAX_LATITUDE - 2 * MAX_LATITUDE * (latitudeIndex + 1) / resolution;
+        final double minLon = 2 * MAX_LONGITUDE * longitudeIndex / resolution - MAX_LONGITUDE;
+        final double maxLon = 2 * MAX_LONGITUDE * (longitudeIndex + 1) / resolution - MAX_LONGITUDE;
+        return new BBox(minLon, maxLon, minLat, maxLat);
     }
 
-    private int getIndexByCoordinate(final double latOrLong, final double maxValue) {
-        final double nonNegativeLatitude = latOrLong + maxValue;
-        return (int) (nonNegativeLatitude * this.resolution / (maxValue * 2));
+    /**
+     * Rows are counted from the north pole.
+     */
+    private int getLatitudeIndex(final double latitude) {
+        return getIndexByCoordinate(latitude * (-1), MAX_LATITUDE);
     }
 
+    private int getLongitudeIndex(final double longitude) {
+        return getIndexByCoordinate(longitude, MAX_LONGITUDE);
+    }
 
-    private void addIfGridCellOverlapsVisibilityCell(VisibilityCell visibilityCell, GridCell gridCell) {
-        if (visibilityCell.isOverlapping(gridCell)) {
-            addVisibilityCellToResults(gridCell.visibilityCells, visibilityCell);
-        }
+    private int getIndexByCoordinate(final double latOrLong, final double maxValue) {
+        final double nonNegativeLatitude = latOrLong + maxValue;
+        final int index = (int) (nonNegativeLatitude * this.resolution / (maxValue * 2));
+        return Math.max(0, Math.min(this.resolution - 1, index));
     }
 
     @Override
@@ -176,7 +287,50 @@ public class GridIndex extends LocationIndexTree {
     @Override
     public boolean loadExisting() {
         existingSuperIndexLoaded = super.loadExisting();
-        return false;
+        if (!existingSuperIndexLoaded || !cells.loadExisting()) {
+            return false;
+        }
+
+        if (cells.getHeader(0) != MAGIC_INT) {
+            throw new IllegalStateException("incorrect visibility cell index version, expected:" + MAGIC_INT);
+        }
+        if (cells.getHeader(1 * 4) != calcChecksum()) {
+            throw new IllegalStateException("visibility cell index was opened with incorrect graph: " + cells.getHeader(1 * 4) + " vs. " + calcChecksum());
+        }
+
+        cellCount = cells.getHeader(2 * 4);
+        coordinateCount = cells.getHeader(3 * 4);
+        gridCellCount = cells.getHeader(4 * 4);
+        postingCount = cells.getHeader(5 * 4);
+        resolution = cells.getHeader(6 * 4);
+        cellsInitialized = true;
+        return true;
     }
 
+    @Override
+    public void flush() {
+        super.flush();
+
+        if (cellsInitialized) {
+            cells.setHeader(0, MAGIC_INT);
+            cells.setHeader(1 * 4, calcChecksum());
+            cells.setHeader(2 * 4, cellCount);
+            cells.setHeader(3 * 4, coordinateCount);
+            cells.setHeader(4 * 4, gridCellCount);
+            cells.setHeader(5 * 4, postingCount);
+            cells.setHeader(6 * 4, resolution);
+            cells.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        cells.close();
+    }
+
+    @Override
+    public long getCapacity() {
+        return super.getCapacity() + cells.getCapacity();
+    }
 }
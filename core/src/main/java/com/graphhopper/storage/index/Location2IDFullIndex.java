@@ -25,6 +25,7 @@ import com.graphhopper.util.DistanceCalc;
 import com.graphhopper.util.Helper;
 import com.graphhopper.util.shapes.BBox;
 import com.graphhopper.util.shapes.Circle;
+import com.graphhopper.util.shapes.Polygon;
 
 /**
  * Very slow O(n) LocationIndex but no RAM/disc required.
@@ -107,6 +108,11 @@ public class Location2IDFullIndex implements LocationIndex {
         throw new IllegalArgumentException("not implemented");
     }
 
+    @Override
+    public void query(Polygon queryPolygon, Visitor function) {
+        throw new IllegalArgumentException("not implemented");
+    }
+
     @Override
     public LocationIndex create(long size) {
         return this;
@@ -24,6 +24,7 @@ import com.graphhopper.storage.NodeAccess;
 import com.graphhopper.util.DistanceCalc;
 import com.graphhopper.util.Helper;
 import com.graphhopper.util.shapes.BBox;
+import com.graphhopper.util.shapes.Polygon;
 
 /**
  * Same as full index but calculates distance to all edges too
@@ -131,6 +132,11 @@ public class Location2IDFullWithEdgesIndex implements LocationIndex {
         throw new IllegalArgumentException("not implemented");
     }
 
+    @Override
+    public void query(Polygon queryPolygon, Visitor function) {
+        throw new IllegalArgumentException("not implemented");
+    }
+
     @Override
     public LocationIndex create(long size) {
         return this;
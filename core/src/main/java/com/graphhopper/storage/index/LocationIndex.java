@@ -24,6 +24,7 @@ import com.graphhopper.util.EdgeExplorer;
 import com.graphhopper.util.EdgeIterator;
 import com.graphhopper.util.EdgeIteratorState;
 import com.graphhopper.util.shapes.BBox;
+import com.graphhopper.util.shapes.Polygon;
 
 /**
  * Provides a way to map real world data "lat,lon" to internal ids/indices of a memory efficient graph
@@ -74,6 +75,12 @@ public interface LocationIndex extends Storable<LocationIndex> {
      */
     void query(BBox queryBBox, Visitor function);
 
+    /**
+     * This method explores the nodes in this LocationIndex with the specified Visitor. Other than the bounding box
+     * query it visits exactly the unique nodes inside the queryPolygon (including its border).
+     */
+    void query(Polygon queryPolygon, Visitor function);
+
     /**
      * This interface allows to visit every node stored in the leafs of a LocationIndex.
      */
@@ -30,6 +30,7 @@ import com.graphhopper.storage.*;
 import com.graphhopper.util.*;
 import com.graphhopper.util.shapes.BBox;
 import com.graphhopper.util.shapes.GHPoint;
+import com.graphhopper.util.shapes.Polygon;
 import com.graphhopper.util.shapes.Shape;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,6 +61,8 @@ import java.util.*;
 public class LocationIndexTree implements LocationIndex {
     // do not start with 0 as a positive value means leaf and a negative means "entry with subentries"
     static final int START_POINTER = 1;
+    // degrees by which tiles are enlarged before they are classified against a query polygon
+    private static final double TILE_TOLERANCE = 1e-9;
     protected final Graph graph;
     final DataAccess dataAccess;
     private final Logger logger = LoggerFactory.getLogger(getClass());
@@ -513,6 +516,80 @@ public class LocationIndexTree implements LocationIndex {
         }
     }
 
+    /**
+     * Classifies the tiles against the polygon instead of its bounding box. Tiles outside of the polygon are skipped and
+     * only the nodes of tiles crossed by its border need a point in polygon test. A tile also stores nodes of edges that
+     * only pass through it, so the nodes of a tile inside of the polygon are checked against that tile first.
+     */
+    @Override
+    public void query(final Polygon queryPolygon, final Visitor function) {
+        final BBox bbox = graph.getBounds();
+        final IntHashSet set = new IntHashSet();
+        query(START_POINTER, queryPolygon, null,
+                bbox.minLat, bbox.minLon, bbox.maxLat - bbox.minLat, bbox.maxLon - bbox.minLon,
+                function, set, 0);
+    }
+
+    private void query(final int intPointer, final Polygon queryPolygon, final BBox insideTile,
+                       final double minLat, final double minLon,
+                       double deltaLatPerDepth, double deltaLonPerDepth,
+                       final Visitor function, final IntHashSet set, final int depth) {
+        final long pointer = (long) intPointer << 2;
+        if (depth == entries.length) {
+            final int nextIntPointer = dataAccess.getInt(pointer);
+            if (nextIntPointer < 0) {
+                visitIfInside(-(nextIntPointer + 1), queryPolygon, insideTile, function, set);
+            } else {
+                final long maxPointer = (long) nextIntPointer * 4;
+                for (long leafPointer = pointer + 4; leafPointer < maxPointer; leafPointer += 4) {
+                    visitIfInside(dataAccess.getInt(leafPointer), queryPolygon, insideTile, function, set);
+                }
+            }
+            return;
+        }
+        final int max = (1 << shifts[depth]);
+        final int factor = max == 4 ? 2 : 4;
+        deltaLonPerDepth /= factor;
+        deltaLatPerDepth /= factor;
+        for (int cellIndex = 0; cellIndex < max; cellIndex++) {
+            final int nextIntPointer = dataAccess.getInt(pointer + cellIndex * 4);
+            if (nextIntPointer <= 0)
+                continue;
+            // see query(int, Shape, ...) for this bit magic
+            final int latCount = max == 4 ? (cellIndex & 1) : (cellIndex & 1) * 2 + ((cellIndex & 4) == 0 ? 0 : 1);
+            final int lonCount = max == 4 ? (cellIndex >> 1) : (cellIndex & 2) + ((cellIndex & 8) == 0 ? 0 : 1);
+            final double tmpMinLon = minLon + deltaLonPerDepth * lonCount,
+                    tmpMinLat = minLat + deltaLatPerDepth * latCount;
+
+            if (function.isTileInfo())
+                function.onTile(new BBox(tmpMinLon, tmpMinLon + deltaLonPerDepth, tmpMinLat, tmpMinLat + deltaLatPerDepth), depth);
+            if (insideTile != null) {
+                query(nextIntPointer, queryPolygon, insideTile, tmpMinLat, tmpMinLon, deltaLatPerDepth, deltaLonPerDepth, function, set, depth + 1);
+                continue;
+            }
+
+            // enlarge the tile a bit so that rounding of its bounds cannot hide nodes on them
+            final BBox tile = new BBox(tmpMinLon - TILE_TOLERANCE, tmpMinLon + deltaLonPerDepth + TILE_TOLERANCE,
+                    tmpMinLat - TILE_TOLERANCE, tmpMinLat + deltaLatPerDepth + TILE_TOLERANCE);
+            if (queryPolygon.intersectsBorder(tile)) {
+                query(nextIntPointer, queryPolygon, null, tmpMinLat, tmpMinLon, deltaLatPerDepth, deltaLonPerDepth, function, set, depth + 1);
+            } else if (queryPolygon.contains(tmpMinLat + deltaLatPerDepth / 2, tmpMinLon + deltaLonPerDepth / 2)) {
+                query(nextIntPointer, queryPolygon, tile, tmpMinLat, tmpMinLon, deltaLatPerDepth, deltaLonPerDepth, function, set, depth + 1);
+            }
+        }
+    }
+
+    private void visitIfInside(final int nodeId, final Polygon queryPolygon, final BBox insideTile, final Visitor function,
+                               final IntHashSet set) {
+        if (!set.add(nodeId))
+            return;
+
+        final double lat = nodeAccess.getLatitude(nodeId);
+        final double lon = nodeAccess.getLongitude(nodeId);
+        if ((insideTile != null && insideTile.contains(lat, lon)) || queryPolygon.contains(lat, lon))
+            function.onNode(nodeId);
+    }
+
     /**
      * This method collects the node indices from the quad tree data structure in a certain order
      * which makes sure not too many nodes are collected as well as no nodes will be missing. See
@@ -1,59 +1,125 @@
 package com.graphhopper.storage.index;
 
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.IntArrayList;
 import com.graphhopper.storage.Graph;
 import com.graphhopper.util.EdgeIterator;
 
-import java.util.HashMap;
-import java.util.LinkedHashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
+/**
+ * Sorts the neighbors of every node that has an edge once for the left and once for the right runs. Chunks of nodes
+ * are sorted independently into their own arrays, which are concatenated in node order to the flat
+ * {@link SortedNeighborArrays} afterwards.
+ */
 public class NeighborPreSorter {
+    private final static int NODES_PER_CHUNK = 4096;
+
     private final Graph graph;
 
-    private final Map<Integer, SortedNeighbors> allSortedNeighborsLeft;
-    private final Map<Integer, SortedNeighbors> allSortedNeighborsRight;
+    private final SortedNeighborArrays allSortedNeighborsLeft;
+    private final SortedNeighborArrays allSortedNeighborsRight;
 
     public NeighborPreSorter(Graph graph) {
+        this(graph, null, 1);
+    }
+
+    /**
+     * Sorts the neighbors of chunks of nodes on up to parallelism threads of the pool. The pool is not shut down here.
+     */
+    public NeighborPreSorter(Graph graph, final ExecutorService executorService, final int parallelism) {
         this.graph = graph;
 
-        allSortedNeighborsLeft = new HashMap<>(graph.getNodes());
-        allSortedNeighborsRight = new HashMap<>(graph.getNodes());
+        final boolean[] allNodes = getAllNodes();
+        final Chunk[] leftChunks = new Chunk[(allNodes.length + NODES_PER_CHUNK - 1) / NODES_PER_CHUNK];
+        final Chunk[] rightChunks = new Chunk[leftChunks.length];
+        ChunkedExecution.run(executorService, parallelism, allNodes.length, NODES_PER_CHUNK, (from, to) -> {
+            leftChunks[from / NODES_PER_CHUNK] = sortChunk(allNodes, from, to, new VectorAngleCalculatorLeft(graph.getNodeAccess()));
+            rightChunks[from / NODES_PER_CHUNK] = sortChunk(allNodes, from, to, new VectorAngleCalculatorRight(graph.getNodeAccess()));
+        });
 
-        createSortedNeighbors();
+        allSortedNeighborsLeft = concat(leftChunks, allNodes.length, new VectorAngleCalculatorLeft(graph.getNodeAccess()));
+        allSortedNeighborsRight = concat(rightChunks, allNodes.length, new VectorAngleCalculatorRight(graph.getNodeAccess()));
     }
 
-    public Map<Integer, SortedNeighbors> getAllSortedNeighborsLeft() {
+    public SortedNeighborArrays getAllSortedNeighborsLeft() {
         return allSortedNeighborsLeft;
     }
 
-    public Map<Integer, SortedNeighbors> getAllSortedNeighborsRight() {
+    public SortedNeighborArrays getAllSortedNeighborsRight() {
         return allSortedNeighborsRight;
     }
 
-    private void createSortedNeighbors() {
-        final Set<Integer> allNodes = getAllNodes();
-
-        addSortedNeighbors(allNodes);
-    }
-
-    private Set<Integer> getAllNodes() {
-        final Set<Integer> allNodes = new LinkedHashSet<>();
+    private boolean[] getAllNodes() {
+        final boolean[] allNodes = new boolean[graph.getNodes()];
 
         final EdgeIterator allEdges = graph.getAllEdges();
         while (allEdges.next()) {
-            allNodes.add(allEdges.getBaseNode());
-            allNodes.add(allEdges.getAdjNode());
+            allNodes[allEdges.getBaseNode()] = true;
+            allNodes[allEdges.getAdjNode()] = true;
         }
         return allNodes;
     }
 
-    private void addSortedNeighbors(final Set<Integer> allNodes) {
-        for (Integer node : allNodes) {
-            final SortedNeighbors sortedNeighborsLeft = new SortedNeighbors(graph, node, SortedNeighbors.DO_NOT_IGNORE_NODE, new VectorAngleCalculatorLeft(graph.getNodeAccess()));
-            allSortedNeighborsLeft.put(node, sortedNeighborsLeft);
-            final SortedNeighbors sortedNeighborsRight = new SortedNeighbors(graph, node, SortedNeighbors.DO_NOT_IGNORE_NODE, new VectorAngleCalculatorRight(graph.getNodeAccess()));
-            allSortedNeighborsRight.put(node, sortedNeighborsRight);
+    private Chunk sortChunk(final boolean[] allNodes, final int from, final int to, final VectorAngleCalculator vectorAngleCalculator) {
+        final Chunk chunk = new Chunk(from, to);
+        for (int node = from; node < to; node++) {
+            if (!allNodes[node]) {
+                continue;
+            }
+
+            final SortedNeighbors sortedNeighbors = new SortedNeighbors(graph, node, SortedNeighbors.DO_NOT_IGNORE_NODE, vectorAngleCalculator);
+            chunk.sizes[node - from] = sortedNeighbors.size();
+            for (int i = 0; i < sortedNeighbors.size(); i++) {
+                chunk.edgeIds.add(sortedNeighbors.getEdgeId(i));
+                chunk.adjNodes.add(sortedNeighbors.getAdjNode(i));
+                chunk.angles.add(sortedNeighbors.getAngle(i));
+            }
+        }
+        return chunk;
+    }
+
+    private SortedNeighborArrays concat(final Chunk[] chunks, final int nodes, final VectorAngleCalculator vectorAngleCalculator) {
+        int entries = 0;
+        for (Chunk chunk : chunks) {
+            entries += chunk == null ? 0 : chunk.edgeIds.size();
+        }
+
+        final int[] offsets = new int[nodes + 1];
+        final int[] edgeIds = new int[entries];
+        final int[] adjNodes = new int[entries];
+        final double[] angles = new double[entries];
+        int entry = 0;
+        // without a pool there is only a single chunk that covers all nodes
+        for (Chunk chunk : chunks) {
+            if (chunk == null) {
+                continue;
+            }
+
+            for (int node = chunk.from; node < chunk.to; node++) {
+                offsets[node + 1] = offsets[node] + chunk.sizes[node - chunk.from];
+            }
+            final int size = chunk.edgeIds.size();
+            System.arraycopy(chunk.edgeIds.buffer, 0, edgeIds, entry, size);
+            System.arraycopy(chunk.adjNodes.buffer, 0, adjNodes, entry, size);
+            System.arraycopy(chunk.angles.buffer, 0, angles, entry, size);
+            entry += size;
+        }
+        return new SortedNeighborArrays(graph, vectorAngleCalculator, offsets, edgeIds, adjNodes, angles);
+    }
+
+    private static final class Chunk {
+        private final int from;
+        private final int to;
+        private final int[] sizes;
+        private final IntArrayList edgeIds = new IntArrayList();
+        private final IntArrayList adjNodes = new IntArrayList();
+        private final DoubleArrayList angles = new DoubleArrayList();
+
+        private Chunk(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+            this.sizes = new int[to - from];
         }
     }
 }
@@ -0,0 +1,68 @@
+package com.graphhopper.storage.index;
+
+import com.graphhopper.storage.Graph;
+import com.graphhopper.util.EdgeIteratorState;
+
+/**
+ * The neighbors of all nodes in angular order for the runs of one side. The entries of all nodes are stored in flat
+ * arrays, the entries of a node n are those from offsets[n] up to offsets[n + 1]. Nodes without edges have no entries.
+ */
+public class SortedNeighborArrays {
+    private final Graph graph;
+    private final VectorAngleCalculator vectorAngleCalculator;
+    private final int[] offsets;
+    private final int[] edgeIds;
+    private final int[] adjNodes;
+    private final double[] angles;
+
+    SortedNeighborArrays(final Graph graph, final VectorAngleCalculator vectorAngleCalculator, final int[] offsets,
+                         final int[] edgeIds, final int[] adjNodes, final double[] angles) {
+        this.graph = graph;
+        this.vectorAngleCalculator = vectorAngleCalculator;
+        this.offsets = offsets;
+        this.edgeIds = edgeIds;
+        this.adjNodes = adjNodes;
+        this.angles = angles;
+    }
+
+    public int size(final int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    public EdgeIteratorState get(final int node, final int index) {
+        final int entry = offsets[node] + index;
+        return graph.getEdgeIteratorState(edgeIds[entry], adjNodes[entry]);
+    }
+
+    /**
+     * @see SortedNeighbors#getMostOrientedEdge(EdgeIteratorState)
+     */
+    public EdgeIteratorState getMostOrientedEdge(final int node, final EdgeIteratorState lastEdge) {
+        final double lastEdgeAngle = vectorAngleCalculator.getAngleOfVectorsOriented(lastEdge.getBaseNode(), lastEdge.getAdjNode());
+        final int start = offsets[node];
+        final int end = offsets[node + 1];
+        final int addIndex = SortedNeighbors.indexIfEdgeWasAdded(lastEdgeAngle, lastEdge.getEdge(), angles, edgeIds, start, end);
+        final int entry = addIndex == start ? end - 1 : addIndex - 1;
+
+        return graph.getEdgeIteratorState(edgeIds[entry], adjNodes[entry]);
+    }
+
+    public String toString(final int node) {
+        final StringBuilder sb = new StringBuilder("[");
+        for (int entry = offsets[node]; entry < offsets[node + 1]; entry++) {
+            sb.append(entry == offsets[node] ? "" : ", ").append(edgeIds[entry]).append(": ->").append(adjNodes[entry]);
+        }
+        return sb.append("]").toString();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (int node = 0; node < offsets.length - 1; node++) {
+            if (size(node) > 0) {
+                sb.append(node).append(toString(node)).append("\n");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -12,13 +12,28 @@ public class SortedNeighbors {
     private final Graph graph;
     private final VectorAngleCalculator vectorAngleCalculator;
 
-    private final List<ComparableEdge> sortedEdges;
+    // the neighbors in angular order, the angles are computed once while sorting instead of on every comparison
+    private final int[] edgeIds;
+    private final int[] baseNodes;
+    private final int[] adjNodes;
+    private final double[] angles;
 
     public SortedNeighbors(final Graph graph, final int baseNode, final int ignore, final VectorAngleCalculator vectorAngleCalculator) {
         this.graph = graph;
         this.vectorAngleCalculator = vectorAngleCalculator;
 
-        this.sortedEdges = sort(baseNode, ignore);
+        final List<ComparableEdge> sortedEdges = sort(baseNode, ignore);
+        this.edgeIds = new int[sortedEdges.size()];
+        this.baseNodes = new int[sortedEdges.size()];
+        this.adjNodes = new int[sortedEdges.size()];
+        this.angles = new double[sortedEdges.size()];
+        for (int i = 0; i < sortedEdges.size(); i++) {
+            final ComparableEdge sortedEdge = sortedEdges.get(i);
+            edgeIds[i] = sortedEdge.id;
+            baseNodes[i] = sortedEdge.baseNode;
+            adjNodes[i] = sortedEdge.adjNode;
+            angles[i] = sortedEdge.angle;
+        }
     }
 
     private List<ComparableEdge> sort(final int baseNode, final int ignore) {
@@ -134,80 +149,82 @@ public class SortedNeighbors {
         return neighborEdges;
     }
 
-    private int indexIfEdgeWasAdded(final EdgeIteratorState lastEdge) {
-        final ComparableEdge lastEdgeComparable = new ComparableEdge(lastEdge);
-        final Iterator<ComparableEdge> allNeighborEdges = sortedEdges.iterator();
-
-        int i = findIndex(lastEdgeComparable, allNeighborEdges);
-
-        return i;
-    }
-
-    private int findIndex(ComparableEdge lastEdgeComparable, Iterator<ComparableEdge> allNeighborEdges) {
-        boolean lastEdgeIsGreater = true;
-        int i = 0;
-        while (allNeighborEdges.hasNext() && lastEdgeIsGreater) {
-            lastEdgeIsGreater = isLastEdgeGreater(lastEdgeComparable, allNeighborEdges);
-
-            i = incrementIndex(lastEdgeIsGreater, i);
+    /**
+     * @return the index in [start, end) at which an edge with the given angle and id would be inserted into the sorted
+     * entries
+     */
+    static int indexIfEdgeWasAdded(final double angle, final int edgeId, final double[] angles, final int[] edgeIds,
+                                   final int start, final int end) {
+        int i = start;
+        while (i < end && compare(angle, edgeId, angles[i], edgeIds[i]) > 0) {
+            i++;
         }
         return i;
     }
 
-    private boolean isLastEdgeGreater(ComparableEdge lastEdgeComparable, Iterator<ComparableEdge> allNeighborEdges) {
-        final ComparableEdge currentEdge = allNeighborEdges.next();
-        return lastEdgeComparable.compareTo(currentEdge) > 0;
-    }
+    private static int compare(final double angleThis, final int idThis, final double angleOther, final int idOther) {
+        final double angleDifference = angleThis - angleOther;
+        final int angleResult = angleDifference > 0 ? 1 : angleDifference == 0 ? 0 : -1;
+        final int idDifference = idThis - idOther;
 
-    private int incrementIndex(boolean lastEdgeIsGreater, int i) {
-        i = lastEdgeIsGreater ? i + 1 : i;
-        return i;
+        return angleResult != 0 ? angleResult : idDifference;
     }
 
     public EdgeIteratorState getMostOrientedEdge(final EdgeIteratorState lastEdge) {
-        final int addIndex = indexIfEdgeWasAdded(lastEdge);
+        final double lastEdgeAngle = vectorAngleCalculator.getAngleOfVectorsOriented(lastEdge.getBaseNode(), lastEdge.getAdjNode());
+        final int addIndex = indexIfEdgeWasAdded(lastEdgeAngle, lastEdge.getEdge(), angles, edgeIds, 0, edgeIds.length);
         int addIndexPredecessor = addIndex - 1;
-        int indexOfEndOfList = sortedEdges.size() - 1;
+        int indexOfEndOfList = edgeIds.length - 1;
         int indexOfPredecessorOfLastEdge = addIndexPredecessor < 0 ? indexOfEndOfList : addIndexPredecessor;
 
         return get(indexOfPredecessorOfLastEdge);
     }
 
     public EdgeIteratorState get(final int index) {
-        final ComparableEdge comparableEdge = sortedEdges.get(index);
-        final EdgeIteratorState edge = graph.getEdgeIteratorState(comparableEdge.id, comparableEdge.adjNode);
-        return edge;
+        return graph.getEdgeIteratorState(edgeIds[index], adjNodes[index]);
     }
 
     public int size() {
-        return sortedEdges.size();
+        return edgeIds.length;
+    }
+
+    int getEdgeId(final int index) {
+        return edgeIds[index];
+    }
+
+    int getAdjNode(final int index) {
+        return adjNodes[index];
+    }
+
+    double getAngle(final int index) {
+        return angles[index];
     }
 
     @Override
     public String toString() {
-        return sortedEdges.toString();
+        final StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < edgeIds.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append(edgeIds[i]).append(": ").append(baseNodes[i]).append("->").append(adjNodes[i]);
+        }
+        return sb.append("]").toString();
     }
 
     private class ComparableEdge implements Comparable<ComparableEdge> {
         private final int id;
         private final int baseNode;
         private final int adjNode;
+        private final double angle;
 
         ComparableEdge(EdgeIteratorState edge) {
             this.id = edge.getEdge();
             this.baseNode = edge.getBaseNode();
             this.adjNode = edge.getAdjNode();
+            this.angle = vectorAngleCalculator.getAngleOfVectorsOriented(baseNode, adjNode);
         }
 
         @Override
         public int compareTo(ComparableEdge o) {
-            final double angleThis = vectorAngleCalculator.getAngleOfVectorsOriented(baseNode, adjNode);
-            final double angleOther = vectorAngleCalculator.getAngleOfVectorsOriented(o.baseNode, o.adjNode);
-            final double angleDifference = angleThis - angleOther;
-            final int angleResult = angleDifference > 0 ? 1 : angleDifference == 0 ? 0 : -1;
-            final int idDifference = id - o.id;
-
-            return angleResult != 0 ? angleResult : idDifference;
+            return compare(angle, id, o.angle, o.id);
         }
 
         @Override
@@ -73,6 +73,11 @@ public class VisibilityCell {
         return super.equals(o);
     }
 
+    @Override
+    public int hashCode() {
+        return cellShape.hashCode();
+    }
+
     public BBox getMinimalBoundingBox() {
         return this.cellShape.getMinimalBoundingBox();
     }
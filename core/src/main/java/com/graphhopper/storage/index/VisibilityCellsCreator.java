@@ -1,5 +1,7 @@
 package com.graphhopper.storage.index;
 
+import com.graphhopper.coll.GHBitSet;
+import com.graphhopper.coll.GHBitSetImpl;
 import com.graphhopper.storage.Graph;
 import com.graphhopper.storage.NodeAccess;
 import com.graphhopper.util.EdgeIterator;
@@ -9,74 +11,149 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * "Left" and "Right" are always imagined as walking from baseNode to adjacent node and then turn left or right.
  * <p>
  * General schema: For each edge in the allEdgesIterator: Check if it was used in a left run, if not run left. Check if it was used in a right run if not run right
+ * <p>
+ * The runs are done in two steps to spread them over several threads. First the edges are split into chunks and every
+ * thread starts runs on the edges of its chunks as long as no other run went along the edge in ascending node order
+ * yet. Then the general schema is followed on the calling thread, but instead of running again a cell is cut out of a
+ * run that went along the start edge. A run only depends on the edge it went along last, so the cells are identical
+ * to the ones of the single threaded schema and in the same order.
  */
-class VisibilityCellsCreator {
+public class VisibilityCellsCreator {
+    private final static int EDGES_PER_CHUNK = 1024;
+    private final static int CELLS_PER_CHUNK = 1024;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final Graph graph;
     private final NodeAccess nodeAccess;
-    private final EdgeIterator allEdges;
-    private final VisitedManagerDual globalVisitedManager;
-    private final Map<Integer, SortedNeighbors> sortedNeighborListLeft;
-    private final Map<Integer, SortedNeighbors> sortedNeighborListRight;
+    private final int threads;
+    private final ConcurrentVisitedManagerDual globalVisitedManager;
 
-    private final List<VisibilityCell> allFoundCells;
+    // all edges in the order of the allEdgesIterator, adjNodes holds the greater node id of each edge
+    private int[] edgeIds;
+    private int[] adjNodes;
+    private SortedNeighborArrays sortedNeighborListLeft;
+    private SortedNeighborArrays sortedNeighborListRight;
 
     public VisibilityCellsCreator(final Graph graph, final NodeAccess nodeAccess) {
+        this(graph, nodeAccess, 1);
+    }
+
+    public VisibilityCellsCreator(final Graph graph, final NodeAccess nodeAccess, final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive but was " + threads);
+        }
         this.graph = graph;
         this.nodeAccess = nodeAccess;
-        this.allEdges = graph.getAllEdges();
-        this.allFoundCells = new ArrayList<>(graph.getNodes());
-        this.globalVisitedManager = new VisitedManagerDual(graph);
+        this.threads = threads;
+        this.globalVisitedManager = new ConcurrentVisitedManagerDual(graph);
+    }
+
+    public List<VisibilityCell> create() {
+        final ExecutorService executorService = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+        try {
+            return create(executorService);
+        } finally {
+            if (executorService != null) {
+                executorService.shutdown();
+            }
+        }
+    }
 
-        final NeighborPreSorter neighborPreSorter = new NeighborPreSorter(graph);
+    private List<VisibilityCell> create(final ExecutorService executorService) {
+        StopWatch swAll = new StopWatch("VisibilityCells created").start();
+        final NeighborPreSorter neighborPreSorter = new NeighborPreSorter(graph, executorService, threads);
         this.sortedNeighborListLeft = neighborPreSorter.getAllSortedNeighborsLeft();
         this.sortedNeighborListRight = neighborPreSorter.getAllSortedNeighborsRight();
-    }
+        collectAllEdges();
 
-    public List<VisibilityCell> create() {
-        startRunsOnEachEdgeInTheGraph();
+        final Queue<Run> leftRuns = new ConcurrentLinkedQueue<>();
+        final Queue<Run> rightRuns = new ConcurrentLinkedQueue<>();
+        ChunkedExecution.run(executorService, threads, edgeIds.length, EDGES_PER_CHUNK, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                startRunsOnEdge(i, leftRuns, rightRuns);
+            }
+        });
+
+        final List<List<Integer>> allFoundCellNodes = cutOutCellsInOrderOfAllEdges(new RunIndex(leftRuns, true), new RunIndex(rightRuns, false));
+        final VisibilityCell[] allFoundCells = new VisibilityCell[allFoundCellNodes.size()];
+        ChunkedExecution.run(executorService, threads, allFoundCells.length, CELLS_PER_CHUNK, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                allFoundCells[i] = VisibilityCell.createVisibilityCellFromNodeIDs(allFoundCellNodes.get(i), nodeAccess);
+            }
+        });
+        logger.info(swAll.stop().toString());
 
-        return allFoundCells;
+        return new ArrayList<>(Arrays.asList(allFoundCells));
     }
 
-    private void startRunsOnEachEdgeInTheGraph() {
-        StopWatch swAll = new StopWatch("VisibilityCells created").start();
+    private void collectAllEdges() {
+        final EdgeIterator allEdges = graph.getAllEdges();
+        edgeIds = new int[graph.getEdges()];
+        adjNodes = new int[graph.getEdges()];
+        int edgeCount = 0;
         while (allEdges.next()) {
-            if (continueOnLengthZeroEdge()) {
+            edgeIds[edgeCount] = allEdges.getEdge();
+            adjNodes[edgeCount] = Math.max(allEdges.getBaseNode(), allEdges.getAdjNode());
+            edgeCount++;
+        }
+        edgeIds = Arrays.copyOf(edgeIds, edgeCount);
+        adjNodes = Arrays.copyOf(adjNodes, edgeCount);
+    }
+
+    private void startRunsOnEdge(final int i, final Queue<Run> leftRuns, final Queue<Run> rightRuns) {
+        final EdgeIteratorState currentEdge = getAscendingEdge(i);
+        if (isEdgeLengthZero(currentEdge)) {
+            return;
+        }
+
+        if (!globalVisitedManager.isDirectionSettledLeft(currentEdge)) {
+            leftRuns.add(new Run(new CellRunnerLeft(graph, globalVisitedManager, currentEdge, sortedNeighborListLeft)));
+        }
+
+        if (!globalVisitedManager.isDirectionSettledRight(currentEdge)) {
+            rightRuns.add(new Run(new CellRunnerRight(graph, globalVisitedManager, currentEdge, sortedNeighborListRight)));
+        }
+    }
+
+    private List<List<Integer>> cutOutCellsInOrderOfAllEdges(final RunIndex leftRuns, final RunIndex rightRuns) {
+        final List<List<Integer>> allFoundCellNodes = new ArrayList<>(graph.getNodes());
+        final GHBitSet settledLeft = new GHBitSetImpl(graph.getEdges());
+        final GHBitSet settledRight = new GHBitSetImpl(graph.getEdges());
+
+        for (int i = 0; i < edgeIds.length; i++) {
+            final EdgeIteratorState currentEdge = getAscendingEdge(i);
+            if (isEdgeLengthZero(currentEdge)) {
+                settledLeft.add(edgeIds[i]);
+                settledRight.add(edgeIds[i]);
                 continue;
             }
 
-
-            final EdgeIteratorState currentEdge = allEdges.detach(false);
-            if (!visibilityCellOnTheLeftFound(currentEdge)) {
-                addVisibilityCellToResults(new CellRunnerLeft(graph, globalVisitedManager, currentEdge, sortedNeighborListLeft).extractVisibilityCell());
+            if (!settledLeft.contains(edgeIds[i])) {
+                allFoundCellNodes.add(leftRuns.cutOutCell(currentEdge, settledLeft));
             }
 
-            if (!visibilityCellOnTheRightFound(currentEdge)) {
-                addVisibilityCellToResults(new CellRunnerRight(graph, globalVisitedManager, currentEdge, sortedNeighborListRight).extractVisibilityCell());
+            if (!settledRight.contains(edgeIds[i])) {
+                allFoundCellNodes.add(rightRuns.cutOutCell(currentEdge, settledRight));
             }
         }
-        logger.info(swAll.stop().toString());
+        return allFoundCellNodes;
     }
 
-    private boolean continueOnLengthZeroEdge() {
-        if (isCurrentEdgeLengthZero()) {
-            globalVisitedManager.settleEdgeLeft(allEdges);
-            globalVisitedManager.settleEdgeRight(allEdges);
-            return true;
-        }
-        return false;
+    private EdgeIteratorState getAscendingEdge(final int i) {
+        return graph.getEdgeIteratorState(edgeIds[i], adjNodes[i]);
     }
 
-    private boolean isCurrentEdgeLengthZero() {
-        final int baseNode = allEdges.getBaseNode();
-        final int adjNode = allEdges.getAdjNode();
+    private boolean isEdgeLengthZero(final EdgeIteratorState edge) {
+        final int baseNode = edge.getBaseNode();
+        final int adjNode = edge.getAdjNode();
 
         final double baseNodeLatitude = nodeAccess.getLatitude(baseNode);
         final double baseNodeLongitude = nodeAccess.getLongitude(baseNode);
@@ -86,15 +163,114 @@ class VisibilityCellsCreator {
         return baseNodeLatitude == adjNodeLatitude && baseNodeLongitude == adjNodeLongitude;
     }
 
-    private void addVisibilityCellToResults(VisibilityCell visibilityCell) {
-        allFoundCells.add(visibilityCell);
-    }
+    /**
+     * The edges a cell runner went along, in the order of the run.
+     */
+    private static class Run {
+        private final int[] edges;
+        private final int[] baseNodes;
+        private final int[] adjNodes;
+        private final boolean cycle;
 
-    private Boolean visibilityCellOnTheLeftFound(final EdgeIteratorState currentEdge) {
-        return globalVisitedManager.isEdgeSettledLeft(VisitedManager.forceNodeIdsAscending(currentEdge));
+        Run(final CellRunner cellRunner) {
+            cellRunner.runAroundCellAndLogNodes();
+            final int length = cellRunner.edgesOnCell.size();
+            this.edges = new int[length];
+            this.baseNodes = new int[length];
+            this.adjNodes = new int[length];
+            int i = 0;
+            for (EdgeIteratorState edge : cellRunner.edgesOnCell) {
+                edges[i] = edge.getEdge();
+                baseNodes[i] = edge.getBaseNode();
+                adjNodes[i] = edge.getAdjNode();
+                i++;
+            }
+            this.cycle = cellRunner.isEndEdgeStartEdge();
+        }
+
+        private boolean connectsSameNodes(final int position, final int baseNode, final int adjNode) {
+            return baseNodes[position] == baseNode && adjNodes[position] == adjNode;
+        }
     }
 
-    private Boolean visibilityCellOnTheRightFound(final EdgeIteratorState currentEdge) {
-        return globalVisitedManager.isEdgeSettledRight(VisitedManager.forceNodeIdsAscending(currentEdge));
+    /**
+     * Finds for an edge direction a run that went along it and its position in that run.
+     */
+    private class RunIndex {
+        private final List<Run> runs;
+        private final boolean left;
+        private final int[] runOfEdgeDirection;
+        private final int[] positionOfEdgeDirection;
+
+        RunIndex(final Collection<Run> runs, final boolean left) {
+            this.runs = new ArrayList<>(runs);
+            this.left = left;
+            this.runOfEdgeDirection = new int[2 * graph.getEdges()];
+            this.positionOfEdgeDirection = new int[2 * graph.getEdges()];
+            Arrays.fill(runOfEdgeDirection, -1);
+
+            for (int run = 0; run < this.runs.size(); run++) {
+                final Run currentRun = this.runs.get(run);
+                for (int position = 0; position < currentRun.edges.length; position++) {
+                    final int edgeDirection = getEdgeDirection(currentRun.edges[position], currentRun.baseNodes[position],
+                                                               currentRun.adjNodes[position]);
+                    if (runOfEdgeDirection[edgeDirection] < 0) {
+                        runOfEdgeDirection[edgeDirection] = run;
+                        positionOfEdgeDirection[edgeDirection] = position;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Cuts the edges a run started on the given edge would go along out of a run that went along it, settles them
+         * and returns the nodes of the cell.
+         */
+        List<Integer> cutOutCell(final EdgeIteratorState startEdge, final GHBitSet settled) {
+            final int edgeDirection = getEdgeDirection(startEdge.getEdge(), startEdge.getBaseNode(), startEdge.getAdjNode());
+            Run run = runOfEdgeDirection[edgeDirection] < 0 ? null : runs.get(runOfEdgeDirection[edgeDirection]);
+            int start = run == null ? 0 : positionOfEdgeDirection[edgeDirection];
+            int length = run == null ? -1 : getCellLength(run, start);
+            if (length < 0) {
+                run = new Run(left ? new CellRunnerLeft(graph, globalVisitedManager, startEdge, sortedNeighborListLeft) :
+                              new CellRunnerRight(graph, globalVisitedManager, startEdge, sortedNeighborListRight));
+                start = 0;
+                length = getCellLength(run, start);
+            }
+
+            final List<Integer> cellNodes = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                final int position = (start + i) % run.edges.length;
+                settled.add(run.edges[position]);
+                cellNodes.add(run.baseNodes[position]);
+            }
+            if (left) {
+                Collections.reverse(cellNodes);
+            }
+            return cellNodes;
+        }
+
+        /**
+         * @return the number of edges a run started at the given position would go along or -1 if the run ended before
+         * and it is unknown how it would have continued
+         */
+        private int getCellLength(final Run run, final int start) {
+            final int baseNode = run.baseNodes[start];
+            final int adjNode = run.adjNodes[start];
+            for (int length = 1; ; length++) {
+                final int position = start + length;
+                if (position == run.edges.length && !run.cycle) {
+                    // the run did not end on its start edge but on another edge between the same nodes
+                    return run.connectsSameNodes(0, baseNode, adjNode) ? length : -1;
+                }
+                if (run.connectsSameNodes(position % run.edges.length, baseNode, adjNode)) {
+                    return length;
+                }
+            }
+        }
+
+        private int getEdgeDirection(final int edge, final int baseNode, final int adjNode) {
+            return 2 * edge + (baseNode > adjNode ? 1 : 0);
+        }
     }
 }
@@ -18,15 +18,20 @@
 package com.graphhopper;
 
 import com.graphhopper.json.geo.JsonFeature;
+import com.graphhopper.routing.template.util.PolygonRoutingTestGraph;
 import com.graphhopper.routing.util.CarFlagEncoder;
 import com.graphhopper.routing.util.EncodingManager;
 import com.graphhopper.routing.util.parsers.OSMRoadEnvironmentParser;
+import com.graphhopper.routing.weighting.FastestWeighting;
+import com.graphhopper.routing.weighting.Weighting;
 import com.graphhopper.storage.Graph;
 import com.graphhopper.storage.GraphBuilder;
 import com.graphhopper.storage.GraphHopperStorage;
 import com.graphhopper.storage.NodeAccess;
 import com.graphhopper.storage.change.ChangeGraphHelper;
 import com.graphhopper.storage.index.LocationIndex;
+import com.graphhopper.util.EdgeIteratorState;
+import com.graphhopper.util.GHUtility;
 import com.graphhopper.util.Helper;
 import com.graphhopper.util.PointList;
 import com.graphhopper.util.shapes.BBox;
@@ -244,4 +249,86 @@ public class GraphHopperAPITest {
 
         assertEquals(2, checkPointCounter.get());
     }
+
+    @Test
+    public void testChangeGraphRejectsBlockingWithCH() {
+        Weighting weighting = new FastestWeighting(encodingManager.getEncoder("car"));
+        final GraphHopperStorage graph = new GraphBuilder(encodingManager).setCHGraph(weighting).create();
+        initGraph(graph);
+        graph.edge(1, 2, 10, true);
+        // the detour 0-4-3 is a witness path that might make a shortcut of the route 0-1-2-3 unnecessary
+        graph.getNodeAccess().setNode(4, 41.9, 10.2);
+        graph.edge(0, 4, 40, true);
+        graph.edge(4, 3, 40, true);
+        graph.freeze();
+
+        GraphHopper graphHopper = new GraphHopper().setStoreOnFlush(false).setEncodingManager(encodingManager).
+                loadGraph(graph);
+        graphHopper.getCHFactoryDecorator().addNodeBasedWeighting(weighting);
+        graphHopper.getCHFactoryDecorator().createPreparations(graph);
+        graphHopper.getCHFactoryDecorator().prepare(graph.getProperties());
+
+        GHRequest request = new GHRequest(42, 10.4, 42, 10);
+        GHResponse rsp = graphHopper.route(request);
+        assertFalse(rsp.toString(), rsp.hasErrors());
+        assertEquals(1800, rsp.getBest().getTime());
+
+        // blocking the edges around node 4 could break a witness path, so no change is applied
+        Map<String, Object> blockProperties = new HashMap<>();
+        blockProperties.put("access", false);
+        Map<String, Object> zeroSpeedProperties = new HashMap<>();
+        zeroSpeedProperties.put("speed", 0);
+        for (Map<String, Object> properties : Arrays.asList(blockProperties, zeroSpeedProperties)) {
+            List<JsonFeature> list = Collections.singletonList(new JsonFeature("1", "bbox",
+                    new BBox(10.19, 10.21, 41.89, 41.91), null, properties));
+            try {
+                graphHopper.changeGraph(list);
+                fail("blocking edges must not be possible with CH: " + properties);
+            } catch (IllegalArgumentException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().contains("not possible for this graph"));
+            }
+        }
+        EdgeIteratorState edge04 = GHUtility.getEdge(graph, 0, 4);
+        assertTrue(edge04.get(weighting.getFlagEncoder().getAccessEnc()));
+        assertTrue(edge04.get(weighting.getFlagEncoder().getAverageSpeedEnc()) > 0);
+        rsp = graphHopper.route(request);
+        assertFalse(rsp.toString(), rsp.hasErrors());
+        assertEquals(1800, rsp.getBest().getTime());
+
+        // slower edges update the shortcuts, the route takes the detour now
+        Map<String, Object> slowProperties = new HashMap<>();
+        slowProperties.put("speed", 5);
+        List<JsonFeature> list = Collections.singletonList(new JsonFeature("1", "bbox",
+                new BBox(10.399, 10.4, 42.0, 42.001), null, slowProperties));
+        assertTrue(graphHopper.changeGraph(list).getUpdates() > 0);
+        rsp = graphHopper.route(request);
+        assertFalse(rsp.toString(), rsp.hasErrors());
+        assertEquals(4800, rsp.getBest().getTime());
+    }
+
+    @Test
+    public void testChangeGraphClearsPolygonPreparationCache() {
+        final PolygonRoutingTestGraph testGraph = new PolygonRoutingTestGraph(PolygonRoutingTestGraph.getDefaultNodeList(),
+                PolygonRoutingTestGraph.getDefaultEdgeList());
+        GraphHopper graphHopper = new GraphHopper().setStoreOnFlush(false).setEncodingManager(testGraph.encodingManager).
+                setCHEnabled(false).loadGraph(testGraph.graphWithCh);
+        GHRequest request = new GHRequest(25, 0, 25, 46).setPolygon(testGraph.polygon);
+
+        GHResponse rsp = graphHopper.route(request);
+        assertFalse(rsp.toString(), rsp.hasErrors());
+        assertEquals(1, graphHopper.getPolygonPreparationCache().getEntryCount());
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("speed", 5);
+        List<JsonFeature> list = Collections.singletonList(new JsonFeature("1", "bbox",
+                new BBox(-0.1, 0.1, 24.9, 25.1), null, properties));
+        assertTrue(graphHopper.changeGraph(list).getUpdates() > 0);
+        assertEquals(0, graphHopper.getPolygonPreparationCache().getEntryCount());
+
+        // the second request prepares the polygon again instead of using the target set from before the change
+        rsp = graphHopper.route(request);
+        assertFalse(rsp.toString(), rsp.hasErrors());
+        assertEquals(0, graphHopper.getPolygonPreparationCache().getHits());
+        assertEquals(2, graphHopper.getPolygonPreparationCache().getMisses());
+    }
 }
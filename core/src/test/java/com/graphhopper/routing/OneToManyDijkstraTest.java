@@ -0,0 +1,77 @@
+package com.graphhopper.routing;
+
+import com.graphhopper.routing.template.util.PolygonRoutingTestGraph;
+import com.graphhopper.routing.util.TraversalMode;
+import com.graphhopper.util.EdgeIteratorState;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class OneToManyDijkstraTest {
+    private final static PolygonRoutingTestGraph GRAPH_MOCKER = PolygonRoutingTestGraph.DEFAULT_INSTANCE;
+    private final static List<Integer> TARGETS = Arrays.asList(28, 29, 30, 31, 43, 44, 45, 0);
+
+    @Test
+    public void forwardPathsEqualPointToPointPaths() {
+        final OneToManyDijkstra search = new OneToManyDijkstra(GRAPH_MOCKER.graph, GRAPH_MOCKER.weighting, false);
+        final Map<Integer, Path> paths = search.calcPaths(0, TARGETS);
+
+        for (int target : TARGETS) {
+            assertEqualToDijkstra(calcDijkstraPath(0, target), paths.get(target));
+        }
+    }
+
+    @Test
+    public void backwardPathsEqualPointToPointPaths() {
+        final OneToManyDijkstra search = new OneToManyDijkstra(GRAPH_MOCKER.graph, GRAPH_MOCKER.weighting, true);
+        final Map<Integer, Path> paths = search.calcPaths(2, TARGETS);
+
+        for (int target : TARGETS) {
+            assertEqualToDijkstra(calcDijkstraPath(target, 2), paths.get(target));
+        }
+    }
+
+    @Test
+    public void metricsAreKnownWithoutCollectingEdges() {
+        final OneToManyDijkstra search = new OneToManyDijkstra(GRAPH_MOCKER.graph, GRAPH_MOCKER.weighting, false);
+        final LazyPath path = (LazyPath) search.calcPaths(0, TARGETS).get(45);
+
+        assertTrue(path.getDistance() > 0);
+        assertTrue(path.getTime() > 0);
+        assertFalse(path.isUnpacked());
+
+        double distance = 0;
+        for (EdgeIteratorState edge : path.calcEdges()) {
+            distance += edge.getDistance();
+        }
+        assertTrue(path.isUnpacked());
+        assertEquals(distance, path.getDistance(), 1e-6);
+    }
+
+    @Test
+    public void unreachableTargetIsNotFound() {
+        final OneToManyDijkstra search = new OneToManyDijkstra(GRAPH_MOCKER.graph, GRAPH_MOCKER.weighting, false);
+        final Path path = search.calcPaths(0, Arrays.asList(28, 300)).get(300);
+
+        assertFalse(path.isFound());
+        assertEquals(Double.MAX_VALUE, path.getWeight(), 0);
+    }
+
+    private static Path calcDijkstraPath(final int from, final int to) {
+        return new Dijkstra(GRAPH_MOCKER.graph, GRAPH_MOCKER.weighting, TraversalMode.NODE_BASED).calcPath(from, to);
+    }
+
+    private static void assertEqualToDijkstra(final Path expected, final Path actual) {
+        assertEquals(expected.isFound(), actual.isFound());
+        assertEquals(expected.getWeight(), actual.getWeight(), 1e-6);
+        assertEquals(expected.getDistance(), actual.getDistance(), 1e-6);
+        assertEquals(expected.getTime(), actual.getTime());
+        assertEquals(expected.getFromNode(), actual.getFromNode());
+        assertEquals(expected.getEndNode(), actual.getEndNode());
+        assertEquals(expected.calcNodes(), actual.calcNodes());
+    }
+}
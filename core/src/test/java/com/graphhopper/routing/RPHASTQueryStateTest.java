@@ -0,0 +1,86 @@
+package com.graphhopper.routing;
+
+import com.graphhopper.util.EdgeIterator;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RPHASTQueryStateTest {
+    @Test
+    public void unreachedNodesHaveNoWeight() {
+        final RPHASTQueryState state = new RPHASTQueryState(10);
+        state.reset(10, 1);
+
+        assertFalse(state.isReached(3, 0));
+        assertEquals(Double.MAX_VALUE, state.getWeight(3, 0), 0);
+        assertEquals(EdgeIterator.NO_EDGE, state.getParentEdge(3, 0));
+    }
+
+    @Test
+    public void resetInvalidatesPreviousEntries() {
+        final RPHASTQueryState state = new RPHASTQueryState(10);
+        state.reset(10, 1);
+        state.setSource(0, 0);
+        state.relax(0, 1, 2.5, 1200, 30.5, 7);
+
+        assertTrue(state.isReached(1, 0));
+        assertEquals(2.5, state.getWeight(1, 0), 0);
+        assertEquals(1200, state.getTime(1, 0));
+        assertEquals(30.5, state.getDistance(1, 0), 0);
+        assertEquals(7, state.getParentEdge(1, 0));
+        assertEquals(0, state.getParent(1, 0));
+
+        state.reset(10, 1);
+        assertFalse(state.isReached(0, 0));
+        assertFalse(state.isReached(1, 0));
+    }
+
+    @Test
+    public void unknownEdgeTimeMakesPathTimeUnknown() {
+        final RPHASTQueryState state = new RPHASTQueryState(10);
+        state.reset(10, 1);
+        state.setSource(0, 0);
+        state.relax(0, 1, 1, LazyPath.UNKNOWN_TIME, 10, 3);
+        state.relax(1, 2, 1, 500, 10, 4);
+
+        assertEquals(LazyPath.UNKNOWN_TIME, state.getTime(1, 0));
+        assertEquals(LazyPath.UNKNOWN_TIME, state.getTime(2, 0));
+    }
+
+    @Test
+    public void resetGrowsCapacity() {
+        final RPHASTQueryState state = new RPHASTQueryState(2);
+        state.reset(2, 1);
+        state.setSource(1, 0);
+
+        state.reset(50, 1);
+        assertTrue(state.getCapacity() >= 50);
+        assertFalse(state.isReached(1, 0));
+        state.setSource(1, 0);
+        state.relax(1, 49, 1, 10, 10, 3);
+        assertTrue(state.isReached(49, 0));
+    }
+
+    @Test
+    public void slotsOfABatchAreIndependent() {
+        final RPHASTQueryState state = new RPHASTQueryState(10);
+        state.reset(10, 3);
+        state.setSource(0, 0);
+        state.setSource(1, 2);
+        state.relax(0, 2, 1, 100, 1, 5);
+        state.relax(1, 2, 4, 400, 4, 6);
+
+        assertEquals(1, state.getWeight(2, 0), 0);
+        assertEquals(5, state.getParentEdge(2, 0));
+        assertFalse(state.isReached(2, 1));
+        assertEquals(4, state.getWeight(2, 2), 0);
+        assertEquals(400, state.getTime(2, 2));
+        assertEquals(100, state.getTime(2, 0));
+        assertEquals(1, state.getParent(2, 2));
+    }
+
+    @Test
+    public void sameStateForSameThread() {
+        assertSame(RPHASTQueryState.forCurrentThread(), RPHASTQueryState.forCurrentThread());
+    }
+}
@@ -46,7 +46,7 @@ public class RPHASTTest {
         CHEdgeIteratorState edge1to2 = chGraph.getEdgeIteratorState(3, 2);
         CHEdgeIteratorState edge1to3 = chGraph.getEdgeIteratorState(174, 3);
         CHEdgeIteratorState edge1to28 = chGraph.getEdgeIteratorState(7, 28);
-        CHEdgeIteratorState edge1to29 = chGraph.getEdgeIteratorState(183, 29);
+        CHEdgeIteratorState edge1to29 = chGraph.getEdgeIteratorState(185, 29);
         CHEdgeIteratorState edge2to3 = chGraph.getEdgeIteratorState(8, 3);
         CHEdgeIteratorState edge28to29 = chGraph.getEdgeIteratorState(73, 29);
         CHEdgeIteratorState edge29to3 = chGraph.getEdgeIteratorState(12, 3);
@@ -134,7 +134,7 @@ public class RPHASTTest {
 
         assertEquals(7, edge1to28.getEdge());
         assertEquals(73, edge28to29.getEdge());
-        assertEquals(183, edge1to29.getEdge());
+        assertEquals(185, edge1to29.getEdge());
         assertEquals(weight1to28 + weight28to29, weight1to29, 0.001);
     }
 
@@ -237,6 +237,69 @@ public class RPHASTTest {
         }
     }
 
+    @Test
+    public void repeatedQueriesReuseQueryState() {
+        final List<Integer> sourceList = Arrays.asList(0, 1, 300);
+        final Set<Integer> targetSet = new LinkedHashSet<>(Arrays.asList(5, 6, 0));
+
+        final RPHAST rphast = new RPHAST(GRAPH_MOCKER.graphWithCh, GRAPH_MOCKER.weighting, EdgeFilter.ALL_EDGES);
+        rphast.prepareForTargetSet(targetSet);
+
+        final List<Path> firstRun = rphast.calcPaths(sourceList);
+        final List<Path> secondRun = rphast.calcPaths(sourceList);
+
+        assertEquals(firstRun.size(), secondRun.size());
+        for (int i = 0; i < firstRun.size(); i++) {
+            assertEquals(firstRun.get(i).getWeight(), secondRun.get(i).getWeight(), 0);
+            assertEquals(firstRun.get(i).edgeIds, secondRun.get(i).edgeIds);
+        }
+    }
+
+    @Test
+    public void batchedSweepEqualsSingleSourceSweep() {
+        final List<Integer> sourceList = Arrays.asList(0, 1, 7, 19, 28, 300);
+        final Set<Integer> targetSet = new LinkedHashSet<>(Arrays.asList(5, 6, 0, 29));
+
+        final RPHAST rphast = new RPHAST(GRAPH_MOCKER.graphWithCh, GRAPH_MOCKER.weighting, EdgeFilter.ALL_EDGES);
+        rphast.prepareForTargetSet(targetSet);
+
+        rphast.setBatchSize(1);
+        final List<Path> singleSourcePaths = rphast.calcPaths(sourceList);
+        rphast.setBatchSize(4);
+        final List<Path> batchedPaths = rphast.calcPaths(sourceList);
+
+        assertEquals(sourceList.size() * targetSet.size(), batchedPaths.size());
+        for (int i = 0; i < singleSourcePaths.size(); i++) {
+            assertEquals(singleSourcePaths.get(i).getWeight(), batchedPaths.get(i).getWeight(), 1e-6);
+            assertEquals(singleSourcePaths.get(i).edgeIds, batchedPaths.get(i).edgeIds);
+        }
+    }
+
+    @Test
+    public void lazyPathsUnpackOnDemand() {
+        final List<Integer> sourceList = Arrays.asList(0, 1, 300);
+        final Set<Integer> targetSet = new LinkedHashSet<>(Arrays.asList(5, 6, 0));
+
+        final RPHAST rphast = new RPHAST(GRAPH_MOCKER.graphWithCh, GRAPH_MOCKER.weighting, EdgeFilter.ALL_EDGES);
+        rphast.prepareForTargetSet(targetSet);
+        final List<Path> eagerPaths = rphast.calcPaths(sourceList);
+        final List<RPHASTPath> lazyPaths = rphast.calcLazyPaths(sourceList, targetSet);
+
+        assertEquals(eagerPaths.size(), lazyPaths.size());
+        for (int i = 0; i < eagerPaths.size(); i++) {
+            final Path eagerPath = eagerPaths.get(i);
+            final RPHASTPath lazyPath = lazyPaths.get(i);
+            assertEquals(eagerPath.isFound(), lazyPath.isFound());
+            assertEquals(eagerPath.getWeight(), lazyPath.getWeight(), 0);
+            assertEquals(eagerPath.getTime(), lazyPath.getTime());
+            assertEquals(eagerPath.getDistance(), lazyPath.getDistance(), 1e-6);
+            assertEquals(eagerPath.edgeIds.isEmpty(), lazyPath.isUnpacked());
+
+            assertEquals(eagerPath.edgeIds, lazyPath.unpack().edgeIds);
+            assertTrue(lazyPath.isUnpacked());
+        }
+    }
+
     @Test
     public void queryNonExistentTarget() {
         final List<Integer> sourceList = Collections.singletonList(0);
@@ -7,42 +7,11 @@ import org.junit.Test;
 
 import java.util.*;
 
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
-
 public class SourceSetUpwardPathsExplorerTest extends SetPathExplorerTest {
-    @Test
-    public void testCHDownwardsEdgeFilter() {
-        final SourceSetUpwardPathsExplorer sourceExplorer = getSourceExplorerInstance();
-
-        EdgeFilter chUpwards = new CHUpwardsEdgeFilter(sourceExplorer);
-        assertTrue(chUpwards.accept(GRAPH_MOCKER.getEdge(0, 1)));
-        assertFalse(chUpwards.accept(GRAPH_MOCKER.getEdge(1,0)));
-    }
-
-    @Test
-    public void testOnlyNonVisitedNeighborsEdgeFilter() {
-        final SourceSetUpwardPathsExplorer sourceExplorer = getSourceExplorerInstance();
-        final Map<Integer, Boolean> visitedNodes = getVisitedNodesMocker();
-        final EdgeFilter onlyNonVisited = sourceExplorer.new OnlyNonVisitedNeighborsEdgeFilter(visitedNodes);
-
-        assertTrue(onlyNonVisited.accept(GRAPH_MOCKER.getEdge(0,1)));
-        assertFalse(onlyNonVisited.accept(GRAPH_MOCKER.getEdge(1,0)));
-        assertTrue(onlyNonVisited.accept(GRAPH_MOCKER.getEdge(6,5)));
-        assertFalse(onlyNonVisited.accept(GRAPH_MOCKER.getEdge(5,6)));
-    }
-
-    private Map<Integer, Boolean> getVisitedNodesMocker() {
-        final Map<Integer, Boolean> visitedNodes = new HashMap<>();
-        visitedNodes.put(0, true);
-        visitedNodes.put(6, true);
-        return visitedNodes;
-    }
-
     @Test
     public void getUpwardsEdges() {
         final SourceSetUpwardPathsExplorer sourceExplorer = getSourceExplorerInstance();
-        final List<EdgeIteratorState> expectedUpwardsEdges = getUpwardsEdges(sourceExplorer);
+        final List<EdgeIteratorState> expectedUpwardsEdges = getExpectedUpwardsEdges();
         final List<EdgeIteratorState> actualUpwardsEdges = sourceExplorer.getMarkedEdges();
 
         sortFoundEdgesByBaseAndAdjNodeId(expectedUpwardsEdges, actualUpwardsEdges);
@@ -56,7 +25,7 @@ public class SourceSetUpwardPathsExplorerTest extends SetPathExplorerTest {
     @Test
     public void getUpwardsEdgesTwice() {
         final SourceSetUpwardPathsExplorer sourceExplorer = getSourceExplorerInstance();
-        final List<EdgeIteratorState> expectedUpwardsEdges = getUpwardsEdges(sourceExplorer);
+        final List<EdgeIteratorState> expectedUpwardsEdges = getExpectedUpwardsEdges();
         sourceExplorer.getMarkedEdges();
         final List<EdgeIteratorState> actualUpwardsEdges = sourceExplorer.getMarkedEdges();
 
@@ -65,8 +34,9 @@ public class SourceSetUpwardPathsExplorerTest extends SetPathExplorerTest {
         assertFoundAllUpwardsEdges(expectedUpwardsEdges, actualUpwardsEdges);
     }
 
-    private List<EdgeIteratorState> getUpwardsEdges(SourceSetUpwardPathsExplorer sourceExplorer) {
-        final EdgeFilter chFilter = sourceExplorer.new CHUpwardsEdgeFilter();
+    private List<EdgeIteratorState> getExpectedUpwardsEdges() {
+        final CHGraph chGraph = GRAPH_MOCKER.graphWithCh.getCHGraph();
+        final EdgeFilter chFilter = edgeState -> chGraph.getLevel(edgeState.getBaseNode()) <= chGraph.getLevel(edgeState.getAdjNode());
 
         return getUpwardsEdges(chFilter);
     }
@@ -93,18 +63,4 @@ public class SourceSetUpwardPathsExplorerTest extends SetPathExplorerTest {
         LinkedHashSet<Integer> targets = new LinkedHashSet<>(Arrays.asList(6, 25, 20, 0));
         return new SourceSetUpwardPathsExplorer(chGraph, targets, edgeFilter);
     }
-
-    private class CHUpwardsEdgeFilter implements EdgeFilter {
-        private final EdgeFilter cHDownwardsEdgeFilter;
-
-        private CHUpwardsEdgeFilter(final SourceSetUpwardPathsExplorer sourceExplorer) {
-            cHDownwardsEdgeFilter = sourceExplorer.new CHUpwardsEdgeFilter();
-        }
-
-
-        @Override
-        public boolean accept(EdgeIteratorState edgeState) {
-            return cHDownwardsEdgeFilter.accept(edgeState);
-        }
-    }
 }
@@ -17,6 +17,8 @@
  */
 package com.graphhopper.routing.ch;
 
+import com.graphhopper.routing.AlgorithmOptions;
+import com.graphhopper.routing.Dijkstra;
 import com.graphhopper.routing.util.CarFlagEncoder;
 import com.graphhopper.routing.util.EncodingManager;
 import com.graphhopper.routing.util.FlagEncoder;
@@ -25,15 +27,14 @@ import com.graphhopper.routing.weighting.FastestWeighting;
 import com.graphhopper.routing.weighting.ShortFastestWeighting;
 import com.graphhopper.routing.weighting.ShortestWeighting;
 import com.graphhopper.routing.weighting.Weighting;
-import com.graphhopper.storage.Directory;
-import com.graphhopper.storage.GraphExtension;
-import com.graphhopper.storage.GraphHopperStorage;
-import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.storage.*;
+import com.graphhopper.util.GHUtility;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import static com.graphhopper.routing.util.TraversalMode.EDGE_BASED;
 import static com.graphhopper.routing.util.TraversalMode.NODE_BASED;
@@ -125,6 +126,45 @@ public class CHAlgoFactoryDecoratorTest {
         }
     }
 
+    @Test
+    public void testReuseNodeOrdering() {
+        FlagEncoder encoder = new CarFlagEncoder();
+        EncodingManager em = EncodingManager.create(encoder);
+        Weighting fastest = new FastestWeighting(encoder);
+        Weighting shortest = new ShortestWeighting(encoder);
+        Directory dir = new RAMDirectory();
+        GraphHopperStorage graph = new GraphHopperStorage(Arrays.asList(fastest, shortest), dir, em, false,
+                new GraphExtension.NoOpExtension());
+        graph.create(1000);
+        long seed = System.nanoTime();
+        Random rnd = new Random(seed);
+        GHUtility.buildRandomGraph(graph, rnd, 500, 1.3, true, true, encoder.getAverageSpeedEnc(), 0.7, 0.9, 0.8);
+        graph.freeze();
+
+        instance.setReuseNodeOrdering(true);
+        instance.addNodeBasedWeighting(fastest);
+        instance.addNodeBasedWeighting(shortest);
+        instance.createPreparations(graph);
+        instance.prepare(graph.getProperties());
+
+        // the shortest weighting is contracted in the order of the fastest weighting
+        CHGraph fastestCH = graph.getCHGraph(fastest);
+        CHGraph shortestCH = graph.getCHGraph(shortest);
+        NodeOrderingStorage nodeOrdering = new NodeOrderingStorage(new RAMDirectory(), "test").create(1000).setNodeOrdering(fastestCH);
+        for (int level = 0; level < graph.getNodes(); level++) {
+            assertEquals("seed: " + seed, level, shortestCH.getLevel(nodeOrdering.getNodeIdForLevel(level)));
+        }
+
+        PrepareContractionHierarchies shortestPch = instance.getPreparations().get(1);
+        for (int i = 0; i < 50; i++) {
+            int from = rnd.nextInt(graph.getNodes());
+            int to = rnd.nextInt(graph.getNodes());
+            double expected = new Dijkstra(graph, shortest, NODE_BASED).calcPath(from, to).getWeight();
+            double actual = shortestPch.createAlgo(shortestCH, AlgorithmOptions.start().weighting(shortest).build()).calcPath(from, to).getWeight();
+            assertEquals("seed: " + seed, expected, actual, 1.e-3);
+        }
+    }
+
     private PrepareContractionHierarchies createNodeBasedPreparation(Weighting weighting) {
         return createPreparation(weighting, false);
     }
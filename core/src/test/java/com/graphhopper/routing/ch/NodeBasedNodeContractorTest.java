@@ -407,6 +407,31 @@ public class NodeBasedNodeContractorTest {
         checkNoShortcuts(lg);
     }
 
+    @Test
+    public void testShortcutBufferFind() {
+        NodeBasedNodeContractor.ShortcutBuffer shortcuts = new NodeBasedNodeContractor.ShortcutBuffer();
+        for (int i = 0; i < 1000; i++) {
+            shortcuts.add(i, i + 1, 1, 1, -1, -1, 2);
+        }
+        // the same nodes with a different weight and the reverse direction
+        shortcuts.add(3, 4, 2, 2, -1, -1, 2);
+        shortcuts.add(4, 3, 1, 1, -1, -1, 2);
+
+        assertEquals(3, shortcuts.find(3, 4, 1));
+        assertEquals(1000, shortcuts.find(3, 4, 2));
+        assertEquals(1001, shortcuts.find(4, 3, 1));
+        assertEquals(-1, shortcuts.find(3, 4, 3));
+        assertEquals(-1, shortcuts.find(4, 5, 2));
+        assertEquals(-1, shortcuts.find(5, 3, 1));
+        assertEquals(1000, shortcuts.copy().find(3, 4, 2));
+
+        shortcuts.clear();
+        assertEquals(-1, shortcuts.find(3, 4, 1));
+        shortcuts.add(4, 3, 2, 2, -1, -1, 2);
+        assertEquals(0, shortcuts.find(4, 3, 2));
+        assertEquals(-1, shortcuts.find(4, 3, 1));
+    }
+
     @Test
     public void routingWithHeading_fails() {
         // heading does not work properly with CH!
@@ -0,0 +1,138 @@
+/*
+ *  Licensed to GraphHopper GmbH under one or more contributor
+ *  license agreements. See the NOTICE file distributed with this work for
+ *  additional information regarding copyright ownership.
+ *
+ *  GraphHopper GmbH licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except in
+ *  compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.graphhopper.routing.ch;
+
+import com.graphhopper.routing.Dijkstra;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.routing.util.TraversalMode;
+import com.graphhopper.routing.weighting.ShortestWeighting;
+import com.graphhopper.routing.weighting.Weighting;
+import com.graphhopper.storage.CHGraph;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.GraphHopperStorage;
+import com.graphhopper.util.GHUtility;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class NodeBasedWitnessPathSearcherTest {
+    private CarFlagEncoder encoder;
+    private Weighting weighting;
+    private GraphHopperStorage graph;
+    private CHGraph chGraph;
+
+    @Before
+    public void setup() {
+        encoder = new CarFlagEncoder();
+        EncodingManager encodingManager = EncodingManager.create(encoder);
+        weighting = new ShortestWeighting(encoder);
+        graph = new GraphBuilder(encodingManager).setCHGraph(weighting).create();
+        chGraph = graph.getCHGraph();
+    }
+
+    @Test
+    public void testAvoidNode() {
+        // 0 - 1 - 2
+        //  \     /
+        //   3 - 4
+        graph.edge(0, 1, 1, true);
+        graph.edge(1, 2, 1, true);
+        graph.edge(0, 3, 1, true);
+        graph.edge(3, 4, 2, true);
+        graph.edge(4, 2, 1, true);
+        graph.freeze();
+        setMaxLevelOnAllNodes();
+        NodeBasedWitnessPathSearcher searcher = createSearcher();
+
+        searcher.init(0, -1);
+        assertEquals(2, searcher.findUpperBound(2, 2, 100, Integer.MAX_VALUE), 1.e-6);
+        searcher.init(0, 1);
+        assertEquals(4, searcher.findUpperBound(2, 10, 100, Integer.MAX_VALUE), 1.e-6);
+        // 4 is reached via 3 in the previous search already
+        assertEquals(3, searcher.findUpperBound(4, 10, 100, Integer.MAX_VALUE), 1.e-6);
+
+        // the node 3 is contracted already
+        chGraph.setLevel(3, 0);
+        searcher.init(0, 1);
+        assertEquals(Double.POSITIVE_INFINITY, searcher.findUpperBound(2, 10, 100, Integer.MAX_VALUE), 1.e-6);
+    }
+
+    @Test
+    public void testLimits() {
+        // 0 - 1 - 2 - 3 - 4 - 5
+        for (int node = 0; node < 5; node++) {
+            graph.edge(node, node + 1, 1, true);
+        }
+        graph.freeze();
+        setMaxLevelOnAllNodes();
+        NodeBasedWitnessPathSearcher searcher = createSearcher();
+
+        searcher.init(0, -1);
+        assertEquals(Double.POSITIVE_INFINITY, searcher.findUpperBound(5, 10, 100, 4), 1.e-6);
+        searcher.init(0, -1);
+        assertEquals(5, searcher.findUpperBound(5, 10, 100, 5), 1.e-6);
+        searcher.init(0, -1);
+        assertEquals(Double.POSITIVE_INFINITY, searcher.findUpperBound(5, 10, 3, Integer.MAX_VALUE), 1.e-6);
+        // the search stops as soon as a settled node exceeds the weight limit
+        searcher.init(0, -1);
+        assertEquals(Double.POSITIVE_INFINITY, searcher.findUpperBound(5, 2, 100, Integer.MAX_VALUE), 1.e-6);
+    }
+
+    @Test
+    public void testSameWeightsAsDijkstra() {
+        final long seed = System.nanoTime();
+        final Random rnd = new Random(seed);
+        final int numNodes = 300;
+        GHUtility.buildRandomGraph(graph, rnd, numNodes, 2.5, true, true, encoder.getAverageSpeedEnc(), 0.7, 0.8, 0.8);
+        graph.freeze();
+        setMaxLevelOnAllNodes();
+        NodeBasedWitnessPathSearcher searcher = createSearcher();
+
+        for (int i = 0; i < 20; i++) {
+            int source = rnd.nextInt(numNodes);
+            searcher.init(source, -1);
+            // the targets are searched in random order, so the search is continued for most of them
+            for (int j = 0; j < 20; j++) {
+                int target = rnd.nextInt(numNodes);
+                if (target == source)
+                    continue;
+                double expected = new Dijkstra(graph, weighting, TraversalMode.NODE_BASED).calcPath(source, target).getWeight();
+                double weight = searcher.findUpperBound(target, Double.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+                if (Double.isInfinite(weight))
+                    assertEquals("wrong weight from " + source + " to " + target + ", seed: " + seed, Double.MAX_VALUE, expected, 1.e-6);
+                else
+                    assertEquals("wrong weight from " + source + " to " + target + ", seed: " + seed, expected, weight, 1.e-6);
+            }
+        }
+    }
+
+    private NodeBasedWitnessPathSearcher createSearcher() {
+        return new NodeBasedWitnessPathSearcher(chGraph, new PreparationWeighting(weighting), encoder);
+    }
+
+    private void setMaxLevelOnAllNodes() {
+        int nodes = chGraph.getNodes();
+        for (int node = 0; node < nodes; node++) {
+            chGraph.setLevel(node, nodes);
+        }
+    }
+}
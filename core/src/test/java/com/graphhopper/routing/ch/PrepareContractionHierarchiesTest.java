@@ -18,6 +18,7 @@
 package com.graphhopper.routing.ch;
 
 import com.carrotsearch.hppc.IntArrayList;
+import com.carrotsearch.hppc.IntHashSet;
 import com.carrotsearch.hppc.IntIndexedContainer;
 import com.graphhopper.routing.*;
 import com.graphhopper.routing.util.*;
@@ -710,6 +711,157 @@ public class PrepareContractionHierarchiesTest {
         assertTrue("reusing node ordering should speed up ch contraction", timeMotorCycle < 0.5 * timeCar);
     }
 
+    @Test
+    public void testParallelContraction() {
+        CarFlagEncoder carFlagEncoder = new CarFlagEncoder();
+        EncodingManager em = EncodingManager.create(carFlagEncoder);
+        Weighting carWeighting = new FastestWeighting(carFlagEncoder);
+        GraphHopperStorage ghStorage = new GraphHopperStorage(Collections.singletonList(carWeighting), new RAMDirectory(), em, false, new GraphExtension.NoOpExtension());
+        ghStorage.create(1000);
+
+        int numNodes = 2_000;
+        long seed = System.nanoTime();
+        Random rnd = new Random(seed);
+        GHUtility.buildRandomGraph(ghStorage, rnd, numNodes, 1.3, true, true, carFlagEncoder.getAverageSpeedEnc(), 0.7, 0.9, 0.8);
+        ghStorage.freeze();
+
+        CHGraph carCH = ghStorage.getCHGraph(carWeighting);
+        PrepareContractionHierarchies pch = new PrepareContractionHierarchies(carCH, carWeighting, TraversalMode.NODE_BASED)
+                .setContractionThreads(4);
+        pch.doWork();
+
+        // every node got its own level
+        IntHashSet levels = new IntHashSet();
+        for (int node = 0; node < numNodes; node++) {
+            assertTrue("seed: " + seed, levels.add(carCH.getLevel(node)));
+        }
+
+        for (int i = 0; i < 100; ++i) {
+            Dijkstra dijkstra = new Dijkstra(ghStorage, carWeighting, TraversalMode.NODE_BASED);
+            RoutingAlgorithm chAlgo = pch.createAlgo(carCH, AlgorithmOptions.start().weighting(carWeighting).build());
+
+            int from = rnd.nextInt(numNodes);
+            int to = rnd.nextInt(numNodes);
+            double dijkstraWeight = dijkstra.calcPath(from, to).getWeight();
+            double chWeight = chAlgo.calcPath(from, to).getWeight();
+            assertEquals("seed: " + seed, dijkstraWeight, chWeight, 1.e-1);
+        }
+    }
+
+    @Test
+    public void testRecustomize() {
+        CarFlagEncoder carFlagEncoder = new CarFlagEncoder();
+        EncodingManager em = EncodingManager.create(carFlagEncoder);
+        Weighting carWeighting = new FastestWeighting(carFlagEncoder);
+        GraphHopperStorage ghStorage = new GraphHopperStorage(Collections.singletonList(carWeighting), new RAMDirectory(), em, false, new GraphExtension.NoOpExtension());
+        ghStorage.create(1000);
+
+        int numNodes = 1_000;
+        long seed = 3511035729415L;
+        Random rnd = new Random(seed);
+        GHUtility.buildRandomGraph(ghStorage, rnd, numNodes, 1.3, true, true, carFlagEncoder.getAverageSpeedEnc(), 0.7, 0.9, 0.8);
+        ghStorage.freeze();
+
+        CHGraph carCH = ghStorage.getCHGraph(carWeighting);
+        PrepareContractionHierarchies pch = new PrepareContractionHierarchies(carCH, carWeighting, TraversalMode.NODE_BASED);
+        pch.doWork();
+
+        // slow down some edges, blocking them is not supported
+        IntArrayList changedEdges = new IntArrayList();
+        List<Double> oldSpeeds = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            EdgeIteratorState edge = ghStorage.getEdgeIteratorState(rnd.nextInt(ghStorage.getEdges()), Integer.MIN_VALUE);
+            if (changedEdges.contains(edge.getEdge()) || !edge.get(carFlagEncoder.getAccessEnc()) || !edge.getReverse(carFlagEncoder.getAccessEnc()))
+                continue;
+            changedEdges.add(edge.getEdge());
+            oldSpeeds.add(edge.get(carFlagEncoder.getAverageSpeedEnc()));
+            edge.set(carFlagEncoder.getAverageSpeedEnc(), 5);
+        }
+        assertTrue("seed: " + seed, pch.recustomize(changedEdges) > 0);
+
+        // the node ordering might not fit the new weights, but the weights of the found paths are correct
+        for (int i = 0; i < 100; ++i) {
+            int from = rnd.nextInt(numNodes);
+            int to = rnd.nextInt(numNodes);
+            Path dijkstraPath = new Dijkstra(ghStorage, carWeighting, TraversalMode.NODE_BASED).calcPath(from, to);
+            Path chPath = pch.createAlgo(carCH, AlgorithmOptions.start().weighting(carWeighting).build()).calcPath(from, to);
+            assertEquals("seed: " + seed, dijkstraPath.isFound(), chPath.isFound());
+            if (!chPath.isFound())
+                continue;
+            assertTrue("seed: " + seed, chPath.getWeight() >= dijkstraPath.getWeight() - 1.e-1);
+            double edgeWeights = 0;
+            for (EdgeIteratorState edge : chPath.calcEdges()) {
+                edgeWeights += carWeighting.calcWeight(edge, false, EdgeIterator.NO_EDGE);
+            }
+            assertEquals("seed: " + seed, edgeWeights, chPath.getWeight(), 1.e-1);
+        }
+
+        // reverting the changes restores the prepared weights
+        for (int i = 0; i < changedEdges.size(); i++) {
+            EdgeIteratorState edge = ghStorage.getEdgeIteratorState(changedEdges.get(i), Integer.MIN_VALUE);
+            edge.set(carFlagEncoder.getAverageSpeedEnc(), oldSpeeds.get(i));
+        }
+        pch.recustomize(changedEdges);
+        for (int i = 0; i < 100; ++i) {
+            int from = rnd.nextInt(numNodes);
+            int to = rnd.nextInt(numNodes);
+            double dijkstraWeight = new Dijkstra(ghStorage, carWeighting, TraversalMode.NODE_BASED).calcPath(from, to).getWeight();
+            double chWeight = pch.createAlgo(carCH, AlgorithmOptions.start().weighting(carWeighting).build()).calcPath(from, to).getWeight();
+            assertEquals("seed: " + seed, dijkstraWeight, chWeight, 1.e-1);
+        }
+    }
+
+    @Test
+    public void testRecustomizeAsymmetricShortcut() {
+        // 1-0-2, node 0 is contracted first and skipped by the shortcut 1-2
+        Weighting fastestWeighting = new FastestWeighting(carEncoder);
+        final GraphHopperStorage g = createGHStorage(fastestWeighting);
+        CHGraph lg = g.getCHGraph(fastestWeighting);
+        g.edge(1, 0, 1000, true);
+        EdgeIteratorState edge02 = g.edge(0, 2, 1000, true);
+        g.freeze();
+        PrepareContractionHierarchies pch = createPrepareContractionHierarchies(g, lg, fastestWeighting);
+        pch.useFixedNodeOrdering(new NodeOrderingProvider() {
+            @Override
+            public int getNodeIdForLevel(int level) {
+                return level;
+            }
+
+            @Override
+            public int getNumNodes() {
+                return g.getNodes();
+            }
+        }).doWork();
+        assertEquals(1, lg.getEdges() - lg.getOriginalEdges());
+
+        // only the direction 0->2 gets slower
+        edge02.set(carEncoder.getAverageSpeedEnc(), 10);
+        assertEquals(1, pch.recustomize(IntArrayList.from(edge02.getEdge())));
+
+        for (int[] fromTo : new int[][]{{1, 2}, {2, 1}}) {
+            Path dijkstraPath = new Dijkstra(g, fastestWeighting, tMode).calcPath(fromTo[0], fromTo[1]);
+            Path chPath = pch.createAlgo(lg, AlgorithmOptions.start().weighting(fastestWeighting).build()).calcPath(fromTo[0], fromTo[1]);
+            assertEquals(IntArrayList.from(fromTo[0], 0, fromTo[1]), chPath.calcNodes());
+            assertEquals(dijkstraPath.getWeight(), chPath.getWeight(), 1.e-6);
+            assertEquals(dijkstraPath.getTime(), chPath.getTime());
+        }
+
+        // the adjacency arrays hold the weight of each direction of the shortcut
+        double slowWeight = new Dijkstra(g, fastestWeighting, tMode).calcPath(1, 2).getWeight();
+        double fastWeight = new Dijkstra(g, fastestWeighting, tMode).calcPath(2, 1).getWeight();
+        assertTrue(slowWeight > fastWeight);
+        assertEquals(slowWeight, getAdjacencyWeight(lg.getUpwardAdjacency(), 1, 2), 1.e-6);
+        assertEquals(fastWeight, getAdjacencyWeight(lg.getDownwardAdjacency(), 1, 2), 1.e-6);
+    }
+
+    private double getAdjacencyWeight(CHAdjacency adjacency, int node, int otherNode) {
+        for (int entry = adjacency.getEntryStart(node); entry < adjacency.getEntryEnd(node); entry++) {
+            if (adjacency.getNode(entry) == otherNode)
+                return adjacency.getWeight(entry);
+        }
+        throw new AssertionError("no entry from " + node + " to " + otherNode);
+    }
+
     void checkPath(GraphHopperStorage g, Weighting w, int expShortcuts, double expDistance, IntIndexedContainer expNodes) {
         CHGraph lg = g.getCHGraph(w);
         PrepareContractionHierarchies prepare = createPrepareContractionHierarchies(g, lg, w);
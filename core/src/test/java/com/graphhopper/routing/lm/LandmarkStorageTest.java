@@ -35,6 +35,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -291,6 +292,31 @@ public class LandmarkStorageTest {
         assertEquals(71361, storage.getToWeight(1, 15));
     }
 
+    @Test
+    public void testLandmarkThreads() {
+        long seed = System.nanoTime();
+        GHUtility.buildRandomGraph(ghStorage, new Random(seed), 500, 2.2, true, true, encoder.getAverageSpeedEnc(), 0.7, 0.8, 0.8);
+
+        LandmarkStorage sequential = new LandmarkStorage(ghStorage, new RAMDirectory(), new FastestWeighting(encoder), 8);
+        sequential.setMinimumNodes(2);
+        sequential.createLandmarks();
+        LandmarkStorage parallel = new LandmarkStorage(ghStorage, new RAMDirectory(), new FastestWeighting(encoder), 8);
+        parallel.setMinimumNodes(2);
+        parallel.setLandmarkThreads(4);
+        parallel.createLandmarks();
+
+        assertTrue(sequential.getSubnetworksWithLandmarks() > 1);
+        assertEquals(sequential.getSubnetworksWithLandmarks(), parallel.getSubnetworksWithLandmarks());
+        for (int node = 0; node < ghStorage.getNodes(); node++) {
+            assertEquals("seed: " + seed, sequential.getSubnetworkStorage().getSubnetwork(node),
+                    parallel.getSubnetworkStorage().getSubnetwork(node));
+            for (int lmIdx = 0; lmIdx < 8; lmIdx++) {
+                assertEquals("seed: " + seed, sequential.getFromWeight(lmIdx, node), parallel.getFromWeight(lmIdx, node));
+                assertEquals("seed: " + seed, sequential.getToWeight(lmIdx, node), parallel.getToWeight(lmIdx, node));
+            }
+        }
+    }
+
     @Test
     public void testDeltaWarning() {
         int distance = 1000000;
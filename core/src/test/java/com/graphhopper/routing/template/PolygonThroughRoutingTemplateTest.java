@@ -3,9 +3,13 @@ package com.graphhopper.routing.template;
 import com.graphhopper.GHRequest;
 import com.graphhopper.GHResponse;
 import com.graphhopper.routing.*;
+import com.graphhopper.routing.template.polygonRoutingUtil.PolygonPreparationCache;
+import com.graphhopper.routing.template.polygonRoutingUtil.PolygonRoutingTrace;
 import com.graphhopper.routing.template.util.PolygonRoutingTestGraph;
 import com.graphhopper.routing.util.AllEdgesIterator;
 import com.graphhopper.storage.index.QueryResult;
+import com.graphhopper.util.PathMerger;
+import com.graphhopper.util.TranslationMapTest;
 import com.graphhopper.util.shapes.GHPoint;
 import com.graphhopper.util.shapes.Polygon;
 import org.junit.Test;
@@ -13,9 +17,13 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.graphhopper.util.Parameters.Routing.*;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class PolygonThroughRoutingTemplateTest {
     private final static PolygonRoutingTestGraph graphMocker = PolygonRoutingTestGraph.DEFAULT_INSTANCE;
@@ -37,6 +45,89 @@ public class PolygonThroughRoutingTemplateTest {
         assertEquals(new ArrayList<Integer>(Arrays.asList(new Integer[]{0, 7, 44, 46, 47, 48, 31, 9, 4, 5, 6})), paths.get(0).getNodesInPathOrder());
     }
 
+    @Test
+    public void repeatedPolygonUsesCachedPreparation() {
+        final PolygonPreparationCache cache = new PolygonPreparationCache(PolygonPreparationCache.DEFAULT_MAX_BYTES);
+        final List<Integer> expectedPath = Arrays.asList(0, 7, 44, 46, 47, 48, 31, 9, 4, 5, 6);
+
+        for (int i = 0; i < 2; i++) {
+            final GHRequest request = buildRequest(new GHPoint(25, 0), new GHPoint(25, 46));
+            final RoutingTemplate routingTemplate = new PolygonThroughRoutingTemplate(request, new GHResponse(), this.graphMocker.locationIndex,
+                                                                                      this.graphMocker.encodingManager, cache);
+            final QueryGraph queryGraph = createQueryGraph(request, routingTemplate);
+
+            List<Path> paths = routingTemplate.calcPaths(queryGraph, new RoutingAlgorithmFactorySimple(), graphMocker.algorithmOptions);
+
+            assertEquals(expectedPath, paths.get(0).getNodesInPathOrder());
+        }
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void sharedExecutorGivesSamePathAsCallingThread() {
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            final GHRequest request = buildRequest(new GHPoint(25, 0), new GHPoint(25, 46));
+            final RoutingTemplate routingTemplate = new PolygonThroughRoutingTemplate(request, new GHResponse(), this.graphMocker.locationIndex,
+                                                                                      this.graphMocker.encodingManager).
+                                                            setExecutorService(executorService, 2);
+            final QueryGraph queryGraph = createQueryGraph(request, routingTemplate);
+
+            List<Path> paths = routingTemplate.calcPaths(queryGraph, new RoutingAlgorithmFactorySimple(), graphMocker.algorithmOptions);
+
+            assertEquals(Arrays.asList(0, 7, 44, 46, 47, 48, 31, 9, 4, 5, 6), paths.get(0).getNodesInPathOrder());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void viaPointsGiveSamePathsAsSeparateRequestsPerLeg() {
+        final GHPoint[] points = {new GHPoint(25, 0), new GHPoint(25, 25), new GHPoint(25, 46), new GHPoint(2, 25)};
+        final List<Path> paths = calcPaths(buildRequest(points));
+
+        assertEquals(points.length - 1, paths.size());
+        for (int i = 0; i < points.length - 1; i++) {
+            final List<Path> legPaths = calcPaths(buildRequest(points[i], points[i + 1]));
+            assertEquals(legPaths.get(0).getNodesInPathOrder(), paths.get(i).getNodesInPathOrder());
+        }
+    }
+
+    @Test
+    public void metricsReceiveAllStagesAndTraceIsAddedToDebugInfo() {
+        final GHRequest request = buildRequest(new GHPoint(25, 0), new GHPoint(25, 46));
+        request.getHints().put(PolygonRoutingTemplate.TRACE, true);
+        final GHResponse response = new GHResponse();
+        final List<PolygonRoutingTrace> recordedTraces = new ArrayList<>();
+        final PolygonRoutingTemplate routingTemplate = new PolygonThroughRoutingTemplate(request, response, this.graphMocker.locationIndex,
+                                                                                         this.graphMocker.encodingManager).setMetrics(recordedTraces::add);
+        final QueryGraph queryGraph = createQueryGraph(request, routingTemplate);
+
+        routingTemplate.calcPaths(queryGraph, new RoutingAlgorithmFactorySimple(), graphMocker.algorithmOptions);
+        routingTemplate.isReady(new PathMerger(), TranslationMapTest.SINGLETON.getWithFallBack(Locale.US));
+
+        assertEquals(1, recordedTraces.size());
+        final PolygonRoutingTrace trace = recordedTraces.get(0);
+        for (PolygonRoutingTrace.Stage stage : PolygonRoutingTrace.Stage.values()) {
+            assertTrue(stage.getName(), trace.isFinished(stage));
+        }
+        assertTrue(trace.getSize(PolygonRoutingTrace.Size.ROI_NODES) > 0);
+        assertTrue(trace.getSize(PolygonRoutingTrace.Size.LOT_NODES) > 0);
+        assertTrue(trace.getSize(PolygonRoutingTrace.Size.PRUNED_ROUTE_CANDIDATES) > 0);
+        assertTrue(trace.getSize(PolygonRoutingTrace.Size.ROUTE_CANDIDATES) >= trace.getSize(PolygonRoutingTrace.Size.PRUNED_ROUTE_CANDIDATES));
+        assertTrue(response.getBest().getDebugInfo(), response.getBest().getDebugInfo().contains("polygon.lotNodesSize:" +
+                                                                                                 trace.getSize(PolygonRoutingTrace.Size.LOT_NODES)));
+    }
+
+    private List<Path> calcPaths(final GHRequest request) {
+        final RoutingTemplate routingTemplate = new PolygonThroughRoutingTemplate(request, new GHResponse(), this.graphMocker.locationIndex,
+                                                                                  this.graphMocker.encodingManager);
+        final QueryGraph queryGraph = createQueryGraph(request, routingTemplate);
+
+        return routingTemplate.calcPaths(queryGraph, new RoutingAlgorithmFactorySimple(), graphMocker.algorithmOptions);
+    }
+
     private QueryGraph createQueryGraph(GHRequest request, RoutingTemplate routingTemplate) {
         final QueryGraph queryGraph = new QueryGraph(this.graphMocker.graphWithCh);
         List<QueryResult> results = routingTemplate.lookup(request.getPoints(), this.graphMocker.flagEncoder);
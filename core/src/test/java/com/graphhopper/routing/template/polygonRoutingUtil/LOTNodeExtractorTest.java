@@ -1,8 +1,6 @@
 package com.graphhopper.routing.template.polygonRoutingUtil;
 
 import com.graphhopper.routing.AlgorithmOptions;
-import com.graphhopper.routing.RoutingAlgorithmFactory;
-import com.graphhopper.routing.RoutingAlgorithmFactorySimple;
 import com.graphhopper.routing.template.util.PolygonRoutingTestGraph;
 import com.graphhopper.storage.Graph;
 import org.junit.BeforeClass;
@@ -19,12 +17,11 @@ public class LOTNodeExtractorTest {
     @BeforeClass
     public static void createDefaultTestCase() {
         final Graph graph = graphMocker.graph;
-        final RoutingAlgorithmFactory routingAlgorithmFactory = new RoutingAlgorithmFactorySimple();
         final AlgorithmOptions algorithmOptions = graphMocker.algorithmOptions;
         List<Integer> viaPoints = createViaPoints();
         Set<Integer> entryExitPoints = createEntryExitPoints();
 
-        extractor =  LOTNodeExtractor.createExtractedData(graph, routingAlgorithmFactory, algorithmOptions, viaPoints, entryExitPoints);
+        extractor =  LOTNodeExtractor.createExtractedData(graph, algorithmOptions, viaPoints, entryExitPoints);
     }
 
     private static List<Integer> createViaPoints() {
@@ -97,4 +94,21 @@ public class LOTNodeExtractorTest {
         assertEquals(path2To28, this.extractor.getLotNodePathFor(2, 28).getNodesInPathOrder());
         assertEquals(path2To44, this.extractor.getLotNodePathFor(2, 45).getNodesInPathOrder());
     }
+
+    @Test
+    public void pathsInBothDirectionsForIntermediateViaPoints() {
+        final LOTNodeExtractor viaExtractor = LOTNodeExtractor.createExtractedData(graphMocker.graph, graphMocker.algorithmOptions,
+                                                                                   Arrays.asList(0, 3, 2, 6), createEntryExitPoints());
+
+        for (final int entryExitPoint : createEntryExitPoints()) {
+            for (final int viaPoint : Arrays.asList(0, 3, 2)) {
+                assertEquals(viaPoint, (int) viaExtractor.getLotNodePathFor(viaPoint, entryExitPoint).getNodesInPathOrder().get(0));
+            }
+            for (final int viaPoint : Arrays.asList(3, 2, 6)) {
+                final List<Integer> nodes = viaExtractor.getLotNodePathFor(entryExitPoint, viaPoint).getNodesInPathOrder();
+                assertEquals(viaPoint, (int) nodes.get(nodes.size() - 1));
+            }
+        }
+        assertEquals(new HashSet<>(viaExtractor.getAllLotNodes()).size(), viaExtractor.getAllLotNodes().size());
+    }
 }
@@ -1,7 +1,8 @@
 package com.graphhopper.routing.template.polygonRoutingUtil;
 
 import com.graphhopper.routing.AlgorithmOptions;
-import com.graphhopper.routing.RoutingAlgorithmFactory;
+import com.graphhopper.routing.Path;
+import com.graphhopper.routing.QueryGraph;
 import com.graphhopper.routing.RoutingAlgorithmFactorySimple;
 import com.graphhopper.routing.template.util.PolygonRoutingTestGraph;
 import com.graphhopper.routing.template.util.QueryGraphCreator;
@@ -14,6 +15,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+
 public class ManyToManyRoutingTest {
     private final static PolygonRoutingTestGraph graphMocker = PolygonRoutingTestGraph.DEFAULT_INSTANCE;
     private static ManyToManyRouting manyToManyRouting;
@@ -22,12 +25,10 @@ public class ManyToManyRoutingTest {
     public static void setUp() {
         final List<Integer> sourceDestinations = prepareSourceDestination();
         final RegionOfInterestRoutingGraph nodesToConsiderForRouting = new OneToManyRoutingTest().prepareInteriorGraph();
-        final RoutingAlgorithmFactory routingAlgorithmFactory = new RoutingAlgorithmFactorySimple();
         final AlgorithmOptions algorithmOptions = graphMocker.algorithmOptions;
         final List<QueryResult> queryResults = createQueryResults(graphMocker.graph, sourceDestinations);
 
-        manyToManyRouting = new ManyToManyRouting(nodesToConsiderForRouting, sourceDestinations, graphMocker.graph, queryResults, routingAlgorithmFactory,
-                                                       algorithmOptions);
+        manyToManyRouting = new ManyToManyRouting(nodesToConsiderForRouting, sourceDestinations, graphMocker.graph, queryResults, algorithmOptions);
         manyToManyRouting.findPathBetweenAllNodePairs();
     }
 
@@ -217,6 +218,39 @@ public class ManyToManyRoutingTest {
         validatePath(firstPathOption);
     }
 
+    @Test
+    public void visibilityCellPathsEqualPairwiseSearches() {
+        final List<Integer> lotNodes = Arrays.asList(42, 32, 33, 28, 46);
+        final List<QueryResult> queryResults = createQueryResults(graphMocker.graph, lotNodes);
+        final ManyToManyRouting routing = new ManyToManyRouting(createVisibilityCellGraph(), lotNodes, graphMocker.graph, queryResults,
+                                                                graphMocker.algorithmOptions);
+        routing.findPathBetweenAllNodePairs();
+
+        final QueryGraph queryGraph = new QueryGraphCreator(graphMocker.graph, lotNodes).createQueryGraph();
+        for (int fromNode : lotNodes) {
+            final OneToManyRouting pairwise = new OneToManyRouting(fromNode, lotNodes, createVisibilityCellGraph(), queryGraph,
+                                                                   new RoutingAlgorithmFactorySimple(), graphMocker.algorithmOptions);
+            pairwise.findPathBetweenAllNodePairs();
+
+            for (int toNode : lotNodes) {
+                final Path expected = pairwise.getPathByFromEndNodeID(fromNode, toNode);
+                final Path actual = routing.getPathByFromEndNodeID(fromNode, toNode);
+                assertEquals(expected.isFound(), actual.isFound());
+                if (expected.isFound()) {
+                    assertEquals(expected.getWeight(), actual.getWeight(), 1e-6);
+                    assertEquals(expected.getDistance(), actual.getDistance(), 1e-6);
+                    assertEquals(expected.getTime(), actual.getTime());
+                    assertEquals(expected.calcNodes(), actual.calcNodes());
+                }
+            }
+        }
+    }
+
+    private static VisibilityCellRoutingGraph createVisibilityCellGraph() {
+        return new VisibilityCellRoutingGraph(VisibilityCellRoutingGraphTest.createNodeVisibilityShape(), VisibilityCellRoutingGraphTest.createRegionOfInterest(),
+                                              graphMocker.locationIndex, graphMocker.nodeAccess);
+    }
+
     private void validatePath(List<Integer>... possiblePaths) {
         final int fromNode = possiblePaths[0].get(0);
         final int toNode = possiblePaths[0].get(possiblePaths[0].size() - 1);
@@ -0,0 +1,86 @@
+package com.graphhopper.routing.template.polygonRoutingUtil;
+
+import com.graphhopper.routing.RPHAST;
+import com.graphhopper.routing.RPHASTTargetSet;
+import com.graphhopper.routing.template.util.PolygonRoutingTestGraph;
+import com.graphhopper.util.shapes.Polygon;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.*;
+
+public class PolygonPreparationCacheTest {
+    private final static PolygonRoutingTestGraph graphMocker = PolygonRoutingTestGraph.DEFAULT_INSTANCE;
+
+    @Test
+    public void keyIndependentOfStartVertexAndOrientation() {
+        final Polygon polygon = new Polygon(new double[]{19, 19, 8, 8}, new double[]{14, 24, 24, 14});
+        final Polygon rotated = new Polygon(new double[]{8, 8, 19, 19}, new double[]{24, 14, 14, 24});
+        final Polygon reversedAndClosed = new Polygon(new double[]{19, 8, 8, 19, 19}, new double[]{14, 14, 24, 24, 14});
+        final Polygon other = new Polygon(new double[]{19, 19, 8, 9}, new double[]{14, 24, 24, 14});
+
+        final PolygonPreparationCache.Key key = new PolygonPreparationCache.Key(polygon, graphMocker.weighting);
+        assertEquals(key, new PolygonPreparationCache.Key(rotated, graphMocker.weighting));
+        assertEquals(key.hashCode(), new PolygonPreparationCache.Key(rotated, graphMocker.weighting).hashCode());
+        assertEquals(key, new PolygonPreparationCache.Key(reversedAndClosed, graphMocker.weighting));
+        assertNotEquals(key, new PolygonPreparationCache.Key(other, graphMocker.weighting));
+    }
+
+    @Test
+    public void keyIndependentOfStartVertexWithRepeatedSmallestVertex() {
+        // the smallest vertex (0, 0) is visited twice, only one of its four orientations is canonical
+        final Polygon polygon = new Polygon(new double[]{0, 1, 2, 0, 1, 2}, new double[]{0, 1, 0, 0, -1, -2});
+        final Polygon rotated = new Polygon(new double[]{0, 1, 2, 0, 1, 2}, new double[]{0, -1, -2, 0, 1, 0});
+        final Polygon reversed = new Polygon(new double[]{2, 1, 0, 2, 1, 0}, new double[]{-2, -1, 0, 0, 1, 0});
+
+        final double[] expected = {0, 0, 1, -1, 2, -2, 0, 0, 1, 1, 2, 0};
+        assertArrayEquals(expected, PolygonPreparationCache.Key.canonicalCoordinates(polygon.getCoordinatesAsGHPoints()), 0);
+        assertArrayEquals(expected, PolygonPreparationCache.Key.canonicalCoordinates(rotated.getCoordinatesAsGHPoints()), 0);
+        assertArrayEquals(expected, PolygonPreparationCache.Key.canonicalCoordinates(reversed.getCoordinatesAsGHPoints()), 0);
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        final PolygonPreparationCache cache = new PolygonPreparationCache(PolygonPreparationCache.DEFAULT_MAX_BYTES);
+        final Polygon polygon = RPHASTManyToManyTest.prepareInteriorGraph().regionOfInterest;
+
+        final PolygonPreparationCache.Entry first = cache.getOrCreate(polygon, graphMocker.weighting, this::createEntry);
+        final PolygonPreparationCache.Entry second = cache.getOrCreate(polygon, graphMocker.weighting, this::createEntry);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getEntryCount());
+        assertTrue(cache.getSizeInBytes() > 0);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final PolygonPreparationCache.Entry entry = createEntry();
+        final PolygonPreparationCache cache = new PolygonPreparationCache(2 * entry.getMemoryBytes());
+        final Polygon first = new Polygon(new double[]{1, 1, 0}, new double[]{0, 1, 0});
+        final Polygon second = new Polygon(new double[]{2, 2, 0}, new double[]{0, 1, 0});
+        final Polygon third = new Polygon(new double[]{3, 3, 0}, new double[]{0, 1, 0});
+
+        cache.getOrCreate(first, graphMocker.weighting, () -> entry);
+        cache.getOrCreate(second, graphMocker.weighting, () -> entry);
+        cache.getOrCreate(first, graphMocker.weighting, () -> entry);
+        cache.getOrCreate(third, graphMocker.weighting, () -> entry);
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getEntryCount());
+        cache.getOrCreate(first, graphMocker.weighting, () -> entry);
+        assertEquals(2, cache.getHits());
+        cache.getOrCreate(second, graphMocker.weighting, () -> entry);
+        assertEquals(4, cache.getMisses());
+    }
+
+    private PolygonPreparationCache.Entry createEntry() {
+        final RegionOfInterestRoutingGraph regionOfInterest = RPHASTManyToManyTest.prepareInteriorGraph();
+        final RPHAST rphast = new RPHAST(graphMocker.graphWithCh, graphMocker.weighting, regionOfInterest);
+        final RPHASTTargetSet targetSet = rphast.prepareForTargetSet(new LinkedHashSet<>(Arrays.asList(28, 29, 30)));
+        return new PolygonPreparationCache.Entry(regionOfInterest, targetSet);
+    }
+}
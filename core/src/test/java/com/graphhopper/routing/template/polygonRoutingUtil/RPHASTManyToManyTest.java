@@ -1,6 +1,7 @@
 package com.graphhopper.routing.template.polygonRoutingUtil;
 
 import com.graphhopper.routing.AlgorithmOptions;
+import com.graphhopper.routing.Path;
 import com.graphhopper.routing.template.util.PolygonRoutingTestGraph;
 import com.graphhopper.util.shapes.Polygon;
 import org.junit.BeforeClass;
@@ -9,6 +10,10 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
 
 public class RPHASTManyToManyTest {
     private final static PolygonRoutingTestGraph graphMocker = PolygonRoutingTestGraph.DEFAULT_INSTANCE;
@@ -210,6 +215,31 @@ public class RPHASTManyToManyTest {
         validatePath(firstPathOption);
     }
 
+    @Test
+    public void parallelSourcesEqualSequentialSources() {
+        final List<Integer> sourceDestinations = prepareSourceDestination();
+        final ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            final RPHASTManyToMany parallelRphast = new RPHASTManyToMany(prepareInteriorGraph(), sourceDestinations, graphMocker.graphWithCh,
+                                                                         graphMocker.algorithmOptions);
+            parallelRphast.setBatchSize(1);
+            parallelRphast.setExecutorService(executorService, 3);
+            parallelRphast.findPathBetweenAllNodePairs();
+
+            assertEquals(rphast.getAllFoundPaths().size(), parallelRphast.getAllFoundPaths().size());
+            for (int fromNode : sourceDestinations) {
+                for (int toNode : sourceDestinations) {
+                    final Path expected = rphast.getPathByFromEndNodeID(fromNode, toNode);
+                    final Path actual = parallelRphast.getPathByFromEndNodeID(fromNode, toNode);
+                    assertEquals(expected.getWeight(), actual.getWeight(), 1e-6);
+                    assertEquals(expected.getNodesInPathOrder(), actual.getNodesInPathOrder());
+                }
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
     private void validatePath(List<Integer>... possiblePaths) {
         final int fromNode = possiblePaths[0].get(0);
         final int toNode = possiblePaths[0].get(possiblePaths[0].size() - 1);
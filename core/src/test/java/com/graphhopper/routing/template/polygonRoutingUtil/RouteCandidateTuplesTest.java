@@ -0,0 +1,83 @@
+package com.graphhopper.routing.template.polygonRoutingUtil;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class RouteCandidateTuplesTest {
+    @Test
+    public void pruneDominatedCandidates() {
+        final RouteCandidateTuples tuples = new RouteCandidateTuples();
+        tuples.add(0, 1, 3, 6);
+        tuples.add(0, 2, 2, 3);
+        tuples.add(0, 3, 6, 6);
+        tuples.add(0, 4, 4, 5);
+        tuples.add(0, 5, 8, 4);
+        tuples.add(0, 6, 6, 1);
+        tuples.add(0, 7, 7, 1);
+
+        tuples.pruneDominatedCandidateRoutes();
+
+        assertEquals(3, tuples.size());
+        assertEquals(1, tuples.getExitNode(0));
+        assertEquals(3, tuples.getExitNode(1));
+        assertEquals(2, tuples.getExitNode(2));
+    }
+
+    @Test
+    public void pruneLowerQuantile() {
+        final RouteCandidateTuples tuples = new RouteCandidateTuples();
+        for (int i = 0; i < 8; i++) {
+            tuples.add(i, i + 1, i, i);
+        }
+
+        tuples.pruneLowerQuantileInROI(0.75);
+        assertEquals(7, tuples.size());
+        tuples.pruneLowerQuantileInROI(0.75);
+        assertEquals(6, tuples.size());
+        assertEquals(5, tuples.getEntryNode(5));
+    }
+
+    @Test
+    public void skylineEqualsPairwiseDomination() {
+        final Random random = new Random(42);
+        for (int run = 0; run < 50; run++) {
+            final RouteCandidateTuples tuples = new RouteCandidateTuples();
+            final int size = random.nextInt(200);
+            final double[] times = new double[size];
+            final double[] timesInROI = new double[size];
+            for (int i = 0; i < size; i++) {
+                // few distinct values to get many ties
+                times[i] = random.nextInt(20);
+                timesInROI[i] = random.nextInt(20);
+                tuples.add(i, i, times[i], timesInROI[i]);
+            }
+
+            final List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                boolean dominated = false;
+                for (int j = 0; j < size; j++) {
+                    dominated |= times[j] < times[i] && timesInROI[j] > timesInROI[i];
+                }
+                if (!dominated) {
+                    expected.add(i);
+                }
+            }
+
+            tuples.pruneDominatedCandidateRoutes();
+            final List<Integer> actual = new ArrayList<>();
+            for (int i = 0; i < tuples.size(); i++) {
+                actual.add(tuples.getEntryNode(i));
+                if (i > 0) {
+                    assertEquals(true, tuples.getTimeInROI(i - 1) >= tuples.getTimeInROI(i));
+                }
+            }
+            actual.sort(Integer::compare);
+            assertEquals(expected, actual);
+        }
+    }
+}
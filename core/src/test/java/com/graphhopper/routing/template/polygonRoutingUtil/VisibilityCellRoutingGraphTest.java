@@ -10,7 +10,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class VisibilityCellRoutingGraphTest {
     private final static PolygonRoutingTestGraph graphMocker = PolygonRoutingTestGraph.DEFAULT_INSTANCE;
@@ -30,6 +30,23 @@ public class VisibilityCellRoutingGraphTest {
         assertEquals(acceptableEdges, acceptedEdges);
     }
 
+    @Test
+    public void entryExitNodesAreOnlyAcceptedUntilReplaced() {
+        final VisibilityCellRoutingGraph acceptor = new VisibilityCellRoutingGraph(createNodeVisibilityShape(), createRegionOfInterest(),
+                                                                                   graphMocker.locationIndex, graphMocker.nodeAccess);
+        final int containedNode = acceptor.iterator().next();
+        assertFalse(acceptor.contains(42));
+
+        acceptor.prepareForEntryExitNodes(42, containedNode);
+        assertTrue(acceptor.contains(42));
+        assertTrue(acceptor.contains(containedNode));
+
+        acceptor.prepareForEntryExitNodes(32, 33);
+        assertFalse(acceptor.contains(42));
+        assertTrue(acceptor.contains(containedNode));
+        assertTrue(acceptor.contains(32));
+    }
+
     private List<Integer> getAcceptedEdges(VisibilityCellRoutingGraph acceptor) {
         final List<Integer> acceptedEdges = new ArrayList<>();
         final AllEdgesIterator allEdges = graphMocker.graph.getAllEdges();
@@ -46,7 +63,7 @@ public class VisibilityCellRoutingGraphTest {
         return acceptableEdges;
     }
 
-    private List<VisibilityCell> createNodeVisibilityShape() {
+    static List<VisibilityCell> createNodeVisibilityShape() {
         final List<VisibilityCell> visibilityCells = new ArrayList<>(12);
 
         final Polygon p464754 = new Polygon(new double[]{17, 18, 15}, new double[]{16, 19, 18});
@@ -88,7 +105,7 @@ public class VisibilityCellRoutingGraphTest {
         return visibilityCells;
     }
 
-    private Polygon createRegionOfInterest() {
+    static Polygon createRegionOfInterest() {
         return new Polygon(new double[]{16, 16, 12, 12}, new double[]{17, 21, 21, 17});
     }
 }
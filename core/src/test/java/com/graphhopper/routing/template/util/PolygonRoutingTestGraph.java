@@ -550,6 +550,15 @@ public class PolygonRoutingTestGraph {
             }
         }
 
+        @Override
+        public void query(Polygon queryPolygon, Visitor function) {
+            for (final Node node : nodes) {
+                if (queryPolygon.contains(node.latitude, node.longitude)) {
+                    function.onNode(node.id);
+                }
+            }
+        }
+
         @Override
         public boolean loadExisting() {
             throw new NotImplementedException();
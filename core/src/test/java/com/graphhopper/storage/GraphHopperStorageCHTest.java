@@ -629,6 +629,110 @@ public class GraphHopperStorageCHTest extends GraphHopperStorageTest {
         mixedStorage.flush();
     }
 
+    @Test
+    public void testUpAndDownAdjacency() {
+        graph = newGHStorage(false, false);
+        CHGraph g = getGraph(graph);
+        g.edge(0, 1, 10, true);
+        g.edge(1, 2, 10, false);
+        graph.freeze();
+        g.setLevel(0, 0);
+        g.setLevel(1, 1);
+        g.setLevel(2, 2);
+        g.prepareAdjacencyLists();
+
+        assertAdjacency(g.getUpwardAdjacency(), 0, 1);
+        assertAdjacency(g.getUpwardAdjacency(), 1, 2);
+        assertAdjacency(g.getUpwardAdjacency(), 2);
+        assertAdjacency(g.getDownwardAdjacency(), 0, 1);
+        assertAdjacency(g.getDownwardAdjacency(), 1);
+        assertAdjacency(g.getDownwardAdjacency(), 2);
+    }
+
+    @Test
+    public void testAdjacencyIsPersisted() {
+        graph = newGHStorage(false, false);
+        CHGraph g = getGraph(graph);
+        g.edge(0, 1, 10, true);
+        g.edge(1, 2, 10, false);
+        graph.freeze();
+        g.setLevel(0, 2);
+        g.setLevel(1, 1);
+        g.setLevel(2, 0);
+        g.prepareAdjacencyLists();
+        graph.flush();
+        graph.close();
+
+        graph = newGHStorage(new RAMDirectory(defaultGraphLoc, true), false);
+        assertTrue(graph.loadExisting());
+        g = getGraph(graph);
+        assertTrue(g.getUpwardAdjacency().isBuilt());
+        assertAdjacency(g.getUpwardAdjacency(), 0);
+        assertAdjacency(g.getUpwardAdjacency(), 1, 0);
+        assertAdjacency(g.getUpwardAdjacency(), 2);
+        assertAdjacency(g.getDownwardAdjacency(), 1, 0);
+        assertAdjacency(g.getDownwardAdjacency(), 2, 1);
+    }
+
+    @Test
+    public void testAdjacencyStoresTimeOfShortcuts() {
+        graph = newGHStorage(false, false);
+        CHGraph g = getGraph(graph);
+        EdgeIteratorState edge01 = g.edge(0, 1, 100, true);
+        EdgeIteratorState edge12 = g.edge(1, 2, 200, true);
+        graph.freeze();
+        g.setLevel(1, 0);
+        g.setLevel(0, 1);
+        g.setLevel(2, 2);
+        g.shortcut(0, 2, PrepareEncoder.getScDirMask(), 10, 300, edge01.getEdge(), edge12.getEdge());
+        g.prepareAdjacencyLists();
+
+        Weighting weighting = new FastestWeighting(carEncoder);
+        long expectedTime = weighting.calcMillis(g.getEdgeIteratorState(edge01.getEdge(), 1), false, EdgeIterator.NO_EDGE)
+                + weighting.calcMillis(g.getEdgeIteratorState(edge12.getEdge(), 2), false, EdgeIterator.NO_EDGE);
+        assertTrue(expectedTime > 0);
+
+        CHAdjacency upward = g.getUpwardAdjacency();
+        assertAdjacency(upward, 0, 2);
+        assertEquals(expectedTime, upward.getTime(upward.getEntryStart(0)));
+        CHAdjacency downward = g.getDownwardAdjacency();
+        assertAdjacency(downward, 1, 0, 2);
+        assertEquals(weighting.calcMillis(g.getEdgeIteratorState(edge01.getEdge(), 1), false, EdgeIterator.NO_EDGE),
+                downward.getTime(downward.getEntryStart(1)));
+    }
+
+    @Test
+    public void testAdjacencyMarksTimeOfEdgesWithoutSpeed() {
+        graph = createStorageWithWeightings(false, new ShortestWeighting(carEncoder)).create(defaultSize);
+        CHGraph g = getGraph(graph);
+        EdgeIteratorState edge01 = g.edge(0, 1, 100, true);
+        EdgeIteratorState edge12 = g.edge(1, 2, 200, true);
+        // still accessible, so the shortest weighting routes over it, see #242
+        edge01.set(carAvSpeedEnc, 0);
+        graph.freeze();
+        g.setLevel(1, 0);
+        g.setLevel(0, 1);
+        g.setLevel(2, 2);
+        g.shortcut(0, 2, PrepareEncoder.getScDirMask(), 10, 300, edge01.getEdge(), edge12.getEdge());
+        g.prepareAdjacencyLists();
+
+        CHAdjacency upward = g.getUpwardAdjacency();
+        assertAdjacency(upward, 0, 2);
+        assertEquals(CHAdjacency.UNKNOWN_TIME, upward.getTime(upward.getEntryStart(0)));
+        CHAdjacency downward = g.getDownwardAdjacency();
+        assertAdjacency(downward, 1, 0, 2);
+        assertEquals(CHAdjacency.UNKNOWN_TIME, downward.getTime(downward.getEntryStart(1)));
+        assertTrue(downward.getTime(downward.getEntryStart(1) + 1) > 0);
+    }
+
+    private static void assertAdjacency(CHAdjacency adjacency, int node, int... expectedNodes) {
+        final int start = adjacency.getEntryStart(node);
+        assertEquals(expectedNodes.length, adjacency.getEntryEnd(node) - start);
+        for (int i = 0; i < expectedNodes.length; i++) {
+            assertEquals(expectedNodes[i], adjacency.getNode(start + i));
+        }
+    }
+
     private GraphHopperStorage createStorageWithWeightings(boolean edgeBased, Weighting... weightings) {
         List<Weighting> nodeBasedCHWeightings = edgeBased ? Collections.<Weighting>emptyList() : Arrays.asList(weightings);
         List<Weighting> edgeBasedCHWeightings = edgeBased ? Arrays.asList(weightings) : Collections.<Weighting>emptyList();
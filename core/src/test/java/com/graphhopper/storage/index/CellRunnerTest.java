@@ -11,7 +11,6 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.util.List;
-import java.util.Map;
 
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
@@ -501,15 +500,15 @@ public class CellRunnerTest {
     public static class CellRunnerTestInputs {
         private final PolygonRoutingTestGraph graphMocker;
         public final Graph graph;
-        public final VisitedManagerDual visitedManagerDual;
+        public final ConcurrentVisitedManagerDual visitedManagerDual;
         public final EdgeIteratorState startingEdge;
-        public final Map<Integer, SortedNeighbors> preSortedNeighborsLeft;
-        public final Map<Integer, SortedNeighbors> preSortedNeighborsRight;
+        public final SortedNeighborArrays preSortedNeighborsLeft;
+        public final SortedNeighborArrays preSortedNeighborsRight;
 
         public CellRunnerTestInputs(final PolygonRoutingTestGraph graphMocker, final int startBaseNode, final int startAdjNode) {
             this.graphMocker = graphMocker;
             this.graph = graphMocker.graph;
-            this.visitedManagerDual = new VisitedManagerDual(graphMocker.graph);
+            this.visitedManagerDual = new ConcurrentVisitedManagerDual(graphMocker.graph);
             this.startingEdge = getEdge(startBaseNode, startAdjNode);
 
             final NeighborPreSorter neighborPreSorter = new NeighborPreSorter(graph);
@@ -2,14 +2,17 @@ package com.graphhopper.storage.index;
 
 import com.graphhopper.routing.template.util.PolygonRoutingTestGraph;
 import com.graphhopper.storage.RAMDirectory;
+import com.graphhopper.util.Helper;
 import com.graphhopper.util.shapes.Polygon;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 
 public class GridIndexTest {
@@ -122,6 +125,27 @@ public class GridIndexTest {
         assertPolygonEqual(completeTestAreaCells.get(9), latitudes, longitudes);
     }
 
+    @Test
+    public void storedCellsAreLoadedAgain() {
+        final String location = "./target/tmp-grid-index";
+        Helper.removeDir(new File(location));
+        final Polygon polygon = new Polygon(new double[]{2, 7, 16, 16, 14, 7, 2}, new double[]{40, 37, 42, 44, 52, 52, 48}, 0);
+
+        final GridIndex storedIndex = new GridIndex(graphMocker.graph, new RAMDirectory(location, true).create());
+        storedIndex.setResolution(300).prepareIndex();
+        storedIndex.flush();
+        final List<VisibilityCell> expectedCells = storedIndex.getIntersectingVisibilityCells(polygon);
+        storedIndex.close();
+
+        final GridIndex loadedIndex = new GridIndex(graphMocker.graph, new RAMDirectory(location, true));
+        loadedIndex.setResolution(300);
+        assertTrue(loadedIndex.loadExisting());
+        assertEquals(expectedCells, loadedIndex.getIntersectingVisibilityCells(polygon));
+        assertEquals(completeTestAreaCells, loadedIndex.getIntersectingVisibilityCells(polygon));
+
+        Helper.removeDir(new File(location));
+    }
+
     public void assertPolygonEqual(VisibilityCell visibilityCell, double[] latitudes, double[] longitudes) {
         final Polygon polygon = new Polygon(latitudes, longitudes, 0);
         assertEquals(polygon, visibilityCell.cellShape);
@@ -28,12 +28,14 @@ import com.graphhopper.storage.RAMDirectory;
 import com.graphhopper.util.*;
 import com.graphhopper.util.shapes.BBox;
 import com.graphhopper.util.shapes.GHPoint;
+import com.graphhopper.util.shapes.Polygon;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -120,6 +122,65 @@ public class LocationIndexTreeTest extends AbstractLocationIndexTester {
         assertFalse(set.containsAll(Arrays.asList(17, 18, 25, 30)));
     }
 
+    @Test
+    public void testQueryPolygonEqualsFilteredBBoxQuery() {
+        Graph graph = createGHStorage(new RAMDirectory(), encodingManager, false);
+        NodeAccess na = graph.getNodeAccess();
+        Random random = new Random(42);
+        int size = 60;
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                na.setNode(row * size + column, 49.9 + 0.002 * (row + random.nextDouble()), 11.5 + 0.002 * (column + random.nextDouble()));
+            }
+        }
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int node = row * size + column;
+                if (column + 1 < size)
+                    graph.edge(node, node + 1, 1, true);
+                if (row + 1 < size)
+                    graph.edge(node, node + size, 1, true);
+            }
+        }
+        LocationIndexTree index = createIndex(graph, 50);
+
+        // a U and a thin diagonal stripe
+        Polygon u = new Polygon(new double[]{50.0, 50.0, 49.95, 49.95, 50.0, 50.0, 49.91, 49.91},
+                new double[]{11.52, 11.56, 11.56, 11.58, 11.58, 11.62, 11.62, 11.52});
+        Polygon stripe = new Polygon(new double[]{49.9, 49.901, 50.02, 50.019}, new double[]{11.5, 11.5, 11.62, 11.62});
+        for (Polygon polygon : Arrays.asList(u, stripe)) {
+            final GHIntHashSet expected = new GHIntHashSet();
+            index.query(polygon.getMinimalBoundingBox(), new NodesInPolygonVisitor(polygon, na, expected));
+            final GHIntHashSet actual = new GHIntHashSet();
+            index.query(polygon, new LocationIndex.Visitor() {
+                @Override
+                public void onNode(int nodeId) {
+                    assertTrue(actual.add(nodeId));
+                }
+            });
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, actual);
+        }
+    }
+
+    private static class NodesInPolygonVisitor extends LocationIndex.Visitor {
+        private final Polygon polygon;
+        private final NodeAccess na;
+        private final GHIntHashSet nodes;
+
+        NodesInPolygonVisitor(Polygon polygon, NodeAccess na, GHIntHashSet nodes) {
+            this.polygon = polygon;
+            this.na = na;
+            this.nodes = nodes;
+        }
+
+        @Override
+        public void onNode(int nodeId) {
+            if (polygon.contains(na.getLatitude(nodeId), na.getLongitude(nodeId)))
+                nodes.add(nodeId);
+        }
+    }
+
     @Test
     public void testInMemIndex() {
         Graph graph = createTestGraph(encodingManager);
@@ -4,27 +4,62 @@ import com.graphhopper.routing.template.util.PolygonRoutingTestGraph;
 import com.graphhopper.util.EdgeIteratorState;
 import org.junit.Test;
 
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
 
 public class NeighborPreSorterTest {
     @Test
     public void allNodesExist() {
-        final Map<Integer, SortedNeighbors> presortedNeighbors = createPresortedNeighbors();
+        final SortedNeighborArrays presortedNeighbors = createPresortedNeighbors();
 
-        assertEquals(73, presortedNeighbors.size());
+        int nodesWithNeighbors = 0;
+        for (int node = 0; node < PolygonRoutingTestGraph.DEFAULT_INSTANCE.graph.getNodes(); node++) {
+            nodesWithNeighbors += presortedNeighbors.size(node) == 0 ? 0 : 1;
+        }
+        assertEquals(73, nodesWithNeighbors);
     }
 
     @Test
     public void correctOrderingExample() {
-        final SortedNeighbors node7Neighbors = createPresortedNeighbors().get(7);
+        final SortedNeighborArrays presortedNeighbors = createPresortedNeighbors();
 
         EdgeIteratorState lastEdge = PolygonRoutingTestGraph.DEFAULT_INSTANCE.getEdge(0, 7);
-        assertEquals(19, node7Neighbors.getMostOrientedEdge(lastEdge).getAdjNode());
+        assertEquals(19, presortedNeighbors.getMostOrientedEdge(7, lastEdge).getAdjNode());
     }
 
-    private Map<Integer, SortedNeighbors> createPresortedNeighbors() {
+    @Test
+    public void sameOrderingOnSeveralThreads() {
+        final PolygonRoutingTestGraph graphMocker = PolygonRoutingTestGraph.DEFAULT_INSTANCE;
+        final NeighborPreSorter singleThreaded = new NeighborPreSorter(graphMocker.graph);
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            final NeighborPreSorter multiThreaded = new NeighborPreSorter(graphMocker.graph, executorService, 4);
+
+            assertEquals(singleThreaded.getAllSortedNeighborsLeft().toString(), multiThreaded.getAllSortedNeighborsLeft().toString());
+            assertEquals(singleThreaded.getAllSortedNeighborsRight().toString(), multiThreaded.getAllSortedNeighborsRight().toString());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void sameOrderingAsSortingEachNode() {
+        final PolygonRoutingTestGraph graphMocker = PolygonRoutingTestGraph.DEFAULT_INSTANCE;
+        final SortedNeighborArrays presortedNeighbors = createPresortedNeighbors();
+
+        for (int node = 0; node < graphMocker.graph.getNodes(); node++) {
+            final SortedNeighbors sortedNeighbors = new SortedNeighbors(graphMocker.graph, node, SortedNeighbors.DO_NOT_IGNORE_NODE,
+                                                                        new VectorAngleCalculatorLeft(graphMocker.nodeAccess));
+            assertEquals(sortedNeighbors.size(), presortedNeighbors.size(node));
+            for (int i = 0; i < sortedNeighbors.size(); i++) {
+                assertEquals(sortedNeighbors.get(i).toString(), presortedNeighbors.get(node, i).toString());
+            }
+        }
+    }
+
+    private SortedNeighborArrays createPresortedNeighbors() {
         final PolygonRoutingTestGraph graphMocker = PolygonRoutingTestGraph.DEFAULT_INSTANCE;
 
         return new NeighborPreSorter(graphMocker.graph).getAllSortedNeighborsLeft();
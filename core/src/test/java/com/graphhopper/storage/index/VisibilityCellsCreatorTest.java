@@ -0,0 +1,108 @@
+package com.graphhopper.storage.index;
+
+import com.graphhopper.routing.template.util.PolygonRoutingTestGraph;
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.storage.NodeAccess;
+import com.graphhopper.util.EdgeIterator;
+import com.graphhopper.util.EdgeIteratorState;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class VisibilityCellsCreatorTest {
+    @Test
+    public void sameCellsAsRunsOnEachEdgeInOrder() {
+        assertSameCellsAsRunsOnEachEdgeInOrder(PolygonRoutingTestGraph.DEFAULT_INSTANCE.graph);
+    }
+
+    @Test
+    public void sameCellsAsRunsOnEachEdgeInOrderOnRandomGraphs() {
+        final Random random = new Random(42);
+        for (int run = 0; run < 5; run++) {
+            assertSameCellsAsRunsOnEachEdgeInOrder(createRandomGridGraph(random, 40));
+        }
+    }
+
+    private static void assertSameCellsAsRunsOnEachEdgeInOrder(final Graph graph) {
+        final List<VisibilityCell> expectedCells = runOnEachEdgeInOrder(graph);
+
+        assertEquals(expectedCells, new VisibilityCellsCreator(graph, graph.getNodeAccess()).create());
+        assertEquals(expectedCells, new VisibilityCellsCreator(graph, graph.getNodeAccess(), 4).create());
+    }
+
+    private static List<VisibilityCell> runOnEachEdgeInOrder(final Graph graph) {
+        final ConcurrentVisitedManagerDual visitedManager = new ConcurrentVisitedManagerDual(graph);
+        final NeighborPreSorter neighborPreSorter = new NeighborPreSorter(graph);
+        final List<VisibilityCell> cells = new ArrayList<>();
+
+        final EdgeIterator allEdges = graph.getAllEdges();
+        while (allEdges.next()) {
+            final EdgeIteratorState edge = VisitedManager.forceNodeIdsAscending(allEdges.detach(false));
+            if (hasEqualCoordinates(graph.getNodeAccess(), edge)) {
+                continue;
+            }
+            if (!visitedManager.isEdgeSettledLeft(edge)) {
+                cells.add(new CellRunnerLeft(graph, visitedManager, edge, neighborPreSorter.getAllSortedNeighborsLeft()).extractVisibilityCell());
+            }
+            if (!visitedManager.isEdgeSettledRight(edge)) {
+                cells.add(new CellRunnerRight(graph, visitedManager, edge, neighborPreSorter.getAllSortedNeighborsRight()).extractVisibilityCell());
+            }
+        }
+        return cells;
+    }
+
+    private static boolean hasEqualCoordinates(final NodeAccess nodeAccess, final EdgeIteratorState edge) {
+        return nodeAccess.getLatitude(edge.getBaseNode()) == nodeAccess.getLatitude(edge.getAdjNode()) &&
+               nodeAccess.getLongitude(edge.getBaseNode()) == nodeAccess.getLongitude(edge.getAdjNode());
+    }
+
+    /**
+     * A grid with randomly missing edges, crossing diagonals and duplicated edges, whose ids are shuffled so that the
+     * runs do not start in a spatial order.
+     */
+    private static Graph createRandomGridGraph(final Random random, final int size) {
+        final Graph graph = new GraphBuilder(EncodingManager.create(new CarFlagEncoder())).create();
+        final NodeAccess nodeAccess = graph.getNodeAccess();
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                nodeAccess.setNode(row * size + column, row + 0.3 * random.nextDouble(), column + 0.3 * random.nextDouble());
+            }
+        }
+
+        final List<int[]> edges = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                final int node = row * size + column;
+                if (column + 1 < size && random.nextDouble() < 0.8) {
+                    edges.add(new int[]{node, node + 1});
+                }
+                if (row + 1 < size && random.nextDouble() < 0.8) {
+                    edges.add(new int[]{node + size, node});
+                }
+                if (column + 1 < size && row + 1 < size && random.nextDouble() < 0.2) {
+                    edges.add(new int[]{node, node + size + 1});
+                }
+                if (column + 1 < size && row + 1 < size && random.nextDouble() < 0.2) {
+                    edges.add(new int[]{node + 1, node + size});
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            edges.add(edges.get(random.nextInt(edges.size())));
+        }
+
+        Collections.shuffle(edges, random);
+        for (int[] edge : edges) {
+            graph.edge(edge[0], edge[1], 1, true);
+        }
+        return graph;
+    }
+}
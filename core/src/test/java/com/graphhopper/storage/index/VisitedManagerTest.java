@@ -0,0 +1,63 @@
+package com.graphhopper.storage.index;
+
+import com.graphhopper.routing.util.CarFlagEncoder;
+import com.graphhopper.routing.util.EncodingManager;
+import com.graphhopper.storage.Graph;
+import com.graphhopper.storage.GraphBuilder;
+import com.graphhopper.util.EdgeIteratorState;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VisitedManagerTest {
+    private final Graph graph = new GraphBuilder(EncodingManager.create(new CarFlagEncoder())).create();
+
+    @Test
+    public void directionsAreSettledSeparately() {
+        final EdgeIteratorState edge = graph.edge(0, 1, 1, true);
+        final VisitedManager visitedManager = new VisitedManager(graph);
+
+        visitedManager.settleEdge(edge);
+
+        assertTrue(visitedManager.isEdgeSettled(edge));
+        assertFalse(visitedManager.isEdgeSettled(edge.detach(true)));
+
+        visitedManager.settleEdge(edge.detach(true));
+
+        assertTrue(visitedManager.isEdgeSettled(edge.detach(true)));
+    }
+
+    @Test
+    public void parallelEdgesAreSettledSeparately() {
+        final EdgeIteratorState edge = graph.edge(0, 1, 1, true);
+        final EdgeIteratorState parallelEdge = graph.edge(0, 1, 2, true);
+        final VisitedManager visitedManager = new VisitedManager(graph);
+
+        visitedManager.settleEdge(parallelEdge);
+
+        assertFalse(visitedManager.isEdgeSettled(edge));
+        assertTrue(visitedManager.isEdgeSettled(parallelEdge));
+    }
+
+    @Test
+    public void loopIsSettledInBothDirections() {
+        final EdgeIteratorState loop = graph.edge(2, 2, 1, true);
+        final VisitedManager visitedManager = new VisitedManager(graph);
+
+        visitedManager.settleEdge(loop);
+
+        assertTrue(visitedManager.isEdgeSettled(loop.detach(true)));
+    }
+
+    @Test
+    public void edgesAddedAfterCreationCanBeSettled() {
+        final VisitedManager visitedManager = new VisitedManager(graph);
+        final EdgeIteratorState edge = graph.edge(0, 1, 1, true);
+
+        visitedManager.settleEdge(edge.detach(true));
+
+        assertTrue(visitedManager.isEdgeSettled(edge.detach(true)));
+        assertFalse(visitedManager.isEdgeSettled(edge));
+    }
+}
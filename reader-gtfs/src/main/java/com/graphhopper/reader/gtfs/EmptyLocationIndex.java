@@ -22,6 +22,7 @@ import com.graphhopper.routing.util.EdgeFilter;
 import com.graphhopper.storage.index.LocationIndex;
 import com.graphhopper.storage.index.QueryResult;
 import com.graphhopper.util.shapes.BBox;
+import com.graphhopper.util.shapes.Polygon;
 
 class EmptyLocationIndex implements LocationIndex {
     @Override
@@ -43,6 +44,10 @@ class EmptyLocationIndex implements LocationIndex {
     public void query(BBox queryBBox, Visitor function) {
     }
 
+    @Override
+    public void query(Polygon queryPolygon, Visitor function) {
+    }
+
     @Override
     public LocationIndex setApproximation(boolean approxDist) {
         return this;
@@ -0,0 +1,75 @@
+package com.graphhopper.tools;
+
+import com.graphhopper.util.CmdArgs;
+import com.graphhopper.util.MiniPerfTest;
+import com.graphhopper.util.shapes.Polygon;
+import com.graphhopper.util.shapes.intersection.RedBlueSegmentIntersectionType;
+import org.locationtech.jts.geom.LineSegment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the red blue segment intersection algorithms on large random visibility cells against a region of interest.
+ * Half of the cells lie next to the region, which is the worst case for the search of any intersection, the other half
+ * cross it.
+ */
+public class SegmentIntersectionMeasurement {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SegmentIntersectionMeasurement.class);
+
+    public static void main(String[] args) {
+        // example args: vertices=5000 cells=20 iterations=50 seed=123
+        final CmdArgs cmdArgs = CmdArgs.read(args);
+        final int vertices = cmdArgs.getInt("vertices", 5000);
+        final int cellCount = cmdArgs.getInt("cells", 20);
+        final int iterations = cmdArgs.getInt("iterations", 50);
+        final Random random = new Random(cmdArgs.getLong("seed", 123));
+
+        final List<LineSegment> regionOfInterest = createStar(random, vertices, 0, 0, 10).getLineSegmentRepresentation();
+        final List<List<LineSegment>> cells = new ArrayList<>(cellCount);
+        for (int i = 0; i < cellCount; i++) {
+            final double centerLon = i % 2 == 0 ? 25 : 12;
+            cells.add(createStar(random, vertices, random.nextDouble() * 10, centerLon, 5).getLineSegmentRepresentation());
+        }
+
+        for (final RedBlueSegmentIntersectionType type : new RedBlueSegmentIntersectionType[]{
+                RedBlueSegmentIntersectionType.CROSS_PRODUCT, RedBlueSegmentIntersectionType.SWEEP_LINE}) {
+            final String name = type.name().toLowerCase();
+            print(name + ".intersection_present", new MiniPerfTest() {
+                @Override
+                public int doCalc(boolean warmup, int run) {
+                    final List<LineSegment> cell = cells.get(run % cells.size());
+                    return type.create(regionOfInterest, cell).isIntersectionPresent() ? 1 : 0;
+                }
+            }.setIterations(iterations).start());
+            print(name + ".intersection_count", new MiniPerfTest() {
+                @Override
+                public int doCalc(boolean warmup, int run) {
+                    final List<LineSegment> cell = cells.get(run % cells.size());
+                    return type.create(regionOfInterest, cell).getIntersectionCount();
+                }
+            }.setIterations(iterations).start());
+        }
+    }
+
+    private static Polygon createStar(final Random random, final int vertices, final double centerLat, final double centerLon,
+                                      final double maxRadius) {
+        final double[] lats = new double[vertices];
+        final double[] lons = new double[vertices];
+        for (int i = 0; i < vertices; i++) {
+            final double angle = 2 * Math.PI * i / vertices;
+            final double radius = maxRadius * (0.5 + 0.5 * random.nextDouble());
+            lats[i] = centerLat + radius * Math.sin(angle);
+            lons[i] = centerLon + radius * Math.cos(angle);
+        }
+        return new Polygon(lats, lons);
+    }
+
+    private static void print(final String prefix, final MiniPerfTest perf) {
+        LOGGER.info(prefix + ": sum: " + perf.nf(perf.getSum()) + "ms, time/call: " + perf.nf(perf.getMean()) + "ms, min: "
+                    + perf.nf(perf.getMin()) + "ms, max: " + perf.nf(perf.getMax()) + "ms");
+    }
+}
@@ -32,6 +32,7 @@ import com.graphhopper.GraphHopper;
 import com.graphhopper.GraphHopperAPI;
 import com.graphhopper.http.health.GraphHopperHealthCheck;
 import com.graphhopper.http.health.GraphHopperStorageHealthCheck;
+import com.graphhopper.http.metrics.PolygonRoutingMetricsRecorder;
 import com.graphhopper.isochrone.algorithm.DelaunayTriangulationIsolineBuilder;
 import com.graphhopper.jackson.GraphHopperModule;
 import com.graphhopper.reader.gtfs.GraphHopperGtfs;
@@ -260,6 +261,7 @@ public class GraphHopperBundle implements ConfiguredBundle<GraphHopperBundleConf
 
     private void runRegularGraphHopper(CmdArgs configuration, Environment environment) {
         final GraphHopperManaged graphHopperManaged = new GraphHopperManaged(configuration, environment.getObjectMapper());
+        graphHopperManaged.getGraphHopper().setPolygonRoutingMetrics(new PolygonRoutingMetricsRecorder(environment.metrics()));
         environment.lifecycle().manage(graphHopperManaged);
         environment.jersey().register(new AbstractBinder() {
             @Override
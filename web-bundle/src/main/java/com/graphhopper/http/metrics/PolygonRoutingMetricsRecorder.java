@@ -0,0 +1,63 @@
+/*
+ *  Licensed to GraphHopper GmbH under one or more contributor
+ *  license agreements. See the NOTICE file distributed with this work for
+ *  additional information regarding copyright ownership.
+ *
+ *  GraphHopper GmbH licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except in
+ *  compliance with the License. You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package com.graphhopper.http.metrics;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.graphhopper.routing.template.polygonRoutingUtil.PolygonRoutingMetrics;
+import com.graphhopper.routing.template.polygonRoutingUtil.PolygonRoutingTrace;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds the stages of polygon requests into one timer each and the sizes of their node sets into histograms, e.g.
+ * polygon-routing.lotNodes for the latency of the LOT node extraction and polygon-routing.lotNodes.size for the number
+ * of LOT nodes.
+ */
+public class PolygonRoutingMetricsRecorder implements PolygonRoutingMetrics {
+
+    private static final String PREFIX = "polygon-routing";
+
+    private final Map<PolygonRoutingTrace.Stage, Timer> stageTimers = new EnumMap<>(PolygonRoutingTrace.Stage.class);
+    private final Map<PolygonRoutingTrace.Size, Histogram> sizeHistograms = new EnumMap<>(PolygonRoutingTrace.Size.class);
+
+    public PolygonRoutingMetricsRecorder(MetricRegistry registry) {
+        for (PolygonRoutingTrace.Stage stage : PolygonRoutingTrace.Stage.values()) {
+            stageTimers.put(stage, registry.timer(MetricRegistry.name(PREFIX, stage.getName())));
+        }
+        for (PolygonRoutingTrace.Size size : PolygonRoutingTrace.Size.values()) {
+            sizeHistograms.put(size, registry.histogram(MetricRegistry.name(PREFIX, size.getName(), "size")));
+        }
+    }
+
+    @Override
+    public void record(PolygonRoutingTrace trace) {
+        for (Map.Entry<PolygonRoutingTrace.Stage, Timer> entry : stageTimers.entrySet()) {
+            if (trace.isFinished(entry.getKey())) {
+                entry.getValue().update(trace.getNanos(entry.getKey()), TimeUnit.NANOSECONDS);
+            }
+        }
+        for (Map.Entry<PolygonRoutingTrace.Size, Histogram> entry : sizeHistograms.entrySet()) {
+            entry.getValue().update(trace.getSize(entry.getKey()));
+        }
+    }
+}